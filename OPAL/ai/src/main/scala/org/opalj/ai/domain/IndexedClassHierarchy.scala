@@ -0,0 +1,58 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package ai
+package domain
+
+import org.opalj.util.Answer
+import org.opalj.br.ReferenceType
+
+/**
+ * Implementation of a Domain's `isSubtypeOf(...)` method that uses the class
+ * hierarchy's [[org.opalj.br.analyses.SubtypeIndex]] to answer subtype tests in
+ * constant time.
+ *
+ * Mix in this trait if a domain performs many subtype tests (e.g., the domains
+ * used for computing call graphs). The answers are equal to those of the class
+ * hierarchy's `isSubtypeOf` method, except for incomplete class hierarchies where
+ * the index may answer `Unknown` instead of `No`.
+ *
+ * @author Michael Eichberg
+ */
+trait IndexedClassHierarchy extends ClassHierarchy {
+
+    /**
+     * @see [[Domain.isSubtypeOf]]
+     *
+     * @see Delegates to [[org.opalj.br.analyses.SubtypeIndex]]'s `isSubtypeOf` method.
+     */
+    override def isSubtypeOf(subtype: ReferenceType, supertype: ReferenceType): Answer =
+        classHierarchy.subtypeIndex.isSubtypeOf(subtype, supertype)
+
+}
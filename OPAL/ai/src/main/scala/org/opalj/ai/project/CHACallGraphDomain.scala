@@ -34,6 +34,7 @@ import scala.collection.Set
 import scala.collection.Map
 
 import br._
+import br.analyses.VirtualDispatchTablesKey
 
 import domain._
 
@@ -45,8 +46,10 @@ import domain._
  * Virtual calls on Arrays (clone(), toString(),...) are replaced by calls to the
  * respective methods of `java.lang.Object`.
  *
- * Signature polymorphic methods are correctly resolved (done by the method
- * `lookupImplementingMethod` defined in `ClassHierarchy`.)
+ * The potential targets of virtual calls are determined using the project's
+ * [[org.opalj.br.analyses.VirtualDispatchTables]]. Signature polymorphic methods are
+ * correctly resolved (done by the method `lookupMethodDefinition` defined in
+ * `ClassHierarchy`.)
  *
  * ==Thread Safety==
  * '''This domain is not thread-safe'''. However, given the strong coupling of a
@@ -83,6 +86,9 @@ trait CHACallGraphDomain extends CallGraphDomain {
 
     def allUnresolvableMethodCalls: List[UnresolvedMethodCall] = unresolvableMethodCalls
 
+    // the project's dispatch tables are computed once (per project) on demand
+    private[this] lazy val dispatchTables = project.get(VirtualDispatchTablesKey)
+
     private[this] val callEdgesMap = OpenHashMap.empty[PC, Set[Method]]
 
     @inline final private[this] def addCallEdge(
@@ -163,9 +169,7 @@ trait CHACallGraphDomain extends CallGraphDomain {
         if (classHierarchy.isKnown(declaringClassType)) {
             val methodSignature = new MethodSignature(name, descriptor)
             cache.getOrElseUpdate(declaringClassType, methodSignature) {
-                classHierarchy.lookupImplementingMethods(
-                    declaringClassType, name, descriptor, project
-                )
+                dispatchTables.implementingMethods(declaringClassType, name, descriptor)
             }
         } else {
             Set.empty
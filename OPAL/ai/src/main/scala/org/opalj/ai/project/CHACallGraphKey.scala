@@ -48,11 +48,13 @@ import org.opalj.br.analyses._
 object CHACallGraphKey extends ProjectInformationKey[ComputedCallGraph] {
 
     /**
-     * The CHACallGraph has no special prerequisites.
+     * The CHACallGraph resolves the targets of virtual calls using the project's
+     * [[org.opalj.br.analyses.VirtualDispatchTables]].
      *
-     * @return `Nil`.
+     * @return `List(VirtualDispatchTablesKey)`.
      */
-    override protected def requirements: Seq[ProjectInformationKey[Nothing]] = Nil
+    override protected def requirements: Seq[ProjectInformationKey[_ <: AnyRef]] =
+        List(VirtualDispatchTablesKey)
 
     /**
      * Computes the `CallGraph` for the given project.
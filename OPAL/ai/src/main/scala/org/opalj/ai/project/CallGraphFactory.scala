@@ -32,6 +32,7 @@ package project
 
 import org.opalj.br._
 import org.opalj.br.analyses.SomeProject
+import org.opalj.br.analyses.VirtualDispatchTablesKey
 
 case class ComputedCallGraph(
     callGraph: CallGraph,
@@ -88,6 +89,9 @@ object CallGraphFactory {
         import java.util.concurrent.Executors
         import java.util.concurrent.ExecutorCompletionService
 
+        // the dispatch tables are computed before the methods are analyzed in parallel
+        theProject.get(VirtualDispatchTablesKey)
+
         val cache = configuration.Cache()
 
         /* START - EXECUTED CONCURRENTLY */
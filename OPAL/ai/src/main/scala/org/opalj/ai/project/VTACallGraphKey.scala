@@ -51,11 +51,13 @@ import br.analyses._
 object VTACallGraphKey extends ProjectInformationKey[ComputedCallGraph] {
 
     /**
-     * The VTACallGraph has no special requirements.
+     * The VTACallGraph resolves the targets of virtual calls using the project's
+     * [[org.opalj.br.analyses.VirtualDispatchTables]].
      *
-     * @return `Nil`.
+     * @return `List(VirtualDispatchTablesKey)`.
      */
-    override protected def requirements: Seq[ProjectInformationKey[Nothing]] = Nil
+    override protected def requirements: Seq[ProjectInformationKey[_ <: AnyRef]] =
+        List(VirtualDispatchTablesKey)
 
     /**
      * Computes the `CallGraph` for the given project.
@@ -33,6 +33,7 @@ import scala.collection.{ Set }
 
 import br._
 import br.analyses.SomeProject
+import br.analyses.PackageTreeKey
 
 /**
  * Matches all classes, fields and methods that are declared in the specified package.
@@ -55,13 +56,12 @@ case class PackageNameBasedMatcher(
     require(packageName.indexOf('.') == -1)
 
     def extension(project: SomeProject): Set[VirtualSourceElement] = {
+        val packageTree = project.get(PackageTreeKey)
         val matchedClassFiles =
-            project.classFiles filter { classFile ⇒
-                val thisClassPackageName = classFile.thisType.packageName
-                thisClassPackageName.startsWith(packageName) && (
-                    matchSubpackages || thisClassPackageName.length() == packageName.length()
-                )
-            }
+            if (matchSubpackages)
+                packageTree.classFilesWithPrefix(packageName)
+            else
+                packageTree.classFiles(packageName)
         matchCompleteClasses(matchedClassFiles)
     }
 
@@ -122,6 +122,15 @@ trait AttributesReader
         attributeReaders += reader
     }
 
+    /**
+     * The profile that determines which attributes are skipped. By default, all
+     * attributes for which a reader is registered are read.
+     *
+     * Override this method to skip whole attribute families (e.g., all annotations)
+     * without the need to define a new reader configuration.
+     */
+    def attributesReadingProfile: AttributesReadingProfile = AttributesReadingProfile.Full
+
     private[this] var attributesPostProcessors: List[(Attributes) ⇒ Attributes] = List()
 
     /**
@@ -150,9 +159,25 @@ trait AttributesReader
         val attribute_name_index = in.readUnsignedShort()
         val attribute_name = cp(attribute_name_index).asString
 
-        attributeReaders.getOrElse(
-            attribute_name,
-            Unknown_attribute _ // this is a factory method
-        )(ap, cp, attribute_name_index, in)
+        if (attributesReadingProfile.isSkipped(attribute_name)) {
+            skipAttribute(in)
+            null
+        } else {
+            attributeReaders.getOrElse(
+                attribute_name,
+                Unknown_attribute _ // this is a factory method
+            )(ap, cp, attribute_name_index, in)
+        }
+    }
+
+    private[this] def skipAttribute(in: DataInputStream): Unit = {
+        val size: Long = in.readInt & 0xFFFFFFFFl
+        var skipped: Long = 0
+        while (skipped < size) {
+            val t: Long = in skip (size - skipped) // skip returns a long value...
+            if (t > 0) skipped = skipped + t
+            else if (in.read() != -1) skipped = skipped + 1
+            else throw new java.io.EOFException("unexpected end of attribute")
+        }
     }
 }
@@ -0,0 +1,110 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package bi
+package reader
+
+/**
+ * Determines which attributes are read by an [[AttributesReader]]. Attributes that
+ * are skipped are skipped using their length; i.e., neither the attribute nor any
+ * of its parts (e.g., annotations or stack map frames) is created.
+ *
+ * @param name The name of the profile.
+ * @param skippedAttributes The names of the attributes that are skipped.
+ *
+ * @author Michael Eichberg
+ */
+case class AttributesReadingProfile(
+        name: String,
+        skippedAttributes: Set[String]) {
+
+    /**
+     * Returns `true` if attributes with the given name are skipped.
+     */
+    def isSkipped(attributeName: String): Boolean = skippedAttributes.contains(attributeName)
+
+    /**
+     * Creates a new profile that – in addition to the attributes skipped by this
+     * profile – skips the given attributes.
+     */
+    def skipping(attributeNames: String*): AttributesReadingProfile =
+        AttributesReadingProfile(name, skippedAttributes ++ attributeNames)
+
+    override def toString: String =
+        name+skippedAttributes.toSeq.sorted.mkString("(skipped: ", ", ", ")")
+}
+
+/**
+ * Predefined attributes reading profiles.
+ *
+ * @author Michael Eichberg
+ */
+object AttributesReadingProfile {
+
+    /**
+     * All attributes that are supported by the reader are read.
+     */
+    final val Full = AttributesReadingProfile("Full", Set.empty)
+
+    /**
+     * All attributes that are required to analyze the types and the method
+     * implementations are read. Debug information, annotations and the stack map
+     * table are skipped.
+     */
+    final val TypesAndCode =
+        AttributesReadingProfile(
+            "TypesAndCode",
+            Set(
+                SourceDebugExtension_attributeReader.ATTRIBUTE_NAME,
+                LineNumberTable_attributeReader.ATTRIBUTE_NAME,
+                LocalVariableTable_attributeReader.ATTRIBUTE_NAME,
+                LocalVariableTypeTable_attributeReader.ATTRIBUTE_NAME,
+                StackMapTable_attributeReader.ATTRIBUTE_NAME,
+                MethodParameters_attributeReader.ATTRIBUTE_NAME,
+                AnnotationDefault_attributeReader.ATTRIBTUE_NAME,
+                RuntimeVisibleAnnotations_attributeReader.ATTRIBUTE_NAME,
+                RuntimeInvisibleAnnotations_attributeReader.ATTRIBUTE_NAME,
+                RuntimeVisibleParameterAnnotations_attributeReader.ATTRIBUTE_NAME,
+                RuntimeInvisibleParameterAnnotations_attributeReader.ATTRIBUTE_NAME,
+                RuntimeVisibleTypeAnnotations_attributeReader.ATTRIBUTE_NAME,
+                RuntimeInvisibleTypeAnnotations_attributeReader.ATTRIBUTE_NAME
+            )
+        )
+
+    /**
+     * Only the attributes that are required to analyze the structure of a project
+     * (classes, fields, methods and their (generic) types) are read. In particular,
+     * method bodies are skipped.
+     */
+    final val StructureOnly =
+        TypesAndCode.copy(name = "StructureOnly").skipping(
+            Code_attributeReader.ATTRIBUTE_NAME,
+            BootstrapMethods_attributeReader.ATTRIBUTE_NAME
+        )
+}
@@ -0,0 +1,80 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package bi
+package reader
+
+import java.io.InputStream
+import java.nio.ByteBuffer
+
+/**
+ * An `InputStream` that reads the remaining bytes of a `ByteBuffer`. Reading
+ * advances the position of the underlying buffer.
+ *
+ * In contrast to, e.g., `java.io.BufferedInputStream` none of the methods is
+ * `synchronized` and no intermediate copies of the data are made. Hence, an instance
+ * must not be shared between threads.
+ *
+ * @author Michael Eichberg
+ */
+final class ByteBufferInputStream(val buffer: ByteBuffer) extends InputStream {
+
+    override def read(): Int = {
+        if (buffer.hasRemaining())
+            buffer.get() & 0xFF
+        else
+            -1
+    }
+
+    override def read(b: Array[Byte], off: Int, len: Int): Int = {
+        if (len == 0)
+            return 0;
+
+        val remaining = buffer.remaining()
+        if (remaining == 0)
+            return -1;
+
+        val count = Math.min(len, remaining)
+        buffer.get(b, off, count)
+        count
+    }
+
+    override def skip(n: Long): Long = {
+        if (n <= 0)
+            return 0l;
+
+        val count = Math.min(n, buffer.remaining().toLong).toInt
+        buffer.position(buffer.position() + count)
+        count.toLong
+    }
+
+    override def available(): Int = buffer.remaining()
+
+    override def markSupported(): Boolean = false
+}
@@ -30,10 +30,14 @@ package org.opalj
 package bi
 package reader
 
-import java.io.{ File, FileInputStream, InputStream, DataInputStream, BufferedInputStream, ByteArrayInputStream }
+import java.io.{ File, InputStream, DataInputStream, BufferedInputStream, ByteArrayInputStream }
 import java.util.zip.{ ZipFile, ZipEntry }
 import java.net.URL
 import java.util.zip.ZipInputStream
+import java.nio.ByteBuffer
+import java.nio.channels.FileChannel
+import java.nio.file.Path
+import java.nio.file.StandardOpenOption
 
 /**
  * Implements the template method to read in a Java class file. Additionally,
@@ -94,6 +98,15 @@ trait ClassFileReader extends Constant_PoolAbstractions {
      */
     protected def Constant_Pool(in: DataInputStream): Constant_Pool
 
+    /**
+     * Reads the constant pool using the given buffer.
+     *
+     * When this method is called the buffer's position has to be the very beginning of
+     * the constant pool. After reading the constant pool the buffer has to be positioned
+     * directly after the constant pool.
+     */
+    protected def Constant_Pool(buffer: ByteBuffer): Constant_Pool
+
     /**
      * Reads all field declarations using the given stream and constant pool.
      *
@@ -175,11 +188,19 @@ trait ClassFileReader extends Constant_PoolAbstractions {
         classFilePostProcessors = p :: classFilePostProcessors
     }
 
+    /**
+     * The configuration of the [[ClassFilesPipeline]] that is used to read the class
+     * files stored in jar files and directories. Override this method to adapt
+     * the number of workers per stage and the size of the queues.
+     */
+    def pipelineConfiguration: ClassFilesPipeline.Configuration =
+        ClassFilesPipeline.defaultConfiguration
+
     /**
      * Template method that reads a Java class file from the given input stream.
      *
-     * All other methods to read a class file use this method to eventually parse a
-     * class file.
+     * All other methods to read a class file use this method or the method
+     * that reads a class file from a `ByteBuffer` to eventually parse a class file.
      *
      * ==Class File Structure==
      * Parses a class file according to the specification:
@@ -212,21 +233,11 @@ trait ClassFileReader extends Constant_PoolAbstractions {
     def ClassFile(in: DataInputStream): Seq[ClassFile] = {
         // magic
         val readMagic = in.readInt
-        require(
-            CLASS_FILE_MAGIC == readMagic,
-            "No Java class file ("+readMagic+"; expected 0xCAFEBABE).")
+        validateMagic(readMagic)
 
         val minor_version = in.readUnsignedShort
         val major_version = in.readUnsignedShort
-
-        // let's make sure that we support this class file's version
-        if (!(
-            major_version >= 45 && // at least JDK 1.1
-            (major_version < 52 /* Java 7 = 51.0 */ ||
-                (major_version == 52 && minor_version == 0 /*Java 8 == 52.0*/ ))))
-            throw new BytecodeProcessingFailedException(
-                "Unsupported class file version: "+major_version+"."+minor_version+
-                    " (Supported: 45(Java 1.1) <= version <= 52(Java 8))")
+        validateVersion(major_version, minor_version)
 
         val cp = Constant_Pool(in)
         val access_flags = in.readUnsignedShort
@@ -242,14 +253,87 @@ trait ClassFileReader extends Constant_PoolAbstractions {
         val methods = Methods(cp, in)
         val attributes = Attributes(AttributesParent.ClassFile, cp, in)
 
-        var classFile = ClassFile(
+        postProcess(
+            cp,
+            ClassFile(
+                cp,
+                minor_version, major_version,
+                access_flags,
+                this_class, super_class, interfaces,
+                fields, methods,
+                attributes
+            )
+        )
+    }
+
+    /**
+     * Template method that reads a Java class file from the given buffer.
+     *
+     * The header and the constant pool are directly read from the buffer; the
+     * remaining structures (fields, methods and attributes) are read using an
+     * unsynchronized stream that directly operates on the buffer. Hence, no data
+     * is copied and no (synchronized) buffering is done. This is the preferred way
+     * to read class files that are completely available in memory or which can be
+     * memory-mapped.
+     *
+     * @param buffer A buffer which is positioned at the beginning of the class file
+     *      (the magic number). After reading the class file, the buffer is positioned
+     *      directly after the class file.
+     */
+    def ClassFile(buffer: ByteBuffer): Seq[ClassFile] = {
+        validateMagic(buffer.getInt())
+
+        val minor_version = buffer.getShort() & 0xFFFF
+        val major_version = buffer.getShort() & 0xFFFF
+        validateVersion(major_version, minor_version)
+
+        val cp = Constant_Pool(buffer)
+        val access_flags = buffer.getShort() & 0xFFFF
+        val this_class = buffer.getShort() & 0xFFFF
+        val super_class = buffer.getShort() & 0xFFFF
+        val interfaces = {
+            val interfaces_count = buffer.getShort() & 0xFFFF
+            repeat(interfaces_count) {
+                buffer.getShort() & 0xFFFF
+            }
+        }
+        val in = new DataInputStream(new ByteBufferInputStream(buffer))
+        val fields = Fields(cp, in)
+        val methods = Methods(cp, in)
+        val attributes = Attributes(AttributesParent.ClassFile, cp, in)
+
+        postProcess(
             cp,
-            minor_version, major_version,
-            access_flags,
-            this_class, super_class, interfaces,
-            fields, methods,
-            attributes
+            ClassFile(
+                cp,
+                minor_version, major_version,
+                access_flags,
+                this_class, super_class, interfaces,
+                fields, methods,
+                attributes
+            )
         )
+    }
+
+    private[this] def validateMagic(readMagic: Int): Unit = {
+        require(
+            CLASS_FILE_MAGIC == readMagic,
+            "No Java class file ("+readMagic+"; expected 0xCAFEBABE).")
+    }
+
+    private[this] def validateVersion(major_version: Int, minor_version: Int): Unit = {
+        // let's make sure that we support this class file's version
+        if (!(
+            major_version >= 45 && // at least JDK 1.1
+            (major_version < 52 /* Java 7 = 51.0 */ ||
+                (major_version == 52 && minor_version == 0 /*Java 8 == 52.0*/ ))))
+            throw new BytecodeProcessingFailedException(
+                "Unsupported class file version: "+major_version+"."+minor_version+
+                    " (Supported: 45(Java 1.1) <= version <= 52(Java 8))")
+    }
+
+    private[this] def postProcess(cp: Constant_Pool, theClassFile: ClassFile): Seq[ClassFile] = {
+        var classFile = theClassFile
 
         // Perform transformations that are specific to this class file.
         // (Used, e.g., to finally resolve the invokedynamic instructions.) 
@@ -289,9 +373,29 @@ trait ClassFileReader extends Constant_PoolAbstractions {
     }
 
     protected[this] def ClassFile(jarFile: ZipFile, jarEntry: ZipEntry): Seq[ClassFile] = {
-        process(
-            new DataInputStream(new BufferedInputStream(jarFile.getInputStream(jarEntry)))
-        ) { in ⇒ ClassFile(in) }
+        val size = jarEntry.getSize()
+        if (size < 0 || size > Int.MaxValue) {
+            // the size of the entry is not known
+            process(
+                new DataInputStream(new BufferedInputStream(jarFile.getInputStream(jarEntry)))
+            ) { in ⇒ ClassFile(in) }
+        } else {
+            val data = new Array[Byte](size.toInt)
+            process(new DataInputStream(jarFile.getInputStream(jarEntry))) { in ⇒
+                in.readFully(data)
+            }
+            ClassFile(ByteBuffer.wrap(data))
+        }
+    }
+
+    /**
+     * Reads in a single class file. The file is only memory-mapped if it is large
+     * (see [[ClassFileReader.read]]).
+     *
+     * @param classFile A file that contains a single class file.
+     */
+    def ClassFile(classFile: File): Seq[ClassFile] = {
+        ClassFile(ClassFileReader.read(classFile.toPath()))
     }
 
     /**
@@ -379,60 +483,12 @@ trait ClassFileReader extends Constant_PoolAbstractions {
         classFileHandler: (ClassFile, URL) ⇒ Unit,
         exceptionHandler: (Exception) ⇒ Unit) {
 
-        import scala.collection.JavaConversions._
-        for { jarEntry ← jarFile.entries.toIterable.par } {
-            if (!jarEntry.isDirectory && jarEntry.getSize() > 0) {
-                val jarEntryName = jarEntry.getName
-                if (jarEntryName.endsWith(".class")) {
-                    try {
-                        val url = new URL(jarFileURL + jarEntry.getName())
-                        val classFiles = ClassFile(jarFile, jarEntry)
-                        classFiles foreach (classFile ⇒ classFileHandler(classFile, url))
-                    } catch {
-                        case e: Exception ⇒
-                            exceptionHandler(new java.io.IOException("cannot process: "+jarEntryName, e))
-                    }
-                } else if (jarEntryName.endsWith(".jar")) {
-                    try {
-                        val nextJarFileURL = jarFileURL+"jar:"+jarEntry.getName()+"!/"
-                        val jarData = new Array[Byte](jarEntry.getSize().toInt)
-                        val din = new DataInputStream(jarFile.getInputStream(jarEntry))
-                        din.readFully(jarData)
-                        din.close()
-                        ClassFiles(nextJarFileURL, jarData, classFileHandler, exceptionHandler)
-                    } catch {
-                        case e: Exception ⇒ exceptionHandler(e)
-                    }
-                }
-            }
-        }
-    }
-
-    /**
-     * Loads class files from an in-memory representation of a jar file given in form
-     * of a byte array.
-     * This is done by writing the jar file data to a temporary file and then loading
-     * the class files from it as done with any other jar file.
-     */
-    private def ClassFiles(
-        jarFileURL: String,
-        jarData: Array[Byte],
-        classFileHandler: (ClassFile, URL) ⇒ Unit,
-        exceptionHandler: (Exception) ⇒ Unit): Unit = {
-        val pathToEntry = jarFileURL.substring(0, jarFileURL.length - 3)
-        val entry = pathToEntry.substring(pathToEntry.lastIndexOf('/') + 1)
-        try {
-            val jarFile = File.createTempFile(entry, ".zip")
-
-            process { new java.io.FileOutputStream(jarFile) } { fout ⇒
-                fout.write(jarData)
-            }
-            ClassFiles(jarFileURL, new ZipFile(jarFile), classFileHandler, exceptionHandler)
-
-            jarFile.delete()
-        } catch {
-            case e: Exception ⇒ exceptionHandler(e)
-        }
+        val pipeline = new ClassFilesPipeline[ClassFile](
+            pipelineConfiguration,
+            (buffer: ByteBuffer) ⇒ ClassFile(buffer),
+            classFileHandler,
+            exceptionHandler)
+        pipeline.run(Nil, Some((jarFileURL, jarFile)))
     }
 
     /**
@@ -448,55 +504,71 @@ trait ClassFileReader extends Constant_PoolAbstractions {
     def ClassFiles(
         file: File,
         exceptionHandler: (Exception) ⇒ Unit = ClassFileReader.defaultExceptionHandler): Seq[(ClassFile, URL)] = {
-        if (!file.exists()) {
-            Nil
-        } else if (file.isFile()) {
-            val filename = file.getName
+        if (file.isFile() && file.getName.endsWith(".class")) {
             if (file.length() == 0) {
                 Nil
-            } else if (filename.endsWith(".jar")) {
-                try {
-                    process(new ZipFile(file)) { zf ⇒
-                        ClassFiles(zf, exceptionHandler)
-                    }
-                } catch {
-                    case e: Exception ⇒
-                        exceptionHandler(new java.io.IOException("cannot process: "+file, e))
-                        Nil
-                }
-            } else if (filename.endsWith(".class")) {
+            } else {
                 try {
-                    process(new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) { in ⇒
-                        ClassFile(in).map(classFile ⇒ (classFile, file.toURI().toURL()))
-                    }
+                    ClassFile(file).map(classFile ⇒ (classFile, file.toURI().toURL()))
                 } catch {
                     case e: Exception ⇒
-                        exceptionHandler(new java.lang.Exception("cannot process "+filename, e))
+                        exceptionHandler(new java.lang.Exception("cannot process "+file.getName, e))
                         Nil
                 }
-            } else {
-                Nil
-            }
-        } else /* if(file.isDirectory()) */ {
-            val files = file.listFiles()
-            if (files != null) {
-                (
-                    for (innerFile ← files.par)
-                        yield ClassFiles(innerFile, exceptionHandler)
-                ).flatten.seq
-            } else {
-                Nil
             }
+        } else {
+            AllClassFiles(List(file), exceptionHandler)
         }
     }
 
+    /**
+     * Loads all class files found in the given files and directories (see
+     * `ClassFiles(File,(Exception) ⇒ Unit)` for details). All class files are
+     * loaded using a single [[ClassFilesPipeline]].
+     */
     def AllClassFiles(
         files: Traversable[File],
         exceptionHandler: (Exception) ⇒ Unit = ClassFileReader.defaultExceptionHandler): Seq[(ClassFile, URL)] = {
+        val mutex = new Object
+        var classFiles: List[(ClassFile, URL)] = Nil
+
+        def addClassFile(cf: ClassFile, url: URL) = {
+            mutex.synchronized {
+                classFiles = (cf, url) :: classFiles
+            }
+        }
+
+        AllClassFiles(files, addClassFile, exceptionHandler, pipelineConfiguration)
+        classFiles
+    }
 
-        files.map(ClassFiles(_, exceptionHandler)).flatten.toSeq
+    /**
+     * Loads all class files found in the given files and directories using a
+     * [[ClassFilesPipeline]] with the given configuration. For each
+     * successfully read class file the function `classFileHandler` is called.
+     *
+     * @param classFileHandler A function that is called for each class file.
+     *      '''This function has to be thread safe''' if the configuration uses
+     *      more than one handle worker.
+     * @param exceptionHandler The exception handler that is called when the reading
+     *      of a class file fails. '''This function has to be thread safe'''.
+     * @return The statistics of the pipeline's stages. They can, e.g., be used to
+     *      determine the best number of workers per stage.
+     */
+    def AllClassFiles(
+        files: Traversable[File],
+        classFileHandler: (ClassFile, URL) ⇒ Unit,
+        exceptionHandler: (Exception) ⇒ Unit,
+        configuration: ClassFilesPipeline.Configuration): ClassFilesPipeline.Statistics = {
+        val pipeline = new ClassFilesPipeline[ClassFile](
+            configuration,
+            (buffer: ByteBuffer) ⇒ ClassFile(buffer),
+            classFileHandler,
+            exceptionHandler)
+        pipeline.run(files)
     }
 }
+
 /**
  * Helper methods related to reading class files.
  *
@@ -505,4 +577,34 @@ trait ClassFileReader extends Constant_PoolAbstractions {
 object ClassFileReader {
     final val defaultExceptionHandler: (Exception) ⇒ Unit = (e) ⇒
         e.printStackTrace(Console.err)
+
+    /**
+     * The size (in bytes) above which a file is memory-mapped instead of read.
+     *
+     * Class files are typically only a few KB large; for such files reading the file
+     * is faster than mapping it. Furthermore, a mapping is only released when the
+     * buffer is garbage collected and the number of mappings per process is limited
+     * (cf. `vm.max_map_count` on Linux); hence, mapping each file of a directory
+     * with tens of thousands of class files may fail.
+     */
+    final val MemoryMappingThreshold: Long = 1024l * 1024l
+
+    /**
+     * Returns the contents of the given file. Files that are larger than
+     * [[MemoryMappingThreshold]] are memory-mapped, all other files are read
+     * into a heap buffer.
+     */
+    def read(file: Path): ByteBuffer = {
+        process(FileChannel.open(file, StandardOpenOption.READ)) { channel ⇒
+            val size = channel.size()
+            if (size > MemoryMappingThreshold) {
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+            } else {
+                val buffer = ByteBuffer.allocate(size.toInt)
+                while (buffer.hasRemaining() && channel.read(buffer) != -1) { /*continue*/ }
+                buffer.flip()
+                buffer
+            }
+        }
+    }
 }
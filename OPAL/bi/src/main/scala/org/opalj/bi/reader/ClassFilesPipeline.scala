@@ -0,0 +1,645 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package bi
+package reader
+
+import java.io.File
+import java.io.DataInputStream
+import java.io.BufferedInputStream
+import java.io.FilterInputStream
+import java.io.InputStream
+import java.io.ByteArrayOutputStream
+import java.net.URL
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.FileVisitOption
+import java.nio.file.FileVisitResult
+import java.nio.file.SimpleFileVisitor
+import java.nio.file.attribute.BasicFileAttributes
+import java.util.EnumSet
+import java.util.zip.ZipFile
+import java.util.zip.ZipEntry
+import java.util.zip.ZipInputStream
+import java.util.concurrent.ArrayBlockingQueue
+import java.util.concurrent.BlockingQueue
+import java.util.concurrent.ExecutorService
+import java.util.concurrent.Executors
+import java.util.concurrent.Future
+import java.util.concurrent.Semaphore
+import java.util.concurrent.ThreadFactory
+import java.util.concurrent.atomic.AtomicInteger
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicReference
+
+import scala.collection.JavaConversions._
+
+import org.opalj.util.PerformanceEvaluation.ns2sec
+
+/**
+ * A staged, bounded pipeline to read all class files stored in jar files, directories
+ * and `.class` files.
+ *
+ * The pipeline consists of three stages each of which is executed by a configurable
+ * number of workers:
+ *  1. '''inflate''' – reads (and inflates) the raw bytes of a class file; nested jar
+ *      files are streamed and completely processed by the worker that encounters
+ *      them,
+ *  1. '''parse''' – parses the bytes and creates the class file representation,
+ *  1. '''handle''' – passes the class files to the `classFileHandler`.
+ * The stages are connected using bounded queues. Hence, a fast stage blocks when
+ * the next stage cannot keep up and the number of inflated, but not yet parsed class
+ * files (and the memory required to store them) is always bounded.
+ *
+ * The workers of all pipelines are executed by a single, shared executor whose
+ * threads are reused across runs (see [[ClassFilesPipeline.MaxWorkers]]). Hence,
+ * reading many (small) jar files one after another does not create and tear down
+ * a complete set of threads per jar file.
+ *
+ * The jar files and directories are traversed by the thread calling [[run]]. Directories
+ * are walked using `java.nio.file.Files.walkFileTree` and the found class files are
+ * passed to the inflate stage in batches of `configuration.fileBatchSize` files.
+ * Hence, the structure of the package tree – e.g., many directories that contain just a
+ * few class files – has no effect on the granularity of the tasks and the idle
+ * inflate workers take the next batch from the shared queue.
+ *
+ * @param parse The function that parses a single class file. It has to be thread safe.
+ * @param classFileHandler Called for each class file; it has to be thread safe if
+ *      more than one handler worker is used.
+ * @param exceptionHandler Called if the processing of a file or an entry fails; it
+ *      has to be thread safe.
+ * @tparam ClassFile The type of the class file representation.
+ *
+ * @author Michael Eichberg
+ */
+class ClassFilesPipeline[ClassFile](
+        val configuration: ClassFilesPipeline.Configuration,
+        parse: ByteBuffer ⇒ Seq[ClassFile],
+        classFileHandler: (ClassFile, URL) ⇒ Unit,
+        exceptionHandler: (Exception) ⇒ Unit) {
+
+    import ClassFilesPipeline._
+
+    private[this] final val EndOfStream = new Object
+
+    private[this] val inflateQueue: BlockingQueue[AnyRef] =
+        new ArrayBlockingQueue[AnyRef](configuration.queueCapacity)
+    private[this] val parseQueue: BlockingQueue[AnyRef] =
+        new ArrayBlockingQueue[AnyRef](configuration.queueCapacity)
+    private[this] val handleQueue: BlockingQueue[AnyRef] =
+        new ArrayBlockingQueue[AnyRef](configuration.queueCapacity)
+
+    private[this] val inflateStatistics = new StageStatistics("inflate", configuration.inflateWorkers)
+    private[this] val parseStatistics = new StageStatistics("parse", configuration.parseWorkers)
+    private[this] val handleStatistics = new StageStatistics("handle", configuration.handleWorkers)
+
+    // the first non-recoverable error (e.g. an OutOfMemoryError)
+    private[this] val failure = new AtomicReference[Throwable]
+
+    // the jar files opened by this pipeline; they are closed when all entries are inflated
+    private[this] var openedJarFiles: List[ZipFile] = Nil
+
+    private case class JarEntryTask(jarFileURL: String, jarFile: ZipFile, jarEntry: ZipEntry)
+
+    private case class ClassFilesTask(classFiles: Seq[Path])
+
+    private case class ParseTask(url: URL, buffer: ByteBuffer)
+
+    private case class HandleTask(classFile: ClassFile, url: URL)
+
+    private[this] def startWorkers(
+        statistics: StageStatistics,
+        in: BlockingQueue[AnyRef])(
+            processTask: AnyRef ⇒ Unit): Seq[Future[_]] = {
+        statistics.startTime = System.nanoTime
+        for (i ← 1 to statistics.workers) yield {
+            Workers.submit(new Runnable {
+                def run(): Unit = {
+                    RunsPipeline.set(true)
+                    try {
+                        var task = in.take()
+                        while (task ne EndOfStream) {
+                            if (failure.get == null) {
+                                val startTime = System.nanoTime
+                                try {
+                                    processTask(task)
+                                } catch {
+                                    case t: Throwable ⇒ failure.compareAndSet(null, t)
+                                }
+                                statistics.busyTime.addAndGet(System.nanoTime - startTime)
+                            } // else ... we just drain the queue
+                            task = in.take()
+                        }
+                    } finally {
+                        RunsPipeline.set(false)
+                    }
+                }
+            })
+        }
+    }
+
+    private[this] def stopWorkers(
+        statistics: StageStatistics,
+        in: BlockingQueue[AnyRef],
+        workers: Seq[Future[_]]): Unit = {
+        workers foreach { worker ⇒ in.put(EndOfStream) }
+        workers foreach { worker ⇒ worker.get() }
+        statistics.endTime = System.nanoTime
+    }
+
+    private[this] def readFully(jarFile: ZipFile, jarEntry: ZipEntry): Array[Byte] = {
+        val data = new Array[Byte](jarEntry.getSize().toInt)
+        process(new DataInputStream(jarFile.getInputStream(jarEntry))) { in ⇒
+            in.readFully(data)
+        }
+        data
+    }
+
+    /**
+     * Passes the inflated class file to the parse stage.
+     */
+    private[this] def inflated(url: URL, buffer: ByteBuffer): Unit = {
+        inflateStatistics.items.incrementAndGet()
+        inflateStatistics.bytes.addAndGet(buffer.remaining())
+        parseQueue.put(ParseTask(url, buffer))
+    }
+
+    private[this] def doInflate(task: AnyRef): Unit = task match {
+        case JarEntryTask(jarFileURL, jarFile, jarEntry) ⇒
+            inflate(jarFileURL, jarFile, jarEntry)
+        case ClassFilesTask(classFiles) ⇒
+            classFiles foreach inflate
+    }
+
+    private[this] def inflate(classFile: Path): Unit = {
+        try {
+            // small class files are read; only large files are memory-mapped
+            inflated(classFile.toUri().toURL(), ClassFileReader.read(classFile))
+        } catch {
+            case e: Exception ⇒
+                exceptionHandler(new java.io.IOException("cannot process: "+classFile, e))
+        }
+    }
+
+    private[this] def inflate(
+        jarFileURL: String,
+        jarFile: ZipFile,
+        jarEntry: ZipEntry): Unit = {
+        val jarEntryName = jarEntry.getName
+        if (jarEntryName.endsWith(".class")) {
+            try {
+                val url = new URL(jarFileURL + jarEntryName)
+                inflated(url, ByteBuffer.wrap(readFully(jarFile, jarEntry)))
+            } catch {
+                case e: Exception ⇒
+                    exceptionHandler(new java.io.IOException("cannot process: "+jarEntryName, e))
+            }
+        } else /*if (isArchive(jarEntryName))*/ {
+            // Nested jar files are streamed and their entries are directly inflated
+            // by this worker; i.e., only the current entry of a nested jar file is
+            // kept in memory. Different nested jar files are processed in parallel
+            // by different workers.
+            try {
+                val nestedJarFileURL = jarFileURL+"jar:"+jarEntryName+"!/"
+                process(
+                    new ZipInputStream(new BufferedInputStream(jarFile.getInputStream(jarEntry)))
+                ) { in ⇒ inflate(nestedJarFileURL, in) }
+            } catch {
+                case e: Exception ⇒
+                    exceptionHandler(new java.io.IOException("cannot process: "+jarEntryName, e))
+            }
+        }
+    }
+
+    /**
+     * Inflates all class files stored in the jar file that is read by the given stream
+     * (including all class files stored in jar files nested in it).
+     */
+    private[this] def inflate(jarFileURL: String, in: ZipInputStream): Unit = {
+        var jarEntry = in.getNextEntry()
+        while (jarEntry ne null) {
+            val jarEntryName = jarEntry.getName
+            if (!jarEntry.isDirectory) {
+                if (jarEntryName.endsWith(".class")) {
+                    val url = new URL(jarFileURL + jarEntryName)
+                    val data = readFully(in, jarEntry.getSize())
+                    if (data.length > 0) inflated(url, ByteBuffer.wrap(data))
+                } else if (isArchive(jarEntryName)) {
+                    // The nested stream has to be closed to release its inflater's
+                    // native memory, but closing it must not close `in`.
+                    process(new ZipInputStream(new NonClosingInputStream(in))) { nestedIn ⇒
+                        inflate(jarFileURL+"jar:"+jarEntryName+"!/", nestedIn)
+                    }
+                }
+            }
+            jarEntry = in.getNextEntry()
+        }
+    }
+
+    /**
+     * Reads the current entry of the given stream.
+     *
+     * @param size The size of the entry or -1 if the size is not known.
+     */
+    private[this] def readFully(in: ZipInputStream, size: Long): Array[Byte] = {
+        if (size >= 0) {
+            val data = new Array[Byte](size.toInt)
+            new DataInputStream(in).readFully(data)
+            data
+        } else {
+            val out = new ByteArrayOutputStream(8192)
+            val buffer = new Array[Byte](8192)
+            var read = in.read(buffer)
+            while (read != -1) {
+                out.write(buffer, 0, read)
+                read = in.read(buffer)
+            }
+            out.toByteArray()
+        }
+    }
+
+    private[this] def isRelevant(jarEntry: ZipEntry): Boolean = {
+        if (jarEntry.isDirectory || jarEntry.getSize() <= 0)
+            false
+        else {
+            val jarEntryName = jarEntry.getName
+            jarEntryName.endsWith(".class") || isArchive(jarEntryName)
+        }
+    }
+
+    private[this] def doParse(task: AnyRef): Unit = {
+        val ParseTask(url, buffer) = task
+        parseStatistics.items.incrementAndGet()
+        parseStatistics.bytes.addAndGet(buffer.remaining())
+        try {
+            parse(buffer) foreach { classFile ⇒ handleQueue.put(HandleTask(classFile, url)) }
+        } catch {
+            case e: Exception ⇒
+                exceptionHandler(new java.io.IOException("cannot process: "+url, e))
+        }
+    }
+
+    private[this] def doHandle(task: AnyRef): Unit = {
+        val HandleTask(classFile, url) = task
+        handleStatistics.items.incrementAndGet()
+        classFileHandler(classFile, url)
+    }
+
+    /**
+     * Adds the entries of the given (open) jar file to the pipeline.
+     */
+    private[this] def enqueue(jarFileURL: String, jarFile: ZipFile): Unit = {
+        for (jarEntry ← jarFile.entries if isRelevant(jarEntry)) {
+            inflateQueue.put(JarEntryTask(jarFileURL, jarFile, jarEntry))
+        }
+    }
+
+    /**
+     * Walks the given directory and adds all class files and archives found in it
+     * to the pipeline. The class files are added in batches.
+     */
+    private[this] def enqueueDirectory(directory: File): Unit = {
+        val batchSize = configuration.fileBatchSize
+        var batch = new Array[Path](batchSize)
+        var batchCount = 0
+
+        def flush(): Unit = {
+            if (batchCount > 0) {
+                inflateQueue.put(ClassFilesTask(
+                    if (batchCount == batchSize) batch else batch.take(batchCount)
+                ))
+                batch = new Array[Path](batchSize)
+                batchCount = 0
+            }
+        }
+
+        val visitor = new SimpleFileVisitor[Path] {
+
+            override def visitFile(file: Path, attributes: BasicFileAttributes): FileVisitResult = {
+                if (attributes.isRegularFile() && attributes.size() > 0) {
+                    val filename = file.getFileName().toString()
+                    if (filename.endsWith(".class")) {
+                        batch(batchCount) = file
+                        batchCount += 1
+                        if (batchCount == batchSize) flush()
+                    } else if (isArchive(filename)) {
+                        enqueue(file.toFile())
+                    }
+                }
+                FileVisitResult.CONTINUE
+            }
+
+            override def visitFileFailed(file: Path, e: java.io.IOException): FileVisitResult = {
+                exceptionHandler(new java.io.IOException("cannot process: "+file, e))
+                FileVisitResult.CONTINUE
+            }
+        }
+
+        try {
+            Files.walkFileTree(
+                directory.toPath(),
+                EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+                Integer.MAX_VALUE,
+                visitor)
+        } catch {
+            case e: Exception ⇒
+                exceptionHandler(new java.io.IOException("cannot process: "+directory, e))
+        } finally {
+            flush()
+        }
+    }
+
+    private[this] def enqueue(file: File): Unit = {
+        if (!file.exists()) {
+            /* nothing to do */
+        } else if (file.isFile()) {
+            val filename = file.getName
+            if (file.length() == 0) {
+                /* nothing to do */
+            } else if (isArchive(filename)) {
+                try {
+                    val jarFile = new ZipFile(file)
+                    openedJarFiles = jarFile :: openedJarFiles
+                    enqueue("jar:"+file.toURI().toURL().toExternalForm()+"!/", jarFile)
+                } catch {
+                    case e: Exception ⇒
+                        exceptionHandler(new java.io.IOException("cannot process: "+file, e))
+                }
+            } else if (filename.endsWith(".class")) {
+                inflateQueue.put(ClassFilesTask(List(file.toPath())))
+            }
+        } else /* if(file.isDirectory()) */ {
+            enqueueDirectory(file)
+        }
+    }
+
+    /**
+     * Processes the given files and the given (open) jar file – if specified – and
+     * returns when all class files are processed.
+     *
+     * A pipeline can only be run once. If other pipelines are running concurrently
+     * and not enough workers are available, this method blocks until the other
+     * pipelines have released their workers.
+     *
+     * A pipeline that is run by a thread that (currently) runs another pipeline –
+     * e.g., by a class file handler or an exception handler of the other pipeline –
+     * does not wait for workers. Its workers are not counted against
+     * [[ClassFilesPipeline.MaxWorkers]]; otherwise the nested pipeline would
+     * deadlock if the enclosing pipelines hold all workers.
+     *
+     * @param files The files and directories that will be processed.
+     * @param jarFile An optional open jar file and the jar file's url. The
+     *      jar file is not closed by the pipeline.
+     */
+    def run(
+        files: Traversable[File],
+        jarFile: Option[(String, ZipFile)] = None): Statistics = {
+        // All workers of a pipeline have to run at the same time; hence, the permits
+        // are acquired at once to avoid that concurrently running pipelines each
+        // get only some of the workers they need.
+        val isNested = RunsPipeline.get
+        val workersCount = if (isNested) 0 else configuration.workersCount
+        WorkersPermits.acquire(workersCount)
+        RunsPipeline.set(true)
+        try {
+            val inflateWorkers = startWorkers(inflateStatistics, inflateQueue)(doInflate)
+            val parseWorkers = startWorkers(parseStatistics, parseQueue)(doParse)
+            val handleWorkers = startWorkers(handleStatistics, handleQueue)(doHandle)
+            try {
+                jarFile foreach { case (jarFileURL, jarFile) ⇒ enqueue(jarFileURL, jarFile) }
+                files foreach enqueue
+            } finally {
+                stopWorkers(inflateStatistics, inflateQueue, inflateWorkers)
+                openedJarFiles foreach { jarFile ⇒
+                    try { jarFile.close() } catch { case e: Exception ⇒ exceptionHandler(e) }
+                }
+                stopWorkers(parseStatistics, parseQueue, parseWorkers)
+                stopWorkers(handleStatistics, handleQueue, handleWorkers)
+            }
+        } finally {
+            RunsPipeline.set(isNested)
+            WorkersPermits.release(workersCount)
+        }
+
+        val t = failure.get
+        if (t != null) throw t
+
+        Statistics(inflateStatistics, parseStatistics, handleStatistics)
+    }
+}
+
+/**
+ * Defines the configuration and the statistics of a [[ClassFilesPipeline]].
+ *
+ * @author Michael Eichberg
+ */
+object ClassFilesPipeline {
+
+    /**
+     * Configuration of a [[ClassFilesPipeline]].
+     *
+     * @param inflateWorkers The number of threads that read and inflate class files.
+     * @param parseWorkers The number of threads that parse class files.
+     * @param handleWorkers The number of threads that pass the parsed class files to
+     *      the handler.
+     * @param queueCapacity The capacity of each queue that connects two stages.
+     * @param fileBatchSize The (maximum) number of class files found in a directory
+     *      that are inflated by a single task.
+     */
+    case class Configuration(
+            inflateWorkers: Int,
+            parseWorkers: Int,
+            handleWorkers: Int,
+            queueCapacity: Int,
+            fileBatchSize: Int = 64) {
+
+        require(inflateWorkers > 0, "at least one inflate worker is required")
+        require(parseWorkers > 0, "at least one parse worker is required")
+        require(handleWorkers > 0, "at least one handle worker is required")
+        require(queueCapacity > 0, "the queue capacity has to be positive")
+        require(fileBatchSize > 0, "the file batch size has to be positive")
+        require(
+            workersCount <= MaxWorkers,
+            "the pipeline requires more than the maximum number of workers ("+MaxWorkers+")"
+        )
+
+        /**
+         * The overall number of workers.
+         */
+        def workersCount: Int = inflateWorkers + parseWorkers + handleWorkers
+    }
+
+    /**
+     * The maximum number of workers that are used by all pipelines that run
+     * concurrently (excluding nested pipelines; see the pipeline's `run` method).
+     * This is also the maximum number of workers of a single pipeline.
+     */
+    final val MaxWorkers: Int = Math.max(16, 4 * Runtime.getRuntime().availableProcessors())
+
+    private val WorkersPermits = new Semaphore(MaxWorkers)
+
+    // Set while the current thread runs a pipeline or is a worker of a pipeline.
+    private val RunsPipeline = new ThreadLocal[Boolean] {
+        override protected def initialValue(): Boolean = false
+    }
+
+    /**
+     * The executor that runs the workers of all pipelines. Idle threads are kept
+     * alive for some time to be reused by subsequent runs; the number of threads is
+     * bounded by [[MaxWorkers]] unless pipelines are nested.
+     */
+    private val Workers: ExecutorService = Executors.newCachedThreadPool(
+        new ThreadFactory {
+            private[this] val threadsCount = new AtomicInteger(0)
+            def newThread(r: Runnable): Thread = {
+                val thread = new Thread(r)
+                thread.setName("OPAL - ClassFilesPipeline - worker "+threadsCount.incrementAndGet())
+                thread.setDaemon(true)
+                thread
+            }
+        }
+    )
+
+    /**
+     * Wraps a stream that must not be closed when the wrapping stream is closed.
+     */
+    private class NonClosingInputStream(in: InputStream) extends FilterInputStream(in) {
+        override def close(): Unit = { /* the underlying stream is closed by its owner */ }
+    }
+
+    /**
+     * Returns `true` if the file with the given name is a (jar, war or ear) archive
+     * which may contain class files and further archives.
+     */
+    def isArchive(fileName: String): Boolean = {
+        fileName.endsWith(".jar") || fileName.endsWith(".war") || fileName.endsWith(".ear")
+    }
+
+    /**
+     * The default configuration which is based on the number of available processors.
+     * Parsing is, by far, the most expensive step.
+     */
+    def defaultConfiguration: Configuration = {
+        val processors = Runtime.getRuntime().availableProcessors()
+        Configuration(
+            inflateWorkers = Math.max(1, processors / 4),
+            parseWorkers = processors,
+            handleWorkers = 1,
+            queueCapacity = 256,
+            fileBatchSize = 64
+        )
+    }
+
+    /**
+     * The statistics of a single stage.
+     *
+     * @param stage The name of the stage.
+     * @param workers The number of threads that executed the stage.
+     */
+    final class StageStatistics private[reader] (
+            val stage: String,
+            val workers: Int) {
+
+        private[reader] val items = new AtomicInteger(0)
+        private[reader] val bytes = new AtomicLong(0l)
+        private[reader] val busyTime = new AtomicLong(0l)
+        @volatile private[reader] var startTime: Long = 0l
+        @volatile private[reader] var endTime: Long = 0l
+
+        /**
+         * The number of processed items; i.e., the number of inflated or parsed class
+         * files or the number of class files passed to the handler.
+         */
+        def processedItems: Int = items.get
+
+        /**
+         * The number of processed bytes; i.e., the size of the inflated or parsed
+         * class files. Always `0` for the handle stage.
+         */
+        def processedBytes: Long = bytes.get
+
+        /**
+         * The accumulated time (in nanoseconds) the workers spent processing items.
+         */
+        def accumulatedBusyTime: Long = busyTime.get
+
+        /**
+         * The time (in nanoseconds) from the start of the stage until the last
+         * worker finished.
+         */
+        def elapsedTime: Long = endTime - startTime
+
+        /**
+         * The number of processed items per second.
+         */
+        def throughput: Double = {
+            val elapsedTime = this.elapsedTime
+            if (elapsedTime <= 0) 0.0d else processedItems / ns2sec(elapsedTime)
+        }
+
+        /**
+         * The number of processed megabytes per second.
+         */
+        def bytesThroughput: Double = {
+            val elapsedTime = this.elapsedTime
+            if (elapsedTime <= 0) 0.0d else processedBytes / 1024.0d / 1024.0d / ns2sec(elapsedTime)
+        }
+
+        /**
+         * The average utilization of the workers (a value in the range [0,1]).
+         */
+        def utilization: Double = {
+            val elapsedTime = this.elapsedTime
+            if (elapsedTime <= 0) 0.0d
+            else accumulatedBusyTime.toDouble / (elapsedTime.toDouble * workers)
+        }
+
+        override def toString: String = {
+            val bytesInfo =
+                if (processedBytes > 0) f"${processedBytes / 1024.0d / 1024.0d}%1.1f MB; ${bytesThroughput}%1.1f MB/s; "
+                else ""
+            f"$stage%s(workers=$workers%d): $processedItems%d files; "+
+                f"${throughput}%1.1f files/s; "+bytesInfo+
+                f"utilization=${utilization * 100}%1.1f%%"
+        }
+    }
+
+    /**
+     * The statistics of all stages of a pipeline.
+     */
+    case class Statistics(
+            inflate: StageStatistics,
+            parse: StageStatistics,
+            handle: StageStatistics) {
+
+        override def toString: String =
+            "ClassFilesPipeline.Statistics(\n\t"+inflate+"\n\t"+parse+"\n\t"+handle+"\n)"
+    }
+}
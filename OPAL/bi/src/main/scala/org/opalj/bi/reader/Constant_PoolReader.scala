@@ -31,6 +31,7 @@ package bi
 package reader
 
 import java.io.DataInputStream
+import java.nio.ByteBuffer
 
 import reflect.ClassTag
 
@@ -77,6 +78,15 @@ trait Constant_PoolReader extends Constant_PoolAbstractions {
     protected def CONSTANT_Double_info(d: Double): CONSTANT_Double_info
     protected def CONSTANT_NameAndType_info(name_index: Int, descriptor_index: Int): CONSTANT_NameAndType_info
     protected def CONSTANT_Utf8_info(s: String): CONSTANT_Utf8_info
+    /**
+     * Creates a `CONSTANT_Utf8_info` entry whose (modified UTF-8 encoded) bytes are
+     * stored in the given buffer. The buffer is not modified afterwards.
+     *
+     * By default the string is decoded immediately; subclasses may override this
+     * method to decode the string lazily.
+     */
+    protected def CONSTANT_Utf8_info(buffer: ByteBuffer, offset: Int, length: Int): CONSTANT_Utf8_info =
+        CONSTANT_Utf8_info(ModifiedUTF8.decode(buffer, offset, length))
     // JAVA 7 Constant Pool Entries
     protected def CONSTANT_MethodHandle_info(reference_kind: Int, reference_index: Int): CONSTANT_MethodHandle_info
     protected def CONSTANT_MethodType_info(descriptor_index: Int): CONSTANT_MethodType_info
@@ -183,4 +193,62 @@ trait Constant_PoolReader extends Constant_PoolAbstractions {
         }
         constant_pool_entries
     }
+
+    /**
+     * Reads the constant pool using the given buffer. The buffer's position has to
+     * be the very beginning of the constant pool. Afterwards, the buffer is positioned
+     * directly after the constant pool.
+     *
+     * @see [[Constant_Pool(java.io.DataInputStream)]]
+     */
+    def Constant_Pool(buffer: ByteBuffer): Constant_Pool = {
+        val constant_pool_count = buffer.getShort() & 0xFFFF
+        val constant_pool_entries = new Array[Constant_Pool_Entry](constant_pool_count)
+
+        constant_pool_entries(0) = createDeferredActionsStore()
+
+        @inline def u1(): Int = buffer.get() & 0xFF
+        @inline def u2(): Int = buffer.getShort() & 0xFFFF
+
+        var i = 1
+        while (i < constant_pool_count) {
+            val tag = u1()
+            constant_pool_entries(i) = (tag: @scala.annotation.switch) match {
+                case CONSTANT_Class_ID ⇒
+                    i += 1; CONSTANT_Class_info(u2())
+                case CONSTANT_Fieldref_ID ⇒
+                    i += 1; CONSTANT_Fieldref_info(u2(), u2())
+                case CONSTANT_Methodref_ID ⇒
+                    i += 1; CONSTANT_Methodref_info(u2(), u2())
+                case CONSTANT_InterfaceMethodref_ID ⇒
+                    i += 1; CONSTANT_InterfaceMethodref_info(u2(), u2())
+                case CONSTANT_String_ID ⇒
+                    i += 1; CONSTANT_String_info(u2())
+                case CONSTANT_Integer_ID ⇒
+                    i += 1; CONSTANT_Integer_info(buffer.getInt())
+                case CONSTANT_Float_ID ⇒
+                    i += 1; CONSTANT_Float_info(buffer.getFloat())
+                case CONSTANT_Long_ID ⇒
+                    i += 2; CONSTANT_Long_info(buffer.getLong())
+                case CONSTANT_Double_ID ⇒
+                    i += 2; CONSTANT_Double_info(buffer.getDouble())
+                case CONSTANT_NameAndType_ID ⇒
+                    i += 1; CONSTANT_NameAndType_info(u2(), u2())
+                case CONSTANT_Utf8_ID ⇒
+                    i += 1
+                    val length = u2()
+                    val offset = buffer.position()
+                    buffer.position(offset + length)
+                    CONSTANT_Utf8_info(buffer, offset, length)
+                case CONSTANT_MethodHandle_ID ⇒
+                    i += 1; CONSTANT_MethodHandle_info(u1(), u2())
+                case CONSTANT_MethodType_ID ⇒
+                    i += 1; CONSTANT_MethodType_info(u2())
+                case CONSTANT_InvokeDynamic_ID ⇒
+                    i += 1; CONSTANT_InvokeDynamic_info(u2(), u2())
+                case _ ⇒ throw new BytecodeProcessingFailedException("unknown constant pool tag: "+tag)
+            }
+        }
+        constant_pool_entries
+    }
 }
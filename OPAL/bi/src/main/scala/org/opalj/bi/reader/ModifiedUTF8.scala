@@ -0,0 +1,112 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package bi
+package reader
+
+import java.nio.ByteBuffer
+import java.io.UTFDataFormatException
+
+/**
+ * Decodes strings that are encoded using the ''modified UTF-8'' encoding used by
+ * Java class files (see `java.io.DataInput.readUTF` for further details).
+ *
+ * @author Michael Eichberg
+ */
+object ModifiedUTF8 {
+
+    /**
+     * Decodes the `length` bytes starting at the given buffer's current position.
+     * Afterwards, the buffer's position is set to the first byte after the
+     * decoded string.
+     */
+    @throws[UTFDataFormatException]("if the bytes are not valid modified UTF-8")
+    def decode(buffer: ByteBuffer, length: Int): String = {
+        val start = buffer.position()
+        val s = decode(buffer, start, length)
+        buffer.position(start + length)
+        s
+    }
+
+    /**
+     * Decodes the `length` bytes starting at the absolute position `start`. The
+     * buffer's position is not changed.
+     */
+    @throws[UTFDataFormatException]("if the bytes are not valid modified UTF-8")
+    def decode(buffer: ByteBuffer, start: Int, length: Int): String = {
+        val chars = new Array[Char](length)
+        val end = start + length
+        var index = start
+        var charsCount = 0
+
+        // fast path for the (very common) case that we only have ASCII characters
+        var c = 0
+        while (index < end && { c = buffer.get(index) & 0xFF; c < 0x80 }) {
+            chars(charsCount) = c.toChar
+            charsCount += 1
+            index += 1
+        }
+
+        while (index < end) {
+            c = buffer.get(index) & 0xFF
+            ((c >> 4): @scala.annotation.switch) match {
+                case 0 | 1 | 2 | 3 | 4 | 5 | 6 | 7 ⇒
+                    // 0xxxxxxx
+                    index += 1
+                    chars(charsCount) = c.toChar
+                case 12 | 13 ⇒
+                    // 110x xxxx   10xx xxxx
+                    if (index + 2 > end)
+                        throw new UTFDataFormatException("partial character at end")
+                    val c2 = buffer.get(index + 1)
+                    if ((c2 & 0xC0) != 0x80)
+                        throw new UTFDataFormatException("malformed input around byte "+(index - start))
+                    chars(charsCount) = (((c & 0x1F) << 6) | (c2 & 0x3F)).toChar
+                    index += 2
+                case 14 ⇒
+                    // 1110 xxxx  10xx xxxx  10xx xxxx
+                    if (index + 3 > end)
+                        throw new UTFDataFormatException("partial character at end")
+                    val c2 = buffer.get(index + 1)
+                    val c3 = buffer.get(index + 2)
+                    if (((c2 & 0xC0) != 0x80) || ((c3 & 0xC0) != 0x80))
+                        throw new UTFDataFormatException("malformed input around byte "+(index - start))
+                    chars(charsCount) =
+                        (((c & 0x0F) << 12) | ((c2 & 0x3F) << 6) | (c3 & 0x3F)).toChar
+                    index += 3
+                case _ ⇒
+                    // 10xx xxxx,  1111 xxxx
+                    throw new UTFDataFormatException("malformed input around byte "+(index - start))
+            }
+            charsCount += 1
+        }
+
+        new String(chars, 0, charsCount)
+    }
+}
@@ -37,28 +37,85 @@ import org.opalj.br.instructions._
  * Representation of a method's code attribute, that is, representation of a method's
  * implementation.
  *
+ * A `Code` object is either created with a given array of instructions or – if the
+ * class file reader is configured to decode method bodies lazily (see
+ * [[reader.LazyCodeAttributeBinding]]) – with a function that decodes the instructions
+ * when they are accessed for the first time. The latter is completely transparent to
+ * clients and significantly reduces the time and memory required to load class
+ * files if most method bodies are never analyzed.
+ *
  * @param maxStack The maximum size of the stack during the execution of the method.
  *      This value is determined by the compiler and is not necessarily the minimum.
  *      However, in the vast majority of cases it is the minimum.
  * @param maxLocals The number of registers/local variables needed to execute the method.
- * @param instructions The instructions of this `Code` array/`Code` block. Since the code
- *      array is not completely filled (it contains `null` values) the preferred way
- *      to iterate over all instructions is to use for-comprehensions and pattern
- *      matching or to use one of the predefined methods [[foreach]], [[collect]],
- *      [[collectPair]], [[collectWithIndex]].
- *      The `Code` array must not be mutated!
+ * @param codeLength The length of the code array (in bytes). This is also the
+ *      size of the [[instructions]] array; however, it is available without
+ *      decoding the instructions.
+ * @param exceptionHandlers The code's exception handlers.
+ * @param attributes The code's attributes.
  *
  * @author Michael Eichberg
  */
-case class Code(
-    maxStack: Int,
-    maxLocals: Int,
-    instructions: Array[Instruction],
-    exceptionHandlers: ExceptionHandlers,
-    attributes: Attributes)
+final class Code private (
+    val maxStack: Int,
+    val maxLocals: Int,
+    val codeLength: Int,
+    decodedInstructions: Array[Instruction],
+    instructionsDecoder: () ⇒ Array[Instruction],
+    val exceptionHandlers: ExceptionHandlers,
+    val attributes: Attributes)
         extends Attribute
         with CommonAttributes {
 
+    // The following two fields are only accessed using double-checked locking.
+    @volatile private[this] var theInstructions: Array[Instruction] = decodedInstructions
+    @volatile private[this] var decoder: () ⇒ Array[Instruction] = instructionsDecoder
+
+    /**
+     * The instructions of this `Code` array/`Code` block. Since the code
+     * array is not completely filled (it contains `null` values) the preferred way
+     * to iterate over all instructions is to use for-comprehensions and pattern
+     * matching or to use one of the predefined methods [[foreach]], [[collect]],
+     * [[collectPair]], [[collectWithIndex]].
+     * The `Code` array must not be mutated!
+     *
+     * ==Thread Safety==
+     * If the instructions are decoded lazily, the decoding is done exactly once
+     * even if multiple threads access the instructions concurrently.
+     */
+    def instructions: Array[Instruction] = {
+        val instructions = theInstructions
+        if (instructions ne null)
+            instructions
+        else
+            this.synchronized {
+                if (theInstructions eq null) {
+                    theInstructions = decoder()
+                    decoder = null // the decoder may hold on to a lot of memory
+                }
+                theInstructions
+            }
+    }
+
+    /**
+     * Returns `true` if the instructions were already decoded. Calling this method
+     * never triggers the decoding.
+     */
+    def hasDecodedInstructions: Boolean = theInstructions ne null
+
+    /**
+     * Creates the dense representation of this code block's instructions. The dense
+     * representation stores the instructions in a packed array and, hence, does not
+     * contain `null` values.
+     *
+     * The dense representation is not cached; each call creates a new instance.
+     * Hence, an analysis that repeatedly iterates over the instructions should
+     * keep a reference to it.
+     *
+     * @see [[DenseInstructions]]
+     */
+    def denseInstructions: DenseInstructions = DenseInstructions(instructions)
+
     /**
      * Returns a new iterator to iterate over the program counters of the instructions
      * of this `Code` block.
@@ -317,6 +374,7 @@ case class Code(
      *      code array.
      */
     def collect[B](f: PartialFunction[Instruction, B]): Seq[(PC, B)] = {
+        val instructions = this.instructions
         val max_pc = instructions.size
         var pc = 0
         var result: List[(PC, B)] = List.empty
@@ -658,6 +716,46 @@ object Code {
      */
     final val KindId = 6
 
+    /**
+     * Creates a new `Code` object with the given instructions.
+     */
+    def apply(
+        maxStack: Int,
+        maxLocals: Int,
+        instructions: Array[Instruction],
+        exceptionHandlers: ExceptionHandlers,
+        attributes: Attributes): Code = {
+        new Code(
+            maxStack, maxLocals, instructions.length,
+            instructions, null,
+            exceptionHandlers, attributes)
+    }
+
+    /**
+     * Creates a new `Code` object whose instructions are decoded using the given
+     * function when they are accessed for the first time.
+     *
+     * @param decoder A function that decodes the instructions. It is called at most
+     *      once and the `Code` object does not keep a reference to it afterwards.
+     */
+    def lazily(
+        maxStack: Int,
+        maxLocals: Int,
+        codeLength: Int,
+        decoder: () ⇒ Array[Instruction],
+        exceptionHandlers: ExceptionHandlers,
+        attributes: Attributes): Code = {
+        new Code(
+            maxStack, maxLocals, codeLength,
+            null, decoder,
+            exceptionHandlers, attributes)
+    }
+
+    def unapply(
+        code: Code): Option[(Int, Int, Array[Instruction], ExceptionHandlers, Attributes)] = {
+        Some((code.maxStack, code.maxLocals, code.instructions, code.exceptionHandlers, code.attributes))
+    }
+
     /**
      * Used to determine the potential handlers in case that an exception is
      * thrown by an instruction.
@@ -0,0 +1,226 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+
+import org.opalj.br.instructions.Instruction
+
+/**
+ * A dense representation of a method's instructions. Unlike [[Code.instructions]],
+ * which is indexed by the program counter and – hence – contains `null` values for
+ * the bytes that encode the operands of an instruction, the instructions are stored
+ * in a packed array. The program counter of each instruction is stored in a second
+ * (packed) array.
+ *
+ * Iterating over a `DenseInstructions` object only visits the real instructions;
+ * no `null` values need to be skipped and `indexOfNextInstruction` does not need to
+ * be called. Program counter based access is still supported (see [[indexOf]]),
+ * but requires a binary search. Hence, the [[Code.instructions]] array remains the
+ * preferred representation for analyses – such as the abstract interpreter – that
+ * primarily access instructions by their program counter.
+ *
+ * @param instructions The instructions; the instruction with the index `i` is the
+ *      `i`th instruction of the method. The array must not be mutated.
+ * @param codeLength The length of the code array (in bytes).
+ *
+ * @author Michael Eichberg
+ */
+final class DenseInstructions private (
+        val instructions: Array[Instruction],
+        private val pcs: Array[PC],
+        val codeLength: Int) {
+
+    /**
+     * The number of instructions.
+     */
+    def size: Int = instructions.length
+
+    /**
+     * Returns the `index`th instruction.
+     */
+    @inline def instruction(index: Int): Instruction = instructions(index)
+
+    /**
+     * Returns the program counter of the `index`th instruction.
+     */
+    @inline def pc(index: Int): PC = pcs(index)
+
+    /**
+     * Returns the index of the instruction with the given program counter or `-1`
+     * if no instruction starts at the given program counter.
+     *
+     * This operation has complexity O(log n).
+     */
+    def indexOf(pc: PC): Int = {
+        val index = java.util.Arrays.binarySearch(pcs, pc)
+        if (index >= 0) index else -1
+    }
+
+    /**
+     * Returns the instruction with the given program counter or `null` if no
+     * instruction starts at the given program counter.
+     */
+    def instructionAt(pc: PC): Instruction = {
+        val index = indexOf(pc)
+        if (index >= 0) instructions(index) else null
+    }
+
+    /**
+     * Returns the program counter of the instruction that follows the instruction with
+     * the given program counter. If `pc` is the program counter of the last
+     * instruction `codeLength` is returned.
+     *
+     * @throws IllegalArgumentException If no instruction starts at the given
+     *      program counter.
+     */
+    def pcOfNextInstruction(pc: PC): PC = {
+        val index = indexOf(pc)
+        if (index == -1)
+            throw new IllegalArgumentException(s"no instruction starts at pc $pc")
+        val nextIndex = index + 1
+        if (nextIndex < pcs.length) pcs(nextIndex) else codeLength
+    }
+
+    /**
+     * Calls the given function `f` for every instruction.
+     */
+    def foreach(f: (PC, Instruction) ⇒ Unit): Unit = {
+        val instructions = this.instructions
+        val pcs = this.pcs
+        val max = instructions.length
+        var index = 0
+        while (index < max) {
+            f(pcs(index), instructions(index))
+            index += 1
+        }
+    }
+
+    /**
+     * Calls the given function `f` for every instruction; the program counters are
+     * not passed to `f`.
+     */
+    def foreachInstruction(f: Instruction ⇒ Unit): Unit = {
+        val instructions = this.instructions
+        val max = instructions.length
+        var index = 0
+        while (index < max) {
+            f(instructions(index))
+            index += 1
+        }
+    }
+
+    /**
+     * Returns a new iterator over the program counters of the instructions.
+     */
+    def programCounters: Iterator[PC] = pcs.iterator
+
+    /**
+     * Collects all instructions for which the given function is defined.
+     *
+     * @see [[Code.collect]]
+     */
+    def collect[B](f: PartialFunction[Instruction, B]): Seq[(PC, B)] = {
+        var result: List[(PC, B)] = List.empty
+        var index = instructions.length - 1
+        while (index >= 0) {
+            val instruction = instructions(index)
+            if (f.isDefinedAt(instruction)) {
+                result = (pcs(index), f(instruction)) :: result
+            }
+            index -= 1
+        }
+        result
+    }
+
+    /**
+     * Creates the program counter indexed representation of the instructions
+     * (see [[Code.instructions]]).
+     */
+    def toSparseArray: Array[Instruction] = {
+        val sparseInstructions = new Array[Instruction](codeLength)
+        foreach { (pc, instruction) ⇒ sparseInstructions(pc) = instruction }
+        sparseInstructions
+    }
+
+    override def equals(other: Any): Boolean = other match {
+        case that: DenseInstructions ⇒
+            this.codeLength == that.codeLength &&
+                java.util.Arrays.equals(this.pcs, that.pcs) &&
+                java.util.Arrays.equals(
+                    this.instructions.asInstanceOf[Array[AnyRef]],
+                    that.instructions.asInstanceOf[Array[AnyRef]])
+        case _ ⇒
+            false
+    }
+
+    override def hashCode: Int =
+        codeLength * 31 + java.util.Arrays.hashCode(instructions.asInstanceOf[Array[AnyRef]])
+
+    override def toString: String = {
+        val instructionsAsText = (0 until size).map(i ⇒ s"${pcs(i)}: ${instructions(i)}")
+        instructionsAsText.mkString("DenseInstructions(codeLength="+codeLength+"; ", ", ", ")")
+    }
+}
+
+/**
+ * Factory to create [[DenseInstructions]].
+ *
+ * @author Michael Eichberg
+ */
+object DenseInstructions {
+
+    /**
+     * Creates the dense representation of the given program counter indexed
+     * instructions (see [[Code.instructions]]).
+     */
+    def apply(instructions: Array[Instruction]): DenseInstructions = {
+        val codeLength = instructions.length
+        var count = 0
+        var pc = 0
+        while (pc < codeLength) {
+            if (instructions(pc) ne null) count += 1
+            pc += 1
+        }
+
+        val denseInstructions = new Array[Instruction](count)
+        val pcs = new Array[PC](count)
+        var index = 0
+        pc = 0
+        while (pc < codeLength) {
+            val instruction = instructions(pc)
+            if (instruction ne null) {
+                denseInstructions(index) = instruction
+                pcs(index) = pc
+                index += 1
+            }
+            pc += 1
+        }
+        new DenseInstructions(denseInstructions, pcs, codeLength)
+    }
+}
@@ -29,10 +29,7 @@
 package org.opalj
 package br
 
-import java.lang.ref.WeakReference
-import java.util.WeakHashMap
 import java.util.concurrent.atomic.AtomicInteger
-import java.util.concurrent.locks.ReentrantReadWriteLock
 
 import scala.math.Ordered
 import scala.collection.SortedSet
@@ -1058,33 +1055,32 @@ final class ObjectType private ( // DO NOT MAKE THIS A CASE CLASS!
 object ObjectType {
 
     import java.util.concurrent.atomic.AtomicInteger
-    import java.util.concurrent.locks.ReentrantReadWriteLock
-    import java.util.WeakHashMap
-    import java.lang.ref.WeakReference
 
     private[this] val nextId = new AtomicInteger(0)
-    private[this] val cacheRWLock = new ReentrantReadWriteLock();
-    private[this] val cache = new WeakHashMap[String, WeakReference[ObjectType]]()
 
     @volatile private[this] var objectTypeCreationListener: ObjectType ⇒ Unit = null
 
+    // The ids are only assigned by the interning table (exactly once per new type).
+    private[this] val cache = new WeakInterningTable[String, ObjectType](
+        (fqn: String) ⇒ new ObjectType(nextId.getAndIncrement(), fqn),
+        (newOT: ObjectType) ⇒ {
+            val currentObjectTypeCreationListener = objectTypeCreationListener
+            if (currentObjectTypeCreationListener ne null)
+                currentObjectTypeCreationListener(newOT)
+        }
+    )
+
     /**
      * Sets the listener and immediately calls it (multiple times) to inform the listener
      * about all known object types. It is guaranteed that the listener will not miss any
-     * object type creation. However, invocation may occur concurrently.
+     * object type creation. However, invocation may occur concurrently and the listener
+     * may be informed multiple times about the same object type.
      */
     def setObjectTypeCreationListener(f: ObjectType ⇒ Unit): Unit = {
-        cacheRWLock.readLock().lock()
-        try {
-            objectTypeCreationListener = f
-            val objectTypesIterator = cache.values().iterator()
-            while (objectTypesIterator.hasNext) {
-                val objectType = objectTypesIterator.next.get()
-                if (objectType ne null) f(objectType)
-            }
-        } finally {
-            cacheRWLock.readLock().unlock()
-        }
+        // A concurrently created object type is either added to the cache before
+        // the cache is traversed or the creating thread sees the new listener.
+        objectTypeCreationListener = f
+        cache.foreachValue(f)
     }
 
     /**
@@ -1092,6 +1088,18 @@ object ObjectType {
      */
     def objectTypesCount = nextId.get
 
+    /**
+     * Searches the (currently interned) object type with the given id. This operation
+     * has complexity O(n); it is only intended to be used by listeners (see
+     * [[setObjectTypeCreationListener]]) that are asked for an object type that was
+     * already created, but about which they were not yet informed.
+     */
+    private[br] def lookup(id: Int): Option[ObjectType] = {
+        var objectType: ObjectType = null
+        cache.foreachValue { ot ⇒ if (ot.id == id) objectType = ot }
+        Option(objectType)
+    }
+
     /**
      * Factory method to create `ObjectType`s.
      *
@@ -1102,40 +1110,7 @@ object ObjectType {
      *      per fully qualified name. Hence, comparing `ObjectTypes` using reference
      *      comparison is explicitly supported.
      */
-    def apply(fqn: String): ObjectType = {
-        cacheRWLock.readLock().lock()
-        try {
-            val wrOT = cache.get(fqn)
-            if (wrOT != null) {
-                val OT = wrOT.get()
-                if (OT != null)
-                    return OT;
-            }
-        } finally {
-            cacheRWLock.readLock().unlock()
-        }
-
-        cacheRWLock.writeLock().lock()
-        try {
-            // WE HAVE TO CHECK AGAIN
-            val wrOT = cache.get(fqn)
-            if (wrOT != null) {
-                val OT = wrOT.get()
-                if (OT != null)
-                    return OT;
-            }
-
-            val newOT = new ObjectType(nextId.getAndIncrement(), fqn)
-            val wrNewOT = new WeakReference(newOT)
-            cache.put(fqn, wrNewOT)
-            val currentObjectTypeCreationListener = objectTypeCreationListener
-            if (currentObjectTypeCreationListener ne null)
-                currentObjectTypeCreationListener(newOT)
-            newOT
-        } finally {
-            cacheRWLock.writeLock().unlock()
-        }
-    }
+    def apply(fqn: String): ObjectType = cache(fqn)
 
     def unapply(ot: ObjectType): Option[String] = Some(ot.fqn)
 
@@ -1389,13 +1364,14 @@ final class ArrayType private ( // DO NOT MAKE THIS A CASE CLASS!
 object ArrayType {
 
     import java.util.concurrent.atomic.AtomicInteger
-    import java.util.WeakHashMap
-    import java.lang.ref.WeakReference
-
-    private[this] val cache = new WeakHashMap[FieldType, WeakReference[ArrayType]]()
 
     private[this] val nextId = new AtomicInteger(-1)
 
+    private[this] val cache = new WeakInterningTable[FieldType, ArrayType](
+        (componentType: FieldType) ⇒ new ArrayType(nextId.getAndDecrement(), componentType),
+        (newAT: ArrayType) ⇒ { /* nothing to do */ }
+    )
+
     /**
      * Factory method to create objects of type `ArrayType`.
      *
@@ -1404,21 +1380,7 @@ object ArrayType {
      * and to facilitate reference based comparisons. I.e., to `ArrayType`s are equal
      * iff it is the same object.
      */
-    def apply(
-        componentType: FieldType): ArrayType = {
-        cache.synchronized {
-            val wrAT = cache.get(componentType)
-            if (wrAT != null) {
-                val AT = wrAT.get()
-                if (AT != null)
-                    return AT;
-            }
-            val newAT = new ArrayType(nextId.getAndDecrement(), componentType)
-            val wrNewAT = new WeakReference(newAT)
-            cache.put(componentType, wrNewAT)
-            newAT
-        }
-    }
+    def apply(componentType: FieldType): ArrayType = cache(componentType)
 
     /**
      * Factory method to create an Array of the given component type with the given
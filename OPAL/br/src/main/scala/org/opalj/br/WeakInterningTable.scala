@@ -0,0 +1,126 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+
+import java.lang.ref.ReferenceQueue
+import java.lang.ref.WeakReference
+import java.util.concurrent.ConcurrentHashMap
+import java.util.function.BiFunction
+
+/**
+ * A thread-safe table that interns values; i.e., that ensures that at most one value
+ * exists per key as long as the value is (strongly) referenced.
+ *
+ * The values are only weakly referenced by the table; entries whose values were
+ * garbage collected are removed using a `ReferenceQueue`.
+ *
+ * Looking up an existing value is lock-free. Only the creation of a new value locks
+ * – as long as the value is created – the (small) part of the underlying
+ * `ConcurrentHashMap` that contains the key. This guarantees that `create` is
+ * called exactly once per (new) key, which is, e.g., required to assign dense ids.
+ *
+ * @param create Creates the value for a key. Called while the part of the table that
+ *      contains the key is locked; hence, `create` must not access this table.
+ * @param created Called by the thread that created a new value after the value was
+ *      added to the table. Hence, other threads may already use the value before
+ *      `created` is called.
+ *
+ * @author Michael Eichberg
+ */
+private[br] final class WeakInterningTable[K <: AnyRef, V <: AnyRef](
+        create: K ⇒ V,
+        created: V ⇒ Unit) {
+
+    private[this] val queue = new ReferenceQueue[V]
+
+    private[this] final class Entry(
+        val key: K,
+        value: V)
+            extends WeakReference[V](value, queue)
+
+    private[this] val table = new ConcurrentHashMap[K, Entry](4096)
+
+    /**
+     * Returns the value associated with the given key; if necessary, the value is
+     * created.
+     */
+    def apply(key: K): V = {
+        val entry = table.get(key)
+        if (entry ne null) {
+            val value = entry.get()
+            if (value ne null)
+                return value;
+        }
+
+        expungeStaleEntries()
+
+        var newValue: V = null.asInstanceOf[V]
+        var value: V = null.asInstanceOf[V]
+        table.compute(key, new BiFunction[K, Entry, Entry] {
+            def apply(key: K, entry: Entry): Entry = {
+                if (entry ne null) {
+                    value = entry.get()
+                    if (value ne null)
+                        return entry;
+                }
+                newValue = create(key)
+                value = newValue
+                new Entry(key, newValue)
+            }
+        })
+        if (newValue ne null) created(newValue)
+        value
+    }
+
+    /**
+     * Removes the entries whose values were garbage collected.
+     */
+    private[this] def expungeStaleEntries(): Unit = {
+        var entry = queue.poll()
+        while (entry ne null) {
+            val staleEntry = entry.asInstanceOf[Entry]
+            // the entry may already have been replaced by a new one
+            table.remove(staleEntry.key, staleEntry)
+            entry = queue.poll()
+        }
+    }
+
+    /**
+     * Calls the given function for each value that is currently interned. Values that
+     * are concurrently added may or may not be passed to the function.
+     */
+    def foreachValue(f: V ⇒ Unit): Unit = {
+        val entries = table.values().iterator()
+        while (entries.hasNext()) {
+            val value = entries.next().get()
+            if (value ne null) f(value)
+        }
+    }
+}
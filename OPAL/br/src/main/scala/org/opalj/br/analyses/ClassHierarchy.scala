@@ -80,16 +80,17 @@ class ClassHierarchy private (
     require(knownTypesMap.length == subclassTypesMap.length)
     require(knownTypesMap.length == subinterfaceTypesMap.length)
 
-    import java.util.concurrent.locks.ReentrantReadWriteLock
-    private[this] var objectTypesMap: Array[ObjectType] =
+    // The map is only grown (by replacing it with a larger copy) and every update
+    // (re)publishes the map using the volatile write. Hence, readers never need to
+    // acquire a lock; they always see a consistent (though possibly outdated) map.
+    @volatile private[this] var objectTypesMap: Array[ObjectType] =
         new Array(ObjectType.objectTypesCount)
 
-    private[this] final val objectTypesMapRWLock = new ReentrantReadWriteLock()
+    private[this] final val objectTypesMapUpdateLock = new Object
 
     private[this] final val objectTypesCreationListener = (objectType: ObjectType) ⇒ {
         val id = objectType.id
-        objectTypesMapRWLock.writeLock().lock()
-        try {
+        objectTypesMapUpdateLock.synchronized {
             val thisObjectTypesMap = objectTypesMap
             if (id >= thisObjectTypesMap.length) {
                 val newLength = Math.max(ObjectType.objectTypesCount, id) + 20
@@ -99,9 +100,8 @@ class ClassHierarchy private (
                 objectTypesMap = newObjectTypesMap
             } else {
                 thisObjectTypesMap(id) = objectType
+                objectTypesMap = thisObjectTypesMap // publishes the update
             }
-        } finally {
-            objectTypesMapRWLock.writeLock().unlock()
         }
     }
 
@@ -110,17 +110,27 @@ class ClassHierarchy private (
     /**
      * Returns the `ObjectType` with the given Id. The id has to be the id of a valid
      * ObjectType.
+     *
+     * This method does not acquire any locks if the type is already known. The
+     * listener that informs the class hierarchy about new types is called after
+     * the type was made available; hence, a type that was just created by another
+     * thread may not yet be known. In this case the type is (slowly) looked up
+     * and registered.
      */
     final def getObjectType(objectTypeId: Int): ObjectType = {
-        objectTypesMapRWLock.readLock().lock()
-        try {
-            val ot = objectTypesMap(objectTypeId)
-            if (ot == null)
-                throw new IllegalArgumentException("ObjectType id invalid: "+objectTypeId)
+        val objectTypesMap = this.objectTypesMap
+        val ot =
+            if (objectTypeId < objectTypesMap.length) objectTypesMap(objectTypeId) else null
+        if (ot ne null)
             ot
-        } finally {
-            objectTypesMapRWLock.readLock().unlock()
-        }
+        else
+            ObjectType.lookup(objectTypeId) match {
+                case Some(newOT) ⇒
+                    objectTypesCreationListener(newOT)
+                    newOT
+                case None ⇒
+                    throw new IllegalArgumentException("ObjectType id invalid: "+objectTypeId)
+            }
     }
 
     /**
@@ -438,6 +448,13 @@ class ClassHierarchy private (
         superinterfaceTypes(objectType).getOrElse(HashSet.empty) ++ superclassType(objectType)
     }
 
+    /**
+     * The [[SubtypeIndex]] of this class hierarchy which answers subtype tests in
+     * constant time. The index is created when it is first used; afterwards, its
+     * creation cost is amortized if many subtype tests are performed.
+     */
+    lazy val subtypeIndex: SubtypeIndex = SubtypeIndex(this)
+
     /**
      * Determines if the given class or interface type `subtype` is actually a subtype
      * of the class or interface type `supertype`.
@@ -1011,6 +1028,124 @@ class ClassHierarchy private (
         knownTypes.foreach(f(_))
     }
 
+    /**
+     * Creates a new class hierarchy in which the declarations of the `removedTypes` are
+     * removed and the given type declarations are added. To replace a type's
+     * declaration, the type has to be removed and its new declaration has to be added.
+     *
+     * Only the information related to the removed and the added types is updated; the
+     * rest of the class hierarchy is shared with this class hierarchy which is not
+     * changed.
+     *
+     * A removed type is still known if other types (still) inherit from it. A type
+     * that is not declared and that was only known because it was a supertype
+     * of a removed type is no longer known; i.e., the result is the same as the class
+     * hierarchy that is created using the remaining type declarations. If a removed
+     * type was declared by a predefined class hierarchy, the predefined declaration
+     * is not restored.
+     */
+    def updated(
+        removedTypes: Traversable[ObjectType],
+        typeDeclarations: Traversable[TypeDeclaration]): ClassHierarchy = {
+        import java.util.Arrays.copyOf
+
+        val objectTypesCount = Math.max(this.knownTypesMap.length, ObjectType.objectTypesCount)
+        val knownTypesMap = copyOf(this.knownTypesMap, objectTypesCount)
+        val interfaceTypesMap = copyOf(this.interfaceTypesMap, objectTypesCount)
+        val superclassTypeMap = copyOf(this.superclassTypeMap, objectTypesCount)
+        val superinterfaceTypesMap = copyOf(this.superinterfaceTypesMap, objectTypesCount)
+        val subclassTypesMap = copyOf(this.subclassTypesMap, objectTypesCount)
+        val subinterfaceTypesMap = copyOf(this.subinterfaceTypesMap, objectTypesCount)
+
+        // The sets of subtypes are mutable and shared with this class hierarchy; hence,
+        // a set is copied before it is updated for the first time.
+        val copiedSubclassTypes = new scala.collection.mutable.BitSet(objectTypesCount)
+        val copiedSubinterfaceTypes = new scala.collection.mutable.BitSet(objectTypesCount)
+        def updateSet(
+            data: Array[Set[ObjectType]],
+            copied: scala.collection.mutable.BitSet,
+            index: Int)(
+                f: HashSet[ObjectType] ⇒ Unit): Unit = {
+            val set =
+                if (copied.contains(index))
+                    data(index).asInstanceOf[HashSet[ObjectType]]
+                else {
+                    copied += index
+                    val oldSet = data(index)
+                    if (oldSet eq null) HashSet.empty[ObjectType] else HashSet.empty ++ oldSet
+                }
+            f(set)
+            data(index) = if (set.isEmpty) null else set
+        }
+        def addToSet(data: Array[Set[ObjectType]], index: Int, elem: ObjectType): Unit = {
+            val copied =
+                if (data eq subclassTypesMap) copiedSubclassTypes else copiedSubinterfaceTypes
+            updateSet(data, copied, index) { _ += elem }
+        }
+
+        val ObjectId = ObjectType.Object.id
+
+        // A type that is not declared (anymore) is only known as long as it is the
+        // supertype of some declared type. (The set of the superinterface types of a
+        // declared type is never null.)
+        def updateUndeclaredType(objectType: ObjectType): Unit = {
+            val id = objectType.id
+            if (superinterfaceTypesMap(id) eq null) {
+                if ((subclassTypesMap(id) eq null) && (subinterfaceTypesMap(id) eq null)) {
+                    knownTypesMap(id) = null
+                    interfaceTypesMap(id) = false
+                } else {
+                    // only interfaces are extended by interfaces or implemented by
+                    // classes; all interfaces are "subinterfaces" of java.lang.Object
+                    interfaceTypesMap(id) = (id != ObjectId) && (subinterfaceTypesMap(id) ne null)
+                }
+            }
+        }
+
+        for {
+            removedType ← removedTypes
+            id = removedType.id
+            if id < this.knownTypesMap.length && (knownTypesMap(id) ne null)
+        } {
+            val superclassType = superclassTypeMap(id)
+            val isInterfaceType = interfaceTypesMap(id)
+            if (isInterfaceType)
+                updateSet(subinterfaceTypesMap, copiedSubinterfaceTypes, ObjectId) { _ -= removedType }
+            else if (superclassType ne null)
+                updateSet(subclassTypesMap, copiedSubclassTypes, superclassType.id) { _ -= removedType }
+            val superinterfaceTypes = superinterfaceTypesMap(id)
+            if (superinterfaceTypes ne null) superinterfaceTypes foreach { superinterfaceType ⇒
+                updateSet(subinterfaceTypesMap, copiedSubinterfaceTypes, superinterfaceType.id) {
+                    _ -= removedType
+                }
+            }
+            superclassTypeMap(id) = null
+            superinterfaceTypesMap(id) = null
+            updateUndeclaredType(removedType)
+            if (isInterfaceType) updateUndeclaredType(ObjectType.Object)
+            if (superclassType ne null) updateUndeclaredType(superclassType)
+            if (superinterfaceTypes ne null) superinterfaceTypes foreach updateUndeclaredType
+        }
+
+        typeDeclarations foreach { typeDecl ⇒
+            ClassHierarchy.addTypeDeclaration(
+                knownTypesMap, interfaceTypesMap,
+                superclassTypeMap, superinterfaceTypesMap,
+                subclassTypesMap, subinterfaceTypesMap,
+                addToSet,
+                typeDecl)
+        }
+
+        new ClassHierarchy(
+            knownTypesMap,
+            interfaceTypesMap,
+            superclassTypeMap,
+            superinterfaceTypesMap,
+            subclassTypesMap,
+            subinterfaceTypesMap
+        )
+    }
+
     /**
      * Returns some statistical data about the class hierarchy.
      */
@@ -1492,11 +1627,45 @@ object ClassHierarchy {
      */
     def apply(
         classFiles: Traversable[ClassFile],
-        predefinedClassHierarchies: Seq[() ⇒ java.io.InputStream] = List(
-            () ⇒ { getClass.getResourceAsStream("ClassHierarchyJLS.ths") },
-            () ⇒ { getClass.getResourceAsStream("ClassHierarchyJVMExceptions.ths") },
-            () ⇒ { getClass.getResourceAsStream("ClassHierarchyJava7-java.lang.reflect.ths") }
-        )): ClassHierarchy = {
+        predefinedClassHierarchies: Seq[() ⇒ java.io.InputStream] = defaultPredefinedClassHierarchies): ClassHierarchy = {
+
+        import scala.collection.mutable.HashSet
+
+        fromTypeDeclarations(
+            classFiles.view.map { classFile ⇒
+                TypeDeclaration(
+                    classFile.thisType,
+                    classFile.isInterfaceDeclaration,
+                    classFile.superclassType,
+                    HashSet.empty ++ classFile.interfaceTypes
+                )
+            },
+            predefinedClassHierarchies
+        )
+    }
+
+    /**
+     * The predefined class hierarchies that are – by default – used when creating a
+     * class hierarchy.
+     */
+    final val defaultPredefinedClassHierarchies: Seq[() ⇒ java.io.InputStream] = List(
+        () ⇒ { getClass.getResourceAsStream("ClassHierarchyJLS.ths") },
+        () ⇒ { getClass.getResourceAsStream("ClassHierarchyJVMExceptions.ths") },
+        () ⇒ { getClass.getResourceAsStream("ClassHierarchyJava7-java.lang.reflect.ths") }
+    )
+
+    /**
+     * Creates the class hierarchy using the given type declarations, the predefined
+     * type declarations, and the specified predefined class hierarchies.
+     *
+     * This makes it possible to create the class hierarchy without completely
+     * reading the class files (see [[org.opalj.br.reader.TypeDeclarationsReader]]).
+     *
+     * @see `apply` for further details.
+     */
+    def fromTypeDeclarations(
+        classFileTypeDeclarations: Traversable[TypeDeclaration],
+        predefinedClassHierarchies: Seq[() ⇒ java.io.InputStream] = defaultPredefinedClassHierarchies): ClassHierarchy = {
 
         import scala.collection.mutable.HashSet
         import scala.collection.mutable.HashMap
@@ -1560,72 +1729,18 @@ object ClassHierarchy {
         val subclassTypesMap = new Array[Set[ObjectType]](objectTypesCount)
         val subinterfaceTypesMap = new Array[Set[ObjectType]](objectTypesCount)
 
-        val ObjectId = ObjectType.Object.id
-
-        /**
-         * Extends the class hierarchy.
-         */
-        def process(
-            objectType: ObjectType,
-            isInterfaceType: Boolean,
-            theSuperclassType: Option[ObjectType],
-            theSuperinterfaceTypes: Set[ObjectType]) {
-
-            //
-            // Update the class hierarchy from the point of view of the newly added type 
-            //
-            knownTypesMap(objectType.id) = objectType
-            interfaceTypesMap(objectType.id) = isInterfaceType
-            superclassTypeMap(objectType.id) = theSuperclassType.orNull
-            superinterfaceTypesMap(objectType.id) = theSuperinterfaceTypes
-
-            //
-            // For each super(class|interface)type make sure that it is "known" 
-            //
-            theSuperclassType.foreach { superclassType ⇒
-                knownTypesMap(superclassType.id) = superclassType
-            }
-            theSuperinterfaceTypes.foreach { aSuperinterfaceType ⇒
-                knownTypesMap(aSuperinterfaceType.id) = aSuperinterfaceType
-                interfaceTypesMap(aSuperinterfaceType.id) = true
-            }
-
-            //
-            // Update the subtype information - i.e., update the class hierarchy 
-            // from the point of view of the new type's super types 
-            //
-            if (isInterfaceType) {
-                // an interface always has `java.lang.Object` as its super class
-                addToSet(subinterfaceTypesMap, ObjectId /*java.lang.Object*/ , objectType)
-            } else if (theSuperclassType.isDefined) {
-                addToSet(subclassTypesMap, theSuperclassType.get.id, objectType)
-            }
-            theSuperinterfaceTypes.foreach { aSuperinterfaceType ⇒
-                addToSet(subinterfaceTypesMap, aSuperinterfaceType.id, objectType)
-            }
-        }
-
-        typeDeclarations foreach { typeDecl ⇒
-            process(
-                typeDecl.objectType,
-                typeDecl.isInterfaceType,
-                typeDecl.theSuperclassType,
-                typeDecl.theSuperinterfaceTypes)
+        def process(typeDecl: TypeDeclaration): Unit = {
+            addTypeDeclaration(
+                knownTypesMap, interfaceTypesMap,
+                superclassTypeMap, superinterfaceTypesMap,
+                subclassTypesMap, subinterfaceTypesMap,
+                addToSet,
+                typeDecl)
         }
 
-        /**
-         * Analyzes the given class file and extends the current class hierarchy.
-         */
-        val processClassFile: (ClassFile) ⇒ Unit = { classFile ⇒
-            process(
-                classFile.thisType,
-                classFile.isInterfaceDeclaration,
-                classFile.superclassType,
-                HashSet.empty ++ classFile.interfaceTypes
-            )
-        }
+        typeDeclarations foreach process
 
-        classFiles foreach { processClassFile }
+        classFileTypeDeclarations foreach process
 
         val classHierarchy = new ClassHierarchy(
             knownTypesMap,
@@ -1637,5 +1752,54 @@ object ClassHierarchy {
         )
         classHierarchy
     }
-}
 
+    /**
+     * Extends the class hierarchy (represented by the given arrays) by the given
+     * type declaration.
+     */
+    private def addTypeDeclaration(
+        knownTypesMap: Array[ObjectType],
+        interfaceTypesMap: Array[Boolean],
+        superclassTypeMap: Array[ObjectType],
+        superinterfaceTypesMap: Array[Set[ObjectType]],
+        subclassTypesMap: Array[Set[ObjectType]],
+        subinterfaceTypesMap: Array[Set[ObjectType]],
+        addToSet: (Array[Set[ObjectType]], Int, ObjectType) ⇒ Unit,
+        typeDecl: TypeDeclaration): Unit = {
+        val ObjectId = ObjectType.Object.id
+        val TypeDeclaration(objectType, isInterfaceType, theSuperclassType, theSuperinterfaceTypes) = typeDecl
+
+        //
+        // Update the class hierarchy from the point of view of the newly added type 
+        //
+        knownTypesMap(objectType.id) = objectType
+        interfaceTypesMap(objectType.id) = isInterfaceType
+        superclassTypeMap(objectType.id) = theSuperclassType.orNull
+        superinterfaceTypesMap(objectType.id) = theSuperinterfaceTypes
+
+        //
+        // For each super(class|interface)type make sure that it is "known" 
+        //
+        theSuperclassType.foreach { superclassType ⇒
+            knownTypesMap(superclassType.id) = superclassType
+        }
+        theSuperinterfaceTypes.foreach { aSuperinterfaceType ⇒
+            knownTypesMap(aSuperinterfaceType.id) = aSuperinterfaceType
+            interfaceTypesMap(aSuperinterfaceType.id) = true
+        }
+
+        //
+        // Update the subtype information - i.e., update the class hierarchy 
+        // from the point of view of the new type's super types 
+        //
+        if (isInterfaceType) {
+            // an interface always has `java.lang.Object` as its super class
+            addToSet(subinterfaceTypesMap, ObjectId /*java.lang.Object*/ , objectType)
+        } else if (theSuperclassType.isDefined) {
+            addToSet(subclassTypesMap, theSuperclassType.get.id, objectType)
+        }
+        theSuperinterfaceTypes.foreach { aSuperinterfaceType ⇒
+            addToSet(subinterfaceTypesMap, aSuperinterfaceType.id, objectType)
+        }
+    }
+}
@@ -0,0 +1,217 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+import scala.collection.mutable.AnyRefMap
+
+/**
+ * Associates the methods or fields of a project with their class files and with
+ * project-local ids.
+ *
+ * The ids are assigned when the index is created: the members of a project with `n`
+ * members have the ids `[0,n)`. The index stores the members and their class files in
+ * two arrays that are indexed by the id; the ids of the members are stored in an
+ * `AnyRefMap` to make the lookup of a member's id as fast as possible.
+ *
+ * ==Updating the Index==
+ * An updated index (see [[updated]]) never changes the id of a member that belongs to
+ * both indices; hence, information that is stored in arrays that are indexed by
+ * the ids remains valid for the unchanged members. The ids of the removed members
+ * are not reused; they become holes. The added members get new ids that follow the
+ * largest id of this index. Therefore, the ids of an updated index are no longer
+ * dense: they are in the range `[0,size)`, but [[member]] returns `null` for the
+ * ids of removed members. A newly created index (and, hence, a newly created
+ * project) has dense ids again.
+ *
+ * @param ids The ids of the class members.
+ * @param members The class members; `null` for the ids of removed members.
+ * @param classFiles The class files of the class members.
+ * @param membersCount The number of class members; i.e., the number of
+ *      non-null entries of `members`.
+ *
+ * @author Michael Eichberg
+ */
+private[analyses] final class ClassMembersIndex[M <: ClassMember] private (
+        private val ids: AnyRefMap[ClassMember, Int],
+        private val members: Array[ClassMember],
+        private val classFiles: Array[ClassFile],
+        val membersCount: Int) {
+
+    /**
+     * The number of ids; all ids are in the range `[0,size)`. If the index was
+     * updated this number is larger than the number of class members.
+     */
+    def size: Int = members.length
+
+    /**
+     * Returns the project-local id of the given member or `-1` if the member does not
+     * belong to the project.
+     */
+    def id(member: M): Int = ids.getOrElse(member, -1)
+
+    /**
+     * Returns the member with the given project-local id or `null` if the member
+     * with the given id was removed by an update.
+     *
+     * @throws ArrayIndexOutOfBoundsException If the id is not in the range `[0,size)`.
+     */
+    def member(id: Int): M = members(id).asInstanceOf[M]
+
+    /**
+     * Returns the class file that defines the given member.
+     *
+     * @throws NoSuchElementException If the member does not belong to the project.
+     */
+    def classFile(member: M): ClassFile = {
+        val id = this.id(member)
+        if (id == -1)
+            throw new NoSuchElementException(s"$member does not belong to the project")
+        classFiles(id)
+    }
+
+    /**
+     * The class members of the project.
+     */
+    val iterable: Iterable[M] = new Iterable[M] {
+
+        def iterator: Iterator[M] = {
+            val members = ClassMembersIndex.this.members
+            val membersIterator =
+                if (membersCount == members.length)
+                    members.iterator
+                else
+                    members.iterator.filter(_ ne null)
+            membersIterator.asInstanceOf[Iterator[M]]
+        }
+
+        override def size: Int = membersCount
+    }
+
+    /**
+     * Creates a new index without the members of the removed class files and with
+     * the members of the added class files. This index is not changed.
+     *
+     * The ids of the remaining members are not changed and the ids of the removed
+     * members are not reused (see the class documentation). The time required to
+     * create the updated index is proportional to the size of this index, because
+     * the (mutable) map of the ids and the arrays are copied.
+     */
+    def updated(
+        removedClassFiles: Traversable[ClassFile],
+        addedClassFiles: Traversable[ClassFile],
+        membersOf: ClassFile ⇒ Seq[M]): ClassMembersIndex[M] = {
+        if (removedClassFiles.isEmpty && addedClassFiles.isEmpty)
+            return this;
+
+        val addedMembersCount = addedClassFiles.foldLeft(0)(_ + membersOf(_).size)
+        val ids = this.ids.clone()
+        val members = java.util.Arrays.copyOf(this.members, size + addedMembersCount)
+        val classFiles = java.util.Arrays.copyOf(this.classFiles, size + addedMembersCount)
+        var membersCount = this.membersCount
+
+        for {
+            classFile ← removedClassFiles
+            member ← membersOf(classFile)
+            id = this.id(member)
+            if id >= 0
+        } {
+            ids -= member
+            members(id) = null
+            classFiles(id) = null
+            membersCount -= 1
+        }
+
+        var nextId = size
+        for {
+            classFile ← addedClassFiles
+            member ← membersOf(classFile)
+        } {
+            members(nextId) = member
+            classFiles(nextId) = classFile
+            ids.update(member, nextId)
+            nextId += 1
+            membersCount += 1
+        }
+
+        new ClassMembersIndex[M](ids, members, classFiles, membersCount)
+    }
+}
+
+/**
+ * Factory for [[ClassMembersIndex]] objects.
+ *
+ * @author Michael Eichberg
+ */
+private[analyses] object ClassMembersIndex {
+
+    /**
+     * Creates the index of the members of the given class files. The members of
+     * a class file get consecutive ids; the class files are processed in the given
+     * order.
+     *
+     * The arrays are filled in parallel (the ids of the members of a class file are
+     * determined upfront); the map of the ids is filled by the calling thread
+     * afterwards, because `AnyRefMap` is not thread-safe.
+     */
+    def apply[M <: ClassMember](
+        classFiles: Array[ClassFile],
+        membersOf: ClassFile ⇒ Seq[M]): ClassMembersIndex[M] = {
+        // the first id of the members of each class file
+        val firstIds = new Array[Int](classFiles.length)
+        var size = 0
+        var i = 0
+        while (i < classFiles.length) {
+            firstIds(i) = size
+            size += membersOf(classFiles(i)).size
+            i += 1
+        }
+
+        val members = new Array[ClassMember](size)
+        val memberClassFiles = new Array[ClassFile](size)
+        classFiles.indices.par foreach { i ⇒
+            val classFile = classFiles(i)
+            var id = firstIds(i)
+            membersOf(classFile) foreach { member ⇒
+                members(id) = member
+                memberClassFiles(id) = classFile
+                id += 1
+            }
+        }
+
+        val ids = new AnyRefMap[ClassMember, Int](size)
+        var id = 0
+        while (id < size) {
+            ids.update(members(id), id)
+            id += 1
+        }
+        new ClassMembersIndex[M](ids, members, memberClassFiles, size)
+    }
+}
@@ -0,0 +1,88 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+import org.opalj.collection.mutable.BoundedSoftCache
+import org.opalj.br.cfg.CFG
+
+/**
+ * A project-wide store of the control-flow graphs of the project's methods.
+ *
+ * The control-flow graph of a method is computed on demand when it is requested for
+ * the first time and is then cached. To bound the memory that is required, at most
+ * `maxCachedCFGs` graphs are kept and these graphs are only softly referenced. I.e.,
+ * if the graph of a method was evicted, it is transparently recomputed.
+ *
+ * To get the project's store use the [[Project]]'s `get` method and pass in the
+ * [[ControlFlowGraphsKey]] object.
+ *
+ * ==Thread Safety==
+ * This class is thread-safe.
+ *
+ * @author Michael Eichberg
+ */
+class ControlFlowGraphs(val maxCachedCFGs: Int) {
+
+    private[this] val cache = new BoundedSoftCache[Method, CFG](maxCachedCFGs)
+
+    /**
+     * Returns the control-flow graph of the given method.
+     *
+     * @param method A method with a body.
+     */
+    def apply(method: Method): CFG = {
+        val code = method.body.getOrElse {
+            throw new IllegalArgumentException(s"the method ${method.toJava} has no body")
+        }
+        cache.getOrElseUpdate(method, CFG(code))
+    }
+
+    /**
+     * Returns the control-flow graph of the given method if it has a body.
+     */
+    def get(method: Method): Option[CFG] =
+        if (method.body.isDefined) Some(apply(method)) else None
+
+    /**
+     * The statistics of the underlying cache; primarily intended for debugging and
+     * tuning purposes.
+     */
+    def statistics: String = cache.toString
+}
+
+object ControlFlowGraphs {
+
+    /**
+     * The maximum number of control-flow graphs that are cached by default.
+     */
+    final val DefaultMaxCachedCFGs = 10000
+
+}
@@ -0,0 +1,72 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+import org.opalj.collection.mutable.BoundedSoftCache
+import org.opalj.br.cfg.ControlFlowStructure
+
+/**
+ * A project-wide store of the [[org.opalj.br.cfg.ControlFlowStructure]]s (dominator
+ * trees, post-dominator trees and loop nesting forests) of the project's methods.
+ *
+ * As in case of the [[ControlFlowGraphs]], the structures are computed on demand, at
+ * most `maxCachedStructures` structures are kept and they are only softly referenced.
+ *
+ * To get the project's store use the [[Project]]'s `get` method and pass in the
+ * [[ControlFlowStructuresKey]] object.
+ *
+ * ==Thread Safety==
+ * This class is thread-safe.
+ *
+ * @author Michael Eichberg
+ */
+class ControlFlowStructures(
+        val controlFlowGraphs: ControlFlowGraphs,
+        val maxCachedStructures: Int) {
+
+    private[this] val cache =
+        new BoundedSoftCache[Method, ControlFlowStructure](maxCachedStructures)
+
+    /**
+     * Returns the control-flow structure of the given method.
+     *
+     * @param method A method with a body.
+     */
+    def apply(method: Method): ControlFlowStructure = {
+        cache.getOrElseUpdate(method, new ControlFlowStructure(controlFlowGraphs(method)))
+    }
+
+    /**
+     * The statistics of the underlying cache; primarily intended for debugging and
+     * tuning purposes.
+     */
+    def statistics: String = cache.toString
+}
@@ -0,0 +1,380 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+import scala.collection.mutable
+
+/**
+ * A package of a [[PackageTree]].
+ *
+ * @param name The simple name of the package (e.g., `lang` in case of `java/lang`);
+ *      the name of the unnamed package is the empty string.
+ * @param packageName The name of the package in binary notation (e.g., `java/lang`).
+ *
+ * @note A package node does not know its parent package; this enables a
+ *      [[PackageTree]] to share unchanged subtrees with the tree it was derived from.
+ *
+ * @author Michael Eichberg
+ */
+final class PackageNode private[analyses] (
+        val name: String,
+        val packageName: String) {
+
+    private[this] val theChildren = mutable.OpenHashMap.empty[String, PackageNode]
+    private[this] var theClassFiles: List[ClassFile] = Nil
+    // The name of the root package (see rootPackage) and the name of the root package
+    // that was passed to this node's complete method; null if no package is a
+    // root package.
+    private[this] var theRootPackage: String = null
+    private[analyses] var theParentsRootPackage: String = null
+
+    private[this] var theMethodsCount: Int = 0
+    private[this] var theCodeSize: Long = 0l
+    private[this] var theTotalClassFilesCount: Int = 0
+    private[this] var theTotalMethodsCount: Int = 0
+    private[this] var theTotalCodeSize: Long = 0l
+
+    /**
+     * Returns the subpackage with the given simple name; if any.
+     */
+    def child(name: String): Option[PackageNode] = theChildren.get(name)
+
+    /**
+     * The direct subpackages of this package.
+     */
+    def children: Iterable[PackageNode] = theChildren.values
+
+    /**
+     * The class files that are directly defined in this package.
+     */
+    def classFiles: List[ClassFile] = theClassFiles
+
+    /**
+     * `true` if this package directly contains at least one class file.
+     */
+    def containsClassFiles: Boolean = theClassFiles.nonEmpty
+
+    /**
+     * The number of class files that are directly defined in this package.
+     */
+    def classFilesCount: Int = theClassFiles.size
+
+    /**
+     * The number of methods of the class files of this package.
+     */
+    def methodsCount: Int = theMethodsCount
+
+    /**
+     * The size of the code of the methods of the class files of this package.
+     */
+    def codeSize: Long = theCodeSize
+
+    /**
+     * The number of class files of this package and all its subpackages.
+     */
+    def totalClassFilesCount: Int = theTotalClassFilesCount
+
+    /**
+     * The number of methods of this package and all its subpackages.
+     */
+    def totalMethodsCount: Int = theTotalMethodsCount
+
+    /**
+     * The size of the code of this package and all its subpackages.
+     */
+    def totalCodeSize: Long = theTotalCodeSize
+
+    /**
+     * The name of the root package of this package (see [[Project.rootPackages]]);
+     * i.e., the outermost package – including this package – that contains class
+     * files. Only defined if this package contains class files.
+     */
+    def rootPackage: Option[String] = Option(theRootPackage)
+
+    /**
+     * Calls the given function for this package and all its (transitive) subpackages.
+     */
+    def foreach(f: PackageNode ⇒ Unit): Unit = {
+        f(this)
+        theChildren.values foreach { _.foreach(f) }
+    }
+
+    private[analyses] def getOrCreateChild(name: String): PackageNode = {
+        theChildren.getOrElseUpdate(
+            name,
+            new PackageNode(name, if (packageName.isEmpty) name else packageName+"/"+name)
+        )
+    }
+
+    private[analyses] def addChild(child: PackageNode): Unit = {
+        theChildren.update(child.name, child)
+    }
+
+    private[analyses] def addClassFile(classFile: ClassFile): Unit = {
+        theClassFiles = classFile :: theClassFiles
+        classFile.methods foreach { method ⇒
+            theMethodsCount += 1
+            method.body.foreach(theCodeSize += _.codeLength)
+        }
+    }
+
+    // Computes the aggregated counts and the root packages of this package
+    // and its subpackages. The nodes that are shared with another tree (see
+    // `isShared`) are not changed; if the root package of a shared node would
+    // change, the node is copied.
+    private[analyses] def complete(
+        rootPackage: String,
+        isShared: PackageNode ⇒ Boolean = _ ⇒ false): Unit = {
+        theParentsRootPackage = rootPackage
+        val childrensRootPackage =
+            if (containsClassFiles) {
+                theRootPackage = if (rootPackage eq null) packageName else rootPackage
+                // the unnamed package is never the root package of a named package
+                if (packageName.isEmpty) null else theRootPackage
+            } else {
+                rootPackage
+            }
+
+        theTotalClassFilesCount = classFilesCount
+        theTotalMethodsCount = theMethodsCount
+        theTotalCodeSize = theCodeSize
+        theChildren.values.toList foreach { child ⇒
+            val completedChild =
+                if (!isShared(child)) {
+                    child.complete(childrensRootPackage, isShared)
+                    child
+                } else if (child.theParentsRootPackage == childrensRootPackage) {
+                    child
+                } else {
+                    val copiedChild = child.copy()
+                    copiedChild.complete(childrensRootPackage, isShared)
+                    addChild(copiedChild)
+                    copiedChild
+                }
+            theTotalClassFilesCount += completedChild.totalClassFilesCount
+            theTotalMethodsCount += completedChild.totalMethodsCount
+            theTotalCodeSize += completedChild.totalCodeSize
+        }
+    }
+
+    // Creates a deep copy of the structure of this package and its subpackages;
+    // the copy has to be completed.
+    private[analyses] def copy(): PackageNode = {
+        val node = new PackageNode(name, packageName)
+        theClassFiles.reverse foreach node.addClassFile
+        theChildren.values foreach { child ⇒ node.addChild(child.copy()) }
+        node
+    }
+
+    override def toString: String = {
+        val name = if (packageName.isEmpty) "<unnamed package>" else packageName
+        s"PackageNode($name; class files=$classFilesCount/$totalClassFilesCount)"
+    }
+}
+
+/**
+ * The tree of the packages of a project. Each package is represented by a
+ * [[PackageNode]]; the root of the tree is the unnamed package.
+ *
+ * Looking up a package or all class files whose package name starts with a given
+ * prefix has a complexity of O(depth of the package); i.e., it does not depend
+ * on the size of the project.
+ *
+ * ==Thread Safety==
+ * A `PackageTree` is immutable after its creation and, hence, thread-safe. Package
+ * trees that are derived from each other (see [[updated]]) share the packages that
+ * did not change.
+ *
+ * @author Michael Eichberg
+ */
+final class PackageTree private (val root: PackageNode) {
+
+    /**
+     * Returns the package with the given name (in binary notation); if any.
+     */
+    def apply(packageName: String): Option[PackageNode] = {
+        if (packageName.isEmpty)
+            return Some(root);
+
+        var node = root
+        for (name ← packageName.split('/')) {
+            val child = node.child(name)
+            if (child.isEmpty)
+                return None;
+            node = child.get
+        }
+        Some(node)
+    }
+
+    /**
+     * The class files that are directly defined in the given package.
+     */
+    def classFiles(packageName: String): List[ClassFile] = {
+        apply(packageName).map(_.classFiles).getOrElse(Nil)
+    }
+
+    /**
+     * The class files whose package name starts with the given prefix. The prefix
+     * is not required to end on a segment boundary; i.e., the prefix `java/la`
+     * matches the class files of the packages `java/lang` and `java/lang/reflect`,
+     * but not those of `java`.
+     */
+    def classFilesWithPrefix(prefix: String): List[ClassFile] = {
+        val lastSeparator = prefix.lastIndexOf('/')
+        val parent = if (lastSeparator == -1) Some(root) else apply(prefix.substring(0, lastSeparator))
+        val simpleNamePrefix = prefix.substring(lastSeparator + 1)
+
+        var classFiles = List.empty[ClassFile]
+        def collectClassFiles(node: PackageNode): Unit = {
+            node.foreach { node ⇒ classFiles = node.classFiles ::: classFiles }
+        }
+        parent foreach { parent ⇒
+            if (simpleNamePrefix.isEmpty && lastSeparator == -1)
+                collectClassFiles(parent) // the empty prefix matches all packages
+            else
+                parent.children foreach { child ⇒
+                    if (child.name.startsWith(simpleNamePrefix)) collectClassFiles(child)
+                }
+        }
+        classFiles
+    }
+
+    /**
+     * The names of all packages that directly contain at least one class file.
+     */
+    lazy val packages: Set[String] = {
+        var packages = Set.empty[String]
+        root.foreach { node ⇒ if (node.containsClassFiles) packages += node.packageName }
+        packages
+    }
+
+    /**
+     * The mapping between each package that directly contains at least one class file
+     * and its root package (see [[Project.rootPackages]]).
+     */
+    lazy val rootPackages: Map[String, String] = {
+        var rootPackages = Map.empty[String, String]
+        root.foreach { node ⇒
+            node.rootPackage foreach { rootPackage ⇒
+                rootPackages += ((node.packageName, rootPackage))
+            }
+        }
+        rootPackages
+    }
+
+    /**
+     * Creates the package tree of an updated project (see [[Project.update]]). Only
+     * the packages that contain removed or added class files and their parent
+     * packages are created anew; all other packages are shared with this tree.
+     */
+    def updated(
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): PackageTree = {
+        val removed = removedClassFiles.groupBy(_.thisType.packageName)
+        val added = addedClassFiles.groupBy(_.thisType.packageName)
+        val changedPackages = removed.keySet ++ added.keySet
+
+        def subpackagePrefix(packageName: String): String =
+            if (packageName.isEmpty) "" else packageName+"/"
+
+        def containsChanges(packageName: String): Boolean = {
+            val prefix = subpackagePrefix(packageName)
+            changedPackages exists { p ⇒ p == packageName || p.startsWith(prefix) }
+        }
+
+        val sharedNodes = mutable.HashSet.empty[PackageNode]
+
+        // Returns the updated package or null if the package no longer contains
+        // class files or subpackages.
+        def update(oldNode: PackageNode, name: String, packageName: String): PackageNode = {
+            val node = new PackageNode(name, packageName)
+            if (oldNode ne null) {
+                val removedClassFiles = removed.getOrElse(packageName, Nil)
+                oldNode.classFiles.reverse foreach { classFile ⇒
+                    if (!removedClassFiles.exists(_ eq classFile)) node.addClassFile(classFile)
+                }
+                oldNode.children foreach { child ⇒
+                    if (containsChanges(child.packageName)) {
+                        val updatedChild = update(child, child.name, child.packageName)
+                        if (updatedChild ne null) node.addChild(updatedChild)
+                    } else {
+                        sharedNodes += child
+                        node.addChild(child)
+                    }
+                }
+            }
+            added.getOrElse(packageName, Nil) foreach node.addClassFile
+
+            // add the new subpackages
+            val prefix = subpackagePrefix(packageName)
+            for {
+                changedPackage ← changedPackages
+                if changedPackage.nonEmpty && changedPackage.startsWith(prefix)
+                childName = changedPackage.substring(prefix.length).takeWhile(_ != '/')
+                if node.child(childName).isEmpty
+            } {
+                val newChild = update(null, childName, prefix + childName)
+                if (newChild ne null) node.addChild(newChild)
+            }
+
+            if (node.containsClassFiles || node.children.nonEmpty || packageName.isEmpty)
+                node
+            else
+                null
+        }
+
+        val root = update(this.root, "", "")
+        root.complete(null, sharedNodes.contains)
+        new PackageTree(root)
+    }
+}
+
+/**
+ * Factory for [[PackageTree]]s.
+ *
+ * @author Michael Eichberg
+ */
+object PackageTree {
+
+    def apply(classFiles: Traversable[ClassFile]): PackageTree = {
+        val root = new PackageNode("", "")
+        classFiles foreach { classFile ⇒
+            val packageName = classFile.thisType.packageName
+            var node = root
+            if (packageName.nonEmpty) {
+                packageName.split('/') foreach { name ⇒ node = node.getOrCreateChild(name) }
+            }
+            node.addClassFile(classFile)
+        }
+        root.complete(null)
+        new PackageTree(root)
+    }
+}
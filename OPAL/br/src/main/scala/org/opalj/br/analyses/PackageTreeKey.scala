@@ -0,0 +1,71 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+/**
+ * The ''key'' object to get the project's [[PackageTree]].
+ *
+ * @example
+ *      To get the class files of a package and its subpackages use the
+ *      [[Project]]'s `get` method and pass in `this` object.
+ *      {{{
+ *      val classFiles = project.get(PackageTreeKey).classFilesWithPrefix("java/util/")
+ *      }}}
+ *
+ * @author Michael Eichberg
+ */
+object PackageTreeKey extends ProjectInformationKey[PackageTree] {
+
+    /**
+     * The [[PackageTree]] has no special prerequisites.
+     *
+     * @return `Nil`.
+     */
+    override protected def requirements: Seq[ProjectInformationKey[Nothing]] = Nil
+
+    /**
+     * Creates the tree of the project's packages.
+     */
+    override protected def compute(project: SomeProject): PackageTree = {
+        PackageTree(project.classFiles)
+    }
+
+    /**
+     * Updates the package tree; only the changed packages are recreated.
+     */
+    override protected def updated(
+        packageTree: PackageTree,
+        project: SomeProject,
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): Option[PackageTree] = {
+        Some(packageTree.updated(removedClassFiles, addedClassFiles))
+    }
+}
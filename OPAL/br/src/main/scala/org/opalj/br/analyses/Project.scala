@@ -33,12 +33,11 @@ package analyses
 import java.net.URL
 import java.io.File
 import scala.collection.{ Set, Map }
-import scala.collection.mutable.{ AnyRefMap, OpenHashMap }
+import scala.collection.mutable.OpenHashMap
 import scala.collection.parallel.mutable.ParArray
 import scala.collection.parallel.immutable.ParVector
 import scala.collection.mutable.ArrayBuffer
 import scala.collection.mutable.Buffer
-import scala.collection.SortedMap
 
 /**
  * Primary abstraction of a Java project; i.e., a set of classes that constitute a
@@ -70,11 +69,11 @@ import scala.collection.SortedMap
 class Project[Source] private (
         val projectClassFiles: List[ClassFile],
         val libraryClassFiles: List[ClassFile],
-        private[this] val projectTypes: Set[ObjectType],
-        private[this] val fieldToClassFile: AnyRefMap[Field, ClassFile],
-        private[this] val methodToClassFile: AnyRefMap[Method, ClassFile],
-        private[this] val objectTypeToClassFile: OpenHashMap[ObjectType, ClassFile],
-        private[this] val sources: OpenHashMap[ObjectType, Source],
+        private val projectTypes: scala.collection.immutable.Set[ObjectType],
+        private val fieldsIndex: ClassMembersIndex[Field],
+        private val methodsIndex: ClassMembersIndex[Method],
+        private val objectTypeToClassFile: scala.collection.immutable.Map[ObjectType, ClassFile],
+        private val sources: scala.collection.immutable.Map[ObjectType, Source],
         val projectClassFilesCount: Int,
         val projectMethodsCount: Int,
         val projectFieldsCount: Int,
@@ -97,6 +96,24 @@ class Project[Source] private (
             otherProject.libraryClassFilesWithSources)
     }
 
+    /**
+     * Creates a new project in which the given class files are added or – if a class
+     * file for the same type already exists – replaced and in which the class files
+     * of the `removedTypes` are removed.
+     *
+     * @see [[Project.update]] for further details.
+     */
+    def update(
+        projectClassFilesWithSources: Iterable[(ClassFile, Source)],
+        libraryClassFilesWithSources: Iterable[(ClassFile, Source)] = Iterable.empty,
+        removedTypes: Iterable[ObjectType] = Iterable.empty): Project[Source] = {
+        Project.update[Source](
+            this,
+            projectClassFilesWithSources,
+            libraryClassFilesWithSources,
+            removedTypes)
+    }
+
     val classFilesCount: Int =
         projectClassFilesCount + libraryClassFilesCount
 
@@ -116,13 +133,10 @@ class Project[Source] private (
      * any class – only its subclasses. This package is, hence, not returned by this
      * function, but the package `java.lang` is.
      *
-     * @note This method's result is not cached.
+     * @note The result is determined using the project's [[PackageTree]]
+     *      (see [[PackageTreeKey]]) and is therefore cached.
      */
-    def packages: Set[String] = {
-        var packages = Set.empty[String]
-        classFiles.foreach(cf ⇒ packages += cf.thisType.packageName)
-        packages
-    }
+    def packages: Set[String] = get(PackageTreeKey).packages
 
     //    def innerClasses(classFile: ClassFile): Traversable[ClassFile] = {
     //        val innerClasses = classFile.innerClasses
@@ -156,34 +170,15 @@ class Project[Source] private (
      * <Project>.rootPackages().values.toSet
      * }}}
      *
-     * @note This method's result is not cached.
+     * @note The result is determined using the project's [[PackageTree]]
+     *      (see [[PackageTreeKey]]) and is therefore cached.
      *
      * @return a Map which contains for each package name the root package name.
      */
-    def rootPackages: Map[String, String] = {
-        val allPackages = packages.toSeq.sorted
-        if (allPackages.isEmpty)
-            Map.empty
-        else if (allPackages.tail.isEmpty)
-            Map((allPackages.head, allPackages.head))
-        else {
-            allPackages.tail.foldLeft(SortedMap((allPackages.head, allPackages.head))) {
-                (rootPackages, nextPackage) ⇒
-                    // java is not a root package of "javax"...
-                    val (_, lastPackage) = rootPackages.last
-                    if (nextPackage.startsWith(lastPackage) &&
-                        nextPackage.charAt(lastPackage.size) == '/')
-                        rootPackages + ((nextPackage, lastPackage))
-                    else
-                        rootPackages + ((nextPackage, nextPackage))
-            }
-        }
-    }
+    def rootPackages: Map[String, String] = get(PackageTreeKey).rootPackages
 
     /**
      * Number of packages.
-     *
-     * @note The result is (re)calculated for each call.
      */
     def packagesCount = packages.size
 
@@ -210,9 +205,59 @@ class Project[Source] private (
             libraryClassFiles.view.map(cf ⇒ (sources(cf.thisType), cf))
     }
 
-    def methods: Iterable[Method] = methodToClassFile.keys
+    def methods: Iterable[Method] = methodsIndex.iterable
+
+    def fields: Iterable[Field] = fieldsIndex.iterable
+
+    /**
+     * Returns the project-local id of the given method or `-1` if the method
+     * does not belong to this project. The ids of the methods of this project are
+     * in the range `[0,methodIdsCount)`. Hence, per-method information can be stored
+     * in arrays.
+     *
+     * The ids of a newly created project are dense. If a project is updated (see
+     * [[update]]) the methods that belong to both projects keep their ids; the ids
+     * of the removed methods are not reused and the added methods get new ids.
+     * Hence, arrays that are indexed by the ids of the original project remain valid
+     * for the unchanged methods, but the ids of an updated project may contain holes.
+     */
+    def methodId(method: Method): Int = methodsIndex.id(method)
+
+    /**
+     * The number of method ids. If the project was updated, this number may be
+     * larger than the number of methods of this project (see [[methodId]]).
+     */
+    def methodIdsCount: Int = methodsIndex.size
+
+    /**
+     * Returns the method with the given project-local id (see [[methodId]]) or
+     * `null` if the method with the given id was removed by an update.
+     *
+     * @throws ArrayIndexOutOfBoundsException If the id is not in the range
+     *      `[0,methodIdsCount)`.
+     */
+    def method(methodId: Int): Method = methodsIndex.member(methodId)
+
+    /**
+     * Returns the project-local id of the given field or `-1` if the field
+     * does not belong to this project (see [[methodId]] for further details).
+     */
+    def fieldId(field: Field): Int = fieldsIndex.id(field)
 
-    def fields: Iterable[Field] = fieldToClassFile.keys
+    /**
+     * The number of field ids. If the project was updated, this number may be
+     * larger than the number of fields of this project (see [[methodId]]).
+     */
+    def fieldIdsCount: Int = fieldsIndex.size
+
+    /**
+     * Returns the field with the given project-local id (see [[fieldId]]) or
+     * `null` if the field with the given id was removed by an update.
+     *
+     * @throws ArrayIndexOutOfBoundsException If the id is not in the range
+     *      `[0,fieldIdsCount)`.
+     */
+    def field(fieldId: Int): Field = fieldsIndex.member(fieldId)
 
     private[analyses] def projectClassFilesWithSources: Iterable[(ClassFile, Source)] = {
         projectClassFiles.view.map { classFile ⇒
@@ -263,14 +308,14 @@ class Project[Source] private (
      * the method was previously added to this project. (I.e., the class file which
      * defines the method was added.)
      */
-    def classFile(method: Method): ClassFile = methodToClassFile(method)
+    def classFile(method: Method): ClassFile = methodsIndex.classFile(method)
 
     /**
      * Returns the given field's class file. This method is only defined if
      * the field was previously added to this project. (I.e., the class file which
      * defines the field was added.)
      */
-    def classFile(field: Field): ClassFile = fieldToClassFile(field)
+    def classFile(field: Field): ClassFile = fieldsIndex.classFile(field)
 
     /**
      * Converts this project abstraction into a standard Java `HashMap`.
@@ -288,8 +333,12 @@ class Project[Source] private (
      * Some basic statistics about this project.
      *
      * ((Re)Calculated on-demand.)
+     *
+     * @note To count the instructions ("ProjectInstructions") lazily decoded method
+     *      bodies are decoded. The code size ("CodeSize"; in bytes) is
+     *      computed when the project is created.
      */
-    def statistics: Map[String, Int] =
+    def statistics: Map[String, Long] =
         Map(
             ("ProjectClassFiles" -> projectClassFilesCount),
             ("LibraryClassFiles" -> libraryClassFilesCount),
@@ -297,7 +346,8 @@ class Project[Source] private (
             ("ProjectFields" -> projectFieldsCount),
             ("LibraryMethods" -> libraryMethodsCount),
             ("LibraryFields" -> libraryFieldsCount),
-            ("ProjectInstructions" -> classFiles.foldLeft(0)(_ + _.methods.filter(_.body.isDefined).foldLeft(0)(_ + _.body.get.instructions.count(_ != null))))
+            ("ProjectInstructions" -> classFiles.foldLeft(0)(_ + _.methods.filter(_.body.isDefined).foldLeft(0)(_ + _.body.get.instructions.count(_ != null)))),
+            ("CodeSize" -> codeSize)
         )
 
     /**
@@ -329,10 +379,208 @@ class Project[Source] private (
     // ----------------------------------------------------------------------------------
 
     import java.util.concurrent.atomic.AtomicReferenceArray
+    import java.util.concurrent.atomic.AtomicInteger
+    import java.util.concurrent.atomic.AtomicLong
+    import java.util.concurrent.ConcurrentHashMap
+    import java.util.concurrent.FutureTask
+    import java.util.concurrent.ExecutionException
+    import java.util.concurrent.Callable
 
     // Note that the referenced array will never shrink!
+    // The array is only replaced and the keys are only updated while holding this
+    // project's lock; however, the lock is never held while some information is
+    // computed.
+    // Information that is not pinned (see ProjectInformationRetention) is stored
+    // using a SoftProjectInformation object.
     @volatile
-    private[this] var projectInformation = new AtomicReferenceArray[AnyRef](32)
+    private var projectInformation = new AtomicReferenceArray[AnyRef](32)
+
+    import Project.{ SoftProjectInformation, dereference }
+
+    // The retention policies that override the policies of the keys.
+    private val projectInformationRetentions =
+        new ConcurrentHashMap[ProjectInformationKey[_ <: AnyRef], ProjectInformationRetention]()
+
+    /**
+     * Returns the policy that determines how long this project retains the
+     * information identified by the given key.
+     */
+    def retention(pik: ProjectInformationKey[_ <: AnyRef]): ProjectInformationRetention = {
+        val retention = projectInformationRetentions.get(pik)
+        if (retention ne null) retention else pik.retention
+    }
+
+    /**
+     * Overrides – for this project – the retention policy of the given key. If the
+     * information is already available, the new policy is immediately applied.
+     */
+    def setRetention(
+        pik: ProjectInformationKey[_ <: AnyRef],
+        retention: ProjectInformationRetention): Unit = this.synchronized {
+        projectInformationRetentions.put(pik, retention)
+        val pikUId = pik.uniqueId
+        val thisProjectInformation = this.projectInformation
+        if (pikUId < thisProjectInformation.length()) {
+            val pi = dereference(thisProjectInformation.get(pikUId))
+            if (pi ne null) thisProjectInformation.set(pikUId, retain(pik, pi))
+        }
+    }
+
+    // Wraps the information as required by the key's retention policy.
+    private[this] def retain(pik: ProjectInformationKey[_ <: AnyRef], pi: AnyRef): AnyRef = {
+        retention(pik) match {
+            case ProjectInformationRetention.Pinned           ⇒ pi
+            case ProjectInformationRetention.SoftlyReferenced ⇒ new SoftProjectInformation(pi)
+            case ProjectInformationRetention.ReleasedAfterUse ⇒ new SoftProjectInformation(pi)
+        }
+    }
+
+    // The number of (running) uses of the information identified by a key; guarded
+    // by this project's lock.
+    private[this] val projectInformationUses =
+        scala.collection.mutable.Map.empty[ProjectInformationKey[_ <: AnyRef], Int]
+
+    /**
+     * Applies the given function to the information identified by the given key.
+     * If the information's retention policy is
+     * [[ProjectInformationRetention.ReleasedAfterUse]], the information is
+     * released when the function returns and the information is not used
+     * by some other thread.
+     *
+     * @see [[ProjectInformationRetention]] for further information.
+     */
+    def use[T <: AnyRef, R](pik: ProjectInformationKey[T])(f: T ⇒ R): R = {
+        this.synchronized {
+            projectInformationUses.update(pik, projectInformationUses.getOrElse(pik, 0) + 1)
+        }
+        try {
+            f(get(pik))
+        } finally {
+            this.synchronized {
+                val uses = projectInformationUses(pik) - 1
+                if (uses == 0) {
+                    projectInformationUses.remove(pik)
+                    if (retention(pik) == ProjectInformationRetention.ReleasedAfterUse)
+                        release(pik)
+                } else {
+                    projectInformationUses.update(pik, uses)
+                }
+            }
+        }
+    }
+
+    /**
+     * Releases the information identified by the given key. If the information is
+     * requested again, it will be recomputed. Information that was computed using
+     * the released information is not affected.
+     */
+    def release(pik: ProjectInformationKey[_ <: AnyRef]): Unit = this.synchronized {
+        val pikUId = pik.uniqueId
+        val thisProjectInformation = this.projectInformation
+        if (pikUId < thisProjectInformation.length()) {
+            thisProjectInformation.set(pikUId, null)
+        }
+        projectInformationKeys = projectInformationKeys.filter(_ ne pik)
+    }
+
+    /**
+     * Estimates – for each key for which the information is currently available – the
+     * amount of heap memory that is held by the information. Objects that are shared
+     * with the project (class files, methods, instructions, types, strings, ...) and
+     * with other project information are not counted.
+     *
+     * @note This method traverses the complete object graphs of the information
+     *      and, hence, is expensive.
+     */
+    def projectInformationHeapUsage: Map[ProjectInformationKey[_ <: AnyRef], Long] = {
+        val pis = for {
+            pik ← projectInformationKeys
+            pi = computedProjectInformation(pik)
+            if pi ne null
+        } yield (pik, pi)
+
+        val allProjectInformation = new java.util.IdentityHashMap[AnyRef, AnyRef]()
+        pis foreach { e ⇒ allProjectInformation.put(e._2, e._2) }
+        def isShared(o: AnyRef): Boolean = o match {
+            case _: ClassFile | _: ClassMember | _: Attribute | _: org.opalj.br.instructions.Instruction |
+                _: Type | _: MethodDescriptor | _: String |
+                _: Project[_] | _: ClassHierarchy ⇒ true
+            case _ ⇒ allProjectInformation.containsKey(o)
+        }
+        pis.map { e ⇒
+            val pik: ProjectInformationKey[_ <: AnyRef] = e._1
+            val pi = e._2
+            (pik, org.opalj.util.ObjectGraphSize(pi, o ⇒ (o ne pi) && isShared(o)))
+        }.toMap
+    }
+
+    // The keys of the computed project information in the order in which the
+    // information was computed; i.e., a key's requirements precede the key.
+    @volatile
+    private var projectInformationKeys: List[ProjectInformationKey[_ <: AnyRef]] = Nil
+
+    // The computations of project information that are currently running – identified
+    // by the unique id of the respective key.
+    private[this] val projectInformationComputations =
+        new ConcurrentHashMap[Int, ProjectInformationComputation]()
+
+    // The keys of the information that is derived by the current thread; the key
+    // of the information that is derived last is the head of the list. Used to
+    // detect (invalid) cyclic requirements.
+    private[this] val derivedProjectInformationKeys =
+        new ThreadLocal[List[ProjectInformationKey[_ <: AnyRef]]] {
+            override def initialValue() = Nil
+        }
+
+    private[this] val projectInformationKeysStatistics =
+        new ConcurrentHashMap[ProjectInformationKey[_ <: AnyRef], ProjectInformationKeyStatisticsCollector]()
+
+    private[this] final class ProjectInformationKeyStatisticsCollector {
+        val computations = new AtomicInteger(0)
+        val computationTime = new AtomicLong(0l)
+        val waits = new AtomicInteger(0)
+        val waitingTime = new AtomicLong(0l)
+    }
+
+    private[this] final class ProjectInformationComputation(
+        val pik: ProjectInformationKey[_ <: AnyRef])
+            extends FutureTask[AnyRef](new Callable[AnyRef] { def call() = pik.doCompute(Project.this) }) {
+
+        // the thread that computes the information
+        @volatile var computingThread: Thread = null
+    }
+
+    private[this] def statisticsCollector(
+        pik: ProjectInformationKey[_ <: AnyRef]): ProjectInformationKeyStatisticsCollector = {
+        val collector = projectInformationKeysStatistics.get(pik)
+        if (collector ne null)
+            collector
+        else {
+            val newCollector = new ProjectInformationKeyStatisticsCollector
+            val existingCollector = projectInformationKeysStatistics.putIfAbsent(pik, newCollector)
+            if (existingCollector eq null) newCollector else existingCollector
+        }
+    }
+
+    /**
+     * Returns – for each key for which the information was computed or requested
+     * while it was computed – the time spent computing the information and the time
+     * threads spent waiting for it.
+     */
+    def projectInformationStatistics: Map[ProjectInformationKey[_ <: AnyRef], ProjectInformationKeyStatistics] = {
+        import scala.collection.JavaConversions._
+        projectInformationKeysStatistics.map { e ⇒
+            val pik: ProjectInformationKey[_ <: AnyRef] = e._1
+            val c = e._2
+            (
+                pik,
+                ProjectInformationKeyStatistics(
+                    c.computations.get, c.computationTime.get,
+                    c.waits.get, c.waitingTime.get
+                )
+            )
+        }.toMap
+    }
 
     /**
      * Returns the additional project information that is ''currently'' available.
@@ -347,7 +595,7 @@ class Project[Source] private (
         var pis = List.empty[AnyRef]
         val thisProjectInformation = this.projectInformation
         for (i ← (0 until thisProjectInformation.length())) {
-            var pi = thisProjectInformation.get(i)
+            var pi = dereference(thisProjectInformation.get(i))
             if (pi != null) {
                 pis = pi :: pis
             }
@@ -365,54 +613,129 @@ class Project[Source] private (
      * @see [[ProjectInformationKey]] for further information.
      */
     def get[T <: AnyRef](pik: ProjectInformationKey[T]): T = {
+        val pi = computedProjectInformation(pik)
+        if (pi ne null)
+            pi
+        else
+            derive(pik)
+    }
+
+    /**
+     * Returns the information identified by the given key if it is available;
+     * `null` otherwise.
+     */
+    private[this] def computedProjectInformation[T <: AnyRef](
+        pik: ProjectInformationKey[T]): T = {
         val pikUId = pik.uniqueId
+        val thisProjectInformation = this.projectInformation
+        if (pikUId < thisProjectInformation.length())
+            dereference(thisProjectInformation.get(pikUId)).asInstanceOf[T]
+        else
+            null.asInstanceOf[T]
+    }
 
-        def derive(projectInformation: AtomicReferenceArray[AnyRef]): T = { // calls are externally synchronized!
-            for (requiredProjectInformationKey ← pik.getRequirements) {
-                get(requiredProjectInformationKey)
+    /**
+     * Computes the information identified by the given key. Different keys are
+     * computed concurrently; if the information is already being computed by another
+     * thread, the current thread waits until the information is available.
+     *
+     * @throws IllegalStateException If the computation of the information
+     *      (transitively) requires the information itself.
+     */
+    private[this] def derive[T <: AnyRef](pik: ProjectInformationKey[T]): T = {
+        val derivedKeys = derivedProjectInformationKeys.get
+        if (derivedKeys contains pik) {
+            val cycle = pik :: derivedKeys.takeWhile(_ ne pik).reverse ::: List(pik)
+            throw new IllegalStateException(
+                cycle.mkString("cyclic project information requirements: ", " → ", ""))
+        }
+        derivedProjectInformationKeys.set(pik :: derivedKeys)
+        try {
+            deriveRequirementsAndInformation(pik)
+        } finally {
+            derivedProjectInformationKeys.set(derivedKeys)
+        }
+    }
+
+    private[this] def deriveRequirementsAndInformation[T <: AnyRef](
+        pik: ProjectInformationKey[T]): T = {
+        val pikUId = pik.uniqueId
+
+        // 1. Make sure that all requirements are available. Requirements that are
+        //    already computed by other threads are only waited for after the
+        //    remaining requirements were computed by the current thread.
+        var pendingRequirements: List[ProjectInformationKey[_ <: AnyRef]] = Nil
+        for (requirement ← pik.getRequirements) {
+            if (projectInformationComputations.containsKey(requirement.uniqueId))
+                pendingRequirements = requirement :: pendingRequirements
+            else
+                get(requirement)
+        }
+        pendingRequirements foreach { requirement ⇒ get(requirement) }
+
+        // 2. Compute the information or wait for the thread that computes it.
+        val computation = new ProjectInformationComputation(pik)
+        val runningComputation = projectInformationComputations.putIfAbsent(pikUId, computation)
+        val statistics = statisticsCollector(pik)
+        if (runningComputation eq null) {
+            // the information may have become available in the meantime
+            val pi = computedProjectInformation(pik)
+            if (pi ne null) {
+                projectInformationComputations.remove(pikUId, computation)
+                return pi
+            }
+
+            computation.computingThread = Thread.currentThread()
+            val startTime = System.nanoTime
+            computation.run()
+            statistics.computations.incrementAndGet()
+            statistics.computationTime.addAndGet(System.nanoTime - startTime)
+            try {
+                val pi = computation.get().asInstanceOf[T]
+                storeProjectInformation(pik, pi)
+                pi
+            } catch {
+                case e: ExecutionException ⇒ throw e.getCause
+            } finally {
+                // the information is stored (or the computation failed and may be
+                // repeated later on)
+                projectInformationComputations.remove(pikUId, computation)
+            }
+        } else {
+            if (runningComputation.computingThread eq Thread.currentThread())
+                throw new IllegalStateException(
+                    s"the computation of $pik (transitively) requires itself")
+
+            val startTime = System.nanoTime
+            try {
+                runningComputation.get().asInstanceOf[T]
+            } catch {
+                case e: ExecutionException ⇒ throw e.getCause
+            } finally {
+                statistics.waits.incrementAndGet()
+                statistics.waitingTime.addAndGet(System.nanoTime - startTime)
             }
-            val pi = pik.doCompute(this)
-            projectInformation.set(pikUId, pi)
-            pi
         }
+    }
 
+    private[this] def storeProjectInformation(
+        pik: ProjectInformationKey[_ <: AnyRef],
+        pi: AnyRef): Unit = this.synchronized {
+        val pikUId = pik.uniqueId
         val thisProjectInformation = this.projectInformation
         if (pikUId < thisProjectInformation.length()) {
-            val pi = thisProjectInformation.get(pikUId)
-            if (pi != null) {
-                pi.asInstanceOf[T]
-            } else {
-                this.synchronized {
-                    // It may be the case that the underlying array was updated!
-                    val thisProjectInformation = this.projectInformation
-                    // double-checked locking (works with Java >=6)
-                    val pi = thisProjectInformation.get(pikUId)
-                    if (pi != null) {
-                        pi.asInstanceOf[T]
-                    } else {
-                        derive(thisProjectInformation)
-                    }
-                }
-            }
+            thisProjectInformation.set(pikUId, retain(pik, pi))
         } else {
-            // We have to synchronize w.r.t. "this" object on write accesses
-            // to make sure that we do not loose a concurrent update or
-            // derive an information more than once.
-            this.synchronized {
-                val thisProjectInformation = this.projectInformation
-                if (pikUId < thisProjectInformation.length()) {
-                    get(pik)
-                } else {
-                    val newLength = Math.max(thisProjectInformation.length * 2, pikUId * 2)
-                    val newProjectInformation = new AtomicReferenceArray[AnyRef](newLength)
-                    for (i ← 0 until thisProjectInformation.length()) {
-                        newProjectInformation.set(i, thisProjectInformation.get(i))
-                    }
-                    this.projectInformation = newProjectInformation
-                    derive(newProjectInformation)
-                }
+            val newLength = Math.max(thisProjectInformation.length * 2, pikUId * 2)
+            val newProjectInformation = new AtomicReferenceArray[AnyRef](newLength)
+            for (i ← 0 until thisProjectInformation.length()) {
+                newProjectInformation.set(i, thisProjectInformation.get(i))
             }
+            newProjectInformation.set(pikUId, retain(pik, pi))
+            this.projectInformation = newProjectInformation
         }
+        // the information may have been released before
+        projectInformationKeys = pik :: projectInformationKeys.filter(_ ne pik)
     }
 
     /**
@@ -426,11 +749,138 @@ class Project[Source] private (
         val pikUId = pik.uniqueId
 
         if (pikUId < this.projectInformation.length())
-            Option(this.projectInformation.get(pikUId).asInstanceOf[T])
+            Option(dereference(this.projectInformation.get(pikUId)).asInstanceOf[T])
         else
             None
     }
 
+    /**
+     * Computes the information identified by the given keys and their (transitive)
+     * requirements in parallel. The computation of the information identified by a
+     * key is scheduled as soon as all its requirements are available; information
+     * that does not depend on each other is computed concurrently.
+     *
+     * This method does not block; the returned future completes when all
+     * information is available (or fails with the exception thrown by the
+     * first failing computation).
+     *
+     * ==Example==
+     * {{{
+     * import scala.concurrent.ExecutionContext.Implicits.global
+     * val project: SomeProject = ???
+     * val precomputation = project.precomputeProjectInformation(
+     *      List(ProjectIndexKey, VirtualDispatchTablesKey, ControlFlowStructuresKey)
+     * )
+     * // ... do something else ...
+     * println(Await.result(precomputation, Duration.Inf).criticalPath)
+     * }}}
+     *
+     * @throws IllegalArgumentException If the requirements are cyclic.
+     */
+    def precomputeProjectInformation(
+        piks: Traversable[ProjectInformationKey[_ <: AnyRef]])(
+            implicit executionContext: scala.concurrent.ExecutionContext): scala.concurrent.Future[ProjectInformationPrecomputation] = {
+        import scala.concurrent.Future
+        import scala.collection.mutable
+
+        type SomeKey = ProjectInformationKey[_ <: AnyRef]
+
+        val startTime = System.nanoTime
+        // the keys in topological order (requirements first)
+        var keys = List.empty[SomeKey]
+        val computations = mutable.Map.empty[SomeKey, Future[SomeKey]]
+        val computationTimes = new java.util.concurrent.ConcurrentHashMap[SomeKey, Long]()
+
+        def schedule(pik: SomeKey, path: List[SomeKey]): Future[SomeKey] = {
+            computations.get(pik) match {
+                case Some(computation) ⇒
+                    computation
+                case None ⇒
+                    if (path.contains(pik))
+                        throw new IllegalArgumentException(
+                            (pik :: path).reverse.mkString("cyclic requirements: ", " → ", ""))
+
+                    val requirements = pik.getRequirements.map(schedule(_, pik :: path))
+                    val computation =
+                        Future.sequence(requirements) map { _ ⇒
+                            val startTime = System.nanoTime
+                            get(pik)
+                            computationTimes.put(pik, System.nanoTime - startTime)
+                            pik
+                        }
+                    computations(pik) = computation
+                    keys = pik :: keys
+                    computation
+            }
+        }
+        val scheduledComputations = piks.map(schedule(_, Nil))
+
+        Future.sequence(scheduledComputations) map { _ ⇒
+            val totalTime = System.nanoTime - startTime
+            val times = keys.foldLeft(scala.collection.immutable.Map.empty[SomeKey, Long]) {
+                (times, k) ⇒ times.updated(k, computationTimes.get(k))
+            }
+
+            // The critical path is determined by processing the keys in topological
+            // order.
+            val criticalPaths = mutable.Map.empty[SomeKey, (Long, List[SomeKey])]
+            for (key ← keys.reverse) {
+                val requirementsPaths = key.getRequirements.map(criticalPaths)
+                val (time, path) =
+                    if (requirementsPaths.isEmpty)
+                        (0l, Nil)
+                    else
+                        requirementsPaths.maxBy(_._1)
+                criticalPaths(key) = (time + times(key), key :: path)
+            }
+            val criticalPath =
+                if (criticalPaths.isEmpty) Nil else criticalPaths.values.maxBy(_._1)._2.reverse
+
+            ProjectInformationPrecomputation(keys.reverse, times, criticalPath, totalTime)
+        }
+    }
+
+    /**
+     * Takes over the information computed for the given (previous) project that
+     * does not depend on the changed types and updates the information that
+     * supports incremental updates. Called before this project is published.
+     */
+    private def retainProjectInformation(
+        previousProject: Project[Source],
+        changedTypes: scala.collection.immutable.Set[ObjectType],
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): Unit = {
+        var previousInformation = List.empty[(ProjectInformationKey[AnyRef], AnyRef)]
+        previousProject.synchronized {
+            val previousProjectInformation = previousProject.projectInformation
+            projectInformationRetentions.putAll(previousProject.projectInformationRetentions)
+            for {
+                pik ← previousProject.projectInformationKeys
+                // the information may have been collected in the meantime
+                pi = dereference(previousProjectInformation.get(pik.uniqueId))
+                if pi ne null
+            } {
+                previousInformation ::= ((pik.asInstanceOf[ProjectInformationKey[AnyRef]], pi))
+            }
+        }
+
+        // The information is processed in the order in which it was computed; hence,
+        // the requirements of some information are processed before the information.
+        // The information is not updated while holding the previous project's lock
+        // as the update may take some time.
+        for {
+            (pik, pi) ← previousInformation
+            if pik.getRequirements.forall(requirement ⇒ has(requirement).isDefined)
+        } {
+            if (!pik.isInvalidatedBy(changedTypes))
+                storeProjectInformation(pik, pi)
+            else
+                pik.doUpdate(pi, this, removedClassFiles, addedClassFiles) foreach { updatedPI ⇒
+                    storeProjectInformation(pik, updatedPI)
+                }
+        }
+    }
+
 }
 
 /**
@@ -440,6 +890,18 @@ class Project[Source] private (
  */
 object Project {
 
+    // Used to store project information that is not pinned.
+    private final class SoftProjectInformation(pi: AnyRef)
+        extends java.lang.ref.SoftReference[AnyRef](pi)
+
+    // Returns the stored project information or `null` if it was collected.
+    private def dereference(storedProjectInformation: AnyRef): AnyRef = {
+        storedProjectInformation match {
+            case pi: SoftProjectInformation ⇒ pi.get
+            case pi                         ⇒ pi
+        }
+    }
+
     /**
      * Given a reference to a class file, jar file or a folder containing jar and class
      * files, all class files will be loaded and a project will be returned.
@@ -451,6 +913,44 @@ object Project {
         Project.apply[URL](Java8ClassFileReader.ClassFiles(file))
     }
 
+    /**
+     * Creates a project for the given class file, jar file or folder. If
+     * `useSnapshot` is `true` the class files and the class hierarchy are restored
+     * from the file's [[org.opalj.br.reader.ClassFilesSnapshot]], which is created
+     * if it does not exist or is outdated. Using a snapshot avoids the traversal of
+     * the folders, the inflation of the jar files and the parsing of the class files
+     * when the project is loaded again.
+     *
+     * The snapshots are stored in the
+     * [[org.opalj.br.reader.ClassFilesSnapshot.defaultCacheDirectory]].
+     */
+    def apply(file: File, useSnapshot: Boolean): Project[URL] = {
+        apply(file, useSnapshot, reader.ClassFilesSnapshot.defaultCacheDirectory)
+    }
+
+    /**
+     * Creates a project for the given class file, jar file or folder (see
+     * `apply(File,Boolean)`); the snapshots are stored in the given directory.
+     */
+    def apply(file: File, useSnapshot: Boolean, cacheDirectory: File): Project[URL] = {
+        if (useSnapshot && !(file.isFile() && file.getName.endsWith(".class"))) {
+            val cache = new reader.BytecodeInstructionsCache
+            val Java8ClassFileReader = new reader.Java8FrameworkWithCaching(cache)
+
+            val snapshot = reader.ClassFilesSnapshot(
+                file,
+                Java8ClassFileReader,
+                cacheDirectory = cacheDirectory
+            )
+            Project.apply[URL](
+                snapshot.classFiles,
+                classHierarchy = Some(snapshot.classHierarchy)
+            )
+        } else {
+            apply(file)
+        }
+    }
+
     def extend(project: Project[URL], file: File): Project[URL] = {
         val cache = new reader.BytecodeInstructionsCache
         val Java8ClassFileReader = new reader.Java8FrameworkWithCaching(cache)
@@ -473,6 +973,127 @@ object Project {
         )
     }
 
+    /**
+     * Creates a new project in which the given class files are added or – if a class
+     * file for the same type already exists – replaced and in which the class files of
+     * the `removedTypes` are removed. A class file that is replaced may change from being
+     * a project class file to being a library class file and vice versa.
+     *
+     * Unlike [[extend]], the indices of the given project (e.g., the mapping between
+     * methods and class files) and its class hierarchy are updated incrementally; i.e.,
+     * only the information related to the changed types is updated. The project
+     * information (see [[ProjectInformationKey]]) that does not depend on the changed
+     * types is retained.
+     *
+     * The given project is not changed.
+     *
+     * @param removedTypes The types whose class files are removed; unknown types are
+     *      ignored.
+     */
+    def update[Source](
+        project: Project[Source],
+        projectClassFilesWithSources: Iterable[(ClassFile, Source)],
+        libraryClassFilesWithSources: Iterable[(ClassFile, Source)],
+        removedTypes: Iterable[ObjectType]): Project[Source] = {
+
+        val newClassFiles =
+            projectClassFilesWithSources.view.map(_._1) ++ libraryClassFilesWithSources.view.map(_._1)
+        val changedTypes: scala.collection.immutable.Set[ObjectType] =
+            (removedTypes ++ newClassFiles.map(_.thisType)).toSet
+        val oldClassFiles = changedTypes.flatMap(project.objectTypeToClassFile.get)
+
+        // the maps are persistent; i.e., they are not copied
+        var projectTypes = project.projectTypes
+        var objectTypeToClassFile = project.objectTypeToClassFile
+        var sources = project.sources
+
+        var projectClassFilesCount = project.projectClassFilesCount
+        var projectMethodsCount = project.projectMethodsCount
+        var projectFieldsCount = project.projectFieldsCount
+        var libraryClassFilesCount = project.libraryClassFilesCount
+        var libraryMethodsCount = project.libraryMethodsCount
+        var libraryFieldsCount = project.libraryFieldsCount
+        var codeSize = project.codeSize
+
+        for (classFile ← oldClassFiles) {
+            val objectType = classFile.thisType
+            if (project.projectTypes.contains(objectType)) {
+                projectClassFilesCount -= 1
+                projectMethodsCount -= classFile.methods.size
+                projectFieldsCount -= classFile.fields.size
+            } else {
+                libraryClassFilesCount -= 1
+                libraryMethodsCount -= classFile.methods.size
+                libraryFieldsCount -= classFile.fields.size
+            }
+            for (method ← classFile.methods) {
+                method.body.foreach(codeSize -= _.codeLength)
+            }
+            projectTypes -= objectType
+            objectTypeToClassFile -= objectType
+            sources -= objectType
+        }
+
+        def addClassFile(classFile: ClassFile, source: Source): Unit = {
+            for (method ← classFile.methods) {
+                method.body.foreach(codeSize += _.codeLength)
+            }
+            objectTypeToClassFile = objectTypeToClassFile.updated(classFile.thisType, classFile)
+            sources = sources.updated(classFile.thisType, source)
+        }
+
+        var projectClassFiles = project.projectClassFiles.filterNot(cf ⇒ changedTypes.contains(cf.thisType))
+        for ((classFile, source) ← projectClassFilesWithSources) {
+            projectClassFiles = classFile :: projectClassFiles
+            projectClassFilesCount += 1
+            projectMethodsCount += classFile.methods.size
+            projectFieldsCount += classFile.fields.size
+            projectTypes += classFile.thisType
+            addClassFile(classFile, source)
+        }
+
+        var libraryClassFiles = project.libraryClassFiles.filterNot(cf ⇒ changedTypes.contains(cf.thisType))
+        for ((classFile, source) ← libraryClassFilesWithSources) {
+            libraryClassFiles = classFile :: libraryClassFiles
+            libraryClassFilesCount += 1
+            libraryMethodsCount += classFile.methods.size
+            libraryFieldsCount += classFile.fields.size
+            addClassFile(classFile, source)
+        }
+
+        val classHierarchy = project.classHierarchy.updated(
+            oldClassFiles.map(_.thisType),
+            newClassFiles.map { classFile ⇒
+                TypeDeclaration(
+                    classFile.thisType,
+                    classFile.isInterfaceDeclaration,
+                    classFile.superclassType,
+                    scala.collection.mutable.HashSet.empty ++ classFile.interfaceTypes
+                )
+            }
+        )
+
+        val updatedProject = new Project(
+            projectClassFiles,
+            libraryClassFiles,
+            projectTypes,
+            project.fieldsIndex.updated(oldClassFiles, newClassFiles, _.fields),
+            project.methodsIndex.updated(oldClassFiles, newClassFiles, _.methods),
+            objectTypeToClassFile,
+            sources,
+            projectClassFilesCount,
+            projectMethodsCount,
+            projectFieldsCount,
+            libraryClassFilesCount,
+            libraryMethodsCount,
+            libraryFieldsCount,
+            codeSize,
+            classHierarchy
+        )
+        updatedProject.retainProjectInformation(project, changedTypes, oldClassFiles, newClassFiles.force)
+        updatedProject
+    }
+
     def defaultHandlerForInconsistentProject(ex: InconsistentProjectException): Unit = {
         import Console._
         println(YELLOW+"[warn] "+ex.message + RESET)
@@ -504,26 +1125,45 @@ object Project {
      *      message to the console. Alternatively it is possible to throw the given
      *      exception to cancel the loading of the project (which is the only
      *      meaningful option for several advanced analyses.)
+     *
+     * @param classHierarchy The project's class hierarchy if it was already created.
+     *      E.g., using the [[org.opalj.br.reader.TypeDeclarationsReader]] before
+     *      the class files were completely read. The class hierarchy has to contain
+     *      the type declarations of all (project, library and virtual) class files.
+     *      If not specified, the class hierarchy is created using the class files.
      */
     def apply[Source](
         projectClassFilesWithSources: Traversable[(ClassFile, Source)],
         libraryClassFilesWithSources: Traversable[(ClassFile, Source)] = Traversable.empty,
         virtualClassFiles: Traversable[ClassFile] = Traversable.empty,
-        handleInconsistentProject: (InconsistentProjectException) ⇒ Unit = defaultHandlerForInconsistentProject): Project[Source] = {
+        handleInconsistentProject: (InconsistentProjectException) ⇒ Unit = defaultHandlerForInconsistentProject,
+        classHierarchy: Option[ClassHierarchy] = None): Project[Source] = {
 
         import scala.collection.mutable.{ Set, Map }
         import concurrent.{ Future, Await, ExecutionContext }
         import concurrent.duration.Duration
         import ExecutionContext.Implicits.global
 
-        val classHierarchyFuture: Future[ClassHierarchy] = Future {
-            ClassHierarchy(
-                projectClassFilesWithSources.view.map(_._1) ++
-                    libraryClassFilesWithSources.view.map(_._1) ++
-                    virtualClassFiles
-            )
+        val classHierarchyFuture: Future[ClassHierarchy] = classHierarchy match {
+            case Some(classHierarchy) ⇒ Future.successful(classHierarchy)
+            case None ⇒ Future {
+                ClassHierarchy(
+                    projectClassFilesWithSources.view.map(_._1) ++
+                        libraryClassFilesWithSources.view.map(_._1) ++
+                        virtualClassFiles
+                )
+            }
         }
 
+        // The indices of the class members are created in parallel (with each other
+        // and with the other indices).
+        val allClassFiles: Array[ClassFile] =
+            (projectClassFilesWithSources.view.map(_._1) ++
+                virtualClassFiles ++
+                libraryClassFilesWithSources.view.map(_._1)).toArray
+        val methodsIndexFuture = Future { ClassMembersIndex[Method](allClassFiles, _.methods) }
+        val fieldsIndexFuture = Future { ClassMembersIndex[Field](allClassFiles, _.fields) }
+
         var projectClassFiles = List.empty[ClassFile]
         val projectTypes = Set.empty[ObjectType]
         var projectClassFilesCount: Int = 0
@@ -537,8 +1177,6 @@ object Project {
 
         var codeSize: Long = 0l
 
-        val methodToClassFile = AnyRefMap.empty[Method, ClassFile]
-        val fieldToClassFile = AnyRefMap.empty[Field, ClassFile]
         val objectTypeToClassFile = OpenHashMap.empty[ObjectType, ClassFile]
         val sources = OpenHashMap.empty[ObjectType, Source]
 
@@ -549,13 +1187,9 @@ object Project {
             projectTypes += objectType
             for (method ← classFile.methods) {
                 projectMethodsCount += 1
-                methodToClassFile.put(method, classFile)
-                method.body.foreach(codeSize += _.instructions.size)
-            }
-            for (field ← classFile.fields) {
-                projectFieldsCount += 1
-                fieldToClassFile.put(field, classFile)
+                method.body.foreach(codeSize += _.codeLength)
             }
+            projectFieldsCount += classFile.fields.size
             if (objectTypeToClassFile.contains(objectType)) {
                 handleInconsistentProject(
                     InconsistentProjectException(
@@ -585,28 +1219,22 @@ object Project {
             val objectType = classFile.thisType
             for (method ← classFile.methods) {
                 libraryMethodsCount += 1
-                methodToClassFile.put(method, classFile)
-                method.body.foreach(codeSize += _.instructions.size)
-            }
-            for (field ← classFile.fields) {
-                libraryFieldsCount += 1
-                fieldToClassFile.put(field, classFile)
+                method.body.foreach(codeSize += _.codeLength)
             }
+            libraryFieldsCount += classFile.fields.size
             objectTypeToClassFile.put(objectType, classFile)
             sources.put(objectType, source)
         }
 
-        fieldToClassFile.repack()
-        methodToClassFile.repack()
-
+        // the maps are immutable to enable efficient updates of the project
         new Project(
             projectClassFiles,
             libraryClassFiles,
-            projectTypes,
-            fieldToClassFile,
-            methodToClassFile,
-            objectTypeToClassFile,
-            sources,
+            scala.collection.immutable.HashSet.empty ++ projectTypes,
+            Await.result(fieldsIndexFuture, Duration.Inf),
+            Await.result(methodsIndexFuture, Duration.Inf),
+            scala.collection.immutable.HashMap.empty ++ objectTypeToClassFile,
+            scala.collection.immutable.HashMap.empty ++ sources,
             projectClassFilesCount,
             projectMethodsCount,
             projectFieldsCount,
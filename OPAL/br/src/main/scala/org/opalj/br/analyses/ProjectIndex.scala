@@ -32,6 +32,7 @@ package analyses
 
 import scala.collection.Set
 import scala.collection.Map
+import scala.collection.immutable
 
 /**
  * An index that enables the efficient lookup of source elements (methods and fields)
@@ -42,11 +43,39 @@ import scala.collection.Map
  * To get an instance of a project index call [[Project.get]] and pass in
  * the [[ProjectIndexKey]] object.
  *
+ * A freshly computed index is backed by mutable maps that are never changed after
+ * the construction. An updated index (see [[updated]]) is backed by persistent
+ * maps and shares the unchanged parts with the original index.
+ *
  * @author Michael Eichberg
  */
 class ProjectIndex private (
-        val fields: Map[String, Map[FieldType, Iterable[Field]]],
-        val methods: Map[String, Map[MethodDescriptor, Iterable[Method]]]) {
+        val fields: Map[String, Map[FieldType, List[Field]]],
+        val methods: Map[String, Map[MethodDescriptor, List[Method]]]) {
+
+    import ProjectIndex.{ add, remove }
+
+    /**
+     * Creates the index of an updated project (see [[Project.update]]); the
+     * members of the removed class files are removed and the members of the
+     * added class files are added.
+     */
+    def updated(
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): ProjectIndex = {
+        // the conversion is only necessary when a freshly computed index is updated
+        var fields = this.fields.toMap
+        var methods = this.methods.toMap
+        for (classFile ← removedClassFiles) {
+            classFile.fields foreach { f ⇒ fields = remove(fields, f.name, f.fieldType, f) }
+            classFile.methods foreach { m ⇒ methods = remove(methods, m.name, m.descriptor, m) }
+        }
+        for (classFile ← addedClassFiles) {
+            classFile.fields foreach { f ⇒ fields = add(fields, f.name, f.fieldType, f) }
+            classFile.methods foreach { m ⇒ methods = add(methods, m.name, m.descriptor, m) }
+        }
+        new ProjectIndex(fields, methods)
+    }
 
     def findFields(name: String, fieldType: FieldType): Iterable[Field] =
         fields.get(name).flatMap(_.get(fieldType)).getOrElse(Iterable.empty)
@@ -167,5 +196,29 @@ object ProjectIndex {
         new ProjectIndex(Await.result(fieldsFuture, Duration.Inf), methods)
     }
 
-}
+    private def add[K <: AnyRef, M <: ClassMember](
+        index: immutable.Map[String, Map[K, List[M]]],
+        name: String,
+        key: K,
+        member: M): immutable.Map[String, Map[K, List[M]]] = {
+        val keyToMembers = index.getOrElse(name, immutable.Map.empty[K, List[M]])
+        index.updated(name, keyToMembers.updated(key, member :: keyToMembers.getOrElse(key, Nil)))
+    }
 
+    private def remove[K <: AnyRef, M <: ClassMember](
+        index: immutable.Map[String, Map[K, List[M]]],
+        name: String,
+        key: K,
+        member: M): immutable.Map[String, Map[K, List[M]]] = {
+        index.get(name) match {
+            case Some(keyToMembers) ⇒
+                val members = keyToMembers.getOrElse(key, Nil).filterNot(_ eq member)
+                val newKeyToMembers =
+                    if (members.isEmpty) keyToMembers - key else keyToMembers.updated(key, members)
+                if (newKeyToMembers.isEmpty) index - name else index.updated(name, newKeyToMembers)
+            case None ⇒
+                index
+        }
+    }
+
+}
@@ -54,5 +54,17 @@ object ProjectIndexKey extends ProjectInformationKey[ProjectIndex] {
     override protected def compute(project: SomeProject): ProjectIndex = {
         ProjectIndex(project)
     }
+
+    /**
+     * Updates the index; only the members of the changed class files are
+     * removed and added.
+     */
+    override protected def updated(
+        projectIndex: ProjectIndex,
+        project: SomeProject,
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): Option[ProjectIndex] = {
+        Some(projectIndex.updated(removedClassFiles, addedClassFiles))
+    }
 }
 
@@ -62,13 +62,34 @@ package analyses
  *    is side-effect free.
  *
  * ===Threading===
- * [[Project]] takes care of threading related issues. The methods [[requirements]]
- * and [[compute]] will never be called concurrently w.r.t. the same `project` object.
- * However, concurrent calls may happen w.r.t. two different project objects.
+ * [[Project]] takes care of threading related issues. The information identified by
+ * a key is computed at most once per `project` object (unless the computation fails);
+ * i.e., [[compute]] will never be called concurrently w.r.t. the same key and
+ * `project` object. However, the information identified by different keys is
+ * computed concurrently if it is requested by different threads. Hence,
+ * [[compute]] must not (transitively) request the information identified by its own
+ * key, and it must not rely on locks that are held by other threads while those
+ * threads request project information.
  *
  * ===Caching===
  * [[Project]] takes care of the caching of the result of the computation of the
- * information.
+ * information. How long the information is cached is determined by the key's
+ * [[retention]] policy, which can be overridden per project
+ * (see [[Project.setRetention]]).
+ *
+ * ===Updating Projects===
+ * When a project is updated (see [[Project.update]]) the information computed for the
+ * original project is retained by the updated project if the information does not
+ * depend on the changed types (see [[dependsOn]]) and if its requirements were
+ * retained or updated. Otherwise, the information is incrementally updated (see
+ * [[updated]]) or – if the key does not support incremental updates – recomputed
+ * on demand.
+ *
+ * Retained information is shared by the original and the updated project. Hence,
+ * information that may be retained must not reference the project for which it was
+ * computed (e.g., to lazily compute some further information); the information would
+ * keep the original project alive and would – when used w.r.t. the updated project –
+ * answer queries using the original project.
  *
  * @author Michael Eichberg
  */
@@ -118,6 +139,58 @@ trait ProjectInformationKey[T <: AnyRef] {
      */
     /*ABSTRACT*/ protected def compute(project: SomeProject): T
 
+    /**
+     * Specifies how long the computed information is retained by a project. By default
+     * the information is retained for the lifetime of the project.
+     */
+    def retention: ProjectInformationRetention = ProjectInformationRetention.Pinned
+
+    // Only (intended to be) used by Project.
+    final private[analyses] def isInvalidatedBy(changedTypes: Set[ObjectType]): Boolean = {
+        dependsOn(changedTypes)
+    }
+
+    /**
+     * Returns `true` if the information may depend on the given types; i.e., if the
+     * information has to be recomputed when the class files that define the given types
+     * are added, replaced or removed.
+     *
+     * By default `true` is returned; i.e., the information is always recomputed.
+     */
+    protected def dependsOn(changedTypes: Set[ObjectType]): Boolean = true
+
+    // Only (intended to be) used by Project.
+    final private[analyses] def doUpdate(
+        information: T,
+        project: SomeProject,
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): Option[T] = {
+        updated(information, project, removedClassFiles, addedClassFiles)
+    }
+
+    /**
+     * Incrementally updates the information computed for the original project of
+     * an updated project (see [[Project.update]]). Called if the information depends
+     * on the changed types; the requirements of this key are already available.
+     *
+     * The given information must not be mutated; the original project may still be
+     * used. Furthermore, the updated information must not reference the original
+     * project.
+     *
+     * By default `None` is returned; i.e., the information is recomputed on demand.
+     *
+     * @param project The updated project.
+     * @param removedClassFiles The class files of the original project that were
+     *      removed or replaced.
+     * @param addedClassFiles The class files that were added to the updated project;
+     *      including the class files that replace class files of the original project.
+     */
+    protected def updated(
+        information: T,
+        project: SomeProject,
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): Option[T] = None
+
 }
 
 /**
@@ -0,0 +1,59 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+/**
+ * Statistics about the computation of the project information identified by a
+ * [[ProjectInformationKey]] (see [[Project.projectInformationStatistics]]).
+ *
+ * @param computations The number of times the information was computed. Is greater
+ *      than one only if a previous computation failed.
+ * @param computationTime The time (in nanoseconds) spent computing the information;
+ *      excluding the time required to compute the key's requirements.
+ * @param waits The number of times a thread had to wait for the information because
+ *      it was concurrently computed by another thread.
+ * @param waitingTime The total time (in nanoseconds) threads spent waiting for the
+ *      information.
+ *
+ * @author Michael Eichberg
+ */
+case class ProjectInformationKeyStatistics(
+        computations: Int,
+        computationTime: Long,
+        waits: Int,
+        waitingTime: Long) {
+
+    override def toString: String = {
+        import org.opalj.util.PerformanceEvaluation.ns2sec
+        f"computations=$computations; computation time=${ns2sec(computationTime)}%1.4fs; "+
+            f"waits=$waits; waiting time=${ns2sec(waitingTime)}%1.4fs"
+    }
+}
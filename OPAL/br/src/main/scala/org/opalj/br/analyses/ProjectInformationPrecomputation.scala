@@ -0,0 +1,77 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+/**
+ * Describes the (eager) precomputation of some project information
+ * (see [[Project.precomputeProjectInformation]]).
+ *
+ * @param keys The precomputed keys including all (transitive) requirements; a key's
+ *      requirements precede the key.
+ * @param computationTimes The time (in nanoseconds) that was required to compute
+ *      the information identified by a key; excluding the time required to compute
+ *      its requirements. If the information was already available the time is (nearly)
+ *      zero.
+ * @param criticalPath The chain of keys – starting with a key without requirements –
+ *      for which the sum of the computation times is maximal. Even with an unlimited
+ *      number of threads the precomputation cannot finish faster than the sum of the
+ *      computation times of the keys on the critical path.
+ * @param totalTime The (wall clock) time (in nanoseconds) required to precompute
+ *      all information.
+ *
+ * @author Michael Eichberg
+ */
+case class ProjectInformationPrecomputation(
+        keys: List[ProjectInformationKey[_ <: AnyRef]],
+        computationTimes: Map[ProjectInformationKey[_ <: AnyRef], Long],
+        criticalPath: List[ProjectInformationKey[_ <: AnyRef]],
+        totalTime: Long) {
+
+    /**
+     * The sum of the computation times of the keys on the critical path.
+     */
+    def criticalPathTime: Long = criticalPath.map(computationTimes).sum
+
+    /**
+     * The sum of the computation times of all keys; i.e., the time that would have
+     * been required to compute the information sequentially.
+     */
+    def sequentialTime: Long = computationTimes.values.sum
+
+    override def toString: String = {
+        import org.opalj.util.PerformanceEvaluation.ns2sec
+        val times = keys.map(k ⇒ f"\t$k: ${ns2sec(computationTimes(k))}%1.4fs").mkString("\n")
+        f"ProjectInformationPrecomputation(total=${ns2sec(totalTime)}%1.4fs; "+
+            f"sequential=${ns2sec(sequentialTime)}%1.4fs; "+
+            f"critical path=${ns2sec(criticalPathTime)}%1.4fs: ${criticalPath.mkString(" → ")}\n"+
+            times+"\n)"
+    }
+}
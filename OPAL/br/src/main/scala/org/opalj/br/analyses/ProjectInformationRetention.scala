@@ -0,0 +1,74 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+/**
+ * Specifies how long a [[Project]] retains the information identified by a
+ * [[ProjectInformationKey]] after it was computed. Information that is no longer
+ * retained is transparently recomputed when it is requested again.
+ *
+ * @author Michael Eichberg
+ */
+sealed abstract class ProjectInformationRetention
+
+/**
+ * Defines the available retention policies.
+ *
+ * @author Michael Eichberg
+ */
+object ProjectInformationRetention {
+
+    /**
+     * The information is retained for the lifetime of the project (or until it is
+     * explicitly released using [[Project.release]]). This is the default.
+     */
+    case object Pinned extends ProjectInformationRetention
+
+    /**
+     * The information is softly referenced; i.e., it is retained until the JVM
+     * runs low on memory. Use this policy for information that is expensive to
+     * compute, but that is not necessarily needed by all analyses.
+     */
+    case object SoftlyReferenced extends ProjectInformationRetention
+
+    /**
+     * The information is released as soon as the last analysis that uses the
+     * information – by means of [[Project.use]] – has finished. Until then, the
+     * information is retained. Outside of [[Project.use]] (i.e., if the information
+     * is requested using [[Project.get]]), the information is softly referenced;
+     * a subsequent request of the information may return the same information or
+     * may recompute it.
+     *
+     * Use this policy for information that requires a lot of memory and that
+     * is only needed by one analysis (at a time).
+     */
+    case object ReleasedAfterUse extends ProjectInformationRetention
+}
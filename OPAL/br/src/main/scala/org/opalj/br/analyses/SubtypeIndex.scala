@@ -0,0 +1,291 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+import java.util.BitSet
+
+import util.{ Answer, Yes, No, Unknown }
+
+import ObjectType.Object
+
+/**
+ * A precomputed index of a [[ClassHierarchy]] that answers subtype tests between two
+ * `ObjectType`s in constant time.
+ *
+ * The index consists of:
+ *  - an ''interval numbering'' of the class trees; i.e., each class type is assigned
+ *    the interval `[pre,post]` of the depth-first traversal of the trees that are
+ *    rooted in `java.lang.Object` and in the boundary class types (the known
+ *    class types whose superclass is unknown). A class type `C` is a subclass of `S`
+ *    iff `C`'s interval is contained in `S`'s interval.
+ *  - a bitset per type that contains all (transitive) superinterfaces of the type.
+ *    Types that do not declare further superinterfaces share the bitset of their
+ *    superclass.
+ *  - two bitsets that identify the types for which the information about their
+ *    superclasses respectively all supertypes is complete.
+ *
+ * ==Incomplete Class Hierarchies==
+ * If the supertype information of the given subtype is not complete, `Unknown` is
+ * returned unless the subtype relation can be established using the available
+ * information. This is also the case if the supertype is a class type and the
+ * subtype's chain of superclasses is incomplete.
+ *
+ * ==Thread safety==
+ * This class is immutable. Hence, concurrent access is supported.
+ *
+ * @note The index only contains the types known by the class hierarchy at the
+ *      time of its creation.
+ *
+ * @author Michael Eichberg
+ */
+final class SubtypeIndex private (
+        private[this] val knownTypes: Array[ObjectType],
+        private[this] val interfaceTypes: Array[Boolean],
+        private[this] val preorderNumbers: Array[Int],
+        private[this] val postorderNumbers: Array[Int],
+        private[this] val interfaceIndices: Array[Int],
+        private[this] val superinterfaces: Array[BitSet],
+        private[this] val classChainComplete: BitSet,
+        private[this] val supertypesComplete: BitSet) {
+
+    @inline private[this] def isKnown(id: Int): Boolean =
+        id < knownTypes.length && (knownTypes(id) ne null)
+
+    /**
+     * Determines if `subtype` is a subtype of `theSupertype`.
+     *
+     * @see [[ClassHierarchy.isSubtypeOf(subtype:org\.opalj\.br\.ObjectType,theSupertype:org\.opalj\.br\.ObjectType)*]]
+     */
+    def isSubtypeOf(subtype: ObjectType, theSupertype: ObjectType): Answer = {
+        if ((subtype eq theSupertype) || (theSupertype eq Object))
+            return Yes;
+
+        if (subtype eq Object)
+            return No;
+
+        val subtypeId = subtype.id
+        if (!isKnown(subtypeId))
+            return Unknown;
+
+        val supertypeId = theSupertype.id
+        if (!isKnown(supertypeId))
+            return if (supertypesComplete.get(subtypeId)) No else Unknown;
+
+        if (interfaceTypes(supertypeId)) {
+            if (superinterfaces(subtypeId).get(interfaceIndices(supertypeId)))
+                Yes
+            else if (supertypesComplete.get(subtypeId))
+                No
+            else
+                Unknown
+        } else if (interfaceTypes(subtypeId)) {
+            // an interface (only) inherits from java.lang.Object
+            No
+        } else {
+            if (preorderNumbers(supertypeId) <= preorderNumbers(subtypeId) &&
+                postorderNumbers(subtypeId) <= postorderNumbers(supertypeId))
+                Yes
+            else if (classChainComplete.get(subtypeId))
+                No
+            else
+                Unknown
+        }
+    }
+
+    /**
+     * Determines if `subtype` is a subtype of `supertype`.
+     *
+     * @see [[ClassHierarchy.isSubtypeOf(subtype:org\.opalj\.br\.ReferenceType,supertype:org\.opalj\.br\.ReferenceType)*]]
+     */
+    def isSubtypeOf(subtype: ReferenceType, supertype: ReferenceType): Answer = {
+        if ((subtype eq supertype) || (supertype eq Object))
+            return Yes;
+
+        if (subtype eq Object)
+            return No;
+
+        subtype match {
+            case ot: ObjectType ⇒
+                if (supertype.isArrayType)
+                    No
+                else
+                    isSubtypeOf(ot, supertype.asObjectType)
+            case ArrayType(componentType) ⇒
+                supertype match {
+                    case ot: ObjectType ⇒
+                        if ((ot eq ObjectType.Serializable) || (ot eq ObjectType.Cloneable))
+                            Yes
+                        else
+                            No
+                    case ArrayType(superComponentType: BaseType) ⇒
+                        if (componentType eq superComponentType) Yes else No
+                    case ArrayType(superComponentType: ReferenceType) ⇒
+                        if (componentType.isBaseType)
+                            No
+                        else
+                            isSubtypeOf(componentType.asReferenceType, superComponentType)
+                }
+        }
+    }
+}
+
+/**
+ * Factory to create a [[SubtypeIndex]].
+ *
+ * @author Michael Eichberg
+ */
+object SubtypeIndex {
+
+    /**
+     * Creates the subtype index for the given class hierarchy.
+     *
+     * The time and memory required to create the index are linear in the number of
+     * known types times the number of known interface types.
+     */
+    def apply(classHierarchy: ClassHierarchy): SubtypeIndex = {
+        import classHierarchy.{ isInterface, superclassType, superinterfaceTypes }
+
+        val objectTypesCount = ObjectType.objectTypesCount
+        val knownTypes = new Array[ObjectType](objectTypesCount)
+        classHierarchy.foreachKnownType { t ⇒ if (t.id < objectTypesCount) knownTypes(t.id) = t }
+        val interfaceTypes = new Array[Boolean](objectTypesCount)
+
+        // 1. dense numbering of the interface types
+        val interfaceIndices = new Array[Int](objectTypesCount)
+        var interfacesCount = 0
+        for (t ← knownTypes if (t ne null) && isInterface(t)) {
+            interfaceTypes(t.id) = true
+            interfaceIndices(t.id) = interfacesCount
+            interfacesCount += 1
+        }
+
+        // 2. interval numbering of the class trees
+        val preorderNumbers = new Array[Int](objectTypesCount)
+        val postorderNumbers = new Array[Int](objectTypesCount)
+        var nextNumber = 0
+        val classChainComplete = new BitSet(objectTypesCount)
+        def numberClassTree(root: ObjectType, isComplete: Boolean): Unit = {
+            // iterative depth-first traversal; a class is visited once before
+            // (pre) and once after (post) its subclasses are traversed
+            var worklist: List[(ObjectType, Boolean)] = List((root, false))
+            while (worklist.nonEmpty) {
+                val (t, post) = worklist.head
+                worklist = worklist.tail
+                if (post) {
+                    postorderNumbers(t.id) = nextNumber
+                } else {
+                    preorderNumbers(t.id) = nextNumber
+                    if (isComplete) classChainComplete.set(t.id)
+                    worklist = (t, true) :: worklist
+                    classHierarchy.directSubtypesOf(t) foreach { subtype ⇒
+                        if (!interfaceTypes(subtype.id) && subtype.id < objectTypesCount &&
+                            (superclassType(subtype) == Some(t)))
+                            worklist = (subtype, false) :: worklist
+                    }
+                }
+                nextNumber += 1
+            }
+        }
+        numberClassTree(Object, true)
+        for {
+            t ← knownTypes
+            if (t ne null) && (t ne Object) && !interfaceTypes(t.id)
+            if superclassType(t).isEmpty
+        } {
+            numberClassTree(t, false)
+        }
+        // interfaces only inherit from java.lang.Object; hence their chain of
+        // superclasses is complete if their declaration is known
+        for (t ← knownTypes if (t ne null) && interfaceTypes(t.id) && superclassType(t).isDefined) {
+            classChainComplete.set(t.id)
+        }
+
+        // 3. the (transitive) superinterfaces and the completeness of the supertype
+        //    information
+        val superinterfaces = new Array[BitSet](objectTypesCount)
+        val supertypesComplete = new BitSet(objectTypesCount)
+        val EmptyBitSet = new BitSet(0)
+        val InProgress = new BitSet(0)
+        def computeSuperinterfaces(t: ObjectType): BitSet = {
+            val id = t.id
+            val knownSuperinterfaces = superinterfaces(id)
+            if (knownSuperinterfaces ne null) {
+                return if (knownSuperinterfaces eq InProgress) EmptyBitSet else knownSuperinterfaces;
+            }
+            superinterfaces(id) = InProgress // guards against cyclic (invalid) hierarchies
+
+            val superclassSuperinterfaces =
+                superclassType(t) match {
+                    case Some(superclassType) if superclassType.id < objectTypesCount ⇒
+                        computeSuperinterfaces(superclassType)
+                    case _ ⇒
+                        EmptyBitSet
+                }
+            var isComplete =
+                (t eq Object) || (
+                    classChainComplete.get(id) &&
+                    superclassType(t).forall(st ⇒ st.id < objectTypesCount && supertypesComplete.get(st.id))
+                )
+            val directSuperinterfaces = superinterfaceTypes(t).getOrElse(Set.empty[ObjectType])
+            val theSuperinterfaces =
+                if (directSuperinterfaces.isEmpty)
+                    superclassSuperinterfaces
+                else {
+                    val theSuperinterfaces = superclassSuperinterfaces.clone().asInstanceOf[BitSet]
+                    for (superinterface ← directSuperinterfaces) {
+                        if (superinterface.id < objectTypesCount && interfaceTypes(superinterface.id)) {
+                            theSuperinterfaces.set(interfaceIndices(superinterface.id))
+                            theSuperinterfaces.or(computeSuperinterfaces(superinterface))
+                            isComplete &&= supertypesComplete.get(superinterface.id)
+                        } else {
+                            isComplete = false
+                        }
+                    }
+                    theSuperinterfaces
+                }
+            superinterfaces(id) = theSuperinterfaces
+            if (isComplete) supertypesComplete.set(id)
+            theSuperinterfaces
+        }
+        for (t ← knownTypes if t ne null) computeSuperinterfaces(t)
+
+        new SubtypeIndex(
+            knownTypes,
+            interfaceTypes,
+            preorderNumbers,
+            postorderNumbers,
+            interfaceIndices,
+            superinterfaces,
+            classChainComplete,
+            supertypesComplete
+        )
+    }
+}
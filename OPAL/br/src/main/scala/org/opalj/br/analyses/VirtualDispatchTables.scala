@@ -0,0 +1,409 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+import scala.collection.Set
+import scala.collection.Map
+import scala.collection.mutable.AnyRefMap
+import scala.collection.mutable.HashSet
+import scala.collection.immutable.{ Map ⇒ ImmutableMap }
+
+/**
+ * The precomputed virtual dispatch tables of a project's classes.
+ *
+ * For each class (including abstract classes) the dispatch table maps the signature
+ * (name and descriptor) of each non-abstract instance method that is declared by the
+ * class or inherited from one of its superclasses to the method that is invoked at
+ * runtime if the receiver's runtime type is the class. Furthermore, the tables provide
+ * a reverse index that maps each declared (non-static, non-private) method to all
+ * methods that are invoked at runtime if the receiver's type is the method's declaring
+ * type or one of its (non-interface) subtypes. The reverse index is used to resolve
+ * the targets of virtual calls without traversing the class hierarchy.
+ *
+ * To get the dispatch tables use the [[Project]]'s `get` method and pass in the
+ * [[VirtualDispatchTablesKey]] object.
+ *
+ * ==Thread safety==
+ * This class is immutable. Hence, concurrent access is supported.
+ *
+ * ==Updating Projects==
+ * If a project is updated, the tables are updated incrementally (see [[updated]]);
+ * only the tables of the changed classes and of their subclasses are recomputed.
+ *
+ * @note Java 8 default methods are not yet considered (as in the class hierarchy's
+ *      `lookupMethodDefinition` method).
+ *
+ * @author Michael Eichberg
+ */
+class VirtualDispatchTables private (
+        private[this] val project: SomeProject,
+        private[this] val dispatchTables: Array[ImmutableMap[MethodSignature, Method]],
+        // For each declared method the implementing methods and – per implementing
+        // method – the number of types that contribute the implementing method.
+        private[this] val implementingMethodsMap: ImmutableMap[Method, ImmutableMap[Method, Int]]) {
+
+    import VirtualDispatchTables.{ isVirtual, computeDispatchTables, contributions }
+
+    /**
+     * Creates the dispatch tables of the given updated project (see
+     * [[Project.update]]) by recomputing the tables of the changed classes and of
+     * their subclasses. The unchanged tables are shared.
+     *
+     * @param project The updated project.
+     * @param removedClassFiles The class files of this table's project that were
+     *      removed or replaced.
+     * @param addedClassFiles The class files that were added to the updated project.
+     */
+    def updated(
+        project: SomeProject,
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): VirtualDispatchTables = {
+        val previousProject = this.project
+        val changedTypes =
+            (removedClassFiles.view.map(_.thisType) ++ addedClassFiles.view.map(_.thisType)).toSet
+        if (changedTypes.contains(ObjectType.Object))
+            // all tables and – in case of interfaces – all entries are affected
+            return VirtualDispatchTables(project);
+
+        def classFilesOfSubtypes(project: SomeProject): Iterable[ClassFile] = {
+            val classHierarchy = project.classHierarchy
+            val affectedTypes = HashSet.empty[ObjectType]
+            changedTypes foreach { changedType ⇒
+                if (classHierarchy.isKnown(changedType))
+                    affectedTypes ++= classHierarchy.allSubtypes(changedType, true)
+                else
+                    affectedTypes += changedType
+            }
+            affectedTypes.view.flatMap(project.classFile(_)).force
+        }
+        val previousAffectedClassFiles = classFilesOfSubtypes(previousProject)
+        val affectedClassFiles = classFilesOfSubtypes(project)
+        val affectedTypes = (previousAffectedClassFiles ++ affectedClassFiles).map(_.thisType).toSet
+
+        // 1. recompute the tables of the affected classes
+        val dispatchTables = java.util.Arrays.copyOf(
+            this.dispatchTables,
+            Math.max(this.dispatchTables.length, ObjectType.objectTypesCount)
+        )
+        affectedTypes foreach { affectedType ⇒ dispatchTables(affectedType.id) = null }
+        computeDispatchTables(
+            project,
+            affectedClassFiles.filter(_.isClassDeclaration).toArray,
+            dispatchTables
+        )
+
+        // 2. replace the contributions of the affected types to the reverse index
+        var implementingMethodsMap = this.implementingMethodsMap
+        for {
+            classFile ← previousAffectedClassFiles
+            (declaredMethod, implementingMethod) ← contributions(previousProject, this.dispatchTables, classFile)
+        } {
+            val implementingMethods = implementingMethodsMap(declaredMethod)
+            val count = implementingMethods(implementingMethod) - 1
+            val newImplementingMethods =
+                if (count == 0)
+                    implementingMethods - implementingMethod
+                else
+                    implementingMethods.updated(implementingMethod, count)
+            implementingMethodsMap =
+                if (newImplementingMethods.isEmpty)
+                    implementingMethodsMap - declaredMethod
+                else
+                    implementingMethodsMap.updated(declaredMethod, newImplementingMethods)
+        }
+        for {
+            classFile ← affectedClassFiles
+            (declaredMethod, implementingMethod) ← contributions(project, dispatchTables, classFile)
+        } {
+            val implementingMethods =
+                implementingMethodsMap.getOrElse(declaredMethod, ImmutableMap.empty[Method, Int])
+            implementingMethodsMap = implementingMethodsMap.updated(
+                declaredMethod,
+                implementingMethods.updated(
+                    implementingMethod,
+                    implementingMethods.getOrElse(implementingMethod, 0) + 1
+                )
+            )
+        }
+
+        new VirtualDispatchTables(project, dispatchTables, implementingMethodsMap)
+    }
+
+    /**
+     * Returns the dispatch table of the given class type; if the class file that
+     * defines the type is available.
+     */
+    def dispatchTable(classType: ObjectType): Option[Map[MethodSignature, Method]] = {
+        val id = classType.id
+        if (id < dispatchTables.length) Option(dispatchTables(id)) else None
+    }
+
+    /**
+     * Returns the method that is invoked if the runtime type of the receiver is
+     * `classType`; i.e., the non-abstract method with the given signature that is
+     * declared by the class or by its nearest superclass that declares the method.
+     */
+    def dispatch(
+        classType: ObjectType,
+        name: String,
+        descriptor: MethodDescriptor): Option[Method] = {
+        val id = classType.id
+        if (id < dispatchTables.length) {
+            val dispatchTable = dispatchTables(id)
+            if (dispatchTable ne null)
+                dispatchTable.get(MethodSignature(name, descriptor))
+            else
+                None
+        } else
+            None
+    }
+
+    /**
+     * Returns all non-abstract methods that are invoked at runtime when the given
+     * (declared) method is called and the receiver's type is the method's declaring
+     * type or one of its subtypes. If the method is itself non-abstract, the method
+     * is also returned.
+     */
+    def implementingMethods(method: Method): Set[Method] =
+        implementingMethodsMap.get(method).map(_.keySet).getOrElse(Set.empty)
+
+    /**
+     * Returns all methods that may be invoked at runtime if the receiver's type is
+     * `receiverType` or one of its subtypes. The result is equal to the result of
+     * the class hierarchy's `lookupImplementingMethods` method.
+     *
+     * If the receiver type declares the method, the result is directly taken from the
+     * reverse index. If the method is inherited from a superclass, the entry of the
+     * inherited method (as determined by the class hierarchy's
+     * `lookupMethodDefinition` method) is filtered; only those methods are kept that
+     * are declared by a subtype of the receiver type or that are inherited by the
+     * receiver type itself. Only if the method is neither declared nor inherited
+     * by the receiver type (e.g., if the method is declared by an interface that is
+     * not implemented by the receiver type's superclasses) the subtypes are traversed.
+     */
+    def implementingMethods(
+        receiverType: ObjectType,
+        name: String,
+        descriptor: MethodDescriptor): Set[Method] = {
+        val classHierarchy = project.classHierarchy
+
+        project.classFile(receiverType).flatMap(_.findMethod(name, descriptor)) match {
+            case Some(declaredMethod) if isVirtual(declaredMethod) ⇒
+                return this.implementingMethods(declaredMethod);
+            case _ ⇒ /* the method is (potentially) inherited */
+        }
+
+        if (classHierarchy.isKnown(receiverType) && !classHierarchy.isInterface(receiverType)) {
+            classHierarchy.lookupMethodDefinition(receiverType, name, descriptor, project) match {
+                case Some(inheritedMethod) if isVirtual(inheritedMethod) ⇒
+                    val receiverTypeMethod = dispatch(receiverType, name, descriptor)
+                    return this.implementingMethods(inheritedMethod) filter { method ⇒
+                        receiverTypeMethod.exists(_ eq method) || {
+                            val declaringClassType = project.classFile(method).thisType
+                            (declaringClassType eq receiverType) ||
+                                classHierarchy.isSubtypeOf(declaringClassType, receiverType).isYes
+                        }
+                    }
+                case _ ⇒ /* the method is not declared by a (known) superclass */
+            }
+        }
+
+        val signature = MethodSignature(name, descriptor)
+        val implementingMethods = HashSet.empty[Method]
+
+        def addImplementingMethod(classType: ObjectType): Unit = {
+            val id = classType.id
+            if (id < dispatchTables.length) {
+                val dispatchTable = dispatchTables(id)
+                if (dispatchTable ne null)
+                    dispatchTable.get(signature) foreach { implementingMethods += _ }
+            }
+        }
+
+        if (classHierarchy.isInterface(receiverType))
+            // to handle calls such as toString on a (e.g.) "java.util.List"
+            addImplementingMethod(ObjectType.Object)
+        else
+            addImplementingMethod(receiverType)
+        classHierarchy.foreachSubtype(receiverType) { subtype ⇒
+            if (!classHierarchy.isInterface(subtype)) addImplementingMethod(subtype)
+        }
+        implementingMethods
+    }
+}
+
+/**
+ * Factory to create the [[VirtualDispatchTables]] of a project.
+ *
+ * @author Michael Eichberg
+ */
+object VirtualDispatchTables {
+
+    @inline private def isVirtual(method: Method): Boolean =
+        !method.isStatic && !method.isPrivate && !method.isConstructor &&
+            !method.isStaticInitializer
+
+    /**
+     * Computes the dispatch tables of the given project. The tables are computed
+     * level by level (w.r.t. the depth of a class in the class hierarchy); the
+     * table of a class shares the (immutable) table of its superclass. The tables
+     * of the classes of one level are computed in parallel.
+     *
+     * @note Analyses that use the tables while they run in parallel (e.g., the call
+     *      graph algorithms) have to declare the [[VirtualDispatchTablesKey]] as a
+     *      requirement; this way the tables are computed before the analysis starts
+     *      and no thread of the shared fork join pool blocks waiting for the tables.
+     */
+    def apply(project: SomeProject): VirtualDispatchTables = {
+        val classFiles = project.classFiles.filter(_.isClassDeclaration).toArray
+        val dispatchTables = new Array[ImmutableMap[MethodSignature, Method]](
+            Math.max(ObjectType.objectTypesCount, classFiles.foldLeft(0)(_ max _.thisType.id + 1))
+        )
+        computeDispatchTables(project, classFiles, dispatchTables)
+
+        val implementingMethodsMap = AnyRefMap.empty[Method, AnyRefMap[Method, Int]]
+        for {
+            classFile ← project.classFiles
+            (declaredMethod, implementingMethod) ← contributions(project, dispatchTables, classFile)
+        } {
+            val implementingMethods =
+                implementingMethodsMap.getOrElseUpdate(declaredMethod, AnyRefMap.empty[Method, Int])
+            implementingMethods.update(
+                implementingMethod,
+                implementingMethods.getOrElse(implementingMethod, 0) + 1
+            )
+        }
+
+        new VirtualDispatchTables(
+            project,
+            dispatchTables,
+            implementingMethodsMap.foldLeft(ImmutableMap.empty[Method, ImmutableMap[Method, Int]]) { (map, e) ⇒
+                map.updated(e._1, ImmutableMap.empty[Method, Int] ++ e._2)
+            }
+        )
+    }
+
+    // Computes the dispatch tables of the given classes; the tables of the classes'
+    // superclasses that are not among the given classes have to be available.
+    private def computeDispatchTables(
+        project: SomeProject,
+        classFiles: Array[ClassFile],
+        dispatchTables: Array[ImmutableMap[MethodSignature, Method]]): Unit = {
+        val classHierarchy = project.classHierarchy
+
+        // 1. compute the depth of each class w.r.t. the classes that are available
+        val depths = AnyRefMap.empty[ObjectType, Int]
+        def depth(classType: ObjectType): Int = {
+            depths.get(classType) match {
+                case Some(depth) ⇒ depth
+                case None ⇒
+                    depths.put(classType, 0) // guards against cyclic (invalid) hierarchies
+                    val classDepth =
+                        classHierarchy.superclassType(classType) match {
+                            case Some(superclassType) if project.classFile(superclassType).exists(_.isClassDeclaration) ⇒
+                                depth(superclassType) + 1
+                            case _ ⇒
+                                0
+                        }
+                    depths.put(classType, classDepth)
+                    classDepth
+            }
+        }
+        val classFilesByDepth = classFiles.groupBy(classFile ⇒ depth(classFile.thisType))
+
+        // 2. compute the dispatch tables level by level
+        for (depth ← classFilesByDepth.keys.toSeq.sorted) {
+            classFilesByDepth(depth).par foreach { classFile ⇒
+                val superclassTable =
+                    classFile.superclassType match {
+                        case Some(superclassType) if depth > 0 ⇒ dispatchTables(superclassType.id)
+                        case _                                ⇒ ImmutableMap.empty[MethodSignature, Method]
+                    }
+                var dispatchTable = superclassTable
+                for (method ← classFile.methods if isVirtual(method)) {
+                    val signature = MethodSignature(method.name, method.descriptor)
+                    if (method.isAbstract)
+                        dispatchTable -= signature // the method has to be overridden
+                    else
+                        dispatchTable += ((signature, method))
+                }
+                dispatchTables(classFile.thisType.id) = dispatchTable
+            }
+        }
+    }
+
+    // The entries of the reverse index that are contributed by the given type:
+    // a class contributes – for each method declared by the class or one of its
+    // supertypes – the method that is invoked if the receiver's type is the class;
+    // an interface contributes – for each method that it (re)declares – the method
+    // that is invoked if the receiver's type is java.lang.Object (to handle calls
+    // such as toString on a (e.g.) "java.util.List").
+    private def contributions(
+        project: SomeProject,
+        dispatchTables: Array[ImmutableMap[MethodSignature, Method]],
+        classFile: ClassFile): Seq[(Method, Method)] = {
+
+        def dispatchTable(classType: ObjectType): ImmutableMap[MethodSignature, Method] = {
+            val id = classType.id
+            val dispatchTable = if (id < dispatchTables.length) dispatchTables(id) else null
+            if (dispatchTable ne null) dispatchTable else ImmutableMap.empty
+        }
+
+        val classType = classFile.thisType
+        if (classFile.isClassDeclaration) {
+            val dispatchTable = dispatchTables(classType.id)
+            for {
+                supertype ← project.classHierarchy.allSupertypes(classType, true).toSeq
+                supertypeClassFile ← project.classFile(supertype).toSeq
+                declaredMethod ← supertypeClassFile.methods
+                if isVirtual(declaredMethod)
+                implementingMethod ← dispatchTable.get(
+                    MethodSignature(declaredMethod.name, declaredMethod.descriptor)
+                ).toSeq
+            } yield {
+                (declaredMethod, implementingMethod)
+            }
+        } else if (classFile.isInterfaceDeclaration) {
+            val objectTable = dispatchTable(ObjectType.Object)
+            for {
+                declaredMethod ← classFile.methods
+                if isVirtual(declaredMethod)
+                implementingMethod ← objectTable.get(
+                    MethodSignature(declaredMethod.name, declaredMethod.descriptor)
+                ).toSeq
+            } yield {
+                (declaredMethod, implementingMethod)
+            }
+        } else {
+            Nil
+        }
+    }
+}
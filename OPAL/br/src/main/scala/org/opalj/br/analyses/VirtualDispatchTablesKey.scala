@@ -0,0 +1,69 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+/**
+ * The ''key'' object to get the [[VirtualDispatchTables]] of a project.
+ *
+ * @example
+ *      To get the dispatch tables use the [[Project]]'s `get` method and pass in
+ *      `this` object.
+ *
+ * @author Michael Eichberg
+ */
+object VirtualDispatchTablesKey extends ProjectInformationKey[VirtualDispatchTables] {
+
+    /**
+     * The [[VirtualDispatchTables]] have no special prerequisites.
+     *
+     * @return `Nil`.
+     */
+    override protected def requirements: Seq[ProjectInformationKey[Nothing]] = Nil
+
+    /**
+     * Computes the [[VirtualDispatchTables]] for the given project.
+     */
+    override protected def compute(project: SomeProject): VirtualDispatchTables = {
+        VirtualDispatchTables(project)
+    }
+
+    /**
+     * Updates the tables by recomputing only the tables of the changed classes and
+     * of their subclasses (see [[VirtualDispatchTables.updated]]).
+     */
+    override protected def updated(
+        tables: VirtualDispatchTables,
+        project: SomeProject,
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): Option[VirtualDispatchTables] = {
+        Some(tables.updated(project, removedClassFiles, addedClassFiles))
+    }
+}
@@ -0,0 +1,418 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package cfg
+
+import scala.collection.BitSet
+
+import org.opalj.br.instructions._
+
+/**
+ * The (intra-procedural) control-flow graph of a method's code.
+ *
+ * The nodes of the graph are the code's basic blocks. Each basic block is identified
+ * by an `Int` id in the range `[0..blocksCount-1]`; the blocks are numbered in the
+ * order of their (start) program counters and the block with id `0` is always the
+ * entry block. All edges are stored using primitive `Int` arrays of block ids.
+ *
+ * The graph distinguishes between normal edges (fall-through, jumps and switches) and
+ * exception edges. The latter connect a basic block with the blocks of all exception
+ * handlers (including finally handlers) that cover the block's instructions. The basic
+ * blocks are split at the boundaries of the try blocks; hence, all instructions of a
+ * basic block are covered by the same handlers.
+ *
+ * The subroutines (`JSR`/`RET`) are modeled as in [[Code.joinInstructions]]: the
+ * basic block that ends with the `JSR` instruction has the subroutine and the
+ * instruction following the `JSR` instruction as its successors; a `RET` instruction
+ * has no successors.
+ *
+ * ==Thread Safety==
+ * This class is immutable. The arrays returned by the methods of this class must
+ * not be mutated!
+ *
+ * @author Michael Eichberg
+ */
+final class CFG private (
+        val code: Code,
+        private[this] val blockIds: Array[Int],
+        private[this] val startPCs: Array[PC],
+        private[this] val endPCs: Array[PC],
+        private[this] val successorsOf: Array[Array[Int]],
+        private[this] val predecessorsOf: Array[Array[Int]],
+        private[this] val exceptionSuccessorsOf: Array[Array[Int]],
+        private[this] val exceptionPredecessorsOf: Array[Array[Int]]) {
+
+    /**
+     * The number of basic blocks.
+     */
+    def blocksCount: Int = startPCs.length
+
+    /**
+     * The id of the basic block to which the instruction with the given pc belongs.
+     * If the pc does not identify an instruction, `-1` is returned.
+     */
+    def blockId(pc: PC): Int = blockIds(pc)
+
+    /**
+     * The pc of the first instruction of the given basic block.
+     */
+    def startPC(blockId: Int): PC = startPCs(blockId)
+
+    /**
+     * The pc of the last instruction of the given basic block.
+     */
+    def endPC(blockId: Int): PC = endPCs(blockId)
+
+    /**
+     * Returns `true` if the given pc is the pc of the first instruction of a basic
+     * block.
+     */
+    def isBlockStart(pc: PC): Boolean = {
+        val blockId = blockIds(pc)
+        blockId >= 0 && startPCs(blockId) == pc
+    }
+
+    /**
+     * The ids of the basic blocks that may be executed next if the given block
+     * completes normally.
+     */
+    def successors(blockId: Int): Array[Int] = successorsOf(blockId)
+
+    /**
+     * The ids of the basic blocks that may complete normally and which are then
+     * followed by the given block.
+     */
+    def predecessors(blockId: Int): Array[Int] = predecessorsOf(blockId)
+
+    /**
+     * The ids of the basic blocks of the exception handlers that cover the given
+     * block. The handlers are listed in the order of the code's exception table.
+     */
+    def exceptionSuccessors(blockId: Int): Array[Int] = exceptionSuccessorsOf(blockId)
+
+    /**
+     * The ids of the basic blocks that are covered by the exception handler that
+     * starts with the given block.
+     */
+    def exceptionPredecessors(blockId: Int): Array[Int] = exceptionPredecessorsOf(blockId)
+
+    /**
+     * Calls the function `f` for the pc of each instruction that may be executed
+     * next if the instruction with the given pc completes normally.
+     */
+    def foreachSuccessor(pc: PC)(f: PC ⇒ Unit): Unit = {
+        val blockId = blockIds(pc)
+        if (endPCs(blockId) != pc) {
+            f(code.pcOfNextInstruction(pc))
+        } else {
+            val successors = successorsOf(blockId)
+            var i = 0
+            while (i < successors.length) {
+                f(startPCs(successors(i)))
+                i += 1
+            }
+        }
+    }
+
+    /**
+     * The pcs of the handlers (exception and finally handlers) of the instruction
+     * with the given pc; i.e., the targets of the instruction's exception edges.
+     */
+    def handlerPCs(pc: PC): Array[PC] = {
+        val exceptionSuccessors = exceptionSuccessorsOf(blockIds(pc))
+        val handlerPCs = new Array[PC](exceptionSuccessors.length)
+        var i = 0
+        while (i < exceptionSuccessors.length) {
+            handlerPCs(i) = startPCs(exceptionSuccessors(i))
+            i += 1
+        }
+        handlerPCs
+    }
+
+    /**
+     * The set of all program counters where two or more control flow paths join.
+     * As in the case of [[Code.joinInstructions]] the first instruction of each
+     * exception handler is always considered to be a join instruction.
+     */
+    lazy val joinInstructions: BitSet = {
+        val joinInstructions = new scala.collection.mutable.BitSet(code.codeLength)
+        var blockId = 0
+        while (blockId < blocksCount) {
+            val exceptionPredecessorsCount = exceptionPredecessorsOf(blockId).length
+            if (exceptionPredecessorsCount > 0 ||
+                predecessorsOf(blockId).length > 1 ||
+                (blockId == 0 && predecessorsOf(0).length > 0))
+                joinInstructions += startPCs(blockId)
+            blockId += 1
+        }
+        joinInstructions
+    }
+
+    /**
+     * The ids of the basic blocks that are not reachable from the entry block.
+     * All paths through the code – including the exception edges – are considered
+     * to be feasible.
+     */
+    lazy val unreachableBlocks: BitSet = {
+        val reached = new Array[Boolean](blocksCount)
+        var worklist = List(0)
+        reached(0) = true
+        while (worklist.nonEmpty) {
+            val blockId = worklist.head
+            worklist = worklist.tail
+            def reach(successors: Array[Int]): Unit = {
+                var i = 0
+                while (i < successors.length) {
+                    val successor = successors(i)
+                    if (!reached(successor)) {
+                        reached(successor) = true
+                        worklist = successor :: worklist
+                    }
+                    i += 1
+                }
+            }
+            reach(successorsOf(blockId))
+            reach(exceptionSuccessorsOf(blockId))
+        }
+        val unreachableBlocks = new scala.collection.mutable.BitSet(blocksCount)
+        var blockId = 0
+        while (blockId < blocksCount) {
+            if (!reached(blockId)) unreachableBlocks += blockId
+            blockId += 1
+        }
+        unreachableBlocks
+    }
+
+    override def toString: String = {
+        (0 until blocksCount).map { blockId ⇒
+            s"$blockId[${startPCs(blockId)}-${endPCs(blockId)}]"+
+                successorsOf(blockId).mkString(" → {", ",", "}")+
+                exceptionSuccessorsOf(blockId).mkString(" ⇝ {", ",", "}")
+        }.mkString("CFG(\n\t", "\n\t", "\n)")
+    }
+}
+
+/**
+ * Factory to create the control-flow graph of a method's code.
+ *
+ * @author Michael Eichberg
+ */
+object CFG {
+
+    /**
+     * Computes the control-flow graph of the given code.
+     */
+    def apply(code: Code): CFG = {
+        val instructions = code.instructions
+        val codeLength = instructions.length
+        val exceptionHandlers = code.exceptionHandlers
+
+        // 1. determine the pcs of the first instructions of the basic blocks
+        val isLeader = new Array[Boolean](codeLength + 1)
+        isLeader(0) = true
+        exceptionHandlers foreach { eh ⇒
+            isLeader(eh.startPC) = true
+            isLeader(eh.endPC) = true
+            isLeader(eh.handlerPC) = true
+        }
+        var pc = 0
+        while (pc < codeLength) {
+            val instruction = instructions(pc)
+            val nextPC = code.pcOfNextInstruction(pc)
+            foreachTarget(pc, instruction) { targetPC ⇒ isLeader(targetPC) = true }
+            if (endsBasicBlock(instruction)) isLeader(nextPC) = true
+            pc = nextPC
+        }
+
+        // 2. assign the ids to the basic blocks
+        val blockIds = new Array[Int](codeLength)
+        java.util.Arrays.fill(blockIds, -1)
+        var blocksCount = 0
+        pc = 0
+        while (pc < codeLength) {
+            if (isLeader(pc)) blocksCount += 1
+            blockIds(pc) = blocksCount - 1
+            pc = code.pcOfNextInstruction(pc)
+        }
+        val startPCs = new Array[PC](blocksCount)
+        val endPCs = new Array[PC](blocksCount)
+        pc = 0
+        while (pc < codeLength) {
+            val blockId = blockIds(pc)
+            if (isLeader(pc)) startPCs(blockId) = pc
+            endPCs(blockId) = pc
+            pc = code.pcOfNextInstruction(pc)
+        }
+
+        // 3. determine the edges
+        val successorsOf = new Array[Array[Int]](blocksCount)
+        val exceptionSuccessorsOf = new Array[Array[Int]](blocksCount)
+        val successors = new IntArrayBuilder
+        var blockId = 0
+        while (blockId < blocksCount) {
+            val endPC = endPCs(blockId)
+            val instruction = instructions(endPC)
+            foreachTarget(endPC, instruction) { targetPC ⇒ successors += blockIds(targetPC) }
+            if (fallsThrough(instruction)) {
+                val nextPC = code.pcOfNextInstruction(endPC)
+                if (nextPC < codeLength) successors += blockIds(nextPC)
+            }
+            successorsOf(blockId) = successors.result()
+
+            val startPC = startPCs(blockId)
+            exceptionHandlers foreach { eh ⇒
+                if (eh.startPC <= startPC && eh.endPC > startPC)
+                    successors += blockIds(eh.handlerPC)
+            }
+            exceptionSuccessorsOf(blockId) = successors.result()
+            blockId += 1
+        }
+
+        new CFG(
+            code,
+            blockIds, startPCs, endPCs,
+            successorsOf, invert(successorsOf),
+            exceptionSuccessorsOf, invert(exceptionSuccessorsOf)
+        )
+    }
+
+    /**
+     * Returns `true` if the given instruction is always the last instruction of a
+     * basic block.
+     */
+    private[this] def endsBasicBlock(instruction: Instruction): Boolean = {
+        (instruction.opcode: @scala.annotation.switch) match {
+            case ATHROW.opcode | RET.opcode |
+                JSR.opcode | JSR_W.opcode |
+                GOTO.opcode | GOTO_W.opcode |
+                TABLESWITCH.opcode | LOOKUPSWITCH.opcode |
+                165 | 166 | 198 | 199 |
+                159 | 160 | 161 | 162 | 163 | 164 |
+                153 | 154 | 155 | 156 | 157 | 158 |
+                /*xReturn:*/ 176 | 175 | 174 | 172 | 173 | 177 ⇒
+                true
+            case _ ⇒
+                false
+        }
+    }
+
+    /**
+     * Returns `true` if the instruction following the given instruction may be executed
+     * next; i.e., if the given instruction is not an unconditional transfer of control.
+     * (As usual, the instruction following a `jsr` instruction is considered to be
+     * its successor.)
+     */
+    private[this] def fallsThrough(instruction: Instruction): Boolean = {
+        (instruction.opcode: @scala.annotation.switch) match {
+            case ATHROW.opcode | RET.opcode |
+                GOTO.opcode | GOTO_W.opcode |
+                TABLESWITCH.opcode | LOOKUPSWITCH.opcode |
+                /*xReturn:*/ 176 | 175 | 174 | 172 | 173 | 177 ⇒
+                false
+            case _ ⇒
+                true
+        }
+    }
+
+    /**
+     * Calls `f` for each jump target of the given instruction; the pc of the
+     * instruction following a conditional branch instruction is not passed to `f`.
+     */
+    @inline private[this] def foreachTarget(
+        pc: PC,
+        instruction: Instruction)(
+            f: PC ⇒ Unit): Unit = {
+        (instruction.opcode: @scala.annotation.switch) match {
+            case JSR.opcode | JSR_W.opcode | GOTO.opcode | GOTO_W.opcode ⇒
+                f(pc + instruction.asInstanceOf[UnconditionalBranchInstruction].branchoffset)
+
+            case 165 | 166 | 198 | 199 |
+                159 | 160 | 161 | 162 | 163 | 164 |
+                153 | 154 | 155 | 156 | 157 | 158 ⇒
+                f(pc + instruction.asInstanceOf[SimpleConditionalBranchInstruction].branchoffset)
+
+            case TABLESWITCH.opcode | LOOKUPSWITCH.opcode ⇒
+                val switchInstruction = instruction.asInstanceOf[CompoundConditionalBranchInstruction]
+                f(pc + switchInstruction.defaultOffset)
+                switchInstruction.jumpOffsets foreach { jumpOffset ⇒ f(pc + jumpOffset) }
+
+            case _ ⇒
+            /*no jump targets*/
+        }
+    }
+
+    private[this] def invert(edges: Array[Array[Int]]): Array[Array[Int]] = {
+        val blocksCount = edges.length
+        val counts = new Array[Int](blocksCount)
+        edges foreach { targets ⇒ targets foreach { target ⇒ counts(target) += 1 } }
+        val inverted = Array.tabulate(blocksCount)(blockId ⇒ new Array[Int](counts(blockId)))
+        java.util.Arrays.fill(counts, 0)
+        var blockId = 0
+        while (blockId < blocksCount) {
+            edges(blockId) foreach { target ⇒
+                inverted(target)(counts(target)) = blockId
+                counts(target) += 1
+            }
+            blockId += 1
+        }
+        inverted
+    }
+
+    /**
+     * Collects the (distinct) ids of the successors of a basic block.
+     */
+    private[this] final class IntArrayBuilder {
+
+        private[this] var values = new Array[Int](8)
+        private[this] var size = 0
+
+        def +=(value: Int): Unit = {
+            var i = 0
+            while (i < size) {
+                if (values(i) == value) return ;
+                i += 1
+            }
+            if (size == values.length) {
+                values = java.util.Arrays.copyOf(values, size * 2)
+            }
+            values(size) = value
+            size += 1
+        }
+
+        /**
+         * Returns the collected values and resets this builder.
+         */
+        def result(): Array[Int] = {
+            val result = java.util.Arrays.copyOf(values, size)
+            size = 0
+            result
+        }
+    }
+}
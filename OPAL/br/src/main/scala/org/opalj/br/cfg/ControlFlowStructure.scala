@@ -0,0 +1,90 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package cfg
+
+/**
+ * The dominance and loop structure of a method's control-flow graph.
+ *
+ * The dominator tree, the post-dominator tree and the loop nesting forest are each
+ * computed on demand when they are accessed for the first time.
+ *
+ * ==Thread Safety==
+ * This class is thread-safe.
+ *
+ * @author Michael Eichberg
+ */
+final class ControlFlowStructure(val cfg: CFG) {
+
+    /**
+     * The dominator tree of the basic blocks (see [[DominatorTree.dominators]]).
+     */
+    lazy val dominatorTree: DominatorTree = DominatorTree.dominators(cfg)
+
+    /**
+     * The post-dominator tree of the basic blocks (see
+     * [[DominatorTree.postDominators]]).
+     */
+    lazy val postDominatorTree: DominatorTree = DominatorTree.postDominators(cfg)
+
+    /**
+     * The loop nesting forest of the basic blocks.
+     */
+    lazy val loopNestingForest: LoopNestingForest = LoopNestingForest(cfg, dominatorTree)
+
+    /**
+     * Returns `true` if the instruction with the pc `pc` dominates the instruction
+     * with the pc `dominatedPC`. Both instructions have to be reachable.
+     */
+    def dominates(pc: PC, dominatedPC: PC): Boolean = {
+        val blockId = cfg.blockId(pc)
+        val dominatedBlockId = cfg.blockId(dominatedPC)
+        if (blockId == dominatedBlockId)
+            pc <= dominatedPC
+        else
+            dominatorTree.dominates(blockId, dominatedBlockId)
+    }
+
+    /**
+     * Returns `true` if the instruction with the pc `pc` post-dominates the instruction
+     * with the pc `dominatedPC`; i.e., if every path from the instruction `dominatedPC`
+     * to the end of the method passes through `pc`.
+     */
+    def postDominates(pc: PC, dominatedPC: PC): Boolean = {
+        val blockId = cfg.blockId(pc)
+        val dominatedBlockId = cfg.blockId(dominatedPC)
+        if (blockId == dominatedBlockId)
+            pc >= dominatedPC
+        else
+            postDominatorTree.isReachable(blockId) &&
+                postDominatorTree.isReachable(dominatedBlockId) &&
+                postDominatorTree.dominates(blockId, dominatedBlockId)
+    }
+}
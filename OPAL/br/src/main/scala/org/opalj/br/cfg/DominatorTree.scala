@@ -0,0 +1,326 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package cfg
+
+/**
+ * The dominator tree of a graph whose nodes are identified by the `Int` values
+ * `[0..nodesCount-1]`.
+ *
+ * A node `d` dominates a node `n` if every path from the start node to `n` passes
+ * through `d`; each node dominates itself. The immediate dominator of a node `n` is
+ * the (unique) node that strictly dominates `n`, but does not strictly dominate any
+ * other node that strictly dominates `n`.
+ *
+ * The tree is computed using the algorithm by Cooper, Harvey and Kennedy
+ * (''A Simple, Fast Dominance Algorithm'') using primitive `Int` arrays only. To make
+ * it possible to answer dominance queries in constant time, the nodes of the tree are
+ * numbered using a pre-order/post-order traversal.
+ *
+ * ==Thread Safety==
+ * This class is immutable.
+ *
+ * @param startNode The root of the tree.
+ * @param idoms The immediate dominator of each node; `-1` for the start node and for
+ *      all nodes that are not reachable from the start node.
+ *
+ * @author Michael Eichberg
+ */
+final class DominatorTree private (
+        val startNode: Int,
+        private[this] val idoms: Array[Int],
+        private[this] val preOrder: Array[Int],
+        private[this] val postOrder: Array[Int]) {
+
+    /**
+     * The number of nodes of the underlying graph.
+     */
+    def nodesCount: Int = idoms.length
+
+    /**
+     * Returns `true` if the node is reachable from the start node. The dominance
+     * relation is only defined for reachable nodes.
+     */
+    def isReachable(node: Int): Boolean = preOrder(node) >= 0
+
+    /**
+     * The immediate dominator of the given node; `-1` if the node is the start node or
+     * if the node is not reachable.
+     */
+    def idom(node: Int): Int = idoms(node)
+
+    /**
+     * Returns `true` if `node` dominates `dominated`. Both nodes have to be reachable.
+     * This method has complexity O(1).
+     */
+    def dominates(node: Int, dominated: Int): Boolean = {
+        preOrder(node) <= preOrder(dominated) && postOrder(dominated) <= postOrder(node)
+    }
+
+    /**
+     * Returns `true` if `node` dominates `dominated` and both nodes are different.
+     */
+    def strictlyDominates(node: Int, dominated: Int): Boolean =
+        node != dominated && dominates(node, dominated)
+
+    /**
+     * Calls the function `f` for each (strict) dominator of the given node starting
+     * with the immediate dominator.
+     */
+    def foreachDominatorOf(node: Int)(f: Int ⇒ Unit): Unit = {
+        var dominator = idoms(node)
+        while (dominator >= 0) {
+            f(dominator)
+            dominator = idoms(dominator)
+        }
+    }
+
+    override def toString: String = {
+        idoms.zipWithIndex.collect {
+            case (idom, node) if idom >= 0 ⇒ s"$idom → $node"
+        }.mkString(s"DominatorTree(startNode=$startNode; ", ", ", ")")
+    }
+}
+
+/**
+ * Factory to compute dominator trees.
+ *
+ * @author Michael Eichberg
+ */
+object DominatorTree {
+
+    /**
+     * Computes the dominator tree of a graph.
+     *
+     * @param nodesCount The number of nodes; the nodes are identified by the values
+     *      `[0..nodesCount-1]`.
+     * @param startNode The start node of the graph.
+     * @param foreachSuccessorOf A function that calls the given function for each
+     *      successor of the given node.
+     * @param foreachPredecessorOf A function that calls the given function for each
+     *      predecessor of the given node.
+     */
+    def apply(
+        nodesCount: Int,
+        startNode: Int,
+        foreachSuccessorOf: Int ⇒ (Int ⇒ Unit) ⇒ Unit,
+        foreachPredecessorOf: Int ⇒ (Int ⇒ Unit) ⇒ Unit): DominatorTree = {
+
+        // 1. number the (reachable) nodes in reverse post order
+        val postOrderNumber = new Array[Int](nodesCount)
+        java.util.Arrays.fill(postOrderNumber, -1)
+        val nodesInReversePostOrder = new Array[Int](nodesCount)
+        var reachableNodesCount = 0
+        locally {
+            // the number of the successors of the node that were already visited is
+            // implicitly managed using an iterator per node on the (explicit) stack
+            val visited = new Array[Boolean](nodesCount)
+            var stack: List[(Int, Iterator[Int])] = Nil
+            def successors(node: Int): Iterator[Int] = {
+                var successors: List[Int] = Nil
+                foreachSuccessorOf(node) { successor ⇒ successors = successor :: successors }
+                successors.reverseIterator
+            }
+            visited(startNode) = true
+            stack = (startNode, successors(startNode)) :: stack
+            var postOrderCounter = 0
+            while (stack.nonEmpty) {
+                val (node, successorsIterator) = stack.head
+                if (successorsIterator.hasNext) {
+                    val successor = successorsIterator.next()
+                    if (!visited(successor)) {
+                        visited(successor) = true
+                        stack = (successor, successors(successor)) :: stack
+                    }
+                } else {
+                    stack = stack.tail
+                    postOrderNumber(node) = postOrderCounter
+                    postOrderCounter += 1
+                }
+            }
+            reachableNodesCount = postOrderCounter
+            var node = 0
+            while (node < nodesCount) {
+                val number = postOrderNumber(node)
+                if (number >= 0) nodesInReversePostOrder(reachableNodesCount - 1 - number) = node
+                node += 1
+            }
+        }
+
+        // 2. compute the immediate dominators
+        val idoms = new Array[Int](nodesCount)
+        java.util.Arrays.fill(idoms, -1)
+        idoms(startNode) = startNode
+
+        def intersect(node1: Int, node2: Int): Int = {
+            var finger1 = node1
+            var finger2 = node2
+            while (finger1 != finger2) {
+                while (postOrderNumber(finger1) < postOrderNumber(finger2))
+                    finger1 = idoms(finger1)
+                while (postOrderNumber(finger2) < postOrderNumber(finger1))
+                    finger2 = idoms(finger2)
+            }
+            finger1
+        }
+
+        var changed = true
+        while (changed) {
+            changed = false
+            var i = 1 // the start node is always the first node
+            while (i < reachableNodesCount) {
+                val node = nodesInReversePostOrder(i)
+                var newIdom = -1
+                foreachPredecessorOf(node) { predecessor ⇒
+                    if (idoms(predecessor) >= 0) {
+                        newIdom = if (newIdom == -1) predecessor else intersect(predecessor, newIdom)
+                    }
+                }
+                if (idoms(node) != newIdom) {
+                    idoms(node) = newIdom
+                    changed = true
+                }
+                i += 1
+            }
+        }
+        idoms(startNode) = -1
+
+        // 3. number the nodes of the dominator tree to answer dominance queries in O(1)
+        val childrenCount = new Array[Int](nodesCount)
+        idoms foreach { idom ⇒ if (idom >= 0) childrenCount(idom) += 1 }
+        val children = Array.tabulate(nodesCount)(node ⇒ new Array[Int](childrenCount(node)))
+        java.util.Arrays.fill(childrenCount, 0)
+        var node = 0
+        while (node < nodesCount) {
+            val idom = idoms(node)
+            if (idom >= 0) {
+                children(idom)(childrenCount(idom)) = node
+                childrenCount(idom) += 1
+            }
+            node += 1
+        }
+        val preOrder = new Array[Int](nodesCount)
+        java.util.Arrays.fill(preOrder, -1)
+        val postOrder = new Array[Int](nodesCount)
+        java.util.Arrays.fill(postOrder, -1)
+        locally {
+            var preOrderCounter = 0
+            var postOrderCounter = 0
+            // the stack stores the node and the index of the next child to visit
+            val nodesStack = new Array[Int](reachableNodesCount)
+            val childIndexStack = new Array[Int](reachableNodesCount)
+            var top = 0
+            nodesStack(0) = startNode
+            preOrder(startNode) = preOrderCounter
+            preOrderCounter += 1
+            while (top >= 0) {
+                val node = nodesStack(top)
+                val childIndex = childIndexStack(top)
+                val nodeChildren = children(node)
+                if (childIndex < nodeChildren.length) {
+                    childIndexStack(top) = childIndex + 1
+                    val child = nodeChildren(childIndex)
+                    preOrder(child) = preOrderCounter
+                    preOrderCounter += 1
+                    top += 1
+                    nodesStack(top) = child
+                    childIndexStack(top) = 0
+                } else {
+                    postOrder(node) = postOrderCounter
+                    postOrderCounter += 1
+                    top -= 1
+                }
+            }
+        }
+
+        new DominatorTree(startNode, idoms, preOrder, postOrder)
+    }
+
+    /**
+     * Computes the dominator tree of the given control-flow graph's basic blocks. Both,
+     * the normal and the exception edges are considered.
+     */
+    def dominators(cfg: CFG): DominatorTree = {
+        DominatorTree(
+            cfg.blocksCount,
+            0,
+            (blockId: Int) ⇒ (f: Int ⇒ Unit) ⇒ {
+                cfg.successors(blockId) foreach f
+                cfg.exceptionSuccessors(blockId) foreach f
+            },
+            (blockId: Int) ⇒ (f: Int ⇒ Unit) ⇒ {
+                cfg.predecessors(blockId) foreach f
+                cfg.exceptionPredecessors(blockId) foreach f
+            }
+        )
+    }
+
+    /**
+     * Computes the post-dominator tree of the given control-flow graph's basic blocks.
+     *
+     * The tree's start node is a virtual exit node with the id `cfg.blocksCount`. The
+     * exit node is the successor of all basic blocks without normal successors; i.e.,
+     * of all blocks that end with a return, an `ATHROW` or a `RET` instruction.
+     * This is independent of the block's exception successors: a block that ends
+     * with a return instruction and which belongs to a try block always has exception
+     * edges, but the method nevertheless (normally) returns.
+     * Basic blocks from which no such block can be reached (e.g., the blocks of
+     * infinite loops) are not post-dominated by any block.
+     */
+    def postDominators(cfg: CFG): DominatorTree = {
+        val exitNode = cfg.blocksCount
+        def isExitBlock(blockId: Int): Boolean = cfg.successors(blockId).isEmpty
+
+        DominatorTree(
+            cfg.blocksCount + 1,
+            exitNode,
+            // the successors in the reversed graph are the predecessors in the cfg
+            (blockId: Int) ⇒ (f: Int ⇒ Unit) ⇒ {
+                if (blockId == exitNode) {
+                    var exitBlockId = 0
+                    while (exitBlockId < exitNode) {
+                        if (isExitBlock(exitBlockId)) f(exitBlockId)
+                        exitBlockId += 1
+                    }
+                } else {
+                    cfg.predecessors(blockId) foreach f
+                    cfg.exceptionPredecessors(blockId) foreach f
+                }
+            },
+            (blockId: Int) ⇒ (f: Int ⇒ Unit) ⇒ {
+                if (blockId != exitNode) {
+                    cfg.successors(blockId) foreach f
+                    cfg.exceptionSuccessors(blockId) foreach f
+                    if (isExitBlock(blockId)) f(exitNode)
+                }
+            }
+        )
+    }
+}
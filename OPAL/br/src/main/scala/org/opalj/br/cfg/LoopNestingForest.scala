@@ -0,0 +1,217 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package cfg
+
+import scala.collection.BitSet
+
+/**
+ * The loop nesting forest of a control-flow graph.
+ *
+ * A loop is identified by its header; i.e., the basic block that is the target of
+ * at least one back edge. An edge `n → h` is a back edge if `h` dominates `n`. The
+ * body of a loop consists of the header and all blocks from which one of the back
+ * edges' sources can be reached without passing through the header (i.e., all natural
+ * loops with the same header are merged). The loops with different headers are
+ * either disjoint or nested.
+ *
+ * @note Irreducible loops (i.e., cycles without a unique entry – which javac never
+ *      generates) are not identified as loops.
+ *
+ * ==Thread Safety==
+ * This class is immutable.
+ *
+ * @author Michael Eichberg
+ */
+final class LoopNestingForest private (
+        val cfg: CFG,
+        val loopHeaders: Array[Int],
+        private[this] val innermostLoops: Array[Int],
+        private[this] val parentLoops: Array[Int],
+        private[this] val loopDepths: Array[Int],
+        private[this] val backEdgeSourcesOf: Array[Array[Int]]) {
+
+    /**
+     * Returns `true` if the given basic block is the header of a loop.
+     */
+    def isLoopHeader(blockId: Int): Boolean = backEdgeSourcesOf(blockId) ne null
+
+    /**
+     * The header of the innermost loop that contains the given basic block; `-1` if
+     * the block is not part of a loop.
+     */
+    def innermostLoop(blockId: Int): Int = innermostLoops(blockId)
+
+    /**
+     * The header of the loop that directly encloses the loop with the given header;
+     * `-1` if the loop is a root of the forest.
+     */
+    def parentLoop(loopHeader: Int): Int = parentLoops(loopHeader)
+
+    /**
+     * The number of loops that contain the given basic block.
+     */
+    def loopDepth(blockId: Int): Int = loopDepths(blockId)
+
+    /**
+     * The sources of the back edges of the loop with the given header.
+     */
+    def backEdgeSources(loopHeader: Int): Array[Int] = backEdgeSourcesOf(loopHeader)
+
+    /**
+     * Returns `true` if the given basic block belongs to the loop with the given header
+     * or to a loop nested in it.
+     */
+    def isInLoop(blockId: Int, loopHeader: Int): Boolean = {
+        var loop = innermostLoops(blockId)
+        while (loop >= 0 && loop != loopHeader) loop = parentLoops(loop)
+        loop == loopHeader && loop >= 0
+    }
+
+    /**
+     * The pcs of the first instructions of all loop headers; e.g., the instructions
+     * where an abstract interpreter should apply widening.
+     */
+    lazy val loopHeaderPCs: BitSet = {
+        val loopHeaderPCs = new scala.collection.mutable.BitSet(cfg.code.codeLength)
+        loopHeaders foreach { loopHeader ⇒ loopHeaderPCs += cfg.startPC(loopHeader) }
+        loopHeaderPCs
+    }
+
+    override def toString: String = {
+        loopHeaders.map { loopHeader ⇒
+            s"$loopHeader(parent=${parentLoops(loopHeader)}; "+
+                s"backEdgeSources=${backEdgeSourcesOf(loopHeader).mkString(",")})"
+        }.mkString("LoopNestingForest(", "; ", ")")
+    }
+}
+
+/**
+ * Factory to compute loop nesting forests.
+ *
+ * @author Michael Eichberg
+ */
+object LoopNestingForest {
+
+    /**
+     * Computes the loop nesting forest of the given control-flow graph using the
+     * graph's dominator tree. Both, the normal and the exception edges are considered.
+     */
+    def apply(cfg: CFG, dominatorTree: DominatorTree): LoopNestingForest = {
+        val blocksCount = cfg.blocksCount
+
+        // 1. identify the back edges
+        val backEdgeSourcesOf = new Array[Array[Int]](blocksCount)
+        var loopHeadersCount = 0
+        var blockId = 0
+        while (blockId < blocksCount) {
+            if (dominatorTree.isReachable(blockId)) {
+                def checkEdge(successor: Int): Unit = {
+                    if (dominatorTree.dominates(successor, blockId)) {
+                        val backEdgeSources = backEdgeSourcesOf(successor)
+                        if (backEdgeSources eq null) {
+                            backEdgeSourcesOf(successor) = Array(blockId)
+                            loopHeadersCount += 1
+                        } else if (!backEdgeSources.contains(blockId)) {
+                            backEdgeSourcesOf(successor) = backEdgeSources :+ blockId
+                        }
+                    }
+                }
+                cfg.successors(blockId) foreach checkEdge
+                cfg.exceptionSuccessors(blockId) foreach checkEdge
+            }
+            blockId += 1
+        }
+        val loopHeaders = new Array[Int](loopHeadersCount)
+        locally {
+            var i = 0
+            var blockId = 0
+            while (blockId < blocksCount) {
+                if (backEdgeSourcesOf(blockId) ne null) {
+                    loopHeaders(i) = blockId
+                    i += 1
+                }
+                blockId += 1
+            }
+        }
+
+        // 2. compute the loops' bodies
+        val loopBodies = loopHeaders map { loopHeader ⇒
+            val body = new Array[Boolean](blocksCount)
+            body(loopHeader) = true
+            var bodySize = 1
+            var worklist: List[Int] = Nil
+            backEdgeSourcesOf(loopHeader) foreach { source ⇒
+                if (!body(source)) {
+                    body(source) = true
+                    bodySize += 1
+                    worklist = source :: worklist
+                }
+            }
+            while (worklist.nonEmpty) {
+                val blockId = worklist.head
+                worklist = worklist.tail
+                def add(predecessor: Int): Unit = {
+                    if (!body(predecessor) && dominatorTree.isReachable(predecessor)) {
+                        body(predecessor) = true
+                        bodySize += 1
+                        worklist = predecessor :: worklist
+                    }
+                }
+                cfg.predecessors(blockId) foreach add
+                cfg.exceptionPredecessors(blockId) foreach add
+            }
+            (loopHeader, body, bodySize)
+        }
+
+        // 3. build the forest; a loop that is nested in another loop is always smaller
+        val innermostLoops = new Array[Int](blocksCount)
+        java.util.Arrays.fill(innermostLoops, -1)
+        val parentLoops = new Array[Int](blocksCount)
+        java.util.Arrays.fill(parentLoops, -1)
+        val loopDepths = new Array[Int](blocksCount)
+        loopBodies.sortBy(-_._3) foreach { loopBody ⇒
+            val (loopHeader, body, _) = loopBody
+            parentLoops(loopHeader) = innermostLoops(loopHeader)
+            var blockId = 0
+            while (blockId < blocksCount) {
+                if (body(blockId)) {
+                    innermostLoops(blockId) = loopHeader
+                    loopDepths(blockId) += 1
+                }
+                blockId += 1
+            }
+        }
+
+        new LoopNestingForest(
+            cfg, loopHeaders, innermostLoops, parentLoops, loopDepths, backEdgeSourcesOf
+        )
+    }
+}
@@ -0,0 +1,210 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package instructions
+
+import scala.annotation.switch
+
+/**
+ * A visitor of a method's instructions that has one callback per family of
+ * instructions. Unlike [[Code.collect]] and its siblings, visiting the instructions
+ * neither creates tuples nor (partial) function objects; the program counter is
+ * passed as a primitive value.
+ *
+ * All callbacks do nothing by default; i.e., a visitor only needs to override the
+ * callbacks for the families of instructions it is interested in. Instructions
+ * that do not belong to one of the explicitly supported families (arithmetic,
+ * stack management, synchronization, ... instructions) are passed to
+ * [[visitOtherInstruction]].
+ *
+ * Use the companion object's `visit` methods to visit the instructions of a
+ * method's body; multiple visitors can be run over the instructions in a single pass.
+ *
+ * @author Michael Eichberg
+ */
+trait InstructionsVisitor {
+
+    /**
+     * Called before the first instruction of the given code block is visited.
+     */
+    def beginCode(code: Code): Unit = {}
+
+    /**
+     * Called after the last instruction of the given code block was visited.
+     */
+    def endCode(code: Code): Unit = {}
+
+    /** `ACONST_NULL`, `xCONST_y`, `BIPUSH`, `SIPUSH` and `LDC(_W|2_W)`. */
+    def visitLoadConstant(pc: PC, instruction: LoadConstantInstruction[_]): Unit = {}
+
+    /** `xLOAD(_y)` instructions. */
+    def visitLoadLocalVariable(pc: PC, instruction: LoadLocalVariableInstruction): Unit = {}
+
+    /** `xSTORE(_y)` instructions. */
+    def visitStoreLocalVariable(pc: PC, instruction: StoreLocalVariableInstruction): Unit = {}
+
+    /** `xALOAD` and `xASTORE` instructions. */
+    def visitArrayAccess(pc: PC, instruction: ArrayAccessInstruction): Unit = {}
+
+    /** `GETFIELD`, `GETSTATIC`, `PUTFIELD` and `PUTSTATIC`. */
+    def visitFieldAccess(pc: PC, instruction: FieldAccess): Unit = {}
+
+    /** `INVOKEVIRTUAL`, `INVOKESPECIAL`, `INVOKESTATIC` and `INVOKEINTERFACE`. */
+    def visitMethodInvocation(pc: PC, instruction: MethodInvocationInstruction): Unit = {}
+
+    /** `INVOKEDYNAMIC`. */
+    def visitInvokedynamic(pc: PC, instruction: InvocationInstruction): Unit = {}
+
+    /** (Un)conditional branches, switches, `JSR(_W)` and `RET`. */
+    def visitControlTransfer(pc: PC, instruction: ControlTransferInstruction): Unit = {}
+
+    /** `xRETURN` instructions. */
+    def visitReturn(pc: PC, instruction: ReturnInstruction): Unit = {}
+
+    /** `NEW`, `NEWARRAY`, `ANEWARRAY` and `MULTIANEWARRAY`. */
+    def visitObjectCreation(pc: PC, instruction: Instruction): Unit = {}
+
+    /** `CHECKCAST` and `INSTANCEOF`. */
+    def visitTypeCheck(pc: PC, instruction: Instruction): Unit = {}
+
+    /** All other instructions. */
+    def visitOtherInstruction(pc: PC, instruction: Instruction): Unit = {}
+}
+
+/**
+ * Drives [[InstructionsVisitor]]s.
+ *
+ * @author Michael Eichberg
+ */
+object InstructionsVisitor {
+
+    private final val LoadConstant = 1
+    private final val LoadLocalVariable = 2
+    private final val StoreLocalVariable = 3
+    private final val ArrayAccess = 4
+    private final val FieldAccessFamily = 5
+    private final val MethodInvocation = 6
+    private final val Invokedynamic = 7
+    private final val ControlTransfer = 8
+    private final val Return = 9
+    private final val ObjectCreation = 10
+    private final val TypeCheck = 11
+    // all other instructions belong to the family 0
+
+    // maps an opcode to the family of instructions it belongs to
+    private[this] val families: Array[Byte] = {
+        val families = new Array[Byte](256)
+        def set(family: Int, opcodes: Range): Unit =
+            opcodes foreach { opcode ⇒ families(opcode) = family.toByte }
+        set(LoadConstant, 1 to 20)
+        set(LoadLocalVariable, 21 to 45)
+        set(ArrayAccess, 46 to 53)
+        set(StoreLocalVariable, 54 to 78)
+        set(ArrayAccess, 79 to 86)
+        set(ControlTransfer, 153 to 171)
+        set(Return, 172 to 177)
+        set(FieldAccessFamily, 178 to 181)
+        set(MethodInvocation, 182 to 185)
+        set(Invokedynamic, 186 to 186)
+        set(ObjectCreation, 187 to 189)
+        set(TypeCheck, 192 to 193)
+        set(ObjectCreation, 197 to 197)
+        set(ControlTransfer, 198 to 201)
+        families
+    }
+
+    /**
+     * Visits all instructions of the given code block using the given visitor.
+     */
+    def visit(code: Code, visitor: InstructionsVisitor): Unit = {
+        visit(code, Array(visitor))
+    }
+
+    /**
+     * Visits all instructions of the given code block in a single pass. For each
+     * instruction the visitors are called in the given order.
+     */
+    def visit(code: Code, visitors: Array[InstructionsVisitor]): Unit = {
+        val visitorsCount = visitors.length
+        var v = 0
+        while (v < visitorsCount) { visitors(v).beginCode(code); v += 1 }
+
+        val instructions = code.instructions
+        val codeLength = instructions.length
+        var pc = 0
+        while (pc < codeLength) {
+            val instruction = instructions(pc)
+            val family = families(instruction.opcode)
+            v = 0
+            while (v < visitorsCount) {
+                val visitor = visitors(v)
+                (family: @switch) match {
+                    case LoadConstant ⇒
+                        visitor.visitLoadConstant(
+                            pc, instruction.asInstanceOf[LoadConstantInstruction[_]])
+                    case LoadLocalVariable ⇒
+                        visitor.visitLoadLocalVariable(
+                            pc, instruction.asInstanceOf[LoadLocalVariableInstruction])
+                    case StoreLocalVariable ⇒
+                        visitor.visitStoreLocalVariable(
+                            pc, instruction.asInstanceOf[StoreLocalVariableInstruction])
+                    case ArrayAccess ⇒
+                        visitor.visitArrayAccess(
+                            pc, instruction.asInstanceOf[ArrayAccessInstruction])
+                    case FieldAccessFamily ⇒
+                        visitor.visitFieldAccess(
+                            pc, instruction.asInstanceOf[FieldAccess])
+                    case MethodInvocation ⇒
+                        visitor.visitMethodInvocation(
+                            pc, instruction.asInstanceOf[MethodInvocationInstruction])
+                    case Invokedynamic ⇒
+                        visitor.visitInvokedynamic(
+                            pc, instruction.asInstanceOf[InvocationInstruction])
+                    case ControlTransfer ⇒
+                        visitor.visitControlTransfer(
+                            pc, instruction.asInstanceOf[ControlTransferInstruction])
+                    case Return ⇒
+                        visitor.visitReturn(pc, instruction.asInstanceOf[ReturnInstruction])
+                    case ObjectCreation ⇒
+                        visitor.visitObjectCreation(pc, instruction)
+                    case TypeCheck ⇒
+                        visitor.visitTypeCheck(pc, instruction)
+                    case _ ⇒
+                        visitor.visitOtherInstruction(pc, instruction)
+                }
+                v += 1
+            }
+            pc = instruction.indexOfNextInstruction(pc, code)
+        }
+
+        v = 0
+        while (v < visitorsCount) { visitors(v).endCode(code); v += 1 }
+    }
+}
@@ -30,10 +30,30 @@ package org.opalj
 package br
 package reader
 
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
 import scala.collection.concurrent.TrieMap
+import scala.collection.JavaConversions._
+import scala.collection.SortedMap
 
 import org.opalj.br.instructions._
 
+/**
+ * Shares (immutable) instructions, method descriptors and names across all class
+ * files that are read using the same cache.
+ *
+ * Instructions that are parameterized using a small number (branch offsets, local
+ * variable indexes and constant values) are preallocated for common values. Field
+ * access and method invocation instructions as well as method descriptors are
+ * hash-consed; i.e., for all equal instructions/descriptors only one instance is
+ * retained.
+ *
+ * ==Thread Safety==
+ * This class is thread-safe.
+ *
+ * @author Michael Eichberg
+ */
 class BytecodeInstructionsCache {
 
     //
@@ -333,6 +353,109 @@ class BytecodeInstructionsCache {
         if (lvIndex < 256) dstoreInstructions(lvIndex)
         else { new DSTORE(lvIndex) }
 
+    //
+    // Hash-consing of field access and method invocation instructions
+    //
+
+    private[this] val sharedInstructions = new ConcurrentHashMap[Instruction, Instruction]()
+    // The statistics are indexed by the opcode of the instruction. LongAdders are
+    // used since the counters are updated by all threads that parse method bodies.
+    private[this] val requestedInstructions = Array.fill(256)(new LongAdder)
+
+    /**
+     * Returns the shared instruction that is equal to the given instruction.
+     */
+    private[this] def Shared[T <: Instruction](instruction: T): T = {
+        requestedInstructions(instruction.opcode).increment()
+        val sharedInstruction = sharedInstructions.putIfAbsent(instruction, instruction)
+        if (sharedInstruction eq null)
+            instruction
+        else
+            sharedInstruction.asInstanceOf[T]
+    }
+
+    def GETFIELD(declaringClass: ObjectType, name: String, fieldType: FieldType): GETFIELD =
+        Shared(new GETFIELD(declaringClass, FieldName(name), fieldType))
+
+    def GETSTATIC(declaringClass: ObjectType, name: String, fieldType: FieldType): GETSTATIC =
+        Shared(new GETSTATIC(declaringClass, FieldName(name), fieldType))
+
+    def PUTFIELD(declaringClass: ObjectType, name: String, fieldType: FieldType): PUTFIELD =
+        Shared(new PUTFIELD(declaringClass, FieldName(name), fieldType))
+
+    def PUTSTATIC(declaringClass: ObjectType, name: String, fieldType: FieldType): PUTSTATIC =
+        Shared(new PUTSTATIC(declaringClass, FieldName(name), fieldType))
+
+    def INVOKEINTERFACE(
+        declaringClass: ObjectType,
+        name: String,
+        methodDescriptor: MethodDescriptor): INVOKEINTERFACE =
+        Shared(new INVOKEINTERFACE(declaringClass, MethodName(name), methodDescriptor))
+
+    def INVOKESPECIAL(
+        declaringClass: ObjectType,
+        name: String,
+        methodDescriptor: MethodDescriptor): INVOKESPECIAL =
+        Shared(new INVOKESPECIAL(declaringClass, MethodName(name), methodDescriptor))
+
+    def INVOKESTATIC(
+        declaringClass: ObjectType,
+        name: String,
+        methodDescriptor: MethodDescriptor): INVOKESTATIC =
+        Shared(new INVOKESTATIC(declaringClass, MethodName(name), methodDescriptor))
+
+    def INVOKEVIRTUAL(
+        declaringClass: ReferenceType,
+        name: String,
+        methodDescriptor: MethodDescriptor): INVOKEVIRTUAL =
+        Shared(new INVOKEVIRTUAL(declaringClass, MethodName(name), methodDescriptor))
+
+    //
+    // Hash-consing of method descriptors
+    //
+
+    private[this] val methodDescriptors =
+        new ConcurrentHashMap[MethodDescriptor, MethodDescriptor]()
+    private[this] val requestedMethodDescriptors = new LongAdder
+
+    /**
+     * Returns the shared method descriptor that is equal to the given descriptor.
+     */
+    def MethodDescriptor(methodDescriptor: MethodDescriptor): MethodDescriptor = {
+        requestedMethodDescriptors.increment()
+        val sharedMethodDescriptor =
+            methodDescriptors.putIfAbsent(methodDescriptor, methodDescriptor)
+        if (sharedMethodDescriptor eq null)
+            methodDescriptor
+        else
+            sharedMethodDescriptor
+    }
+
+    /**
+     * Returns – per kind of hash-consed instruction (identified by the instruction's
+     * mnemonic) and for the method descriptors (`"MethodDescriptor"`) – the number of
+     * requested instances and the number of unique instances. The difference is the
+     * number of instances that were deduplicated.
+     */
+    def deduplicationStatistics: SortedMap[String, (Long, Int)] = {
+        val uniqueInstructions = new Array[Int](256)
+        val mnemonics = new Array[String](256)
+        sharedInstructions.keySet foreach { instruction ⇒
+            uniqueInstructions(instruction.opcode) += 1
+            mnemonics(instruction.opcode) = instruction.mnemonic
+        }
+        var statistics = SortedMap(
+            "MethodDescriptor" → ((requestedMethodDescriptors.sum, methodDescriptors.size))
+        )
+        for (opcode ← 0 until 256 if mnemonics(opcode) ne null) {
+            statistics += ((
+                mnemonics(opcode),
+                (requestedInstructions(opcode).sum, uniqueInstructions(opcode))
+            ))
+        }
+        statistics
+    }
+
     //
     // ReferenceType based caching
     //
@@ -50,6 +50,20 @@ trait BytecodeReaderAndBinding extends DeferredInvokedynamicResolution {
     def Instructions(
         cp: Constant_Pool,
         source: Array[Byte]): Instructions = {
+        Instructions(cp, source, null.asInstanceOf[ClassFile])
+    }
+
+    /**
+     * Transforms an array of bytes into an array of
+     * [[org.opalj.br.instructions.Instruction]]s.
+     *
+     * @param classFile The class file to which the code belongs if the class file
+     *      was already completely loaded; `null` otherwise.
+     */
+    def Instructions(
+        cp: Constant_Pool,
+        source: Array[Byte],
+        classFile: ClassFile): Instructions = {
         import java.io.DataInputStream
         import java.io.ByteArrayInputStream
 
@@ -223,13 +237,7 @@ trait BytecodeReaderAndBinding extends DeferredInvokedynamicResolution {
                     val cpEntry = cp(in.readUnsignedShort).asInvokeDynamic
                     in.readByte // ignored; fixed value
                     in.readByte // ignored; fixed value
-                    registerDeferredAction(cp) { classFile ⇒
-                        deferredInvokedynamicResolution(
-                            classFile, cp, cpEntry, instructions, index
-                        )
-                    }
-                    //INVOKEDYNAMIC(cpe.bootstrapMethodAttributeIndex, cpe.methodName, cpe.methodDescriptor)
-                    INCOMPLETE_INVOKEDYNAMIC
+                    invokedynamic(classFile, cp, cpEntry, instructions, index)
                 case 185 ⇒
                     val (declaringClass, name, methodDescriptor) /*: (ReferenceType,String,MethodDescriptor)*/ =
                         cp(in.readUnsignedShort).asMethodref(cp) // methodRef
@@ -57,6 +57,20 @@ trait CachedBytecodeReaderAndBinding extends DeferredInvokedynamicResolution {
     def Instructions(
         cp: Constant_Pool,
         source: Array[Byte]): Instructions = {
+        Instructions(cp, source, null.asInstanceOf[ClassFile])
+    }
+
+    /**
+     * Transforms an array of bytes into an array of
+     * [[org.opalj.br.instructions.Instruction]]s.
+     *
+     * @param classFile The class file to which the code belongs if the class file
+     *      was already completely loaded; `null` otherwise.
+     */
+    def Instructions(
+        cp: Constant_Pool,
+        source: Array[Byte],
+        classFile: ClassFile): Instructions = {
         import java.io.DataInputStream
         import java.io.ByteArrayInputStream
 
@@ -168,11 +182,11 @@ trait CachedBytecodeReaderAndBinding extends DeferredInvokedynamicResolution {
                 case 180 ⇒
                     val (declaringClass, name, fieldType): (ObjectType, String, FieldType) =
                         cp(in.readUnsignedShort).asFieldref(cp)
-                    GETFIELD(declaringClass, cache.FieldName(name), fieldType)
+                    cache.GETFIELD(declaringClass, name, fieldType)
                 case 178 ⇒
                     val (declaringClass, name, fieldType): (ObjectType, String, FieldType) =
                         cp(in.readUnsignedShort).asFieldref(cp)
-                    GETSTATIC(declaringClass, cache.FieldName(name), fieldType)
+                    cache.GETSTATIC(declaringClass, name, fieldType)
                 case 167 ⇒ cache.GOTO(in.readShort /* branchoffset */ )
                 case 200 ⇒ GOTO_W(in.readInt /* branchoffset */ )
                 case 145 ⇒ I2B
@@ -234,42 +248,36 @@ trait CachedBytecodeReaderAndBinding extends DeferredInvokedynamicResolution {
                     val cpEntry = cp(in.readUnsignedShort).asInvokeDynamic
                     in.readByte // ignored; fixed value
                     in.readByte // ignored; fixed value
-                    registerDeferredAction(cp) { classFile ⇒
-                        deferredInvokedynamicResolution(
-                            classFile, cp, cpEntry, instructions, index
-                        )
-                    }
-                    //INVOKEDYNAMIC(cpe.bootstrapMethodAttributeIndex, cpe.methodName, cpe.methodDescriptor)
-                    INCOMPLETE_INVOKEDYNAMIC
+                    invokedynamic(classFile, cp, cpEntry, instructions, index)
                 case 185 ⇒
                     val (declaringClass, name, methodDescriptor) /*: (ReferenceType,String,MethodDescriptor)*/ =
                         cp(in.readUnsignedShort).asMethodref(cp) // methodRef
                     in.readByte // ignored; fixed value
                     in.readByte // ignored; fixed value
-                    INVOKEINTERFACE(
+                    cache.INVOKEINTERFACE(
                         declaringClass.asObjectType,
-                        cache.MethodName(name),
+                        name,
                         methodDescriptor)
                 case 183 ⇒
                     val (declaringClass, name, methodDescriptor) /*: (ReferenceType,String,MethodDescriptor)*/ =
                         cp(in.readUnsignedShort).asMethodref(cp)
-                    INVOKESPECIAL(
+                    cache.INVOKESPECIAL(
                         declaringClass.asObjectType,
-                        cache.MethodName(name),
+                        name,
                         methodDescriptor)
                 case 184 ⇒
                     val (declaringClass, name, methodDescriptor) /*: (ReferenceType,String,MethodDescriptor)*/ =
                         cp(in.readUnsignedShort).asMethodref(cp) // methodRef
-                    INVOKESTATIC(
+                    cache.INVOKESTATIC(
                         declaringClass.asObjectType,
-                        cache.MethodName(name),
+                        name,
                         methodDescriptor)
                 case 182 ⇒
                     val (declaringClass, name, methodDescriptor) /*: (ReferenceType,String,MethodDescriptor)*/ =
                         cp(in.readUnsignedShort).asMethodref(cp) // methodRef
-                    INVOKEVIRTUAL(
+                    cache.INVOKEVIRTUAL(
                         declaringClass,
-                        cache.MethodName(name),
+                        name,
                         methodDescriptor)
                 case 128 ⇒ IOR
                 case 112 ⇒ IREM
@@ -344,11 +352,11 @@ trait CachedBytecodeReaderAndBinding extends DeferredInvokedynamicResolution {
                 case 181 ⇒
                     val (declaringClass, name, fieldType): (ObjectType, String, FieldType) =
                         cp(in.readUnsignedShort).asFieldref(cp)
-                    PUTFIELD(declaringClass, cache.FieldName(name), fieldType)
+                    cache.PUTFIELD(declaringClass, name, fieldType)
                 case 179 ⇒
                     val (declaringClass, name, fieldType): (ObjectType, String, FieldType) =
                         cp(in.readUnsignedShort).asFieldref(cp)
-                    PUTSTATIC(declaringClass, cache.FieldName(name), fieldType)
+                    cache.PUTSTATIC(declaringClass, name, fieldType)
                 case 169 ⇒
                     cache.RET(
                         if (wide) {
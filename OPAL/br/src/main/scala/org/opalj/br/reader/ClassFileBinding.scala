@@ -30,6 +30,9 @@ package org.opalj
 package br
 package reader
 
+import java.io.File
+import java.net.URL
+
 import org.opalj.bi.reader.ClassFileReader
 
 /**
@@ -86,5 +89,18 @@ trait ClassFileBinding extends ClassFileReader {
     }
 
     registerClassFilePostProcessor(removeBootstrapMethodAttribute)
+
+    /**
+     * Loads the class files found in the given jar file or directory (see
+     * `ClassFiles(File,(Exception) ⇒ Unit)` for details) using the file's
+     * [[ClassFilesSnapshot]]. If the snapshot does not exist or is outdated, the
+     * class files are read using this reader and the snapshot is (re)created.
+     */
+    def SnapshotClassFiles(
+        file: File,
+        exceptionHandler: (Exception) ⇒ Unit = ClassFileReader.defaultExceptionHandler,
+        cacheDirectory: File = ClassFilesSnapshot.defaultCacheDirectory): Seq[(ClassFile, URL)] = {
+        ClassFilesSnapshot(file, this, exceptionHandler, cacheDirectory).classFiles
+    }
 }
 
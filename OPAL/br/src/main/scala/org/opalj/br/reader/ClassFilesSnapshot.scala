@@ -0,0 +1,1281 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package reader
+
+import java.io.File
+import java.io.IOException
+import java.io.OutputStream
+import java.io.DataOutputStream
+import java.io.BufferedOutputStream
+import java.lang.reflect.Constructor
+import java.lang.reflect.Modifier
+import java.net.URL
+import java.nio.ByteBuffer
+import java.nio.BufferUnderflowException
+import java.nio.channels.FileChannel
+import java.nio.file.Files
+import java.nio.file.Path
+import java.nio.file.FileVisitOption
+import java.nio.file.FileVisitResult
+import java.nio.file.SimpleFileVisitor
+import java.nio.file.StandardCopyOption
+import java.nio.file.StandardOpenOption
+import java.nio.file.attribute.BasicFileAttributes
+import java.nio.file.attribute.PosixFileAttributes
+import java.nio.file.attribute.PosixFilePermission
+import java.nio.file.attribute.PosixFilePermissions
+import java.security.MessageDigest
+import java.util.Arrays
+import java.util.EnumSet
+import java.util.concurrent.atomic.AtomicReferenceArray
+import java.util.zip.CRC32
+
+import scala.reflect.ClassTag
+import scala.collection.mutable.AnyRefMap
+import scala.collection.mutable.ArrayBuffer
+import scala.collection.mutable.ListBuffer
+
+import org.opalj.bi.reader.ClassFilesPipeline
+import org.opalj.bi.reader.ClassFileReader.defaultExceptionHandler
+import org.opalj.br.analyses.ClassHierarchy
+import org.opalj.br.instructions.Instruction
+import org.opalj.br.instructions.BIPUSH
+
+/**
+ * The class files found in a jar file or directory and the type declarations of the
+ * class files.
+ *
+ * @param classFiles The class files and their urls.
+ *
+ * @author Michael Eichberg
+ */
+final class ClassFilesSnapshot private (val classFiles: Seq[(ClassFile, URL)]) {
+
+    /**
+     * The type declarations of the class files; they can be used to create the
+     * class hierarchy without the class files.
+     */
+    val typeDeclarations: Seq[TypeDeclaration] = classFiles map { classFileAndURL ⇒
+        val classFile = classFileAndURL._1
+        TypeDeclaration(
+            classFile.thisType,
+            classFile.isInterfaceDeclaration,
+            classFile.superclassType,
+            classFile.interfaceTypes.toSet
+        )
+    }
+
+    /**
+     * Creates the class hierarchy using the type declarations.
+     */
+    def classHierarchy: ClassHierarchy = ClassHierarchy.fromTypeDeclarations(typeDeclarations)
+}
+
+/**
+ * Stores the parsed class files found in a jar file or directory in a ''snapshot''
+ * file. When the snapshot is used, neither the directories have to be traversed nor
+ * the jar files have to be inflated nor the class files have to be parsed.
+ *
+ * ==Cache Directory==
+ * The snapshots are stored in a cache directory (see [[defaultCacheDirectory]]); the
+ * name of a snapshot file is derived from the canonical path of the jar file or
+ * directory. The default cache directory is private to the current user: it is
+ * created with owner-only permissions and a snapshot is only used if it is owned by
+ * the current user and cannot be modified by other users (if the file system
+ * supports POSIX permissions).
+ *
+ * ==Staleness==
+ * A snapshot is keyed by the SHA-1 digest of the contents of the jar file or of
+ * the class and jar files found in the directory (see [[contentHash]]). If the
+ * contents have changed, the snapshot is no longer used and is recreated. Reading the
+ * files to compute the digest is cheap compared to inflating and parsing them.
+ *
+ * ==Format==
+ * A snapshot file uses a compact binary format that is tailored to the br model:
+ *  - A header with a magic number, the format's version, the content hash and
+ *    a CRC32 checksum of the rest of the file.
+ *  - The shared tables of the strings, of the br model classes (see below), of the
+ *    types and of the method descriptors. A string or type is stored once and is
+ *    referenced by its index; the types are resolved once using their (interning)
+ *    factory methods.
+ *  - The shared table of the instructions; equal instructions are stored once and
+ *    each instruction is decoded (at most once) when it is used for the first time.
+ *  - The packed records of the class files. A value is encoded using a one byte tag
+ *    followed by its components; integer values are encoded as variable length
+ *    integers. A method's body only stores the program counters of its instructions
+ *    and the instructions' indexes.
+ *
+ * The snapshot file is memory-mapped and the class files are decoded directly from
+ * the mapped buffer. The instructions of the method bodies are decoded lazily (see
+ * [[Code.lazily]]) when they are accessed for the first time.
+ *
+ * Besides the classes that are explicitly handled by the format (e.g., class files,
+ * methods, fields, code attributes, types and method descriptors, strings, primitive
+ * values and the collections used by the br model), a snapshot can only store the
+ * case classes and case objects of the br model; i.e., the classes defined by the
+ * packages `org.opalj.br` and `org.opalj.br.instructions` that are subtypes of a
+ * fixed set of br model types (instructions, attributes, annotations, signatures,
+ * etc.). When a snapshot is read, each class that is referenced by the snapshot is
+ * checked accordingly before it is loaded. A snapshot that references any other
+ * class is rejected.
+ *
+ * @author Michael Eichberg
+ */
+object ClassFilesSnapshot {
+
+    final val Magic = 0x4F50414C
+
+    final val Version = 3
+
+    /**
+     * The directory that is used to store the snapshots if no directory is specified;
+     * configured using the system property `org.opalj.br.reader.snapshots`. If the
+     * property is not set, the directory ".opal/snapshots" in the user's home
+     * directory is used.
+     */
+    def defaultCacheDirectory: File = {
+        val directory = System.getProperty("org.opalj.br.reader.snapshots")
+        if (directory ne null)
+            new File(directory)
+        else
+            new File(new File(System.getProperty("user.home"), ".opal"), "snapshots")
+    }
+
+    /**
+     * Returns the snapshot file that is associated with the given jar file or
+     * directory.
+     */
+    def snapshotFile(file: File, cacheDirectory: File): File = {
+        val path = file.getCanonicalPath()
+        val pathHash =
+            MessageDigest.getInstance("SHA-1").digest(path.getBytes("UTF-8")).
+                map(b ⇒ f"${b & 0xFF}%02x").mkString
+        new File(cacheDirectory, file.getName()+"-"+pathHash+".opal-snapshot")
+    }
+
+    /**
+     * The SHA-1 digest of the contents of the given jar file or of the class and
+     * jar files found in the given directory. In the latter case the files' paths
+     * (relative to the directory) are also taken into account.
+     */
+    def contentHash(file: File): Array[Byte] = {
+        val digest = MessageDigest.getInstance("SHA-1")
+        val buffer = new Array[Byte](64 * 1024)
+        def update(file: Path): Unit = {
+            process(Files.newInputStream(file)) { in ⇒
+                var read = in.read(buffer)
+                while (read != -1) {
+                    digest.update(buffer, 0, read)
+                    read = in.read(buffer)
+                }
+            }
+        }
+
+        if (file.isDirectory()) {
+            val root = file.toPath()
+            var files: List[(String, Path)] = Nil
+            Files.walkFileTree(
+                root,
+                EnumSet.of(FileVisitOption.FOLLOW_LINKS),
+                Integer.MAX_VALUE,
+                new SimpleFileVisitor[Path] {
+                    override def visitFile(
+                        file: Path,
+                        attributes: BasicFileAttributes): FileVisitResult = {
+                        val filename = file.getFileName().toString()
+                        if (filename.endsWith(".class") || ClassFilesPipeline.isArchive(filename))
+                            files ::= ((root.relativize(file).toString, file))
+                        FileVisitResult.CONTINUE
+                    }
+                })
+            // the order in which the files are visited is not specified
+            files.sortBy(_._1) foreach { relativePathAndFile ⇒
+                val (relativePath, file) = relativePathAndFile
+                digest.update(relativePath.getBytes("UTF-8"))
+                digest.update(0.toByte)
+                update(file)
+            }
+        } else {
+            update(file.toPath())
+        }
+        digest.digest()
+    }
+
+    /**
+     * Returns the snapshot of the given jar file or directory if the snapshot exists
+     * and is up-to-date.
+     *
+     * If the snapshot cannot be used – because it is corrupt, cannot be read, is not
+     * owned by the current user or references a class that must not be stored in a
+     * snapshot – the problem is reported to the given exception handler and `None`
+     * is returned.
+     */
+    def load(
+        file: File,
+        cacheDirectory: File = defaultCacheDirectory,
+        exceptionHandler: (Exception) ⇒ Unit = defaultExceptionHandler): Option[ClassFilesSnapshot] = {
+        val snapshot = snapshotFile(file, cacheDirectory).toPath()
+        if (!Files.isRegularFile(snapshot))
+            return None;
+
+        try {
+            checkOwnership(snapshot)
+            val buffer = process(FileChannel.open(snapshot, StandardOpenOption.READ)) { channel ⇒
+                val size = channel.size()
+                if (size > Int.MaxValue)
+                    throw new SnapshotFormatException("the snapshot is too large")
+                // the mapping remains valid when the channel is closed
+                channel.map(FileChannel.MapMode.READ_ONLY, 0, size)
+            }
+
+            if (buffer.getInt() != Magic || buffer.getInt() != Version)
+                return None; // created by an incompatible version of OPAL
+            val hashLength = buffer.getInt()
+            if (hashLength < 0 || hashLength > buffer.remaining())
+                throw new SnapshotFormatException("the snapshot is corrupt")
+            val hash = new Array[Byte](hashLength)
+            buffer.get(hash)
+            if (!Arrays.equals(hash, contentHash(file)))
+                return None; // the snapshot is outdated
+            val checksum = buffer.getLong()
+            val crc = new CRC32
+            crc.update(buffer.duplicate())
+            if (crc.getValue() != checksum)
+                throw new SnapshotFormatException("the snapshot is corrupt")
+
+            Some(new ClassFilesSnapshot(new SnapshotReader(buffer.slice()).classFiles))
+        } catch {
+            case e: IOException ⇒
+                exceptionHandler(new IOException("cannot use the snapshot "+snapshot, e))
+                None
+            case e: BufferUnderflowException ⇒
+                exceptionHandler(new SnapshotFormatException("the snapshot is truncated: "+snapshot))
+                None
+        }
+    }
+
+    /**
+     * Reads all class files found in the given jar file or directory using the given
+     * reader and stores them in a new snapshot. If the processing of a file fails, no
+     * snapshot is created to make sure that the failure is reported again the next
+     * time the file is processed.
+     */
+    def create(
+        file: File,
+        classFileReader: ClassFileBinding,
+        exceptionHandler: (Exception) ⇒ Unit,
+        cacheDirectory: File): ClassFilesSnapshot = {
+        // the hash is computed first; if the file is changed while it is read,
+        // the snapshot is recreated the next time
+        val hash = contentHash(file)
+
+        @volatile var failed = false
+        val classFiles =
+            classFileReader.ClassFiles(file, (e: Exception) ⇒ { failed = true; exceptionHandler(e) })
+        val snapshot = new ClassFilesSnapshot(classFiles)
+
+        if (!failed) {
+            try {
+                write(snapshotFile(file, cacheDirectory), hash, snapshot)
+            } catch {
+                case e: Exception ⇒
+                    exceptionHandler(new IOException("cannot create snapshot: "+file, e))
+            }
+        }
+        snapshot
+    }
+
+    /**
+     * Returns the up-to-date snapshot of the given jar file or directory. If no such
+     * snapshot exists, the class files are read using the given reader and a new
+     * snapshot is created.
+     */
+    def apply(
+        file: File,
+        classFileReader: ClassFileBinding,
+        exceptionHandler: (Exception) ⇒ Unit = defaultExceptionHandler,
+        cacheDirectory: File = defaultCacheDirectory): ClassFilesSnapshot = {
+        load(file, cacheDirectory, exceptionHandler) match {
+            case Some(snapshot) ⇒ snapshot
+            case None           ⇒ create(file, classFileReader, exceptionHandler, cacheDirectory)
+        }
+    }
+
+    private[this] def write(
+        snapshotFile: File,
+        hash: Array[Byte],
+        snapshot: ClassFilesSnapshot): Unit = {
+        val writer = new SnapshotWriter
+        snapshot.classFiles foreach { classFileAndURL ⇒
+            writer.writeClassFile(classFileAndURL._1, classFileAndURL._2)
+        }
+        val sections = writer.sections
+        val crc = new CRC32
+        sections foreach { section ⇒ section.update(crc) }
+
+        val cacheDirectory = snapshotFile.getParentFile().toPath()
+        val isPosix = cacheDirectory.getFileSystem().supportedFileAttributeViews().contains("posix")
+        if (!Files.isDirectory(cacheDirectory)) {
+            if (isPosix)
+                Files.createDirectories(
+                    cacheDirectory,
+                    PosixFilePermissions.asFileAttribute(OwnerOnlyDirectory)
+                )
+            else
+                Files.createDirectories(cacheDirectory)
+        }
+        // the snapshot is written to a temporary file first to make sure that
+        // a concurrently running process never sees a partially written snapshot
+        val tempFile =
+            if (isPosix)
+                Files.createTempFile(
+                    cacheDirectory, snapshotFile.getName(), ".tmp",
+                    PosixFilePermissions.asFileAttribute(OwnerOnlyFile)
+                )
+            else
+                Files.createTempFile(cacheDirectory, snapshotFile.getName(), ".tmp")
+        try {
+            process(new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) { out ⇒
+                out.writeInt(Magic)
+                out.writeInt(Version)
+                out.writeInt(hash.length)
+                out.write(hash)
+                out.writeLong(crc.getValue())
+                sections foreach { section ⇒ section.writeTo(out) }
+            }
+            Files.move(tempFile, snapshotFile.toPath(), StandardCopyOption.REPLACE_EXISTING)
+        } finally {
+            Files.deleteIfExists(tempFile)
+        }
+    }
+
+    private[this] final val OwnerOnlyDirectory = PosixFilePermissions.fromString("rwx------")
+
+    private[this] final val OwnerOnlyFile = PosixFilePermissions.fromString("rw-------")
+
+    // A snapshot that can be modified by other users is not used.
+    private[this] def checkOwnership(snapshot: Path): Unit = {
+        if (snapshot.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            val attributes = Files.readAttributes(snapshot, classOf[PosixFileAttributes])
+            val user =
+                snapshot.getFileSystem().getUserPrincipalLookupService().
+                    lookupPrincipalByName(System.getProperty("user.name"))
+            if (attributes.owner() != user)
+                throw new IOException("the snapshot is not owned by the current user")
+            val permissions = attributes.permissions()
+            if (permissions.contains(PosixFilePermission.GROUP_WRITE) ||
+                permissions.contains(PosixFilePermission.OTHERS_WRITE))
+                throw new IOException("the snapshot can be modified by other users")
+        }
+    }
+
+    /**
+     * Thrown if a snapshot cannot be read because it is corrupt or references
+     * classes that must not be stored in a snapshot.
+     */
+    private class SnapshotFormatException(message: String) extends IOException(message)
+
+    //
+    // The br model classes that can be stored in a snapshot.
+    //
+
+    private[this] final val ModelPackages = Set("org.opalj.br", "org.opalj.br.instructions")
+
+    private[this] final val ModelTypes: List[Class[_]] = List(
+        classOf[Instruction],
+        classOf[Attribute],
+        classOf[ExceptionHandler],
+        classOf[LineNumber],
+        classOf[LocalVariable],
+        classOf[LocalVariableType],
+        classOf[InnerClass],
+        classOf[MethodParameter],
+        classOf[BootstrapMethod],
+        classOf[BootstrapArgument],
+        classOf[StackMapFrame],
+        classOf[VerificationTypeInfo],
+        classOf[Annotation],
+        classOf[ElementValuePair],
+        classOf[ElementValue],
+        classOf[TypeAnnotation],
+        classOf[TypeAnnotationTarget],
+        classOf[TypeAnnotationPath],
+        classOf[TypeAnnotationPathElement],
+        classOf[LocalvarTableEntry],
+        classOf[SignatureElement],
+        classOf[SimpleClassTypeSignature],
+        classOf[FormalTypeParameter]
+    )
+
+    private def isModelPackage(className: String): Boolean = {
+        val index = className.lastIndexOf('.')
+        index > 0 && ModelPackages.contains(className.substring(0, index))
+    }
+
+    private def isModelClass(c: Class[_]): Boolean = {
+        isModelPackage(c.getName()) &&
+            !c.isInterface() && !Modifier.isAbstract(c.getModifiers()) &&
+            ModelTypes.exists(_.isAssignableFrom(c))
+    }
+
+    // Scala objects (e.g., the instructions without operands such as `IADD`).
+    private def isModuleClass(c: Class[_]): Boolean = {
+        c.getName().endsWith("$") && {
+            try {
+                val field = c.getField("MODULE$")
+                Modifier.isStatic(field.getModifiers()) && field.getType() == c
+            } catch {
+                case e: NoSuchFieldException ⇒ false
+            }
+        }
+    }
+
+    // The case classes' (only) constructor which takes the product's elements.
+    private def productConstructor(c: Class[_]): Option[Constructor[_]] = {
+        val constructors = c.getDeclaredConstructors()
+        if (classOf[Product].isAssignableFrom(c) && constructors.length == 1)
+            Some(constructors(0))
+        else
+            None
+    }
+
+    //
+    // The encoding.
+    //
+
+    private final val NullTag = 0
+    private final val IntTag = 1
+    private final val LongTag = 2
+    private final val FloatTag = 3
+    private final val DoubleTag = 4
+    private final val CharTag = 5
+    private final val ShortTag = 6
+    private final val ByteTag = 7
+    private final val TrueTag = 8
+    private final val FalseTag = 9
+    private final val StringTag = 10
+    private final val TypeTag = 11
+    private final val MethodDescriptorTag = 12
+    private final val InstructionTag = 13
+    private final val CodeTag = 14
+    private final val NoneTag = 15
+    private final val SomeTag = 16
+    private final val ListTag = 17
+    private final val IndexedSeqTag = 18
+    private final val SetTag = 19
+    private final val Tuple2Tag = 20
+    private final val ByteArrayTag = 21
+    private final val IntArrayTag = 22
+    private final val ProductTag = 23
+    private final val ModuleTag = 24
+    private final val BIPUSHTag = 25
+
+    private final val ObjectTypeKind = 0
+    private final val ArrayTypeKind = 1
+    private final val BaseTypeKind = 2
+
+    private final val ProductKind = 0
+    private final val ModuleKind = 1
+
+    // the base types and void; identified by their index
+    private final val BaseTypes: Array[Type] = Array(
+        VoidType, BooleanType, ByteType, CharType, ShortType,
+        IntegerType, LongType, FloatType, DoubleType
+    )
+
+    /**
+     * A growable byte array.
+     */
+    private final class Output(initialCapacity: Int) {
+
+        private[this] var bytes = new Array[Byte](initialCapacity)
+        private[this] var count = 0
+
+        def size: Int = count
+
+        private[this] def ensureCapacity(additionalBytes: Int): Unit = {
+            if (count + additionalBytes > bytes.length)
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, count + additionalBytes))
+        }
+
+        def writeByte(b: Int): Unit = {
+            ensureCapacity(1)
+            bytes(count) = b.toByte
+            count += 1
+        }
+
+        def writeBytes(bs: Array[Byte], offset: Int, length: Int): Unit = {
+            ensureCapacity(length)
+            System.arraycopy(bs, offset, bytes, count, length)
+            count += length
+        }
+
+        def writeBytes(output: Output): Unit = output.copyTo(this)
+
+        private def copyTo(output: Output): Unit = output.writeBytes(bytes, 0, count)
+
+        def writeInt(i: Int): Unit = {
+            writeByte(i >>> 24); writeByte(i >>> 16); writeByte(i >>> 8); writeByte(i)
+        }
+
+        def writeLong(l: Long): Unit = {
+            writeInt((l >>> 32).toInt); writeInt(l.toInt)
+        }
+
+        // an unsigned variable length integer; small values require one byte
+        def writeVarInt(i: Int): Unit = {
+            var value = i
+            while ((value & ~0x7F) != 0) {
+                writeByte((value & 0x7F) | 0x80)
+                value >>>= 7
+            }
+            writeByte(value)
+        }
+
+        def writeVarLong(l: Long): Unit = {
+            var value = l
+            while ((value & ~0x7FL) != 0L) {
+                writeByte(((value & 0x7F) | 0x80).toInt)
+                value >>>= 7
+            }
+            writeByte(value.toInt)
+        }
+
+        // Strings are encoded using "modified UTF-8" (as in class files); i.e., each
+        // char is encoded on its own and strings with unpaired surrogates are
+        // preserved. The length is the number of chars.
+        def writeString(s: String): Unit = {
+            val length = s.length
+            writeVarInt(length)
+            ensureCapacity(length * 3)
+            var i = 0
+            while (i < length) {
+                val c = s.charAt(i)
+                if (c >= 0x01 && c <= 0x7F) {
+                    bytes(count) = c.toByte
+                    count += 1
+                } else if (c <= 0x7FF) {
+                    bytes(count) = (0xC0 | (c >> 6)).toByte
+                    bytes(count + 1) = (0x80 | (c & 0x3F)).toByte
+                    count += 2
+                } else {
+                    bytes(count) = (0xE0 | (c >> 12)).toByte
+                    bytes(count + 1) = (0x80 | ((c >> 6) & 0x3F)).toByte
+                    bytes(count + 2) = (0x80 | (c & 0x3F)).toByte
+                    count += 3
+                }
+                i += 1
+            }
+        }
+
+        // signed values are zigzag encoded; small negative values require one byte
+        def writeSignedVarInt(i: Int): Unit = writeVarInt((i << 1) ^ (i >> 31))
+
+        def writeSignedVarLong(l: Long): Unit = writeVarLong((l << 1) ^ (l >> 63))
+
+        def reset(): Unit = count = 0
+
+        def update(crc: CRC32): Unit = crc.update(bytes, 0, count)
+
+        def writeTo(out: OutputStream): Unit = out.write(bytes, 0, count)
+    }
+
+    private final class SnapshotWriter {
+
+        private[this] val strings = new java.util.HashMap[String, Integer]()
+        private[this] val stringsOut = new Output(1024 * 1024)
+
+        private[this] val modelClasses = new java.util.HashMap[Class[_], Integer]()
+        private[this] val modelClassesArity = new java.util.HashMap[Class[_], Integer]()
+        private[this] val modelClassesOut = new Output(4096)
+
+        private[this] val types = AnyRefMap.empty[Type, Int]
+        private[this] val typesOut = new Output(256 * 1024)
+
+        private[this] val methodDescriptors = new java.util.HashMap[MethodDescriptor, Integer]()
+        private[this] val methodDescriptorsOut = new Output(256 * 1024)
+
+        private[this] val instructions = new java.util.HashMap[Instruction, Integer]()
+        private[this] val instructionsOffsets = new Output(256 * 1024)
+        private[this] val instructionsOut = new Output(1024 * 1024)
+
+        private[this] var classFilesCount = 0
+        private[this] val classFilesOut = new Output(4 * 1024 * 1024)
+
+        private[this] val instructionsSegment = new Output(64 * 1024)
+
+        /**
+         * The sections of the snapshot (without the header).
+         */
+        def sections: Seq[Output] = {
+            def count(count: Int): Output = { val out = new Output(5); out.writeVarInt(count); out }
+            val instructionsSize = new Output(5)
+            instructionsSize.writeVarInt(instructionsOut.size)
+            Seq(
+                count(strings.size), stringsOut,
+                count(modelClasses.size), modelClassesOut,
+                count(types.size), typesOut,
+                count(methodDescriptors.size), methodDescriptorsOut,
+                count(instructions.size), instructionsOffsets, instructionsSize, instructionsOut,
+                count(classFilesCount), classFilesOut
+            )
+        }
+
+        private[this] def string(s: String): Int = {
+            val index = strings.get(s)
+            if (index ne null)
+                index.intValue()
+            else {
+                stringsOut.writeString(s)
+                val newIndex = strings.size
+                strings.put(s, newIndex)
+                newIndex
+            }
+        }
+
+        private[this] def modelClass(c: Class[_], arity: Int): Int = {
+            val index = modelClasses.get(c)
+            if (index ne null)
+                return index.intValue();
+
+            if (!isModelClass(c))
+                throw new IOException(c.getName()+" cannot be stored in a snapshot")
+            if (isModuleClass(c)) {
+                modelClassesOut.writeByte(ModuleKind)
+            } else {
+                if (!productConstructor(c).exists(_.getParameterTypes().length == arity))
+                    throw new IOException(c.getName()+" is not a case class")
+                modelClassesOut.writeByte(ProductKind)
+            }
+            modelClassesOut.writeVarInt(string(c.getName()))
+            val newIndex = modelClasses.size
+            modelClasses.put(c, newIndex)
+            newIndex
+        }
+
+        private[this] def typeIndex(t: Type): Int = {
+            types.get(t) match {
+                case Some(index) ⇒ index
+                case None ⇒
+                    t match {
+                        case ot: ObjectType ⇒
+                            val fqn = string(ot.fqn)
+                            typesOut.writeByte(ObjectTypeKind)
+                            typesOut.writeVarInt(fqn)
+                        case at: ArrayType ⇒
+                            // the component type is stored first
+                            val componentType = typeIndex(at.componentType)
+                            typesOut.writeByte(ArrayTypeKind)
+                            typesOut.writeVarInt(componentType)
+                        case _ ⇒
+                            typesOut.writeByte(BaseTypeKind)
+                            typesOut.writeVarInt(BaseTypes.indexOf(t))
+                    }
+                    val newIndex = types.size
+                    types.update(t, newIndex)
+                    newIndex
+            }
+        }
+
+        private[this] def methodDescriptor(md: MethodDescriptor): Int = {
+            val index = methodDescriptors.get(md)
+            if (index ne null)
+                index.intValue()
+            else {
+                val returnType = typeIndex(md.returnType)
+                val parameterTypes = md.parameterTypes.map(typeIndex)
+                methodDescriptorsOut.writeVarInt(returnType)
+                methodDescriptorsOut.writeVarInt(parameterTypes.size)
+                parameterTypes foreach methodDescriptorsOut.writeVarInt
+                val newIndex = methodDescriptors.size
+                methodDescriptors.put(md, newIndex)
+                newIndex
+            }
+        }
+
+        private[this] def instruction(instruction: Instruction): Int = {
+            val index = instructions.get(instruction)
+            if (index ne null)
+                index.intValue()
+            else {
+                instructionsOffsets.writeVarInt(instructionsOut.size)
+                writeValue(instructionsOut, instruction, isInstructionsTableEntry = true)
+                val newIndex = instructions.size
+                instructions.put(instruction, newIndex)
+                newIndex
+            }
+        }
+
+        def writeClassFile(classFile: ClassFile, url: URL): Unit = {
+            val out = classFilesOut
+            out.writeVarInt(string(url.toExternalForm()))
+            out.writeVarInt(classFile.minorVersion)
+            out.writeVarInt(classFile.majorVersion)
+            out.writeVarInt(classFile.accessFlags)
+            out.writeVarInt(typeIndex(classFile.thisType))
+            out.writeVarInt(classFile.superclassType.map(typeIndex(_) + 1).getOrElse(0))
+            out.writeVarInt(classFile.interfaceTypes.size)
+            classFile.interfaceTypes foreach { interfaceType ⇒ out.writeVarInt(typeIndex(interfaceType)) }
+            out.writeVarInt(classFile.fields.size)
+            classFile.fields foreach { field ⇒
+                out.writeVarInt(field.accessFlags)
+                out.writeVarInt(string(field.name))
+                out.writeVarInt(typeIndex(field.fieldType))
+                writeValue(out, field.attributes)
+            }
+            out.writeVarInt(classFile.methods.size)
+            classFile.methods foreach { method ⇒
+                out.writeVarInt(method.accessFlags)
+                out.writeVarInt(string(method.name))
+                out.writeVarInt(methodDescriptor(method.descriptor))
+                method.body match {
+                    case Some(code) ⇒ out.writeByte(TrueTag); writeCode(out, code)
+                    case None       ⇒ out.writeByte(FalseTag)
+                }
+                writeValue(out, method.attributes)
+            }
+            writeValue(out, classFile.attributes)
+            classFilesCount += 1
+        }
+
+        private[this] def writeCode(out: Output, code: Code): Unit = {
+            out.writeVarInt(code.maxStack)
+            out.writeVarInt(code.maxLocals)
+            out.writeVarInt(code.codeLength)
+            // the instructions of lazily decoded code are decoded
+            val instructions = code.instructions
+            val segment = instructionsSegment
+            segment.reset()
+            var instructionsCount = 0
+            var pc = 0
+            var lastPC = 0
+            while (pc < instructions.length) {
+                val instruction = instructions(pc)
+                if (instruction ne null) {
+                    segment.writeVarInt(pc - lastPC)
+                    segment.writeVarInt(this.instruction(instruction))
+                    instructionsCount += 1
+                    lastPC = pc
+                }
+                pc += 1
+            }
+            val count = new Output(5)
+            count.writeVarInt(instructionsCount)
+            out.writeVarInt(count.size + segment.size)
+            out.writeBytes(count)
+            out.writeBytes(segment)
+            writeValue(out, code.exceptionHandlers)
+            writeValue(out, code.attributes)
+        }
+
+        private[this] def writeValues(out: Output, values: Traversable[_]): Unit = {
+            out.writeVarInt(values.size)
+            values foreach { value ⇒ writeValue(out, value) }
+        }
+
+        private[this] def writeValue(
+            out: Output,
+            value: Any,
+            isInstructionsTableEntry: Boolean = false): Unit = {
+            value match {
+                case null ⇒
+                    out.writeByte(NullTag)
+                case i: Int ⇒
+                    out.writeByte(IntTag); out.writeSignedVarInt(i)
+                case l: Long ⇒
+                    out.writeByte(LongTag); out.writeSignedVarLong(l)
+                case f: Float ⇒
+                    out.writeByte(FloatTag); out.writeInt(java.lang.Float.floatToRawIntBits(f))
+                case d: Double ⇒
+                    out.writeByte(DoubleTag); out.writeLong(java.lang.Double.doubleToRawLongBits(d))
+                case c: Char ⇒
+                    out.writeByte(CharTag); out.writeVarInt(c)
+                case s: Short ⇒
+                    out.writeByte(ShortTag); out.writeSignedVarInt(s)
+                case b: Byte ⇒
+                    out.writeByte(ByteTag); out.writeByte(b)
+                case b: Boolean ⇒
+                    out.writeByte(if (b) TrueTag else FalseTag)
+                case s: String ⇒
+                    out.writeByte(StringTag); out.writeVarInt(string(s))
+                case t: Type ⇒
+                    out.writeByte(TypeTag); out.writeVarInt(typeIndex(t))
+                case md: MethodDescriptor ⇒
+                    out.writeByte(MethodDescriptorTag); out.writeVarInt(methodDescriptor(md))
+                case i: BIPUSH ⇒
+                    out.writeByte(BIPUSHTag); out.writeByte(i.value)
+                case i: Instruction if !isInstructionsTableEntry ⇒
+                    out.writeByte(InstructionTag); out.writeVarInt(instruction(i))
+                case c: Code ⇒
+                    out.writeByte(CodeTag); writeCode(out, c)
+                case None ⇒
+                    out.writeByte(NoneTag)
+                case Some(v) ⇒
+                    out.writeByte(SomeTag); writeValue(out, v)
+                case l: List[_] ⇒
+                    out.writeByte(ListTag); writeValues(out, l)
+                case s: scala.collection.immutable.Set[_] ⇒
+                    out.writeByte(SetTag); writeValues(out, s)
+                case s: scala.collection.Seq[_] ⇒
+                    out.writeByte(IndexedSeqTag); writeValues(out, s)
+                case (first, second) ⇒
+                    out.writeByte(Tuple2Tag); writeValue(out, first); writeValue(out, second)
+                case a: Array[Byte] ⇒
+                    out.writeByte(ByteArrayTag); out.writeVarInt(a.length); out.writeBytes(a, 0, a.length)
+                case a: Array[Int] ⇒
+                    out.writeByte(IntArrayTag); out.writeVarInt(a.length); a foreach out.writeSignedVarInt
+                case p: Product ⇒
+                    val c = p.getClass()
+                    val index = modelClass(c, p.productArity)
+                    if (isModuleClass(c)) {
+                        out.writeByte(ModuleTag); out.writeVarInt(index)
+                    } else {
+                        out.writeByte(ProductTag); out.writeVarInt(index)
+                        p.productIterator foreach { element ⇒ writeValue(out, element) }
+                    }
+                case _ ⇒
+                    val c = value.asInstanceOf[AnyRef].getClass()
+                    if (isModuleClass(c)) {
+                        out.writeByte(ModuleTag); out.writeVarInt(modelClass(c, 0))
+                    } else
+                        throw new IOException(c.getName()+" cannot be stored in a snapshot")
+            }
+        }
+    }
+
+    private final class SnapshotReader(buffer: ByteBuffer) {
+
+        private[this] def readVarInt(in: ByteBuffer): Int = {
+            var b = in.get()
+            var value = b & 0x7F
+            var shift = 7
+            while (b < 0) {
+                if (shift > 28)
+                    throw new SnapshotFormatException("invalid variable length integer")
+                b = in.get()
+                value |= (b & 0x7F) << shift
+                shift += 7
+            }
+            value
+        }
+
+        private[this] def readVarLong(in: ByteBuffer): Long = {
+            var b = in.get()
+            var value = (b & 0x7F).toLong
+            var shift = 7
+            while (b < 0) {
+                if (shift > 63)
+                    throw new SnapshotFormatException("invalid variable length integer")
+                b = in.get()
+                value |= (b & 0x7F).toLong << shift
+                shift += 7
+            }
+            value
+        }
+
+        private[this] def readSignedVarInt(in: ByteBuffer): Int = {
+            val value = readVarInt(in)
+            (value >>> 1) ^ -(value & 1)
+        }
+
+        private[this] def readSignedVarLong(in: ByteBuffer): Long = {
+            val value = readVarLong(in)
+            (value >>> 1) ^ -(value & 1L)
+        }
+
+        private[this] def entry[T <: AnyRef](table: Array[T], index: Int): T = {
+            if (index < 0 || index >= table.length)
+                throw new SnapshotFormatException("invalid table index: "+index)
+            table(index)
+        }
+
+        private[this] def readEntry[T <: AnyRef](in: ByteBuffer, table: Array[T]): T = {
+            entry(table, readVarInt(in))
+        }
+
+        // `typesCount` is the number of the types (of the table) that are already read
+        private[this] def readType[T <: Type: ClassTag](
+            in: ByteBuffer,
+            types: Array[Type],
+            typesCount: Int): T = {
+            val index = readVarInt(in)
+            if (index < 0 || index >= typesCount)
+                throw new SnapshotFormatException("invalid type index: "+index)
+            types(index) match {
+                case t: T ⇒ t
+                case t    ⇒ throw new SnapshotFormatException("unexpected type: "+t.toJava)
+            }
+        }
+
+        private[this] def readType[T <: Type: ClassTag](in: ByteBuffer): T = {
+            readType[T](in, types, types.length)
+        }
+
+        private[this] def readCount(in: ByteBuffer): Int = {
+            val count = readVarInt(in)
+            // each element requires at least one byte
+            if (count < 0 || count > in.remaining())
+                throw new SnapshotFormatException("invalid count: "+count)
+            count
+        }
+
+        // 1. the tables
+
+        private[this] val strings: Array[String] = {
+            val in = buffer
+            val strings = new Array[String](readCount(in))
+            var chars = new Array[Char](256)
+            var i = 0
+            while (i < strings.length) {
+                val length = readCount(in)
+                if (length > chars.length) chars = new Array[Char](length)
+                var c = 0
+                while (c < length) {
+                    val b = in.get() & 0xFF
+                    chars(c) =
+                        if (b < 0x80)
+                            b.toChar
+                        else if ((b & 0xE0) == 0xC0)
+                            (((b & 0x1F) << 6) | (in.get() & 0x3F)).toChar
+                        else
+                            (((b & 0x0F) << 12) | ((in.get() & 0x3F) << 6) | (in.get() & 0x3F)).toChar
+                    c += 1
+                }
+                strings(i) = new String(chars, 0, length)
+                i += 1
+            }
+            strings
+        }
+
+        // the constructors of the case classes and the instances of the case objects
+        private[this] val (constructors, modules): (Array[Constructor[_]], Array[AnyRef]) = {
+            val in = buffer
+            val count = readCount(in)
+            val constructors = new Array[Constructor[_]](count)
+            val modules = new Array[AnyRef](count)
+            var i = 0
+            while (i < count) {
+                val kind = in.get()
+                val className = readEntry(in, strings)
+                // no class outside of the br model's packages is loaded
+                if (!isModelPackage(className))
+                    throw new SnapshotFormatException(className+" must not be stored in a snapshot")
+                val c =
+                    try {
+                        Class.forName(className, false, ClassFilesSnapshot.getClass().getClassLoader())
+                    } catch {
+                        case e: ClassNotFoundException ⇒
+                            throw new SnapshotFormatException(className+" does not exist")
+                    }
+                if (!isModelClass(c))
+                    throw new SnapshotFormatException(className+" must not be stored in a snapshot")
+                kind match {
+                    case ModuleKind if isModuleClass(c) ⇒
+                        modules(i) = c.getField("MODULE$").get(null)
+                    case ProductKind if !isModuleClass(c) && productConstructor(c).isDefined ⇒
+                        val constructor = productConstructor(c).get
+                        constructor.setAccessible(true)
+                        constructors(i) = constructor
+                    case _ ⇒
+                        throw new SnapshotFormatException(className+" is not a case class or case object")
+                }
+                i += 1
+            }
+            (constructors, modules)
+        }
+
+        private[this] val constructorsArity: Array[Int] = {
+            constructors map { c ⇒ if (c ne null) c.getParameterTypes().length else -1 }
+        }
+
+        private[this] val types: Array[Type] = {
+            val in = buffer
+            val types = new Array[Type](readCount(in))
+            var i = 0
+            while (i < types.length) {
+                types(i) = in.get() match {
+                    case ObjectTypeKind ⇒ ObjectType(readEntry(in, strings))
+                    case ArrayTypeKind  ⇒ ArrayType(readType[FieldType](in, types, i))
+                    case BaseTypeKind   ⇒ readEntry(in, BaseTypes)
+                    case kind           ⇒ throw new SnapshotFormatException("invalid type kind: "+kind)
+                }
+                i += 1
+            }
+            types
+        }
+
+        private[this] val methodDescriptors: Array[MethodDescriptor] = {
+            val in = buffer
+            val methodDescriptors = new Array[MethodDescriptor](readCount(in))
+            var i = 0
+            while (i < methodDescriptors.length) {
+                val returnType = readEntry(in, types)
+                val parametersCount = readCount(in)
+                val parameterTypes = new ArrayBuffer[FieldType](parametersCount)
+                var p = 0
+                while (p < parametersCount) {
+                    parameterTypes += readType[FieldType](in)
+                    p += 1
+                }
+                methodDescriptors(i) = MethodDescriptor(parameterTypes, returnType)
+                i += 1
+            }
+            methodDescriptors
+        }
+
+        // the instructions are decoded on demand
+        private[this] val instructionsOffsets: Array[Int] = {
+            val in = buffer
+            val offsets = new Array[Int](readCount(in))
+            var i = 0
+            while (i < offsets.length) {
+                offsets(i) = readVarInt(in)
+                i += 1
+            }
+            offsets
+        }
+
+        private[this] val instructionsStart: Int = {
+            val in = buffer
+            val size = readCount(in)
+            val start = in.position()
+            in.position(start + size)
+            start
+        }
+
+        private[this] val instructions = new AtomicReferenceArray[Instruction](instructionsOffsets.length)
+
+        private[this] def instruction(index: Int): Instruction = {
+            if (index < 0 || index >= instructionsOffsets.length)
+                throw new SnapshotFormatException("invalid instruction index: "+index)
+            val instruction = instructions.get(index)
+            if (instruction ne null)
+                instruction
+            else {
+                val in = buffer.duplicate()
+                in.position(instructionsStart + instructionsOffsets(index))
+                readValue(in) match {
+                    case newInstruction: Instruction ⇒
+                        // if multiple threads decode the same instruction, all use the
+                        // instruction that was stored first
+                        instructions.compareAndSet(index, null, newInstruction)
+                        instructions.get(index)
+                    case value ⇒
+                        throw new SnapshotFormatException("unexpected instruction: "+value)
+                }
+            }
+        }
+
+        // 2. the class files
+
+        val classFiles: Seq[(ClassFile, URL)] = {
+            val in = buffer
+            val classFilesCount = readCount(in)
+            val classFiles = new ArrayBuffer[(ClassFile, URL)](classFilesCount)
+            var i = 0
+            while (i < classFilesCount) {
+                val url = new URL(readEntry(in, strings))
+                classFiles += ((readClassFile(in), url))
+                i += 1
+            }
+            if (in.hasRemaining())
+                throw new SnapshotFormatException("unexpected data at the end of the snapshot")
+            classFiles
+        }
+
+        private[this] def readClassFile(in: ByteBuffer): ClassFile = {
+            val minorVersion = readVarInt(in)
+            val majorVersion = readVarInt(in)
+            val accessFlags = readVarInt(in)
+            val thisType = readType[ObjectType](in)
+            val superclassIndex = readVarInt(in)
+            val superclassType =
+                if (superclassIndex == 0)
+                    None
+                else
+                    entry(types, superclassIndex - 1) match {
+                        case ot: ObjectType ⇒ Some(ot)
+                        case t              ⇒ throw new SnapshotFormatException("unexpected superclass: "+t)
+                    }
+            val interfaceTypes = repeat(readCount(in)) { readType[ObjectType](in) }
+            val fields = repeat(readCount(in)) {
+                val accessFlags = readVarInt(in)
+                val name = readEntry(in, strings)
+                val fieldType = readType[FieldType](in)
+                Field(accessFlags, name, fieldType, readValue(in).asInstanceOf[Attributes])
+            }
+            val methods = repeat(readCount(in)) {
+                val accessFlags = readVarInt(in)
+                val name = readEntry(in, strings)
+                val descriptor = readEntry(in, methodDescriptors)
+                val body = in.get() match {
+                    case TrueTag  ⇒ List(readCode(in))
+                    case FalseTag ⇒ Nil
+                    case tag      ⇒ throw new SnapshotFormatException("invalid tag: "+tag)
+                }
+                Method(accessFlags, name, descriptor, body ++ readValue(in).asInstanceOf[Attributes])
+            }
+            val attributes = readValue(in).asInstanceOf[Attributes]
+            ClassFile(
+                minorVersion, majorVersion, accessFlags,
+                thisType, superclassType, interfaceTypes,
+                fields, methods, attributes
+            )
+        }
+
+        private[this] def readCode(in: ByteBuffer): Code = {
+            val maxStack = readVarInt(in)
+            val maxLocals = readVarInt(in)
+            val codeLength = readVarInt(in)
+            val segmentSize = readCount(in)
+            val segmentStart = in.position()
+            in.position(segmentStart + segmentSize)
+            val exceptionHandlers = readValue(in).asInstanceOf[ExceptionHandlers]
+            val attributes = readValue(in).asInstanceOf[Attributes]
+            Code.lazily(
+                maxStack, maxLocals, codeLength,
+                () ⇒ readInstructions(segmentStart, codeLength),
+                exceptionHandlers, attributes
+            )
+        }
+
+        private[this] def readInstructions(segmentStart: Int, codeLength: Int): Array[Instruction] = {
+            val in = buffer.duplicate()
+            in.position(segmentStart)
+            val instructions = new Array[Instruction](codeLength)
+            val instructionsCount = readVarInt(in)
+            var pc = 0
+            var i = 0
+            while (i < instructionsCount) {
+                pc += readVarInt(in)
+                if (pc >= codeLength)
+                    throw new SnapshotFormatException("invalid pc: "+pc)
+                instructions(pc) = instruction(readVarInt(in))
+                i += 1
+            }
+            instructions
+        }
+
+        private[this] def readValues[T](
+            in: ByteBuffer,
+            count: Int,
+            builder: scala.collection.mutable.Builder[Any, T]): T = {
+            builder.sizeHint(count)
+            var i = 0
+            while (i < count) {
+                builder += readValue(in)
+                i += 1
+            }
+            builder.result()
+        }
+
+        private[this] def readValue(in: ByteBuffer): Any = {
+            in.get() match {
+                case NullTag   ⇒ null
+                case IntTag    ⇒ readSignedVarInt(in)
+                case LongTag   ⇒ readSignedVarLong(in)
+                case FloatTag  ⇒ java.lang.Float.intBitsToFloat(in.getInt())
+                case DoubleTag ⇒ java.lang.Double.longBitsToDouble(in.getLong())
+                case CharTag   ⇒ readVarInt(in).toChar
+                case ShortTag  ⇒ readSignedVarInt(in).toShort
+                case ByteTag   ⇒ in.get()
+                case TrueTag   ⇒ true
+                case FalseTag  ⇒ false
+                case StringTag ⇒ readEntry(in, strings)
+                case TypeTag   ⇒ readEntry(in, types)
+                case MethodDescriptorTag ⇒
+                    readEntry(in, methodDescriptors)
+                case InstructionTag ⇒
+                    instruction(readVarInt(in))
+                case BIPUSHTag ⇒
+                    BIPUSH(in.get())
+                case CodeTag ⇒
+                    readCode(in)
+                case NoneTag ⇒
+                    None
+                case SomeTag ⇒
+                    Some(readValue(in))
+                case ListTag ⇒
+                    readValues(in, readCount(in), new ListBuffer[Any])
+                case SetTag ⇒
+                    readValues(in, readCount(in), Set.newBuilder[Any])
+                case IndexedSeqTag ⇒
+                    // the class file reader also uses array buffers (see `repeat`)
+                    val count = readCount(in)
+                    if (count == 0)
+                        IndexedSeq.empty
+                    else
+                        readValues(in, count, new ArrayBuffer[Any](count))
+                case Tuple2Tag ⇒
+                    (readValue(in), readValue(in))
+                case ByteArrayTag ⇒
+                    val bytes = new Array[Byte](readCount(in))
+                    in.get(bytes)
+                    bytes
+                case IntArrayTag ⇒
+                    val ints = new Array[Int](readCount(in))
+                    var i = 0
+                    while (i < ints.length) {
+                        ints(i) = readSignedVarInt(in)
+                        i += 1
+                    }
+                    ints
+                case ModuleTag ⇒
+                    val module = readEntry(in, modules)
+                    if (module eq null)
+                        throw new SnapshotFormatException("the class is not a case object")
+                    module
+                case ProductTag ⇒
+                    val index = readVarInt(in)
+                    val constructor = entry(constructors, index)
+                    if (constructor eq null)
+                        throw new SnapshotFormatException("the class is not a case class")
+                    val arity = constructorsArity(index)
+                    val arguments = new Array[AnyRef](arity)
+                    var i = 0
+                    while (i < arity) {
+                        arguments(i) = readValue(in).asInstanceOf[AnyRef]
+                        i += 1
+                    }
+                    try {
+                        constructor.newInstance(arguments: _*)
+                    } catch {
+                        case e: IllegalArgumentException ⇒
+                            throw new SnapshotFormatException(
+                                "invalid arguments for "+constructor.getDeclaringClass().getName()
+                            )
+                    }
+                case tag ⇒
+                    throw new SnapshotFormatException("invalid tag: "+tag)
+            }
+        }
+    }
+}
@@ -59,7 +59,7 @@ trait CodeAttributeBinding
         instructions: Instructions,
         exception_handlers: ExceptionHandlers,
         attributes: Attributes) = {
-        new Code(max_stack, max_locals, instructions, exception_handlers, attributes)
+        Code(max_stack, max_locals, instructions, exception_handlers, attributes)
     }
 
     def ExceptionTableEntry(
@@ -51,6 +51,26 @@ trait ConstantPoolBinding extends Constant_PoolReader {
 
     type ClassFile <: br.ClassFile
 
+    /**
+     * Called for the name of each declared method. Can be overridden to share
+     * the names across class files (see [[BytecodeInstructionsCache.MethodName]]).
+     */
+    protected def SharedMethodName(name: String): String = name
+
+    /**
+     * Called for the name of each declared field. Can be overridden to share
+     * the names across class files (see [[BytecodeInstructionsCache.FieldName]]).
+     */
+    protected def SharedFieldName(name: String): String = name
+
+    /**
+     * Called for each decoded method descriptor. Can be overridden to share equal
+     * method descriptors across class files
+     * (see [[BytecodeInstructionsCache.MethodDescriptor]]).
+     */
+    protected def SharedMethodDescriptor(methodDescriptor: MethodDescriptor): MethodDescriptor =
+        methodDescriptor
+
     implicit def cpIndexTocpEntry(
         index: Constant_Pool_Index)(
             implicit cp: Constant_Pool): Constant_Pool_Entry =
@@ -197,15 +217,22 @@ trait ConstantPoolBinding extends Constant_PoolReader {
         }
     }
 
-    case class CONSTANT_Utf8_info(
-        value: String)
+    /**
+     * Represents a `CONSTANT_Utf8_info` entry.
+     *
+     * @param theValue The (decoded) string; `null` if `value` is overridden.
+     */
+    class CONSTANT_Utf8_info(
+        theValue: String)
             extends Constant_Pool_Entry {
 
+        def value: String = theValue
+
         override def asString = value
 
         private[this] var methodDescriptor: MethodDescriptor = null // to cache the result
         override def asMethodDescriptor = {
-            if (methodDescriptor eq null) { methodDescriptor = MethodDescriptor(value) };
+            if (methodDescriptor eq null) { methodDescriptor = SharedMethodDescriptor(MethodDescriptor(value)) };
             methodDescriptor
         }
 
@@ -236,6 +263,15 @@ trait ConstantPoolBinding extends Constant_PoolReader {
         override def asConstantValue(cp: Constant_Pool) =
             // required to support annotations; should be called at most once => caching doesn't make sense
             ConstantString(value)
+
+        override def equals(other: Any): Boolean = other match {
+            case that: CONSTANT_Utf8_info ⇒ this.value == that.value
+            case _                        ⇒ false
+        }
+
+        override def hashCode: Int = value.hashCode
+
+        override def toString: String = "CONSTANT_Utf8_info("+value+")"
     }
 
     case class CONSTANT_String_info(
@@ -40,6 +40,36 @@ trait DeferredInvokedynamicResolution extends ConstantPoolBinding with CodeBindi
 
     override type Constant_Pool = Array[Constant_Pool_Entry]
 
+    /**
+     * Creates the representation of an `invokedynamic` instruction.
+     *
+     * If the class file is not yet available – which is the case when the code is
+     * decoded while the class file is read – the resolution is deferred (see
+     * [[#deferredInvokedynamicResolution]]) and a placeholder is returned.
+     * If the code is decoded after the class file was completely loaded, e.g.,
+     * if method bodies are decoded lazily, the instruction is resolved immediately.
+     *
+     * @param classFile The completely loaded [[ClassFile]] or `null`.
+     */
+    protected[this] def invokedynamic(
+        classFile: ClassFile,
+        cp: Constant_Pool,
+        cpEntry: CONSTANT_InvokeDynamic_info,
+        instructions: Array[Instruction],
+        index: Int): Instruction = {
+        if (classFile eq null) {
+            registerDeferredAction(cp) { classFile ⇒
+                deferredInvokedynamicResolution(
+                    classFile, cp, cpEntry, instructions, index
+                )
+            }
+            INCOMPLETE_INVOKEDYNAMIC
+        } else {
+            deferredInvokedynamicResolution(classFile, cp, cpEntry, instructions, index)
+            instructions(index)
+        }
+    }
+
     /**
      * Resolves an `invokedynamic` instruction using the
      * [[BootstrapMethodTable]] of the class.
@@ -52,7 +52,7 @@ trait FieldsBinding extends FieldsReader {
         attributes: Attributes): Field_Info = {
         Field(
             access_flags,
-            cp(name_index).asString,
+            SharedFieldName(cp(name_index).asString),
             cp(descriptor_index).asFieldType,
             attributes)
     }
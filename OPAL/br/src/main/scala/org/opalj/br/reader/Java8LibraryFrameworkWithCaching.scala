@@ -36,7 +36,9 @@ import org.opalj.bi.reader.SkipUnknown_attributeReader
 /**
  * This "framework" can be used to read in Java 8 (version 52) class files. All
  * standard information (as defined in the Java Virtual Machine Specification)
- * is represented except of method bodies.
+ * is represented except of method bodies. The strings of the constant pool are
+ * decoded lazily; the names of fields and methods as well as the method descriptors
+ * are shared using the given cache.
  *
  * @author Michael Eichberg
  */
@@ -61,4 +63,13 @@ class Java8LibraryFrameworkWithCaching(
         with ConstantValue_attributeBinding
         with MethodParameters_attributeBinding
         with TypeAnnotationAttributesBinding
+        with LazyUtf8ConstantPoolBinding {
 
+    override protected def SharedMethodName(name: String): String = cache.MethodName(name)
+
+    override protected def SharedFieldName(name: String): String = cache.FieldName(name)
+
+    override protected def SharedMethodDescriptor(
+        methodDescriptor: MethodDescriptor): MethodDescriptor =
+        cache.MethodDescriptor(methodDescriptor)
+}
@@ -0,0 +1,118 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package reader
+
+import java.io.DataInputStream
+
+import org.opalj.bi.AttributeParent
+import org.opalj.bi.AttributesParent
+import org.opalj.bi.reader.Code_attributeReader
+import org.opalj.br.instructions.Instruction
+
+/**
+ * Binding for the code attribute that defers the decoding of a method's
+ * instructions until the instructions are accessed for the first time.
+ *
+ * When the code attribute is read, only the raw bytecode is kept; the exception
+ * handlers and the code attribute's attributes are read eagerly. The decoding of
+ * the bytecode is done by the [[Code]] object in a thread-safe manner when
+ * `Code.instructions` is called for the first time.
+ * This significantly reduces the time and memory required to load class files
+ * if most method bodies are never analyzed (e.g., when just the dependencies
+ * or the structure of a project are analyzed).
+ *
+ * This trait has to be mixed in after a trait that (eagerly) reads the code
+ * attribute (e.g., [[CodeAttributeBinding]]) to replace the respective reader.
+ *
+ * @author Michael Eichberg
+ */
+trait LazyCodeAttributeBinding
+        extends CodeAttributeBinding
+        with DeferredInvokedynamicResolution {
+
+    def Instructions(
+        cp: Constant_Pool,
+        source: Array[Byte],
+        classFile: ClassFile): Instructions
+
+    /**
+     * Decodes the bytecode when called for the first time.
+     *
+     * The class file is required to resolve `invokedynamic` instructions; it is
+     * set by a deferred action once the class file is completely loaded.
+     */
+    private[this] class LazyInstructions(
+        cp: Constant_Pool,
+        source: Array[Byte])
+            extends (() ⇒ Array[Instruction]) {
+
+        @volatile var classFile: ClassFile = _
+
+        def apply(): Array[Instruction] = {
+            val classFile = this.classFile
+            if (classFile eq null)
+                throw new BytecodeProcessingFailedException(
+                    "the code is not available before the class file is completely loaded")
+            Instructions(cp, source, classFile)
+        }
+    }
+
+    registerAttributeReader(
+        Code_attributeReader.ATTRIBUTE_NAME -> (
+            (ap: AttributeParent, cp: Constant_Pool, attribute_name_index: Constant_Pool_Index, in: DataInputStream) ⇒ {
+                /* val attribute_length = */ in.readInt()
+                val max_stack = in.readUnsignedShort()
+                val max_locals = in.readUnsignedShort()
+                val source = new Array[Byte](in.readInt())
+                in.readFully(source)
+                val exceptionHandlers =
+                    repeat(in.readUnsignedShort()) { // "exception_table_length" times
+                        ExceptionTableEntry(
+                            cp,
+                            in.readUnsignedShort, in.readUnsignedShort,
+                            in.readUnsignedShort, in.readUnsignedShort
+                        )
+                    }
+                val attributes = Attributes(AttributesParent.Code, cp, in)
+
+                val decoder = new LazyInstructions(cp, source)
+                registerDeferredAction(cp) { classFile ⇒
+                    decoder.classFile = classFile
+                    classFile
+                }
+                Code.lazily(
+                    max_stack, max_locals, source.length,
+                    decoder,
+                    exceptionHandlers, attributes)
+            }
+        )
+    )
+}
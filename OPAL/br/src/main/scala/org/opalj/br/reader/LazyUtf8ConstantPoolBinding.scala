@@ -0,0 +1,70 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package reader
+
+import java.nio.ByteBuffer
+
+import org.opalj.bi.reader.ModifiedUTF8
+
+/**
+ * Mixin this trait to decode the strings of `CONSTANT_Utf8_info` entries lazily when
+ * a class file is read from a `ByteBuffer`.
+ *
+ * The entries only store the offset and the length of the (modified UTF-8 encoded)
+ * bytes in the class file's buffer and decode the string when it is requested for
+ * the first time. Strings that are only referred to by attributes that are skipped
+ * or discarded are never decoded. Decoded strings are not shared; only the names of
+ * the declared and referenced fields and methods are shared using the reader's name
+ * caches (see [[ConstantPoolBinding.SharedMethodName]] and
+ * [[ConstantPoolBinding.SharedFieldName]]).
+ *
+ * @note Class files that are read using a `DataInputStream` are not affected.
+ *
+ * @author Michael Eichberg
+ */
+trait LazyUtf8ConstantPoolBinding extends ConstantPoolBinding {
+
+    class LazyCONSTANT_Utf8_info(
+        buffer: ByteBuffer,
+        offset: Int,
+        length: Int)
+            extends CONSTANT_Utf8_info(null) {
+
+        override lazy val value: String = ModifiedUTF8.decode(buffer, offset, length)
+    }
+
+    override protected def CONSTANT_Utf8_info(
+        buffer: ByteBuffer,
+        offset: Int,
+        length: Int): CONSTANT_Utf8_info = {
+        new LazyCONSTANT_Utf8_info(buffer, offset, length)
+    }
+}
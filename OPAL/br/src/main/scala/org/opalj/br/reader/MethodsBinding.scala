@@ -52,7 +52,7 @@ trait MethodsBinding extends MethodsReader {
         attributes: Attributes): Method_Info = {
         Method(
             accessFlags,
-            cp(name_index).asString,
+            SharedMethodName(cp(name_index).asString),
             cp(descriptor_index).asMethodDescriptor,
             attributes)
     }
@@ -30,91 +30,168 @@ package org.opalj
 package br
 package reader
 
-import scala.util.parsing.combinator._
-
-// TODO [Improvement] consider making the signature parser abstract and use the factory pattern as in the case of all other major structures
+import scala.collection.mutable.ListBuffer
 
 /**
  * Parses Java class file signature strings.
  *
+ * The parser is a hand-written, single-pass, recursive-descent parser that directly
+ * operates on the signature string. It implements the same grammar as the (former)
+ * combinator-based [[CombinatorSignatureParser]] and creates the same signatures.
+ *
  * ==Thread-Safety==
- * Using this object is thread-safe.
+ * Using this object is thread-safe; each parse uses its own (small) parser state.
+ *
+ * @author Michael Eichberg
  */
 object SignatureParser {
 
     /**
-     * Parses Java class file signature strings.
+     * Parses the signature of a class.
      *
-     * ==Thread-Safety==
-     * As of Scala 2.10 classes that inherit from `(Regex)Parsers` are not thread-safe.
-     * However, the only class that can create instances of a `SignatureParsers` is
-     * its companion object and that one implements the necessary abstractions for the
-     * thread-safe use of `SignatureParsers`.
+     * @throws IllegalArgumentException If the signature is invalid.
+     */
+    def parseClassSignature(signature: String): ClassSignature = {
+        val parser = new Parser(signature)
+        parser.atEnd(parser.classSignature())
+    }
+
+    /**
+     * Parses the type signature of a field.
      *
-     * @author Michael Eichberg
+     * @throws IllegalArgumentException If the signature is invalid.
      */
-    // TODO [Scala 2.11 - Improvement] investigate if Combinator Parsers are now thread-safe; if so the wrapper object which currently implements the necessary logic for thread safety can be removed 
-    class SignatureParsers private[SignatureParser] () extends RegexParsers {
+    def parseFieldTypeSignature(signature: String): FieldTypeSignature = {
+        val parser = new Parser(signature)
+        parser.atEnd(parser.fieldTypeSignature())
+    }
 
-        def parseClassSignature(signature: String): ClassSignature = {
-            parseAll(classSignatureParser, signature).get
-        }
+    /**
+     * Parses the type signature of a method.
+     *
+     * @throws IllegalArgumentException If the signature is invalid.
+     */
+    def parseMethodTypeSignature(signature: String): MethodTypeSignature = {
+        val parser = new Parser(signature)
+        parser.atEnd(parser.methodTypeSignature())
+    }
 
-        def parseFieldTypeSignature(signature: String): FieldTypeSignature = {
-            parseAll(fieldTypeSignatureParser, signature).get
-        }
+    // The character that is returned by peek if the complete signature was parsed.
+    private final val EndOfSignature = '\u0000'
 
-        def parseMethodTypeSignature(signature: String): MethodTypeSignature = {
-            parseAll(methodTypeSignatureParser, signature).get
-        }
+    /**
+     * The state of the parsing of one signature. The names of the methods correspond
+     * to the names of the grammar's productions as used by the JVM specification.
+     */
+    private final class Parser(val signature: String) {
 
-        //
-        // The methods to parse signatures. The methods which create the parsers
-        // start with an underscore to make them easily distinguishable from
-        // the data structure they parse/create.
-        //
+        private[this] var index = 0
 
-        protected val classSignatureParser: Parser[ClassSignature] =
-            opt(formalTypeParametersParser) ~
-                superclassSignatureParser ~
-                rep(superinterfaceSignatureParser) ^^ {
-                    case ftps ~ scs ~ siss ⇒ ClassSignature(ftps, scs, siss)
-                }
+        def atEnd[T](signatureElement: T): T = {
+            if (index != signature.length) fail("end of signature")
+            signatureElement
+        }
 
-        protected val fieldTypeSignatureParser: Parser[FieldTypeSignature] =
-            classTypeSignatureParser |
-                typeVariableSignatureParser |
-                arrayTypeSignatureParser
+        private[this] def fail(expected: String): Nothing = {
+            throw new IllegalArgumentException(
+                s"invalid signature $signature: $expected expected at index $index"
+            )
+        }
 
-        protected val methodTypeSignatureParser: Parser[MethodTypeSignature] =
-            opt(formalTypeParametersParser) ~
-                ('(' ~> rep(typeSignatureParser) <~ ')') ~
-                returnTypeParser ~
-                rep(throwsSignatureParser) ^^ {
-                    case ftps ~ psts ~ rt ~ tss ⇒ MethodTypeSignature(ftps, psts, rt, tss)
-                }
+        @inline private[this] def peek: Char = {
+            if (index < signature.length) signature.charAt(index) else EndOfSignature
+        }
 
-        protected val identifierParser: Parser[String] = """[^.;\[/\<>\:]*""".r
+        @inline private[this] def expect(c: Char): Unit = {
+            if (peek != c) fail("'"+c+"'")
+            index += 1
+        }
 
-        protected def formalTypeParametersParser: Parser[List[FormalTypeParameter]] =
-            '<' ~> rep1(formalTypeParameterParser) <~ '>'
+        @inline private[this] def isFieldTypeSignatureStart(c: Char): Boolean =
+            c == 'L' || c == 'T' || c == '['
+
+        def classSignature(): ClassSignature = {
+            val formalTypeParameters =
+                if (peek == '<') Some(this.formalTypeParameters()) else None
+            val superclassSignature = classTypeSignature()
+            val superinterfaceSignatures = ListBuffer.empty[ClassTypeSignature]
+            while (peek == 'L') superinterfaceSignatures += classTypeSignature()
+            ClassSignature(
+                formalTypeParameters,
+                superclassSignature,
+                superinterfaceSignatures.toList)
+        }
 
-        protected def formalTypeParameterParser: Parser[FormalTypeParameter] =
-            identifierParser ~ classBoundParser ~ opt(interfaceBoundParser) ^^ {
-                case id ~ cb ~ ib ⇒ FormalTypeParameter(id, cb, ib)
+        def methodTypeSignature(): MethodTypeSignature = {
+            val formalTypeParameters =
+                if (peek == '<') Some(this.formalTypeParameters()) else None
+            expect('(')
+            val parameterTypeSignatures = ListBuffer.empty[TypeSignature]
+            while (peek != ')') parameterTypeSignatures += typeSignature()
+            index += 1
+            val returnTypeSignature: ReturnTypeSignature =
+                if (peek == 'V') { index += 1; VoidType } else typeSignature()
+            val throwsSignatures = ListBuffer.empty[ThrowsSignature]
+            while (peek == '^') {
+                index += 1
+                throwsSignatures += (peek match {
+                    case 'L' ⇒ classTypeSignature()
+                    case 'T' ⇒ typeVariableSignature()
+                    case _   ⇒ fail("class type signature or type variable signature")
+                })
             }
+            MethodTypeSignature(
+                formalTypeParameters,
+                parameterTypeSignatures.toList,
+                returnTypeSignature,
+                throwsSignatures.toList)
+        }
 
-        protected def classBoundParser: Parser[Option[FieldTypeSignature]] =
-            ':' ~> opt(fieldTypeSignatureParser)
+        def fieldTypeSignature(): FieldTypeSignature = {
+            (peek: @scala.annotation.switch) match {
+                case 'L' ⇒ classTypeSignature()
+                case 'T' ⇒ typeVariableSignature()
+                case '[' ⇒ arrayTypeSignature()
+                case _   ⇒ fail("field type signature")
+            }
+        }
 
-        protected def interfaceBoundParser: Parser[FieldTypeSignature] =
-            ':' ~> fieldTypeSignatureParser
+        def typeSignature(): TypeSignature = {
+            (peek: @scala.annotation.switch) match {
+                case 'L' ⇒ classTypeSignature()
+                case 'T' ⇒ typeVariableSignature()
+                case '[' ⇒ arrayTypeSignature()
+                case _   ⇒ baseType()
+            }
+        }
 
-        protected def superclassSignatureParser: Parser[ClassTypeSignature] =
-            classTypeSignatureParser
+        def baseType(): BaseType = {
+            val baseType = (peek: @scala.annotation.switch) match {
+                case 'B' ⇒ ByteType
+                case 'C' ⇒ CharType
+                case 'D' ⇒ DoubleType
+                case 'F' ⇒ FloatType
+                case 'I' ⇒ IntegerType
+                case 'J' ⇒ LongType
+                case 'S' ⇒ ShortType
+                case 'Z' ⇒ BooleanType
+                case _   ⇒ fail("base type")
+            }
+            index += 1
+            baseType
+        }
 
-        protected def superinterfaceSignatureParser: Parser[ClassTypeSignature] =
-            classTypeSignatureParser
+        def arrayTypeSignature(): ArrayTypeSignature = {
+            expect('[')
+            ArrayTypeSignature(typeSignature())
+        }
+
+        def typeVariableSignature(): TypeVariableSignature = {
+            expect('T')
+            val identifier = this.identifier()
+            expect(';')
+            TypeVariableSignature(identifier)
+        }
 
         /**
          * '''From the JVM Specification'''
@@ -125,109 +202,105 @@ object SignatureParser {
          * by erasing any type arguments and converting each ‘.’ character in
          * the signature to a ‘$’ character.
          */
-        protected def classTypeSignatureParser: Parser[ClassTypeSignature] =
-            'L' ~>
-                opt(packageSpecifierParser) ~
-                simpleClassTypeSignatureParser ~
-                rep(classTypeSignatureSuffixParser) <~ ';' ^^ {
-                    case ps ~ scts ~ ctsss ⇒ ClassTypeSignature(ps, scts, ctsss)
-                }
-
-        protected def packageSpecifierParser: Parser[String] =
-            (identifierParser ~ ('/' ~> opt(packageSpecifierParser))) ^^ {
-                case id ~ rest ⇒ id+"/"+rest.getOrElse("")
-            }
-
-        protected def simpleClassTypeSignatureParser: Parser[SimpleClassTypeSignature] =
-            identifierParser ~ opt(typeArgumentsParser) ^^ {
-                case id ~ tas ⇒ SimpleClassTypeSignature(id, tas)
+        def classTypeSignature(): ClassTypeSignature = {
+            expect('L')
+            // the package specifier consists of all identifiers that are followed by
+            // a '/' and includes the final '/'
+            val packageStart = index
+            var simpleNameStart = index
+            skipIdentifier()
+            while (peek == '/') {
+                index += 1
+                simpleNameStart = index
+                skipIdentifier()
             }
-
-        protected def classTypeSignatureSuffixParser: Parser[SimpleClassTypeSignature] =
-            '.' ~> simpleClassTypeSignatureParser
-
-        protected def typeVariableSignatureParser: Parser[TypeVariableSignature] =
-            ('T' ~> identifierParser <~ ';') ^^ { TypeVariableSignature(_) }
-
-        protected def typeArgumentsParser: Parser[List[TypeArgument]] =
-            '<' ~> rep1(typeArgumentParser) <~ '>'
-
-        protected def typeArgumentParser: Parser[TypeArgument] =
-            (opt(wildcardIndicatorParser) ~ fieldTypeSignatureParser) ^^ {
-                case wi ~ fts ⇒ ProperTypeArgument(wi, fts)
-            } |
-                ('*' ^^ { _ ⇒ Wildcard })
-
-        protected def wildcardIndicatorParser: Parser[VarianceIndicator] =
-            // Conceptually, we do the following:
-            // '+' ^^ { _ ⇒ CovariantIndicator } | '-' ^^ { _ ⇒ ContravariantIndicator }
-            new Parser[VarianceIndicator] {
-                def apply(in: Input): ParseResult[VarianceIndicator] = {
-                    if (in.atEnd) Failure("signature incomplete", in);
-                    else (in.first: @scala.annotation.switch) match {
-                        case '+' ⇒ Success(CovariantIndicator, in.rest)
-                        case '-' ⇒ Success(ContravariantIndicator, in.rest)
-                        case x   ⇒ Failure("unknown wildcard indicator", in.rest)
-                    }
-                }
+            val packageIdentifier =
+                if (simpleNameStart > packageStart)
+                    Some(signature.substring(packageStart, simpleNameStart))
+                else
+                    None
+            val simpleClassTypeSignature =
+                this.simpleClassTypeSignature(signature.substring(simpleNameStart, index))
+            val classTypeSignatureSuffixes = ListBuffer.empty[SimpleClassTypeSignature]
+            while (peek == '.') {
+                index += 1
+                classTypeSignatureSuffixes += this.simpleClassTypeSignature(identifier())
             }
+            expect(';')
+            ClassTypeSignature(
+                packageIdentifier,
+                simpleClassTypeSignature,
+                classTypeSignatureSuffixes.toList)
+        }
 
-        protected def arrayTypeSignatureParser: Parser[ArrayTypeSignature] =
-            '[' ~> typeSignatureParser ^^ { ArrayTypeSignature(_) }
-
-        protected def typeSignatureParser: Parser[TypeSignature] =
-            fieldTypeSignatureParser | baseTypeParser
-
-        protected def throwsSignatureParser: Parser[ThrowsSignature] =
-            '^' ~> (classTypeSignatureParser | typeVariableSignatureParser)
-
-        protected def baseTypeParser: Parser[BaseType] =
-            // This is what is conceptually done: 
-            // 'B' ^^ (_ ⇒ ByteType) | 'C' ^^ (_ ⇒ CharType) | 'D' ^^ (_ ⇒ DoubleType) | 
-            // 'F' ^^ (_ ⇒ FloatType) | 'I' ^^ (_ ⇒ IntegerType) | 'J' ^^ (_ ⇒ LongType) | 
-            // 'S' ^^ (_ ⇒ ShortType) | 'Z' ^^ (_ ⇒ BooleanType)
-            // This is a way more efficient implementation:
-            new Parser[BaseType] {
-                def apply(in: Input): ParseResult[BaseType] = {
-                    if (in.atEnd) {
-                        Failure("signature is incomplete, base type identifier expected", in);
-                    } else {
-                        (in.first: @scala.annotation.switch) match {
-                            case 'B' ⇒ Success(ByteType, in.rest)
-                            case 'C' ⇒ Success(CharType, in.rest)
-                            case 'D' ⇒ Success(DoubleType, in.rest)
-                            case 'F' ⇒ Success(FloatType, in.rest)
-                            case 'I' ⇒ Success(IntegerType, in.rest)
-                            case 'J' ⇒ Success(LongType, in.rest)
-                            case 'S' ⇒ Success(ShortType, in.rest)
-                            case 'Z' ⇒ Success(BooleanType, in.rest)
-                            case x   ⇒ Failure("unknown base type identifier: "+x, in.rest)
-                        }
-                    }
-                }
-            }
+        def simpleClassTypeSignature(simpleName: String): SimpleClassTypeSignature = {
+            val typeArguments = if (peek == '<') Some(this.typeArguments()) else None
+            SimpleClassTypeSignature(simpleName, typeArguments)
+        }
 
-        protected def returnTypeParser: Parser[ReturnTypeSignature] =
-            typeSignatureParser | 'V' ^^ (_ ⇒ VoidType)
-    }
+        def typeArguments(): List[TypeArgument] = {
+            expect('<')
+            val typeArguments = ListBuffer.empty[TypeArgument]
+            do {
+                typeArguments += typeArgument()
+            } while (peek != '>' && peek != EndOfSignature)
+            expect('>')
+            typeArguments.toList
+        }
 
-    private def createSignatureParsers() = new SignatureParsers()
+        def typeArgument(): TypeArgument = {
+            (peek: @scala.annotation.switch) match {
+                case '*' ⇒
+                    index += 1
+                    Wildcard
+                case '+' ⇒
+                    index += 1
+                    ProperTypeArgument(Some(CovariantIndicator), fieldTypeSignature())
+                case '-' ⇒
+                    index += 1
+                    ProperTypeArgument(Some(ContravariantIndicator), fieldTypeSignature())
+                case _ ⇒
+                    ProperTypeArgument(None, fieldTypeSignature())
+            }
+        }
 
-    private val signatureParsers: ThreadLocal[SignatureParsers] =
-        new ThreadLocal[SignatureParsers] {
-            override protected def initialValue() = createSignatureParsers()
+        def formalTypeParameters(): List[FormalTypeParameter] = {
+            expect('<')
+            val formalTypeParameters = ListBuffer.empty[FormalTypeParameter]
+            do {
+                formalTypeParameters += formalTypeParameter()
+            } while (peek != '>' && peek != EndOfSignature)
+            expect('>')
+            formalTypeParameters.toList
         }
 
-    def parseClassSignature(signature: String): ClassSignature = {
-        signatureParsers.get.parseClassSignature(signature)
-    }
+        def formalTypeParameter(): FormalTypeParameter = {
+            val identifier = this.identifier()
+            expect(':')
+            val classBound =
+                if (isFieldTypeSignatureStart(peek)) Some(fieldTypeSignature()) else None
+            val interfaceBound =
+                if (peek == ':') { index += 1; Some(fieldTypeSignature()) } else None
+            FormalTypeParameter(identifier, classBound, interfaceBound)
+        }
 
-    def parseFieldTypeSignature(signature: String): FieldTypeSignature = {
-        signatureParsers.get.parseFieldTypeSignature(signature)
-    }
+        /**
+         * Skips the (possibly empty) identifier that starts at the current index.
+         */
+        private[this] def skipIdentifier(): Unit = {
+            val length = signature.length
+            while (index < length && {
+                val c = signature.charAt(index)
+                c != '.' && c != ';' && c != '[' && c != '/' && c != '<' && c != '>' && c != ':'
+            }) {
+                index += 1
+            }
+        }
 
-    def parseMethodTypeSignature(signature: String): MethodTypeSignature = {
-        signatureParsers.get.parseMethodTypeSignature(signature)
+        def identifier(): String = {
+            val start = index
+            skipIdentifier()
+            signature.substring(start, index)
+        }
     }
 }
-
@@ -0,0 +1,167 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package reader
+
+import java.io.File
+import java.nio.ByteBuffer
+
+import scala.collection.mutable.HashSet
+
+import org.opalj.bi.ACC_INTERFACE
+import org.opalj.bi.ConstantPoolTags._
+import org.opalj.bi.reader.ClassFilesPipeline
+import org.opalj.bi.reader.ClassFileReader
+import org.opalj.bi.reader.ModifiedUTF8
+import org.opalj.br.analyses.ClassHierarchy
+
+/**
+ * Reads only the header of class files – the access flags, the class' type,
+ * the super class type and the implemented interfaces – to create the
+ * respective [[TypeDeclaration]]s.
+ *
+ * The constant pool is only scanned; i.e., only the strings of the class and
+ * interface names are decoded. Everything after the interfaces (the fields, the
+ * methods and the class file's attributes) is not read at all.
+ * Hence, the [[analyses.ClassHierarchy]] of a project can be created long before
+ * all class files are completely read.
+ *
+ * @example
+ * {{{
+ * val classHierarchy = TypeDeclarationsReader.ClassHierarchy(files)
+ * // start analyses that only require the class hierarchy
+ * val project = Project(Java8Framework.AllClassFiles(files), classHierarchy = Some(classHierarchy))
+ * }}}
+ *
+ * @author Michael Eichberg
+ */
+object TypeDeclarationsReader {
+
+    /**
+     * Reads the type declaration of the class file stored in the given buffer.
+     * The buffer has to be positioned at the beginning of the class file.
+     */
+    def TypeDeclaration(buffer: ByteBuffer): TypeDeclaration = {
+        @inline def u1(): Int = buffer.get() & 0xFF
+        @inline def u2(): Int = buffer.getShort() & 0xFFFF
+        @inline def skip(bytes: Int): Unit = buffer.position(buffer.position() + bytes)
+
+        val magic = buffer.getInt()
+        if (magic != 0xCAFEBABE)
+            throw new BytecodeProcessingFailedException(
+                "No Java class file ("+magic+"; expected 0xCAFEBABE).")
+        skip(4) // minor_version and major_version
+
+        // For CONSTANT_Class_info entries we store the index of the name; for
+        // CONSTANT_Utf8_info entries we store the position of the string's bytes.
+        val constant_pool_count = u2()
+        val cp = new Array[Int](constant_pool_count)
+        var i = 1
+        while (i < constant_pool_count) {
+            (u1(): @scala.annotation.switch) match {
+                case CONSTANT_Class_ID ⇒
+                    cp(i) = u2(); i += 1
+                case CONSTANT_Utf8_ID ⇒
+                    cp(i) = buffer.position(); skip(u2()); i += 1
+                case CONSTANT_String_ID | CONSTANT_MethodType_ID ⇒
+                    skip(2); i += 1
+                case CONSTANT_MethodHandle_ID ⇒
+                    skip(3); i += 1
+                case CONSTANT_Integer_ID | CONSTANT_Float_ID |
+                    CONSTANT_Fieldref_ID | CONSTANT_Methodref_ID |
+                    CONSTANT_InterfaceMethodref_ID | CONSTANT_NameAndType_ID |
+                    CONSTANT_InvokeDynamic_ID ⇒
+                    skip(4); i += 1
+                case CONSTANT_Long_ID | CONSTANT_Double_ID ⇒
+                    skip(8); i += 2
+                case tag ⇒
+                    throw new BytecodeProcessingFailedException(
+                        "unknown constant pool tag: "+tag)
+            }
+        }
+
+        def objectType(class_index: Int): ObjectType = {
+            val utf8Position = cp(cp(class_index))
+            val length = buffer.getShort(utf8Position) & 0xFFFF
+            ObjectType(ModifiedUTF8.decode(buffer, utf8Position + 2, length))
+        }
+
+        val access_flags = u2()
+        val this_class = u2()
+        val super_class = u2()
+        val interfaces_count = u2()
+        val interfaceTypes = HashSet.empty[ObjectType]
+        var interfaceIndex = 0
+        while (interfaceIndex < interfaces_count) {
+            interfaceTypes += objectType(u2())
+            interfaceIndex += 1
+        }
+
+        br.TypeDeclaration(
+            objectType(this_class),
+            (access_flags & ACC_INTERFACE.mask) != 0,
+            if (super_class == 0) None else Some(objectType(super_class)),
+            interfaceTypes
+        )
+    }
+
+    /**
+     * Reads the type declarations of all class files found in the given files
+     * (class files, jar files and directories) using a [[ClassFilesPipeline]].
+     */
+    def TypeDeclarations(
+        files: Traversable[File],
+        exceptionHandler: (Exception) ⇒ Unit = ClassFileReader.defaultExceptionHandler,
+        configuration: ClassFilesPipeline.Configuration = ClassFilesPipeline.defaultConfiguration): Seq[TypeDeclaration] = {
+        val mutex = new Object
+        var typeDeclarations: List[TypeDeclaration] = Nil
+
+        val pipeline = new ClassFilesPipeline[TypeDeclaration](
+            configuration,
+            (buffer: ByteBuffer) ⇒ List(TypeDeclaration(buffer)),
+            (typeDeclaration: TypeDeclaration, url: java.net.URL) ⇒ mutex.synchronized {
+                typeDeclarations = typeDeclaration :: typeDeclarations
+            },
+            exceptionHandler
+        )
+        pipeline.run(files)
+        typeDeclarations
+    }
+
+    /**
+     * Creates the class hierarchy of all class files found in the given files
+     * without completely reading the class files.
+     */
+    def ClassHierarchy(
+        files: Traversable[File],
+        exceptionHandler: (Exception) ⇒ Unit = ClassFileReader.defaultExceptionHandler): ClassHierarchy = {
+        analyses.ClassHierarchy.fromTypeDeclarations(TypeDeclarations(files, exceptionHandler))
+    }
+}
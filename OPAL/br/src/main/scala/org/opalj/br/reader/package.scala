@@ -70,7 +70,10 @@ package object reader {
             exceptionsMutex.synchronized { exceptions = e :: exceptions }
         }
 
-        val allClassFiles = for (file ← files.par) yield {
+        // The files are processed one after another; the class file readers
+        // provided by OPAL already process the class files of each file in parallel
+        // (see org.opalj.bi.reader.ClassFilesPipeline).
+        val allClassFiles = for (file ← files.toList) yield {
             try {
                 perFile(file)
                 classFilesReader(file, addException)
@@ -80,7 +83,7 @@ package object reader {
                     Iterable.empty
             }
         }
-        (allClassFiles.flatten.seq, exceptions)
+        (allClassFiles.flatten, exceptions)
     }
 }
 
@@ -177,6 +177,41 @@ class CodeAttributeTest
         codeOfPut.joinInstructions should contain(15)
     }
 
+    behavior of "the \"Code\" attribute's dense instructions"
+
+    it should "contain exactly the instructions of the code array" in {
+        val denseInstructions = codeOfPut.denseInstructions
+        denseInstructions.size should be(codeOfPut.instructionsCount)
+        denseInstructions.instructions.exists(_ eq null) should be(false)
+        denseInstructions.programCounters.toList should be(codeOfPut.programCounters.toList)
+        denseInstructions.toSparseArray.toSeq should be(codeOfPut.instructions.toSeq)
+        denseInstructions.collect { case GETFIELD(_, name, _) ⇒ name } should be(
+            codeOfPut.collectWithIndex { case (pc, GETFIELD(_, name, _)) ⇒ (pc, name) }
+        )
+    }
+
+    it should "not be cached by the code attribute" in {
+        val denseInstructions = codeOfPut.denseInstructions
+        denseInstructions should not be theSameInstanceAs(codeOfPut.denseInstructions)
+        denseInstructions should be(codeOfPut.denseInstructions)
+    }
+
+    it should "support program counter based access" in {
+        val denseInstructions = codeOfGet.denseInstructions
+        denseInstructions.indexOf(1) should be(1)
+        denseInstructions.indexOf(2) should be(-1) // an operand of getfield
+        denseInstructions.instructionAt(4) should be(ARETURN)
+        denseInstructions.pcOfNextInstruction(1) should be(4)
+        denseInstructions.pcOfNextInstruction(4) should be(codeOfGet.codeLength)
+    }
+
+    it should "reject program counters of operands when determining the next instruction" in {
+        val denseInstructions = codeOfGet.denseInstructions
+        an[IllegalArgumentException] should be thrownBy {
+            denseInstructions.pcOfNextInstruction(2) // an operand of getfield
+        }
+    }
+
 }
 private object CodeAttributeTest {
 
@@ -107,6 +107,18 @@ class ObjectTypeTest extends FunSuite with ParallelTestExecution {
         assert(ot1 ne ot3)
     }
 
+    test("concurrent creation of ObjectTypes") {
+        val fqns = (0 until 1000).map("concurrent/creation/C"+_)
+        val objectTypes = (0 until 8).par.map { i ⇒ fqns.map(ObjectType(_)) }.seq
+
+        for (objectTypesOfThread ← objectTypes) {
+            objectTypesOfThread.zip(objectTypes.head) foreach { case (ot1, ot2) ⇒ assert(ot1 eq ot2) }
+        }
+        // each type has a unique id
+        assert(objectTypes.head.map(_.id).toSet.size === fqns.size)
+        assert(objectTypes.head.forall(_.id < ObjectType.objectTypesCount))
+    }
+
     test("pattern matching on ObjectTypes") {
         val ot1: FieldType = ObjectType("java/lang/Object")
 
@@ -238,6 +238,39 @@ class ClassHierarchyTest
         ))
     }
 
+    behavior of "the ClassHierarchy's SubtypeIndex"
+
+    it should "answer the subtype tests w.r.t. the default class hierarchy as the class hierarchy" in {
+        val index = preInitCH.subtypeIndex
+        index.isSubtypeOf(AnUnknownType, Throwable) should be(Unknown)
+        index.isSubtypeOf(ArithmeticException, Serializable) should be(Yes)
+        index.isSubtypeOf(Error, Exception) should be(No)
+        index.isSubtypeOf(Serializable, Cloneable) should be(No)
+        index.isSubtypeOf(ArithmeticException, Cloneable) should be(No)
+        index.isSubtypeOf(RuntimeException, Throwable) should be(Yes)
+        index.isSubtypeOf(Object, Throwable) should be(No)
+        index.isSubtypeOf(SeriablizableArrayOfArray, ObjectArray) should be(Yes)
+    }
+
+    it should "return Unknown if the supertype information is incomplete" in {
+        javaLangCH.subtypeIndex.isSubtypeOf(Serializable, Cloneable) should be(Unknown)
+    }
+
+    it should "never contradict the class hierarchy" in {
+        for (ch ← List(preInitCH, javaLangCH, apacheANTCH)) {
+            val index = ch.subtypeIndex
+            var types = List.empty[ObjectType]
+            ch.foreachKnownType { t ⇒ types = t :: types }
+            for (subtype ← types; supertype ← types) {
+                val expected = ch.isSubtypeOf(subtype, supertype)
+                val actual = index.isSubtypeOf(subtype, supertype)
+                // the index is more conservative if a class' superclasses are unknown
+                if (actual != expected && !(expected == No && actual == Unknown))
+                    fail(s"$subtype <: $supertype: expected $expected; actual: $actual")
+            }
+        }
+    }
+
     // -----------------------------------------------------------------------------------
     //
     // TESTING THE TRAVERSAL OF THE CLASS HIERARCHY
@@ -404,4 +437,69 @@ class ClassHierarchyTest
             'descriptor(MethodDescriptor.NoArgsAndReturnVoid)
         )
     }
+
+    // -----------------------------------------------------------------------------------
+    //
+    // TESTING THE INCREMENTAL UPDATE OF THE CLASS HIERARCHY
+    //
+    // -----------------------------------------------------------------------------------
+
+    behavior of "the ClassHierarchy's updated method"
+
+    it should "forget the undeclared supertypes that are only known through removed types" in {
+        import scala.collection.mutable.HashSet
+        val UndeclaredClass = ObjectType("myTest/update/UndeclaredClass")
+        val UndeclaredInterface = ObjectType("myTest/update/UndeclaredInterface")
+        val SharedInterface = ObjectType("myTest/update/SharedInterface")
+        val RemovedClass = ObjectType("myTest/update/RemovedClass")
+        val RemainingClass = ObjectType("myTest/update/RemainingClass")
+        val removedClassDecl = TypeDeclaration(
+            RemovedClass, false, Some(UndeclaredClass),
+            HashSet(UndeclaredInterface, SharedInterface)
+        )
+        val remainingClassDecl = TypeDeclaration(
+            RemainingClass, false, Some(Object), HashSet(SharedInterface)
+        )
+
+        val ch = ClassHierarchy.fromTypeDeclarations(List(removedClassDecl, remainingClassDecl), Nil)
+        ch.isKnown(UndeclaredClass) should be(true)
+        ch.isInterface(UndeclaredInterface) should be(true)
+
+        val updatedCH = ch.updated(List(RemovedClass), Nil)
+        val expectedCH = ClassHierarchy.fromTypeDeclarations(List(remainingClassDecl), Nil)
+        for (objectType ← List(UndeclaredClass, UndeclaredInterface, SharedInterface, RemovedClass, RemainingClass, Object)) {
+            updatedCH.isKnown(objectType) should be(expectedCH.isKnown(objectType))
+            if (expectedCH.isKnown(objectType)) {
+                updatedCH.isInterface(objectType) should be(expectedCH.isInterface(objectType))
+                updatedCH.directSubtypesOf(objectType) should be(expectedCH.directSubtypesOf(objectType))
+            }
+        }
+        updatedCH.isKnown(UndeclaredClass) should be(false)
+        updatedCH.isKnown(UndeclaredInterface) should be(false)
+        updatedCH.isInterface(SharedInterface) should be(true)
+    }
+
+    // -----------------------------------------------------------------------------------
+    //
+    // TESTING THE CREATION OF THE CLASS HIERARCHY USING THE CLASS FILES' HEADERS
+    //
+    // -----------------------------------------------------------------------------------
+
+    behavior of "the ClassHierarchy created using the TypeDeclarationsReader"
+
+    it should "be equal to the class hierarchy created using the class files" in {
+        val jarFile = locateTestResources("classfiles/ClusteringTestProject.jar", "bi")
+        val classFiles = ClassFiles(jarFile).map(_._1)
+        val classFilesCH = ClassHierarchy(classFiles)
+        val typeDeclarationsCH = reader.TypeDeclarationsReader.ClassHierarchy(List(jarFile))
+
+        classFiles should not be (empty)
+        for (classFile ← classFiles) {
+            val objectType = classFile.thisType
+            typeDeclarationsCH.isInterface(objectType) should be(classFilesCH.isInterface(objectType))
+            typeDeclarationsCH.superclassType(objectType) should be(classFilesCH.superclassType(objectType))
+            typeDeclarationsCH.superinterfaceTypes(objectType) should be(classFilesCH.superinterfaceTypes(objectType))
+            typeDeclarationsCH.allSubtypes(objectType, false) should be(classFilesCH.allSubtypes(objectType, false))
+        }
+    }
 }
@@ -110,6 +110,166 @@ class ProjectTest
         overallProject.isLibraryType(ObjectType("code/Quicksort")) should be(false)
     }
 
+    behavior of "A Project's class member ids"
+
+    it should "assign each method and field a unique, dense id" in {
+        val methodIds = overallProject.methods.map(overallProject.methodId).toList
+        methodIds.size should be(overallProject.methodsCount)
+        methodIds.toSet.size should be(methodIds.size)
+        methodIds.toSet should be((0 until overallProject.methodIdsCount).toSet)
+        overallProject.methods.forall(m ⇒ overallProject.method(overallProject.methodId(m)) eq m) should be(true)
+
+        val fieldIds = overallProject.fields.map(overallProject.fieldId).toList
+        fieldIds.size should be(overallProject.fieldsCount)
+        fieldIds.toSet should be((0 until overallProject.fieldIdsCount).toSet)
+        overallProject.fields.forall(f ⇒ overallProject.field(overallProject.fieldId(f)) eq f) should be(true)
+    }
+
+    it should "associate each method and field with its class file" in {
+        for (classFile ← overallProject.classFiles) {
+            classFile.methods.forall(overallProject.classFile(_) eq classFile) should be(true)
+            classFile.fields.forall(overallProject.classFile(_) eq classFile) should be(true)
+        }
+    }
+
+    it should "not assign ids to methods that do not belong to the project" in {
+        val otherMethod = Method(name = "notInTheProject")
+        overallProject.methodId(otherMethod) should be(-1)
+        an[NoSuchElementException] should be thrownBy { overallProject.classFile(otherMethod) }
+    }
+
+    it should "update the ids when class files are removed" in {
+        val Quicksort = ObjectType("code/Quicksort")
+        val quicksort = overallProject.classFile(Quicksort).get
+        val updatedProject = overallProject.update(Nil, Nil, List(Quicksort))
+        quicksort.methods.forall(updatedProject.methodId(_) == -1) should be(true)
+        updatedProject.methods.size should be(overallProject.methods.size - quicksort.methods.size)
+        updatedProject.methods.forall(m ⇒ updatedProject.classFile(m) eq overallProject.classFile(m)) should be(true)
+        updatedProject.methods.forall { m ⇒
+            updatedProject.methodId(m) == overallProject.methodId(m)
+        } should be(true)
+        quicksort.methods.forall { m ⇒
+            updatedProject.method(overallProject.methodId(m)) eq null
+        } should be(true)
+    }
+
+    it should "assign new ids to the methods of added and replaced class files" in {
+        val Quicksort = ObjectType("code/Quicksort")
+        val quicksort = overallProject.classFile(Quicksort).get
+        val superClassFile = overallProject.classFile(SuperType).get
+        val source = overallProject.source(SuperType).get
+        val updatedProject =
+            overallProject.
+                update(Nil, Nil, List(Quicksort, SuperType)).
+                update(List((superClassFile, source)))
+        updatedProject.methodIdsCount should be(overallProject.methodIdsCount + superClassFile.methods.size)
+        updatedProject.methods.size should be(overallProject.methods.size - quicksort.methods.size)
+        superClassFile.methods.forall { m ⇒
+            val id = updatedProject.methodId(m)
+            id >= overallProject.methodIdsCount && (updatedProject.method(id) eq m)
+        } should be(true)
+        val methodIds = updatedProject.methods.map(updatedProject.methodId).toList
+        methodIds.toSet.size should be(methodIds.size)
+    }
+
+    behavior of "Project's update method"
+
+    it should "create a new Project without the removed class files" in {
+        val Quicksort = ObjectType("code/Quicksort")
+        val quicksort = overallProject.classFile(Quicksort).get
+        val updatedProject = overallProject.update(Nil, Nil, List(Quicksort))
+
+        updatedProject.classFile(Quicksort) should be(None)
+        updatedProject.source(Quicksort) should be(None)
+        updatedProject.classHierarchy.isKnown(Quicksort) should be(false)
+        updatedProject.projectClassFilesCount should be(overallProject.projectClassFilesCount - 1)
+        updatedProject.projectMethodsCount should be(
+            overallProject.projectMethodsCount - quicksort.methods.size
+        )
+        // the original project is not changed
+        overallProject.classFile(Quicksort) should be('defined)
+        overallProject.classHierarchy.isKnown(Quicksort) should be(true)
+    }
+
+    it should "create a new Project with the replaced class files" in {
+        val superClassFile = overallProject.classFile(SuperType).get
+        val source = overallProject.source(SuperType).get
+        // the class file is replaced by a library class file
+        val updatedProject = overallProject.update(Nil, List((superClassFile, source)))
+
+        updatedProject.isLibraryType(SuperType) should be(true)
+        updatedProject.classFile(SuperType) should be(Some(superClassFile))
+        updatedProject.classFiles.count(_.thisType eq SuperType) should be(1)
+        updatedProject.classHierarchy.directSubtypesOf(SuperType) should be(
+            overallProject.classHierarchy.directSubtypesOf(SuperType)
+        )
+        updatedProject.classHierarchy.superclassType(SuperType) should be(
+            overallProject.classHierarchy.superclassType(SuperType)
+        )
+        updatedProject.classFilesCount should be(overallProject.classFilesCount)
+        updatedProject.methodsCount should be(overallProject.methodsCount)
+        updatedProject.codeSize should be(overallProject.codeSize)
+    }
+
+    it should "only retain the project information that does not depend on the changed types" in {
+        val pik = new TestProjectInformationKey
+        val independentPik = new TestTypeIndependentProjectInformationKey
+        overallProject.get(pik)
+        overallProject.get(independentPik)
+
+        val updatedProject = overallProject.update(Nil, Nil, List(ObjectType("code/Quicksort")))
+        updatedProject.has(pik) should be(None)
+        updatedProject.has(independentPik) should be(Some(independentPik.theResult))
+    }
+
+    it should "incrementally update the project information that supports updates" in {
+        val superClassFile = overallProject.classFile(SuperType).get
+        val source = overallProject.source(SuperType).get
+        overallProject.get(ProjectIndexKey)
+        overallProject.get(PackageTreeKey)
+        overallProject.get(VirtualDispatchTablesKey)
+
+        def checkUpdatedProjectInformation(updatedProject: SomeProject): Unit = {
+            val projectIndex = updatedProject.has(ProjectIndexKey).get
+            val expectedProjectIndex = ProjectIndex(updatedProject)
+            projectIndex.methods.mapValues(_.mapValues(_.toSet)) should be(
+                expectedProjectIndex.methods.mapValues(_.mapValues(_.toSet))
+            )
+            projectIndex.fields.mapValues(_.mapValues(_.toSet)) should be(
+                expectedProjectIndex.fields.mapValues(_.mapValues(_.toSet))
+            )
+
+            val packageTree = updatedProject.has(PackageTreeKey).get
+            val expectedPackageTree = PackageTree(updatedProject.classFiles)
+            packageTree.packages should be(expectedPackageTree.packages)
+            packageTree.rootPackages should be(expectedPackageTree.rootPackages)
+            for (packageName ← expectedPackageTree.packages) {
+                packageTree.classFiles(packageName).toSet should be(
+                    expectedPackageTree.classFiles(packageName).toSet
+                )
+            }
+
+            val tables = updatedProject.has(VirtualDispatchTablesKey).get
+            val expectedTables = VirtualDispatchTables(updatedProject)
+            for (classFile ← updatedProject.classFiles) {
+                tables.dispatchTable(classFile.thisType) should be(
+                    expectedTables.dispatchTable(classFile.thisType)
+                )
+                for (method ← classFile.methods) {
+                    tables.implementingMethods(method) should be(
+                        expectedTables.implementingMethods(method)
+                    )
+                }
+            }
+        }
+
+        val Quicksort = ObjectType("code/Quicksort")
+        val reducedProject = overallProject.update(Nil, Nil, List(Quicksort, SuperType))
+        checkUpdatedProjectInformation(reducedProject)
+        val extendedProject = reducedProject.update(List((superClassFile, source)))
+        checkUpdatedProjectInformation(extendedProject)
+    }
+
     behavior of "A Project's lookupMethodDeclaration method"
 
     import project.classHierarchy.resolveMethodReference
@@ -256,6 +416,154 @@ class ProjectTest
         project.availableProjectInformation should contain(pik.depdencies.head.theResult)
         project.availableProjectInformation should contain(pik.depdencies.tail.head.theResult)
     }
+
+    it should "report cyclic requirements of project information" in {
+        val pik = new TestCyclicProjectInformationKey
+        val exception = intercept[IllegalStateException] { project.get(pik) }
+        exception.getMessage should include(pik.requirement.toString)
+        project.has(pik) should be(None)
+        project.has(pik.requirement) should be(None)
+    }
+
+    it should "compute independent project information concurrently" in {
+        val latch = new java.util.concurrent.CountDownLatch(1)
+        // the computation of blockingPik can only finish when signallingPik is computed
+        val blockingPik = new TestBlockingProjectInformationKey(latch)
+        val signallingPik = new TestSignallingProjectInformationKey(latch)
+        val thread = new Thread(new Runnable { def run(): Unit = project.get(blockingPik) })
+        thread.start()
+        while (blockingPik.computations.get == 0) Thread.sleep(1)
+
+        project.get(signallingPik) should be(signallingPik.theResult)
+        thread.join(10000)
+        project.has(blockingPik) should be(Some(blockingPik.theResult))
+        blockingPik.wasSignalled should be(true)
+    }
+
+    it should "compute project information only once even if it is concurrently requested" in {
+        val latch = new java.util.concurrent.CountDownLatch(1)
+        val blockingPik = new TestBlockingProjectInformationKey(latch)
+        val threads = for (i ← 1 to 4) yield {
+            val thread = new Thread(new Runnable { def run(): Unit = project.get(blockingPik) })
+            thread.start()
+            thread
+        }
+        while (blockingPik.computations.get == 0) Thread.sleep(1)
+        Thread.sleep(50)
+        latch.countDown()
+        threads foreach { _.join(10000) }
+
+        blockingPik.computations.get should be(1)
+        project.get(blockingPik) should be(blockingPik.theResult)
+        val statistics = project.projectInformationStatistics(blockingPik)
+        statistics.computations should be(1)
+        statistics.computationTime should be > (0l)
+        statistics.waits should be <= (3)
+    }
+
+    it should "precompute project information and its requirements in parallel" in {
+        import scala.concurrent.Await
+        import scala.concurrent.duration.Duration
+        import scala.concurrent.ExecutionContext.Implicits.global
+
+        val pik = new TestProjectInformationWithDependenciesKey
+        val otherPik = new TestProjectInformationKey
+        val precomputation = Await.result(
+            project.precomputeProjectInformation(List(pik, otherPik)),
+            Duration.Inf
+        )
+
+        project.has(pik) should be(Some(pik.theResult))
+        project.has(otherPik) should be(Some(otherPik.theResult))
+        precomputation.keys.toSet should be(Set(pik, otherPik) ++ pik.depdencies)
+        precomputation.keys.indexOf(pik) should be >
+            (pik.depdencies.map(precomputation.keys.indexOf).max)
+        precomputation.computationTimes.keySet should be(precomputation.keys.toSet)
+        precomputation.criticalPath should not be (empty)
+        precomputation.criticalPath.head.getRequirements should be(empty)
+        precomputation.criticalPathTime should be <= (precomputation.sequentialTime)
+    }
+
+    it should "recompute released project information on demand" in {
+        val pik = new TestCountingProjectInformationKey
+        val pi = project.get(pik)
+        project.release(pik)
+        project.has(pik) should be(None)
+        project.get(pik) should not be theSameInstanceAs(pi)
+        pik.computations.get should be(2)
+    }
+
+    it should "retain project information that is released after use while it is used" in {
+        val pik = new TestCountingProjectInformationKey
+        project.setRetention(pik, ProjectInformationRetention.ReleasedAfterUse)
+        project.retention(pik) should be(ProjectInformationRetention.ReleasedAfterUse)
+        val pi = project.get(pik)
+        System.gc()
+        project.get(pik) should be theSameInstanceAs (pi)
+        pik.computations.get should be(1)
+    }
+
+    it should "release project information that is released after use when it is no longer used" in {
+        val pik = new TestCountingProjectInformationKey
+        project.setRetention(pik, ProjectInformationRetention.ReleasedAfterUse)
+        project.use(pik) { pi ⇒
+            project.use(pik) { _ should be theSameInstanceAs (pi) }
+            project.has(pik) should be(Some(pi))
+        }
+        project.has(pik) should be(None)
+        pik.computations.get should be(1)
+    }
+
+    it should "not release pinned project information after use" in {
+        val pik = new TestCountingProjectInformationKey
+        val pi = project.use(pik) { pi ⇒ pi }
+        project.has(pik) should be(Some(pi))
+    }
+
+    it should "estimate the heap memory held by project information" in {
+        val pik = new TestCountingProjectInformationKey
+        project.get(pik)
+        project.projectInformationHeapUsage(pik) should be >= (4 * 1000l)
+    }
+
+    behavior of "A Project's package tree"
+
+    it should "contain exactly the packages that contain class files" in {
+        val packageTree = project.get(PackageTreeKey)
+        val expectedPackages = project.classFiles.map(_.thisType.packageName).toSet
+        packageTree.packages should be(expectedPackages)
+        project.packages should be(expectedPackages)
+    }
+
+    it should "return the class files that are directly defined in a package" in {
+        val packageTree = project.get(PackageTreeKey)
+        val classFiles = packageTree.classFiles("methods/a")
+        classFiles.map(_.thisType).toSet should be(
+            project.classFiles.filter(_.thisType.packageName == "methods/a").map(_.thisType).toSet
+        )
+        classFiles.map(_.thisType) should contain(SuperType)
+        classFiles.map(_.thisType) should not contain (AbstractB)
+        packageTree.classFiles("methods") should be(Nil)
+        packageTree.classFiles("no/such/package") should be(Nil)
+    }
+
+    it should "return the class files of all packages with a given prefix" in {
+        val packageTree = project.get(PackageTreeKey)
+        for (prefix ← List("", "m", "methods", "methods/", "methods/a", "no/such")) {
+            val expected =
+                project.classFiles.filter(_.thisType.packageName.startsWith(prefix)).toSet
+            packageTree.classFilesWithPrefix(prefix).toSet should be(expected)
+        }
+    }
+
+    it should "map each package to its root package" in {
+        val rootPackages = project.rootPackages
+        rootPackages.keySet should be(project.packages)
+        // the package "methods" does not contain class files
+        rootPackages("methods/a") should be("methods/a")
+        rootPackages("methods/b") should be("methods/b")
+        rootPackages("attributes") should be("attributes")
+    }
 }
 
 private class TestProjectInformationKey extends ProjectInformationKey[Object] {
@@ -268,6 +576,12 @@ private class TestProjectInformationKey extends ProjectInformationKey[Object] {
 
 }
 
+private class TestTypeIndependentProjectInformationKey extends TestProjectInformationKey {
+
+    override protected def dependsOn(changedTypes: Set[ObjectType]): Boolean = false
+
+}
+
 private class TestProjectInformationWithDependenciesKey extends ProjectInformationKey[Object] {
 
     val theResult = new Object()
@@ -280,6 +594,51 @@ private class TestProjectInformationWithDependenciesKey extends ProjectInformati
 
 }
 
+private class TestCyclicProjectInformationKey extends TestProjectInformationKey {
+
+    val requirement: ProjectInformationKey[Object] = new TestProjectInformationKey {
+        override protected def requirements = List(TestCyclicProjectInformationKey.this)
+    }
+
+    override protected def requirements = List(requirement)
+
+}
+
+private class TestCountingProjectInformationKey extends ProjectInformationKey[Array[Int]] {
+
+    val computations = new java.util.concurrent.atomic.AtomicInteger(0)
+
+    protected def compute(project: SomeProject): Array[Int] = {
+        computations.incrementAndGet()
+        new Array[Int](1000)
+    }
+
+    protected def requirements: Seq[ProjectInformationKey[_ <: AnyRef]] = Nil
+}
+
+private class TestBlockingProjectInformationKey(
+        latch: java.util.concurrent.CountDownLatch) extends TestProjectInformationKey {
+
+    val computations = new java.util.concurrent.atomic.AtomicInteger(0)
+
+    @volatile var wasSignalled = false
+
+    override protected def compute(project: SomeProject): Object = {
+        computations.incrementAndGet()
+        wasSignalled = latch.await(10, java.util.concurrent.TimeUnit.SECONDS)
+        theResult
+    }
+}
+
+private class TestSignallingProjectInformationKey(
+        latch: java.util.concurrent.CountDownLatch) extends TestProjectInformationKey {
+
+    override protected def compute(project: SomeProject): Object = {
+        latch.countDown()
+        theResult
+    }
+}
+
 private object ProjectTest {
 
     //
@@ -0,0 +1,142 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FlatSpec
+import org.scalatest.Matchers
+import org.scalatest.ParallelTestExecution
+
+import org.opalj.bi.TestSupport.locateTestResources
+
+/**
+ * Tests the `VirtualDispatchTables`.
+ *
+ * @author Michael Eichberg
+ */
+@RunWith(classOf[JUnitRunner])
+class VirtualDispatchTablesTest
+        extends FlatSpec
+        with Matchers
+        with ParallelTestExecution {
+
+    import VirtualDispatchTablesTest._
+
+    val publicMethod = "publicMethod"
+    val NoArgsAndReturnVoid = MethodDescriptor.NoArgsAndReturnVoid
+
+    behavior of "the VirtualDispatchTables"
+
+    it should ("dispatch a call to the method declared by the receiver's class") in {
+        val method = methodsTables.dispatch(SubIndirectSub, publicMethod, NoArgsAndReturnVoid)
+        method.map(methodsProject.classFile(_).thisType) should be(Some(SubIndirectSub))
+    }
+
+    it should ("dispatch a call to the method inherited from the nearest superclass") in {
+        val method = methodsTables.dispatch(IndirectSub, publicMethod, NoArgsAndReturnVoid)
+        method.map(methodsProject.classFile(_).thisType) should be(Some(BDirectSub))
+    }
+
+    it should ("not contain static or private methods") in {
+        methodsTables.dispatch(Super, "privateMethod", NoArgsAndReturnVoid) should be(None)
+        methodsTables.dispatch(
+            Super, "staticPublicVisibilityMethod", NoArgsAndReturnVoid
+        ) should be(None)
+    }
+
+    it should ("not have a table for unknown types") in {
+        methodsTables.dispatchTable(ObjectType("some/unknown/Type")) should be(None)
+    }
+
+    it should ("map a declared method to all its implementations") in {
+        val superPublicMethod =
+            methodsProject.classFile(Super).get.findMethod(publicMethod).get
+        methodsTables.implementingMethods(superPublicMethod) should have size (4)
+    }
+
+    it should ("find the same implementing methods as the class hierarchy") in {
+        for {
+            (project, tables) ← List((methodsProject, methodsTables), (polymorphismProject, polymorphismTables))
+            classFile ← project.classFiles
+            method ← classFile.methods
+            if !method.isStatic && !method.isPrivate && !method.isConstructor
+            if !method.isStaticInitializer
+        } {
+            val receiverType = classFile.thisType
+            val expected = project.classHierarchy.lookupImplementingMethods(
+                receiverType, method.name, method.descriptor, project
+            )
+            val actual = tables.implementingMethods(
+                receiverType, method.name, method.descriptor
+            )
+            if (actual != expected)
+                fail(s"$receiverType{ ${method.toJava} }: expected $expected; found $actual")
+        }
+    }
+
+    it should ("find the same implementing methods as the class hierarchy for inherited methods") in {
+        for {
+            (project, tables) ← List((methodsProject, methodsTables), (polymorphismProject, polymorphismTables))
+            classFile ← project.classFiles
+            if classFile.isClassDeclaration
+            signature ← tables.dispatchTable(classFile.thisType).get.keys
+        } {
+            val receiverType = classFile.thisType
+            val MethodSignature(name, descriptor) = signature
+            val expected = project.classHierarchy.lookupImplementingMethods(
+                receiverType, name, descriptor, project
+            )
+            val actual = tables.implementingMethods(receiverType, name, descriptor)
+            if (actual != expected)
+                fail(s"$receiverType{ ${descriptor.toJava(name)} }: expected $expected; found $actual")
+        }
+    }
+}
+
+private object VirtualDispatchTablesTest {
+
+    //
+    //
+    // Setup
+    //
+    //
+    val Super = ObjectType("methods/a/Super")
+    val BDirectSub = ObjectType("methods/b/DirectSub")
+    val IndirectSub = ObjectType("methods/a/IndirectSub")
+    val SubIndirectSub = ObjectType("methods/a/SubIndirectSub")
+
+    val methodsProject = Project(locateTestResources("classfiles/Methods.jar", "bi"))
+    val methodsTables = methodsProject.get(VirtualDispatchTablesKey)
+
+    val polymorphismProject = Project(locateTestResources("classfiles/Polymorphism.jar", "bi"))
+    val polymorphismTables = polymorphismProject.get(VirtualDispatchTablesKey)
+}
@@ -0,0 +1,140 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package cfg
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FlatSpec
+import org.scalatest.Matchers
+import org.scalatest.ParallelTestExecution
+
+import org.opalj.bi.TestSupport.locateTestResources
+
+import org.opalj.br.analyses.Project
+import org.opalj.br.analyses.ControlFlowGraphsKey
+import org.opalj.br.instructions._
+
+/**
+ * Tests the computation of control-flow graphs.
+ *
+ * @author Michael Eichberg
+ */
+@RunWith(classOf[JUnitRunner])
+class CFGTest extends FlatSpec with Matchers with ParallelTestExecution {
+
+    import CFGTest._
+
+    behavior of "the control-flow graph of a method with a conditional branch"
+
+    // see CodeAttributeTest for the bytecode of BoundedBuffer.put
+    val cfgOfPut = CFG(codeOfPut)
+
+    it should "have one basic block per straight-line code sequence" in {
+        cfgOfPut.blocksCount should be(3)
+        (0 until 3).map(b ⇒ (cfgOfPut.startPC(b), cfgOfPut.endPC(b))) should be(
+            Seq((0, 8), (11, 12), (15, 54))
+        )
+        cfgOfPut.blockId(5) should be(0)
+        cfgOfPut.blockId(6) should be(-1) // the operand of getfield
+        cfgOfPut.isBlockStart(15) should be(true)
+        cfgOfPut.isBlockStart(16) should be(false)
+    }
+
+    it should "have the branch target and the next instruction as successors of the branch" in {
+        cfgOfPut.successors(0).toSet should be(Set(1, 2))
+        cfgOfPut.successors(1).toSeq should be(Seq(2))
+        cfgOfPut.successors(2).isEmpty should be(true)
+        cfgOfPut.predecessors(2).toSet should be(Set(0, 1))
+
+        var successorPCs = List.empty[Int]
+        cfgOfPut.foreachSuccessor(8) { pc ⇒ successorPCs = pc :: successorPCs }
+        successorPCs.toSet should be(Set(11, 15))
+    }
+
+    it should "identify the same join instructions as the code attribute" in {
+        cfgOfPut.joinInstructions should be(codeOfPut.joinInstructions)
+        cfgOfPut.unreachableBlocks.isEmpty should be(true)
+    }
+
+    behavior of "the control-flow graph of a method with an exception handler"
+
+    // 0 aload_0; 1 athrow; 2 astore_1; 3 return
+    // exception handler: [0,2) ⇒ 2
+    val codeWithHandler =
+        Code(
+            1, 2,
+            Array(ALOAD_0, ATHROW, ASTORE_1, RETURN),
+            IndexedSeq(ExceptionHandler(0, 2, 2, None)),
+            Seq.empty)
+    val cfgWithHandler = CFG(codeWithHandler)
+
+    it should "connect the covered blocks with the handler using exception edges" in {
+        cfgWithHandler.blocksCount should be(2)
+        cfgWithHandler.successors(0).isEmpty should be(true)
+        cfgWithHandler.exceptionSuccessors(0).toSeq should be(Seq(1))
+        cfgWithHandler.exceptionPredecessors(1).toSeq should be(Seq(0))
+        cfgWithHandler.exceptionSuccessors(1).isEmpty should be(true)
+        cfgWithHandler.handlerPCs(1).toSeq should be(Seq(2))
+        cfgWithHandler.joinInstructions should be(codeWithHandler.joinInstructions)
+        cfgWithHandler.unreachableBlocks.isEmpty should be(true)
+    }
+
+    behavior of "the ControlFlowGraphsKey"
+
+    it should "reuse the control-flow graph of a method" in {
+        val cfgs = project.get(ControlFlowGraphsKey)
+        val put = boundedBufferClassFile.methods.find(_.name == "put").get
+        cfgs(put) should be theSameInstanceAs (cfgs(put))
+    }
+
+    it should "compute control-flow graphs that cover all instructions" in {
+        val cfgs = project.get(ControlFlowGraphsKey)
+        for {
+            classFile ← project.classFiles
+            method @ MethodWithBody(code) ← classFile.methods
+        } {
+            val cfg = cfgs(method)
+            code foreach { (pc, _) ⇒ cfg.blockId(pc) should be >= (0) }
+            // the code attribute considers an instruction that is reached twice from
+            // the same instruction (e.g. a switch) to be a join instruction
+            cfg.joinInstructions.subsetOf(code.joinInstructions) should be(true)
+        }
+    }
+}
+
+private object CFGTest {
+
+    val project = Project(locateTestResources("classfiles/Code.jar", "bi"))
+
+    val boundedBufferClassFile = project.classFile(ObjectType("code/BoundedBuffer")).get
+
+    val codeOfPut = boundedBufferClassFile.methods.find(_.name == "put").get.body.get
+}
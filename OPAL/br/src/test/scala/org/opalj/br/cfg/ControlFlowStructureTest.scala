@@ -0,0 +1,154 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package cfg
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FlatSpec
+import org.scalatest.Matchers
+import org.scalatest.ParallelTestExecution
+
+import org.opalj.bi.TestSupport.locateTestResources
+
+import org.opalj.br.analyses.Project
+import org.opalj.br.analyses.ControlFlowStructuresKey
+import org.opalj.br.instructions._
+
+/**
+ * Tests the computation of dominator trees, post-dominator trees and loop nesting
+ * forests.
+ *
+ * @author Michael Eichberg
+ */
+@RunWith(classOf[JUnitRunner])
+class ControlFlowStructureTest extends FlatSpec with Matchers with ParallelTestExecution {
+
+    import ControlFlowStructureTest._
+
+    behavior of "the dominator tree"
+
+    it should "have the entry block as the root" in {
+        val dominatorTree = loopStructure.dominatorTree
+        dominatorTree.idom(0) should be(-1)
+        dominatorTree.idom(1) should be(0)
+        dominatorTree.idom(2) should be(0)
+        dominatorTree.dominates(0, 1) should be(true)
+        dominatorTree.dominates(1, 1) should be(true)
+        dominatorTree.strictlyDominates(1, 1) should be(false)
+        dominatorTree.dominates(1, 2) should be(false)
+    }
+
+    it should "be computable for the methods of a project" in {
+        val structures = project.get(ControlFlowStructuresKey)
+        for {
+            classFile ← project.classFiles
+            method @ MethodWithBody(code) ← classFile.methods
+        } {
+            val structure = structures(method)
+            val dominatorTree = structure.dominatorTree
+            val cfg = structure.cfg
+            for (blockId ← 0 until cfg.blocksCount if dominatorTree.isReachable(blockId)) {
+                dominatorTree.dominates(0, blockId) should be(true)
+                dominatorTree.foreachDominatorOf(blockId) { dominator ⇒
+                    dominatorTree.strictlyDominates(dominator, blockId) should be(true)
+                }
+            }
+            structure.loopNestingForest.loopHeaders foreach { loopHeader ⇒
+                structure.loopNestingForest.backEdgeSources(loopHeader) foreach { source ⇒
+                    dominatorTree.dominates(loopHeader, source) should be(true)
+                }
+            }
+        }
+    }
+
+    behavior of "the post-dominator tree"
+
+    it should "have the virtual exit node as the root" in {
+        val postDominatorTree = loopStructure.postDominatorTree
+        postDominatorTree.startNode should be(3)
+        postDominatorTree.idom(2) should be(3)
+        postDominatorTree.idom(0) should be(2)
+        postDominatorTree.idom(1) should be(0)
+        loopStructure.postDominates(7, 0) should be(true)
+        loopStructure.postDominates(4, 0) should be(false)
+    }
+
+    it should "connect a return instruction in a try block with the exit node" in {
+        val postDominatorTree = tryStructure.postDominatorTree
+        postDominatorTree.startNode should be(2)
+        postDominatorTree.idom(0) should be(2)
+        postDominatorTree.idom(1) should be(2)
+        tryStructure.postDominates(2, 0) should be(false)
+        tryStructure.postDominates(1, 0) should be(true)
+    }
+
+    behavior of "the loop nesting forest"
+
+    it should "identify the loop header and the loop's body" in {
+        val forest = loopStructure.loopNestingForest
+        forest.loopHeaders.toSeq should be(Seq(0))
+        forest.backEdgeSources(0).toSeq should be(Seq(1))
+        forest.innermostLoop(1) should be(0)
+        forest.innermostLoop(2) should be(-1)
+        forest.parentLoop(0) should be(-1)
+        forest.loopDepth(0) should be(1)
+        forest.loopDepth(2) should be(0)
+        forest.isInLoop(1, 0) should be(true)
+        forest.isInLoop(2, 0) should be(false)
+        forest.loopHeaderPCs.toSeq should be(Seq(0))
+    }
+}
+
+private object ControlFlowStructureTest {
+
+    // 0 iload_0; 1 ifeq 7; 4 goto 0; 7 return
+    // The basic blocks are: 0 = [0-1], 1 = [4-4], 2 = [7-7].
+    val loopStructure =
+        new ControlFlowStructure(CFG(Code(
+            1, 1,
+            Array(ILOAD_0, IFEQ(6), null, null, GOTO(-4), null, null, RETURN),
+            IndexedSeq.empty,
+            Seq.empty
+        )))
+
+    // 0 iload_0; 1 ireturn; 2 astore_1; 3 iconst_0; 4 ireturn
+    // exception handler: [0,2) ⇒ 2
+    // The basic blocks are: 0 = [0-1], 1 = [2-4].
+    val tryStructure =
+        new ControlFlowStructure(CFG(Code(
+            1, 2,
+            Array(ILOAD_0, IRETURN, ASTORE_1, ICONST_0, IRETURN),
+            IndexedSeq(ExceptionHandler(0, 2, 2, None)),
+            Seq.empty
+        )))
+
+    val project = Project(locateTestResources("classfiles/Code.jar", "bi"))
+}
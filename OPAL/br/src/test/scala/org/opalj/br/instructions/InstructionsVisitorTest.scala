@@ -0,0 +1,115 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package instructions
+
+import org.junit.runner.RunWith
+import org.scalatest.junit.JUnitRunner
+import org.scalatest.FlatSpec
+import org.scalatest.Matchers
+import org.scalatest.ParallelTestExecution
+
+import org.opalj.bi.TestSupport.locateTestResources
+
+import org.opalj.br.reader.Java8Framework.ClassFiles
+
+/**
+ * Tests the [[InstructionsVisitor]] and its driver.
+ *
+ * @author Michael Eichberg
+ */
+@RunWith(classOf[JUnitRunner])
+class InstructionsVisitorTest extends FlatSpec with Matchers with ParallelTestExecution {
+
+    import InstructionsVisitorTest._
+
+    behavior of "the InstructionsVisitor"
+
+    it should "visit the same field accesses and invocations as Code.collect" in {
+        for (code ← codes) {
+            val fieldAccesses = new FieldAccessesCollector
+            val invocations = new InvocationsCollector
+            InstructionsVisitor.visit(code, Array[InstructionsVisitor](fieldAccesses, invocations))
+
+            fieldAccesses.collected.reverse should be(code.collect { case i: FieldAccess ⇒ i })
+            invocations.collected.reverse should be(
+                code.collect { case i: MethodInvocationInstruction ⇒ i }
+            )
+        }
+    }
+
+    it should "pass every instruction exactly once to exactly one callback" in {
+        for (code ← codes) {
+            val counter = new InstructionsCounter
+            InstructionsVisitor.visit(code, counter)
+            counter.count should be(code.instructionsCount)
+            counter.codes should be(1)
+        }
+    }
+}
+
+private object InstructionsVisitorTest {
+
+    val codes =
+        ClassFiles(locateTestResources("classfiles/Code.jar", "bi")).
+            flatMap(_._1.methods).flatMap(_.body)
+
+    class FieldAccessesCollector extends InstructionsVisitor {
+        var collected: List[(PC, FieldAccess)] = Nil
+        override def visitFieldAccess(pc: PC, instruction: FieldAccess): Unit =
+            collected = (pc, instruction) :: collected
+    }
+
+    class InvocationsCollector extends InstructionsVisitor {
+        var collected: List[(PC, MethodInvocationInstruction)] = Nil
+        override def visitMethodInvocation(
+            pc: PC,
+            instruction: MethodInvocationInstruction): Unit =
+            collected = (pc, instruction) :: collected
+    }
+
+    class InstructionsCounter extends InstructionsVisitor {
+        var count = 0
+        var codes = 0
+        override def beginCode(code: Code): Unit = codes += 1
+        override def visitLoadConstant(pc: PC, i: LoadConstantInstruction[_]): Unit = count += 1
+        override def visitLoadLocalVariable(pc: PC, i: LoadLocalVariableInstruction): Unit = count += 1
+        override def visitStoreLocalVariable(pc: PC, i: StoreLocalVariableInstruction): Unit = count += 1
+        override def visitArrayAccess(pc: PC, i: ArrayAccessInstruction): Unit = count += 1
+        override def visitFieldAccess(pc: PC, i: FieldAccess): Unit = count += 1
+        override def visitMethodInvocation(pc: PC, i: MethodInvocationInstruction): Unit = count += 1
+        override def visitInvokedynamic(pc: PC, i: InvocationInstruction): Unit = count += 1
+        override def visitControlTransfer(pc: PC, i: ControlTransferInstruction): Unit = count += 1
+        override def visitReturn(pc: PC, i: ReturnInstruction): Unit = count += 1
+        override def visitObjectCreation(pc: PC, i: Instruction): Unit = count += 1
+        override def visitTypeCheck(pc: PC, i: Instruction): Unit = count += 1
+        override def visitOtherInstruction(pc: PC, i: Instruction): Unit = count += 1
+    }
+}
@@ -33,7 +33,14 @@ package reader
 import org.scalatest.Matchers
 import org.scalatest.FlatSpec
 
+import java.io.{ DataInputStream, ByteArrayInputStream }
+import java.nio.ByteBuffer
+import java.util.zip.ZipFile
+import scala.collection.JavaConversions._
+
 import org.opalj.bi.TestSupport.locateTestResources
+import org.opalj.bi.reader.ClassFilesPipeline
+import org.opalj.bi.reader.AttributesReadingProfile
 
 /**
  * Tests the reading of class files.
@@ -60,4 +67,321 @@ class ClassFileReaderTest extends FlatSpec with Matchers {
         ClassFiles(emptyJARFile) should be(empty)
     }
 
+    it should "create the same class files when reading from a stream and from a buffer" in {
+        val codeJARFile = locateTestResources("classfiles/Code.jar", "bi")
+        process(new ZipFile(codeJARFile)) { zipFile ⇒
+            val classFileEntries = zipFile.entries.filter(_.getName.endsWith(".class")).toList
+            classFileEntries should not be (empty)
+            for (entry ← classFileEntries) {
+                val data = new Array[Byte](entry.getSize.toInt)
+                process(new DataInputStream(zipFile.getInputStream(entry))) { _.readFully(data) }
+
+                val streamBased = Java8Framework.ClassFile(() ⇒ new ByteArrayInputStream(data)).head
+                val buffer = ByteBuffer.wrap(data)
+                val bufferBased = Java8Framework.ClassFile(buffer).head
+                buffer.remaining should be(0)
+
+                bufferBased.thisType should be(streamBased.thisType)
+                bufferBased.fields.map(_.toJavaSignature) should be(streamBased.fields.map(_.toJavaSignature))
+                bufferBased.methods.size should be(streamBased.methods.size)
+                for ((m1, m2) ← bufferBased.methods.zip(streamBased.methods)) {
+                    m1.toJava should be(m2.toJava)
+                    m1.body.map(_.instructions.toList) should be(m2.body.map(_.instructions.toList))
+                }
+            }
+        }
+    }
+
+    it should "read small class files without memory-mapping them" in {
+        val codeJARFile = locateTestResources("classfiles/Code.jar", "bi")
+        val classFile = java.nio.file.Files.createTempFile("OPAL", ".class")
+        try {
+            process(new ZipFile(codeJARFile)) { zipFile ⇒
+                val entry = zipFile.entries.find(_.getName.endsWith(".class")).get
+                process(zipFile.getInputStream(entry)) { in ⇒
+                    java.nio.file.Files.copy(in, classFile, java.nio.file.StandardCopyOption.REPLACE_EXISTING)
+                }
+            }
+            val buffer = bi.reader.ClassFileReader.read(classFile)
+            buffer.isDirect should be(false)
+            buffer.remaining should be(java.nio.file.Files.size(classFile))
+
+            val expected = Java8Framework.ClassFile(() ⇒ java.nio.file.Files.newInputStream(classFile)).head
+            Java8Framework.ClassFile(classFile.toFile).head.thisType should be(expected.thisType)
+        } finally {
+            java.nio.file.Files.delete(classFile)
+        }
+    }
+
+    it should "create the same instructions when method bodies are decoded lazily" in {
+        val codeJARFile = locateTestResources("classfiles/Code.jar", "bi")
+        val eagerClassFiles = ClassFiles(codeJARFile).map(_._1).sortBy(_.fqn)
+        val lazyClassFiles = Java8FrameworkWithLazyCode.ClassFiles(codeJARFile).map(_._1).sortBy(_.fqn)
+        lazyClassFiles.size should be(eagerClassFiles.size)
+
+        val lazyBodies = lazyClassFiles.flatMap(_.methods).flatMap(_.body)
+        lazyBodies should not be (empty)
+        lazyBodies.exists(_.hasDecodedInstructions) should be(false)
+
+        for ((lazyCF, eagerCF) ← lazyClassFiles.zip(eagerClassFiles)) {
+            lazyCF.thisType should be(eagerCF.thisType)
+            for ((m1, m2) ← lazyCF.methods.zip(eagerCF.methods)) {
+                m1.body.map(_.instructions.toList) should be(m2.body.map(_.instructions.toList))
+            }
+        }
+        lazyBodies.forall(_.hasDecodedInstructions) should be(true)
+    }
+
+    it should "read the same class files independent of the pipeline's configuration" in {
+        val jarFile = locateTestResources("classfiles/AttributesAndCode.jar", "bi")
+        val expectedClassFiles = ClassFiles(jarFile).map(_._2.toExternalForm).toSet
+
+        val mutex = new Object
+        var classFiles: List[String] = Nil
+        val statistics = Java8Framework.AllClassFiles(
+            List(jarFile),
+            (cf: ClassFile, url: java.net.URL) ⇒ mutex.synchronized {
+                classFiles = url.toExternalForm :: classFiles
+            },
+            (e: Exception) ⇒ fail(e),
+            ClassFilesPipeline.Configuration(1, 1, 1, 1)
+        )
+
+        classFiles.toSet should be(expectedClassFiles)
+        statistics.parse.processedItems should be(classFiles.size)
+    }
+
+    it should "run a pipeline from a handler of a pipeline that uses all workers" in {
+        import scala.concurrent.{ Future, Await, ExecutionContext }
+        import scala.concurrent.duration._
+        import ExecutionContext.Implicits.global
+
+        val jarFile = locateTestResources("classfiles/AttributesAndCode.jar", "bi")
+        val expectedClassFiles = ClassFiles(jarFile).map(_._2.toExternalForm).toSet
+
+        val mutex = new Object
+        var nestedClassFiles: List[String] = Nil
+        val nestedPipelineStarted = new java.util.concurrent.atomic.AtomicBoolean(false)
+        val run = Future {
+            Java8Framework.AllClassFiles(
+                List(jarFile),
+                (cf: ClassFile, url: java.net.URL) ⇒
+                    if (nestedPipelineStarted.compareAndSet(false, true)) {
+                        Java8Framework.AllClassFiles(
+                            List(jarFile),
+                            (cf: ClassFile, url: java.net.URL) ⇒ mutex.synchronized {
+                                nestedClassFiles = url.toExternalForm :: nestedClassFiles
+                            },
+                            (e: Exception) ⇒ fail(e),
+                            ClassFilesPipeline.Configuration(1, 1, 1, 1)
+                        )
+                    },
+                (e: Exception) ⇒ fail(e),
+                ClassFilesPipeline.Configuration(1, ClassFilesPipeline.MaxWorkers - 2, 1, 4)
+            )
+        }
+
+        Await.result(run, 2.minutes)
+        nestedClassFiles.toSet should be(expectedClassFiles)
+    }
+
+    it should "read all class files stored in a directory tree in batches" in {
+        val jarFile = locateTestResources("classfiles/Code.jar", "bi")
+        val expectedClassFiles = ClassFiles(jarFile).map(_._1.thisType).toSet
+        expectedClassFiles should not be (empty)
+
+        // extract the jar file into a temporary directory
+        val directory = java.nio.file.Files.createTempDirectory("OPAL")
+        try {
+            process(new ZipFile(jarFile)) { zipFile ⇒
+                for (entry ← zipFile.entries) {
+                    if (!entry.isDirectory && entry.getName.endsWith(".class")) {
+                        val target = directory.resolve(entry.getName)
+                        java.nio.file.Files.createDirectories(target.getParent)
+                        process(zipFile.getInputStream(entry)) { in ⇒ java.nio.file.Files.copy(in, target) }
+                    }
+                }
+            }
+
+            val mutex = new Object
+            var classFiles: List[ObjectType] = Nil
+            val statistics = Java8Framework.AllClassFiles(
+                List(directory.toFile),
+                (cf: ClassFile, url: java.net.URL) ⇒ mutex.synchronized {
+                    classFiles = cf.thisType :: classFiles
+                },
+                (e: Exception) ⇒ fail(e),
+                ClassFilesPipeline.Configuration(2, 2, 1, 4, fileBatchSize = 3)
+            )
+
+            classFiles.toSet should be(expectedClassFiles)
+            statistics.inflate.processedItems should be(classFiles.size)
+            statistics.inflate.processedBytes should be > (0l)
+        } finally {
+            deleteRecursively(directory)
+        }
+    }
+
+    it should "restore the same class files from a class files snapshot" in {
+        val jarFile = locateTestResources("classfiles/Code.jar", "bi")
+        val cacheDirectory = java.nio.file.Files.createTempDirectory("OPAL")
+        try {
+            val cache = cacheDirectory.toFile
+            ClassFilesSnapshot.load(jarFile, cache) should be(None)
+            val classFiles = Java8Framework.SnapshotClassFiles(jarFile, (e) ⇒ fail(e), cache)
+
+            val snapshot = ClassFilesSnapshot.load(jarFile, cache)
+            snapshot should not be (None)
+            val snapshotClassFiles = snapshot.get.classFiles
+            snapshotClassFiles.map(_._2).toSet should be(classFiles.map(_._2).toSet)
+            val classFilesByType = classFiles.map(e ⇒ (e._1.thisType, e._1)).toMap
+            for ((snapshotClassFile, _) ← snapshotClassFiles) {
+                // the types are interned
+                val classFile = classFilesByType(snapshotClassFile.thisType)
+                snapshotClassFile.superclassType should be(classFile.superclassType)
+                snapshotClassFile.fields.map(_.toString) should be(classFile.fields.map(_.toString))
+                snapshotClassFile.methods.size should be(classFile.methods.size)
+                for ((snapshotMethod, method) ← snapshotClassFile.methods.zip(classFile.methods)) {
+                    snapshotMethod.toJava should be(method.toJava)
+                    snapshotMethod.descriptor should be(method.descriptor)
+                    snapshotMethod.body.map(_.instructions.toList) should be(
+                        method.body.map(_.instructions.toList)
+                    )
+                    snapshotMethod.body.map(_.exceptionHandlers) should be(
+                        method.body.map(_.exceptionHandlers)
+                    )
+                }
+            }
+            snapshot.get.classHierarchy.allSubtypes(ObjectType.Object, false) should be(
+                analyses.ClassHierarchy(classFiles.map(_._1)).allSubtypes(ObjectType.Object, false)
+            )
+        } finally {
+            deleteRecursively(cacheDirectory)
+        }
+    }
+
+    it should "not use an outdated class files snapshot" in {
+        val jarFile = locateTestResources("classfiles/Code.jar", "bi")
+        val directory = java.nio.file.Files.createTempDirectory("OPAL")
+        try {
+            val copiedJarFile = directory.resolve(jarFile.getName).toFile
+            java.nio.file.Files.copy(jarFile.toPath, copiedJarFile.toPath)
+            val cache = directory.resolve("snapshots").toFile
+            Java8Framework.SnapshotClassFiles(copiedJarFile, (e) ⇒ fail(e), cache)
+            ClassFilesSnapshot.load(copiedJarFile, cache) should not be (None)
+
+            val otherJarFile = locateTestResources("classfiles/Methods.jar", "bi")
+            java.nio.file.Files.copy(
+                otherJarFile.toPath, copiedJarFile.toPath,
+                java.nio.file.StandardCopyOption.REPLACE_EXISTING
+            )
+            ClassFilesSnapshot.load(copiedJarFile, cache) should be(None)
+        } finally {
+            deleteRecursively(directory)
+        }
+    }
+
+    it should "use a class files snapshot if only the modification time has changed" in {
+        val jarFile = locateTestResources("classfiles/Code.jar", "bi")
+        val directory = java.nio.file.Files.createTempDirectory("OPAL")
+        try {
+            val copiedJarFile = directory.resolve(jarFile.getName).toFile
+            java.nio.file.Files.copy(jarFile.toPath, copiedJarFile.toPath)
+            val cache = directory.resolve("snapshots").toFile
+            Java8Framework.SnapshotClassFiles(copiedJarFile, (e) ⇒ fail(e), cache)
+
+            copiedJarFile.setLastModified(copiedJarFile.lastModified - 10000l)
+            ClassFilesSnapshot.load(copiedJarFile, cache, (e) ⇒ fail(e)) should not be (None)
+        } finally {
+            deleteRecursively(directory)
+        }
+    }
+
+    it should "report a corrupt class files snapshot" in {
+        val jarFile = locateTestResources("classfiles/Code.jar", "bi")
+        val cacheDirectory = java.nio.file.Files.createTempDirectory("OPAL")
+        try {
+            val cache = cacheDirectory.toFile
+            Java8Framework.SnapshotClassFiles(jarFile, (e) ⇒ fail(e), cache)
+            val snapshotFile = ClassFilesSnapshot.snapshotFile(jarFile, cache).toPath
+            val bytes = java.nio.file.Files.readAllBytes(snapshotFile)
+            bytes(bytes.length / 2) = (bytes(bytes.length / 2) ^ 0xFF).toByte
+            java.nio.file.Files.write(snapshotFile, bytes)
+
+            var exceptions = List.empty[Exception]
+            ClassFilesSnapshot.load(jarFile, cache, (e) ⇒ exceptions ::= e) should be(None)
+            exceptions should have size (1)
+        } finally {
+            deleteRecursively(cacheDirectory)
+        }
+    }
+
+    it should "not use a class files snapshot that can be modified by other users" in {
+        val jarFile = locateTestResources("classfiles/Code.jar", "bi")
+        val cacheDirectory = java.nio.file.Files.createTempDirectory("OPAL")
+        try {
+            val cache = cacheDirectory.toFile
+            Java8Framework.SnapshotClassFiles(jarFile, (e) ⇒ fail(e), cache)
+            val snapshotFile = ClassFilesSnapshot.snapshotFile(jarFile, cache).toPath
+            if (snapshotFile.getFileSystem.supportedFileAttributeViews.contains("posix")) {
+                import java.nio.file.attribute.PosixFilePermissions.fromString
+                java.nio.file.Files.getPosixFilePermissions(snapshotFile) should be(fromString("rw-------"))
+                java.nio.file.Files.setPosixFilePermissions(snapshotFile, fromString("rw-rw-rw-"))
+
+                var exceptions = List.empty[Exception]
+                ClassFilesSnapshot.load(jarFile, cache, (e) ⇒ exceptions ::= e) should be(None)
+                exceptions should have size (1)
+            }
+        } finally {
+            deleteRecursively(cacheDirectory)
+        }
+    }
+
+    it should "skip the attributes as specified by the attributes reading profile" in {
+        val codeJARFile = locateTestResources("classfiles/Code.jar", "bi")
+        val structureReader = new Java8FrameworkWithProfile(AttributesReadingProfile.StructureOnly)
+        val classFiles = structureReader.ClassFiles(codeJARFile).map(_._1)
+        classFiles should not be (empty)
+        classFiles.flatMap(_.methods).exists(_.body.isDefined) should be(false)
+
+        val typesAndCodeReader = new Java8FrameworkWithProfile(AttributesReadingProfile.TypesAndCode)
+        val bodies = typesAndCodeReader.ClassFiles(codeJARFile).flatMap(_._1.methods).flatMap(_.body)
+        bodies should not be (empty)
+        bodies.exists(_.attributes.nonEmpty) should be(false)
+    }
+
+    it should "share equal field access and method invocation instructions when caching" in {
+        val codeJARFile = locateTestResources("classfiles/Code.jar", "bi")
+        val cache = new BytecodeInstructionsCache
+        val cachingReader = new Java8FrameworkWithCaching(cache)
+        val cachedClassFiles = cachingReader.ClassFiles(codeJARFile).map(_._1).sortBy(_.fqn)
+        val classFiles = ClassFiles(codeJARFile).map(_._1).sortBy(_.fqn)
+        for ((cachedCF, cf) ← cachedClassFiles.zip(classFiles)) {
+            for ((m1, m2) ← cachedCF.methods.zip(cf.methods)) {
+                m1.descriptor should be(m2.descriptor)
+                m1.body.map(_.instructions.toList) should be(m2.body.map(_.instructions.toList))
+            }
+        }
+
+        val allInstructions =
+            cachedClassFiles.flatMap(_.methods).flatMap(_.body).flatMap(_.instructions)
+        val invocations =
+            allInstructions.collect { case i: instructions.MethodInvocationInstruction ⇒ i }
+        invocations should not be (empty)
+        for ((_, equalInvocations) ← invocations.groupBy(i ⇒ i)) {
+            equalInvocations.forall(_ eq equalInvocations.head) should be(true)
+        }
+
+        val statistics = cache.deduplicationStatistics
+        val (requested, unique) = statistics("invokespecial")
+        requested should be(allInstructions.count(_.isInstanceOf[instructions.INVOKESPECIAL]).toLong)
+        unique.toLong should be < (requested)
+        statistics("MethodDescriptor")._2.toLong should be <= (statistics("MethodDescriptor")._1)
+    }
+
+    private[this] def deleteRecursively(path: java.nio.file.Path): Unit = {
+        if (java.nio.file.Files.isDirectory(path))
+            process(java.nio.file.Files.newDirectoryStream(path)) { _ foreach deleteRecursively }
+        java.nio.file.Files.delete(path)
+    }
 }
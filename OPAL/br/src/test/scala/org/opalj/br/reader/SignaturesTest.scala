@@ -126,6 +126,53 @@ class SignaturesTest extends FunSuite with ParallelTestExecution {
         MethodTypeSignatures.par.foreach(parse _)
     }
 
+    //
+    // DIFFERENTIAL TESTS (THE HAND-WRITTEN PARSER HAS TO CREATE THE SAME SIGNATURES AS
+    // THE COMBINATOR-BASED PARSER)
+    //
+
+    test("parse class file signatures like the combinator-based parser") {
+        ClassFileSignatures foreach { s ⇒
+            assert(
+                SignatureParser.parseClassSignature(s) ==
+                    CombinatorSignatureParser.parseClassSignature(s),
+                s)
+        }
+    }
+
+    test("parse field type signatures like the combinator-based parser") {
+        FieldTypeSignatures foreach { s ⇒
+            assert(
+                SignatureParser.parseFieldTypeSignature(s) ==
+                    CombinatorSignatureParser.parseFieldTypeSignature(s),
+                s)
+        }
+    }
+
+    test("parse method type signatures like the combinator-based parser") {
+        MethodTypeSignatures foreach { s ⇒
+            assert(
+                SignatureParser.parseMethodTypeSignature(s) ==
+                    CombinatorSignatureParser.parseMethodTypeSignature(s),
+                s)
+        }
+    }
+
+    test("reject invalid signatures") {
+        intercept[IllegalArgumentException] {
+            SignatureParser.parseFieldTypeSignature("Ljava/lang/Object")
+        }
+        intercept[IllegalArgumentException] {
+            SignatureParser.parseFieldTypeSignature("Ljava/lang/Object;;")
+        }
+        intercept[IllegalArgumentException] {
+            SignatureParser.parseMethodTypeSignature("(I")
+        }
+        intercept[IllegalArgumentException] {
+            SignatureParser.parseClassSignature("<T:>Ljava/util/List<TT;")
+        }
+    }
+
     //
     // DATA
     //
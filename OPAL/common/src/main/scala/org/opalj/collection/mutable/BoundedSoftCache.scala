@@ -0,0 +1,209 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package collection
+package mutable
+
+import java.lang.ref.SoftReference
+
+/**
+ * A thread-safe cache that holds at most `maxEntries` values and that only softly
+ * references the values. I.e., a least recently used entry is evicted if the
+ * cache is full and – additionally – the garbage collector is free to reclaim cached
+ * values when the memory becomes scarce. Hence, the cache's memory footprint adapts
+ * to the available memory.
+ *
+ * To enable concurrent access, the cache is split into `segmentsCount` segments;
+ * the segment of an entry is determined by the key's hash code. Each segment has
+ * its own lock and evicts its own least recently used entry when it is full.
+ * Hence, the eviction policy is only approximately LRU w.r.t. the whole cache:
+ * an entry may be evicted even though the cache as a whole is not yet full.
+ *
+ * The (potentially expensive) computation of a value is done without holding a
+ * lock. Hence, if multiple threads request the value of the same key at the
+ * same time the value may be computed multiple times; all but one of the values are
+ * then dropped. This is acceptable if the computation is side-effect free.
+ *
+ * @param maxEntries The maximum number of entries; has to be larger than zero.
+ * @param segmentsCount The (maximum) number of segments; has to be larger than zero.
+ *      If `maxEntries` is smaller, the cache has `maxEntries` segments.
+ *
+ * @author Michael Eichberg
+ */
+class BoundedSoftCache[K, V <: AnyRef](
+        val maxEntries: Int,
+        segmentsCount: Int = BoundedSoftCache.DefaultSegmentsCount) {
+
+    require(maxEntries > 0, "the cache has to be able to store at least one entry")
+    require(segmentsCount > 0, "the cache needs at least one segment")
+
+    private[this] final class Segment(val maxEntries: Int) {
+
+        val entries =
+            new java.util.LinkedHashMap[K, SoftReference[V]](16, 0.75f, /*accessOrder=*/ true) {
+                override protected def removeEldestEntry(
+                    eldest: java.util.Map.Entry[K, SoftReference[V]]): Boolean = {
+                    val remove = size() > Segment.this.maxEntries
+                    if (remove) evictions += 1
+                    remove
+                }
+            }
+
+        // the statistics are guarded by the lock of the entries map
+        var hits = 0l
+        var misses = 0l
+        var evictions = 0l
+    }
+
+    private[this] val segments: Array[Segment] = {
+        val count = Math.min(maxEntries, segmentsCount)
+        Array.tabulate(count) { i ⇒
+            // the first segments store the remaining entries
+            new Segment(maxEntries / count + (if (i < maxEntries % count) 1 else 0))
+        }
+    }
+
+    private[this] def segment(key: K): Segment = {
+        // spread the hash code's high bits (as done by java.util.HashMap)
+        val h = key.hashCode
+        val index = (h ^ (h >>> 16)) & Int.MaxValue
+        segments(index % segments.length)
+    }
+
+    /**
+     * Returns the cached value for the given key – if any.
+     */
+    def get(key: K): Option[V] = {
+        val segment = this.segment(key)
+        val entries = segment.entries
+        entries.synchronized {
+            val valueReference = entries.get(key)
+            val value = if (valueReference ne null) valueReference.get() else null.asInstanceOf[V]
+            if (value ne null) {
+                segment.hits += 1
+                Some(value)
+            } else {
+                if (valueReference ne null) entries.remove(key) // the value was collected
+                segment.misses += 1
+                None
+            }
+        }
+    }
+
+    /**
+     * Returns the cached value for the given key, if it is available. Otherwise, the
+     * value is computed using the given function (without holding a lock), stored and
+     * returned.
+     */
+    def getOrElseUpdate(key: K, f: ⇒ V): V = {
+        get(key) match {
+            case Some(value) ⇒
+                value
+            case None ⇒
+                val value = f
+                val entries = segment(key).entries
+                entries.synchronized {
+                    val valueReference = entries.get(key)
+                    val cachedValue =
+                        if (valueReference ne null) valueReference.get() else null.asInstanceOf[V]
+                    if (cachedValue ne null)
+                        // some other thread was faster...
+                        cachedValue
+                    else {
+                        entries.put(key, new SoftReference(value))
+                        value
+                    }
+                }
+        }
+    }
+
+    /**
+     * Removes the value associated with the given key from the cache.
+     */
+    def remove(key: K): Unit = {
+        val entries = segment(key).entries
+        entries.synchronized { entries.remove(key) }
+    }
+
+    /**
+     * Removes all entries.
+     */
+    def clear(): Unit = {
+        segments foreach { segment ⇒
+            val entries = segment.entries
+            entries.synchronized { entries.clear() }
+        }
+    }
+
+    /**
+     * The number of entries of the cache; this includes those entries whose
+     * values were already reclaimed by the garbage collector but which were not yet
+     * removed.
+     */
+    def size: Int = {
+        segments.foldLeft(0) { (size, segment) ⇒
+            val entries = segment.entries
+            size + entries.synchronized { entries.size() }
+        }
+    }
+
+    /**
+     * Returns the cache's current statistics: the number of hits, misses and the
+     * number of entries that were evicted because a segment was full.
+     * The statistics of the segments are read one after another; hence, the result
+     * is not necessarily a consistent snapshot if the cache is used concurrently.
+     */
+    def statistics: (Long, Long, Long) = {
+        segments.foldLeft((0l, 0l, 0l)) { (statistics, segment) ⇒
+            val (hits, misses, evictions) = statistics
+            segment.entries.synchronized {
+                (hits + segment.hits, misses + segment.misses, evictions + segment.evictions)
+            }
+        }
+    }
+
+    override def toString: String = {
+        val (hits, misses, evictions) = statistics
+        s"BoundedSoftCache(maxEntries=$maxEntries, size=$size, hits=$hits, "+
+            s"misses=$misses, evictions=$evictions)"
+    }
+}
+
+/**
+ * Defines the default configuration of [[BoundedSoftCache]]s.
+ *
+ * @author Michael Eichberg
+ */
+object BoundedSoftCache {
+
+    /**
+     * The default number of segments of a cache.
+     */
+    final val DefaultSegmentsCount = 16
+}
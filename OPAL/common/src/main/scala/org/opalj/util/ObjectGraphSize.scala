@@ -0,0 +1,155 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package util
+
+import java.lang.reflect.Modifier
+import java.util.IdentityHashMap
+import java.util.ArrayDeque
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Estimates the amount of heap memory that is occupied by a graph of objects.
+ *
+ * The estimation assumes a 64-bit JVM with compressed object pointers; i.e.,
+ * object headers of 12 bytes, array headers of 16 bytes, references of 4 bytes and
+ * an object alignment of 8 bytes. The objects are traversed using reflection;
+ * static fields are ignored as well as `Class`, `ClassLoader` and `Thread` objects.
+ *
+ * @author Michael Eichberg
+ */
+object ObjectGraphSize {
+
+    final val ObjectHeaderSize = 12
+    final val ArrayHeaderSize = 16
+    final val ReferenceSize = 4
+    final val ObjectAlignment = 8
+
+    // the (shallow) size of the instances of a class and the class' reference fields
+    private[this] case class ClassLayout(
+        instanceSize: Long,
+        referenceFields: Array[java.lang.reflect.Field])
+
+    private[this] val classLayouts = new ConcurrentHashMap[Class[_], ClassLayout]()
+
+    private[this] def align(size: Long): Long =
+        (size + ObjectAlignment - 1) / ObjectAlignment * ObjectAlignment
+
+    private[this] def primitiveSize(primitiveType: Class[_]): Int = primitiveType match {
+        case java.lang.Long.TYPE | java.lang.Double.TYPE     ⇒ 8
+        case java.lang.Integer.TYPE | java.lang.Float.TYPE   ⇒ 4
+        case java.lang.Short.TYPE | java.lang.Character.TYPE ⇒ 2
+        case _ /*byte, boolean*/                             ⇒ 1
+    }
+
+    private[this] def classLayout(clazz: Class[_]): ClassLayout = {
+        val layout = classLayouts.get(clazz)
+        if (layout ne null)
+            return layout;
+
+        var instanceSize: Long = ObjectHeaderSize
+        var referenceFields = List.empty[java.lang.reflect.Field]
+        var currentClass: Class[_] = clazz
+        while (currentClass ne null) {
+            for (field ← currentClass.getDeclaredFields if !Modifier.isStatic(field.getModifiers)) {
+                val fieldType = field.getType
+                if (fieldType.isPrimitive) {
+                    instanceSize += primitiveSize(fieldType)
+                } else {
+                    instanceSize += ReferenceSize
+                    try {
+                        field.setAccessible(true)
+                        referenceFields = field :: referenceFields
+                    } catch {
+                        case _: RuntimeException ⇒ /* we cannot follow the field */
+                    }
+                }
+            }
+            currentClass = currentClass.getSuperclass
+        }
+        val newLayout = ClassLayout(align(instanceSize), referenceFields.toArray)
+        classLayouts.put(clazz, newLayout)
+        newLayout
+    }
+
+    // objects that are shared by (nearly) all object graphs are never traversed
+    private[this] def isJVMInternal(o: AnyRef): Boolean = o match {
+        case _: Class[_] | _: ClassLoader | _: Thread ⇒ true
+        case _                                        ⇒ false
+    }
+
+    /**
+     * Estimates the size (in bytes) of the given object and all objects that are
+     * (transitively) reachable from it; each object is counted only once.
+     *
+     * @param isExcluded Objects for which this function returns `true` are neither
+     *      counted nor traversed. This enables to exclude objects that are shared
+     *      with other object graphs.
+     */
+    def apply(root: AnyRef, isExcluded: AnyRef ⇒ Boolean = _ ⇒ false): Long = {
+        val visited = new IdentityHashMap[AnyRef, AnyRef]()
+        val worklist = new ArrayDeque[AnyRef]()
+        var size = 0l
+
+        def schedule(o: AnyRef): Unit = {
+            if ((o ne null) && !visited.containsKey(o) && !isJVMInternal(o) && !isExcluded(o)) {
+                visited.put(o, o)
+                worklist.push(o)
+            }
+        }
+
+        schedule(root)
+        while (!worklist.isEmpty) {
+            val o = worklist.pop()
+            val clazz = o.getClass
+            if (clazz.isArray) {
+                val componentType = clazz.getComponentType
+                val length = java.lang.reflect.Array.getLength(o)
+                if (componentType.isPrimitive) {
+                    size += align(ArrayHeaderSize + length.toLong * primitiveSize(componentType))
+                } else {
+                    size += align(ArrayHeaderSize + length.toLong * ReferenceSize)
+                    val elements = o.asInstanceOf[Array[AnyRef]]
+                    var i = 0
+                    while (i < length) { schedule(elements(i)); i += 1 }
+                }
+            } else {
+                val layout = classLayout(clazz)
+                size += layout.instanceSize
+                val referenceFields = layout.referenceFields
+                var i = 0
+                while (i < referenceFields.length) {
+                    schedule(referenceFields(i).get(o))
+                    i += 1
+                }
+            }
+        }
+        size
+    }
+}
@@ -0,0 +1,118 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package collection
+package mutable
+
+import java.util.concurrent.atomic.AtomicInteger
+
+import org.scalatest.ParallelTestExecution
+import org.scalatest.Matchers
+import org.scalatest.FlatSpec
+import org.scalatest.junit.JUnitRunner
+import org.junit.runner.RunWith
+
+/**
+ * Tests the [[BoundedSoftCache]].
+ *
+ * @author Michael Eichberg
+ */
+@RunWith(classOf[JUnitRunner])
+class BoundedSoftCacheTest
+        extends FlatSpec
+        with Matchers
+        with ParallelTestExecution {
+
+    behavior of "a BoundedSoftCache"
+
+    it should "return the cached value" in {
+        val cache = new BoundedSoftCache[Integer, String](10)
+        cache.get(1) should be(None)
+        cache.getOrElseUpdate(1, "one") should be("one")
+        cache.get(1) should be(Some("one"))
+        cache.getOrElseUpdate(1, fail("the value is cached")) should be("one")
+        cache.statistics should be((2l, 2l, 0l))
+    }
+
+    it should "not store more than maxEntries values" in {
+        for (segmentsCount ← List(1, 3, 16)) {
+            val cache = new BoundedSoftCache[Integer, String](10, segmentsCount)
+            (0 until 100) foreach { i ⇒ cache.getOrElseUpdate(i, i.toString) }
+            cache.size should be <= (10)
+            val (_, _, evictions) = cache.statistics
+            evictions should be(100l - cache.size)
+        }
+    }
+
+    it should "evict the least recently used value of a segment" in {
+        val cache = new BoundedSoftCache[Integer, String](2, 1)
+        cache.getOrElseUpdate(1, "one")
+        cache.getOrElseUpdate(2, "two")
+        cache.get(1) // 2 is now the least recently used value
+        cache.getOrElseUpdate(3, "three")
+        cache.get(1) should be(Some("one"))
+        cache.get(2) should be(None)
+        cache.get(3) should be(Some("three"))
+    }
+
+    it should "be able to store maxEntries values if the keys are evenly distributed" in {
+        val cache = new BoundedSoftCache[Integer, String](32, 16)
+        (0 until 32) foreach { i ⇒ cache.getOrElseUpdate(i, i.toString) }
+        cache.size should be(32)
+        (0 until 32) foreach { i ⇒ cache.get(i) should be(Some(i.toString)) }
+    }
+
+    it should "remove single values and all values" in {
+        val cache = new BoundedSoftCache[Integer, String](10)
+        (0 until 10) foreach { i ⇒ cache.getOrElseUpdate(i, i.toString) }
+        cache.remove(5)
+        cache.get(5) should be(None)
+        cache.size should be(9)
+        cache.clear()
+        cache.size should be(0)
+    }
+
+    it should "return the same value to all threads that use it concurrently" in {
+        val cache = new BoundedSoftCache[Integer, String](1000)
+        val computations = new AtomicInteger(0)
+        val values = (0 until 8).par.flatMap { _ ⇒
+            (0 until 1000) map { i ⇒
+                cache.getOrElseUpdate(i % 100, { computations.incrementAndGet(); (i % 100).toString })
+            }
+        }
+        values.forall(v ⇒ v == cache.get(v.toInt).get) should be(true)
+        computations.get should be >= (100)
+        cache.size should be(100)
+    }
+
+    it should "reject invalid configurations" in {
+        an[IllegalArgumentException] should be thrownBy { new BoundedSoftCache[Integer, String](0) }
+        an[IllegalArgumentException] should be thrownBy { new BoundedSoftCache[Integer, String](1, 0) }
+    }
+}
@@ -49,6 +49,37 @@ class DependencyStore(
         val dependenciesOnArrayTypes: Map[VirtualSourceElement, Map[ArrayType, Set[DependencyType]]],
         val dependenciesOnBaseTypes: Map[VirtualSourceElement, Map[BaseType, Set[DependencyType]]]) {
 
+    /**
+     * Creates a new store in which the dependencies of the source elements that are
+     * defined by the removed class files are replaced by the dependencies of the
+     * added class files. (The dependencies of a source element only depend on the
+     * class file that defines the source element.)
+     *
+     * @param createDependencyExtractor The factory that was used to create the
+     *      extractor that extracted the dependencies of this store.
+     */
+    def updated(
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Traversable[ClassFile],
+        createDependencyExtractor: (DependencyProcessor) ⇒ DependencyExtractor): DependencyStore = {
+        val removedTypes: Set[ObjectType] = removedClassFiles.map(_.thisType).toSet
+        def isRetained(sourceElement: VirtualSourceElement): Boolean = {
+            sourceElement match {
+                case VirtualClass(classType)            ⇒ !removedTypes.contains(classType)
+                case VirtualField(classType, _, _)      ⇒ !removedTypes.contains(classType)
+                case VirtualMethod(declaringType, _, _) ⇒
+                    !declaringType.isObjectType ||
+                        !removedTypes.contains(declaringType.asObjectType)
+            }
+        }
+
+        val store = DependencyStore.initialize(addedClassFiles, createDependencyExtractor)
+        new DependencyStore(
+            dependencies.filter(e ⇒ isRetained(e._1)) ++ store.dependencies,
+            dependenciesOnArrayTypes.filter(e ⇒ isRetained(e._1)) ++ store.dependenciesOnArrayTypes,
+            dependenciesOnBaseTypes.filter(e ⇒ isRetained(e._1)) ++ store.dependenciesOnBaseTypes
+        )
+    }
 }
 
 object DependencyStore {
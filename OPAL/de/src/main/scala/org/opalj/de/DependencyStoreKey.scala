@@ -29,6 +29,7 @@
 package org.opalj
 package de
 
+import br.ClassFile
 import br.analyses.SomeProject
 import br.analyses.ProjectInformationKey
 
@@ -50,4 +51,16 @@ object DependencyStoreKey extends ProjectInformationKey[DependencyStore] {
     override protected def compute(project: SomeProject): DependencyStore = {
         DependencyStore.initialize(project.classFiles)
     }
+
+    /**
+     * The dependencies are extracted per class file; hence, only the dependencies
+     * of the changed class files are extracted again (see [[DependencyStore.updated]]).
+     */
+    override protected def updated(
+        store: DependencyStore,
+        project: SomeProject,
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): Option[DependencyStore] = {
+        Some(store.updated(removedClassFiles, addedClassFiles, (dp: DependencyProcessor) ⇒ new DependencyExtractor(dp)))
+    }
 }
@@ -29,6 +29,7 @@
 package org.opalj
 package de
 
+import br.ClassFile
 import br.analyses.SomeProject
 import br.analyses.ProjectInformationKey
 
@@ -48,14 +49,25 @@ object DependencyStoreWithoutSelfDependenciesKey extends ProjectInformationKey[D
 
     override protected def requirements: Seq[ProjectInformationKey[_ <: AnyRef]] = Nil
 
-    override protected def compute(project: SomeProject): DependencyStore = {
-        DependencyStore.initialize(
-            project.classFiles,
-            (dp: DependencyProcessor) ⇒
-                new DependencyExtractor(
-                    new DependencyProcessorDecorator(dp) with FilterSelfDependencies
-                )
+    private[this] def createDependencyExtractor(dp: DependencyProcessor): DependencyExtractor =
+        new DependencyExtractor(
+            new DependencyProcessorDecorator(dp) with FilterSelfDependencies
         )
+
+    override protected def compute(project: SomeProject): DependencyStore = {
+        DependencyStore.initialize(project.classFiles, createDependencyExtractor _)
+    }
+
+    /**
+     * The dependencies are extracted per class file; hence, only the dependencies
+     * of the changed class files are extracted again (see [[DependencyStore.updated]]).
+     */
+    override protected def updated(
+        store: DependencyStore,
+        project: SomeProject,
+        removedClassFiles: Iterable[ClassFile],
+        addedClassFiles: Iterable[ClassFile]): Option[DependencyStore] = {
+        Some(store.updated(removedClassFiles, addedClassFiles, createDependencyExtractor _))
     }
 }
 
@@ -0,0 +1,95 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+
+/**
+ * A (multi-threaded) microbenchmark of the interning of `ObjectType`s and `ArrayType`s.
+ *
+ * First, the time required to create the types is measured. Afterwards, each thread
+ * repeatedly looks up the (existing) types of a shared set of type names.
+ *
+ * Usage: `TypeInterningEvaluation [<number of threads> [<number of types>]]`; by
+ * default one thread per available processor and 100000 types are used.
+ *
+ * @author Michael Eichberg
+ */
+object TypeInterningEvaluation extends App {
+
+    import org.opalj.util.PerformanceEvaluation._
+
+    val threadsCount =
+        if (args.length > 0) args(0).toInt else Runtime.getRuntime().availableProcessors()
+    val typesCount = if (args.length > 1) args(1).toInt else 100000
+    val Rounds = 10
+
+    // the names are shared to make sure that all threads intern the same types
+    val fqns = Array.tabulate(typesCount) { i ⇒ "org/opalj/benchmark/p"+(i % 100)+"/C"+i }
+
+    def run(threadsCount: Int): Unit = {
+        val threads = for (t ← 0 until threadsCount) yield {
+            new Thread(new Runnable {
+                def run(): Unit = {
+                    for (round ← 1 to Rounds) {
+                        // each thread starts at a different offset to create contention
+                        // on different types
+                        var i = (t * typesCount) / threadsCount
+                        var count = 0
+                        while (count < typesCount) {
+                            val objectType = ObjectType(fqns(i))
+                            ArrayType(objectType)
+                            i = (i + 1) % typesCount
+                            count += 1
+                        }
+                    }
+                }
+            })
+        }
+        threads foreach { _.start() }
+        threads foreach { _.join() }
+    }
+
+    // keeps the types reachable to make sure that the lookups of the
+    // following runs do not have to recreate garbage collected types
+    var arrayTypes: Array[ArrayType] = null
+    time {
+        arrayTypes = fqns.map(fqn ⇒ ArrayType(ObjectType(fqn)))
+    } { t ⇒ println(f"creation of ${typesCount * 2}%d types: ${ns2sec(t)}%1.4f secs.") }
+
+    for (threads ← List(1, threadsCount)) {
+        time {
+            run(threads)
+        } { t ⇒
+            val lookups = threads.toLong * Rounds * typesCount * 2
+            println(f"$threads%3d thread(s): ${ns2sec(t)}%1.4f secs.; "+
+                f"${lookups / ns2sec(t) / 1000000}%1.2f million lookups/s")
+        }
+    }
+    println("ObjectTypes: "+ObjectType.objectTypesCount+"; retained: "+arrayTypes.length)
+}
@@ -0,0 +1,122 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package analyses
+
+import java.io.File
+
+/**
+ * A (multi-threaded) microbenchmark of the `ClassHierarchy`'s query methods.
+ *
+ * Each thread repeatedly calls `isKnown`, `getObjectType` and `isSubtypeOf` for all
+ * types of the class hierarchy while one additional thread concurrently creates new
+ * `ObjectType`s; i.e., while the class hierarchy is notified about new types.
+ *
+ * Usage: `ClassHierarchyContentionEvaluation [<JAR file> [<number of threads>]]`; if
+ * no jar file is specified the JRE's `rt.jar` is used; by default one thread per
+ * available processor is used.
+ *
+ * @author Michael Eichberg
+ */
+object ClassHierarchyContentionEvaluation extends App {
+
+    import org.opalj.util.PerformanceEvaluation._
+
+    val jarFile =
+        if (args.length > 0)
+            new File(args(0))
+        else
+            new File(System.getProperty("java.home")+"/lib/rt.jar")
+    val threadsCount =
+        if (args.length > 1) args(1).toInt else Runtime.getRuntime().availableProcessors()
+    val Rounds = 10
+
+    val project = Project(jarFile)
+    val classHierarchy = project.classHierarchy
+    val types = {
+        var types = List.empty[ObjectType]
+        classHierarchy.foreachKnownType { t ⇒ types = t :: types }
+        types.toArray
+    }
+    println(s"Loaded ${project.classFiles.size} class files; ${types.length} known types.")
+
+    def run(threadsCount: Int): Int = {
+        @volatile var done = false
+        var createdTypes = 0
+        val creator = new Thread(new Runnable {
+            def run(): Unit = {
+                while (!done) {
+                    ObjectType("org/opalj/benchmark/T"+threadsCount+"/C"+createdTypes)
+                    createdTypes += 1
+                }
+            }
+        })
+        val threads = for (t ← 0 until threadsCount) yield {
+            new Thread(new Runnable {
+                def run(): Unit = {
+                    val Serializable = ObjectType.Serializable
+                    for (round ← 1 to Rounds) {
+                        // each thread starts at a different offset
+                        var i = (t * types.length) / threadsCount
+                        var count = 0
+                        while (count < types.length) {
+                            val objectType = types(i)
+                            if (classHierarchy.isKnown(objectType)) {
+                                classHierarchy.getObjectType(objectType.id)
+                                classHierarchy.isSubtypeOf(objectType, ObjectType.Object)
+                                classHierarchy.isSubtypeOf(objectType, Serializable)
+                            }
+                            i = (i + 1) % types.length
+                            count += 1
+                        }
+                    }
+                }
+            })
+        }
+        creator.start()
+        threads foreach { _.start() }
+        threads foreach { _.join() }
+        done = true
+        creator.join()
+        createdTypes
+    }
+
+    for (threads ← List(1, threadsCount)) {
+        var createdTypes = 0
+        time {
+            createdTypes = run(threads)
+        } { t ⇒
+            val queries = threads.toLong * Rounds * types.length * 4
+            println(f"$threads%3d thread(s): ${ns2sec(t)}%1.4f secs.; "+
+                f"${queries / ns2sec(t) / 1000000}%1.2f million queries/s "+
+                f"(concurrently created types: $createdTypes%d)")
+        }
+    }
+}
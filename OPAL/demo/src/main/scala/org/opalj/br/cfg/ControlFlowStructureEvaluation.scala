@@ -0,0 +1,102 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package cfg
+
+import java.io.File
+
+import org.opalj.br.analyses.Project
+
+/**
+ * Measures the time required to compute the control-flow graphs, the dominator trees,
+ * the post-dominator trees and the loop nesting forests of all methods of a project.
+ *
+ * Each computation is first repeated several times (to warm up the JVM) and the
+ * average time of the following runs is reported.
+ *
+ * Usage: `ControlFlowStructureEvaluation [<JAR file>]`; if no jar file is specified the
+ * JRE's `rt.jar` is used.
+ *
+ * @author Michael Eichberg
+ */
+object ControlFlowStructureEvaluation extends App {
+
+    import org.opalj.util.PerformanceEvaluation._
+
+    val jarFile =
+        if (args.length > 0)
+            new File(args(0))
+        else
+            new File(System.getProperty("java.home")+"/lib/rt.jar")
+
+    val project = Project(jarFile)
+    val codes = (for {
+        classFile ← project.classFiles
+        MethodWithBody(code) ← classFile.methods
+    } yield code).toArray
+    println(s"Loaded ${codes.length} methods with a body.")
+    codes foreach { _.instructions } // make sure that the code is decoded
+
+    val WarmUpRuns = 5
+    val Runs = 10
+
+    /**
+     * Applies `f` to the index of each method's code and returns the results
+     * of the last run.
+     */
+    def measure[T: scala.reflect.ClassTag](title: String)(f: Int ⇒ T): Array[T] = {
+        var results: Array[T] = null
+        for (run ← 1 to WarmUpRuns) {
+            results = Array.tabulate(codes.length)(f)
+        }
+        var totalTime = 0l
+        for (run ← 1 to Runs) {
+            time {
+                results = Array.tabulate(codes.length)(f)
+            } { t ⇒ totalTime += t }
+        }
+        println(f"$title%-20s: ${ns2sec(totalTime / Runs)}%1.4f secs. (average)")
+        results
+    }
+
+    val cfgs = measure("CFGs")(i ⇒ CFG(codes(i)))
+    val dominatorTrees = measure("Dominator trees")(i ⇒ DominatorTree.dominators(cfgs(i)))
+    measure("Post-dominator trees")(i ⇒ DominatorTree.postDominators(cfgs(i)))
+    val forests = measure("Loop nesting forests") { i ⇒
+        LoopNestingForest(cfgs(i), dominatorTrees(i))
+    }
+
+    val blocksCount = cfgs.map(_.blocksCount.toLong).sum
+    val loopsCount = forests.map(_.loopHeaders.length.toLong).sum
+    val maxLoopDepth = forests.map { forest ⇒
+        (0 until forest.cfg.blocksCount).map(forest.loopDepth).fold(0)(Math.max)
+    }.max
+    println(s"Basic blocks: $blocksCount; loops: $loopsCount; max. loop depth: $maxLoopDepth")
+}
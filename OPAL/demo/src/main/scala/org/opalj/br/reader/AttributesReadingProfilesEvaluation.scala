@@ -0,0 +1,85 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package reader
+
+import java.io.File
+
+import org.opalj.bi.reader.AttributesReadingProfile
+
+/**
+ * Measures the time required to load the class files of a jar file and the
+ * (retained) heap for each of the predefined attributes reading profiles.
+ *
+ * Usage: `AttributesReadingProfilesEvaluation [<JAR file>]`; if no jar file is
+ * specified the JRE's `rt.jar` is used.
+ *
+ * ==Results==
+ * Loading the JDK 8 (8u392) `rt.jar` on a single core (`-Xmx6g`; third run of each
+ * profile; the profiles are evaluated in the given order, hence, the first runs of
+ * the `Full` profile also include the JIT's warm-up):
+ * {{{
+ * Profile          Load time   Heap
+ * Full             4.56 secs.  253.8 MB
+ * TypesAndCode     2.66 secs.  216.9 MB
+ * StructureOnly    1.37 secs.   70.4 MB (75.3 MB in the first run)
+ * }}}
+ *
+ * @author Michael Eichberg
+ */
+object AttributesReadingProfilesEvaluation extends App {
+
+    import org.opalj.util.PerformanceEvaluation._
+
+    val jarFile =
+        if (args.length > 0)
+            new File(args(0))
+        else
+            new File(System.getProperty("java.home")+"/lib/rt.jar")
+
+    val profiles = List(
+        AttributesReadingProfile.Full,
+        AttributesReadingProfile.TypesAndCode,
+        AttributesReadingProfile.StructureOnly
+    )
+
+    val Runs = 3
+
+    for (profile ← profiles) {
+        val reader = new Java8FrameworkWithProfile(profile)
+        for (run ← 1 to Runs) {
+            memory {
+                time {
+                    reader.ClassFiles(jarFile)
+                } { t ⇒ println(f"${profile.name}%-14s - $run: load time: ${ns2sec(t)}%1.4f secs.") }
+            } { mu ⇒ println(f"${profile.name}%-14s - $run: heap: ${asMB(mu)}") }
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package reader
+
+import java.io.{ File, DataInputStream, ByteArrayInputStream }
+import java.nio.ByteBuffer
+import java.util.zip.ZipFile
+import scala.collection.JavaConversions._
+
+/**
+ * Compares the performance of reading class files using a `DataInputStream` with
+ * the performance of reading class files using a `ByteBuffer`. Afterwards, the
+ * jar file is read using the [[org.opalj.bi.reader.ClassFilesPipeline]] and the
+ * statistics of each stage are printed.
+ *
+ * Usage: `ClassFileReaderEvaluation [<JAR file>]`; if no jar file is specified the
+ * JRE's `rt.jar` is used.
+ *
+ * @author Michael Eichberg
+ */
+object ClassFileReaderEvaluation extends App {
+
+    import org.opalj.util.PerformanceEvaluation._
+
+    val jarFile =
+        if (args.length > 0)
+            new File(args(0))
+        else
+            new File(System.getProperty("java.home")+"/lib/rt.jar")
+
+    val classFiles: List[Array[Byte]] = process(new ZipFile(jarFile)) { zipFile ⇒
+        zipFile.entries.filter(_.getName.endsWith(".class")).map { entry ⇒
+            val data = new Array[Byte](entry.getSize.toInt)
+            process(new DataInputStream(zipFile.getInputStream(entry))) { _.readFully(data) }
+            data
+        }.toList
+    }
+    println(s"Loaded ${classFiles.size} class files (${asMB(classFiles.map(_.length.toLong).sum)}).")
+
+    val Runs = 5
+
+    for (run ← 1 to Runs) {
+        time {
+            classFiles foreach { data ⇒
+                Java8LibraryFramework.ClassFile(() ⇒ new ByteArrayInputStream(data))
+            }
+        } { t ⇒ println(f"$run: DataInputStream: ${ns2sec(t)}%1.4f secs.") }
+
+        time {
+            classFiles foreach { data ⇒
+                Java8LibraryFramework.ClassFile(ByteBuffer.wrap(data))
+            }
+        } { t ⇒ println(f"$run: ByteBuffer:      ${ns2sec(t)}%1.4f secs.") }
+    }
+
+    val statistics = Java8LibraryFramework.AllClassFiles(
+        List(jarFile),
+        (classFile: ClassFile, url: java.net.URL) ⇒ { /* nothing to do */ },
+        (e: Exception) ⇒ e.printStackTrace(),
+        Java8LibraryFramework.pipelineConfiguration
+    )
+    println(statistics)
+}
@@ -0,0 +1,88 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package reader
+
+import java.io.File
+
+/**
+ * Compares the heap that is required to represent the class files of the JDK and of
+ * the given libraries when the class files are read using the [[Java8Framework]]
+ * and when they are read using the [[Java8FrameworkWithCaching]]; the latter shares
+ * equal field access and method invocation instructions as well as equal method
+ * descriptors across all class files.
+ *
+ * Usage: `InstructionsDeduplicationEvaluation [<JAR file or folder>*]`; the JRE's
+ * `rt.jar` is always analyzed.
+ *
+ * ==Results==
+ * Reading the JDK 8 (8u392) `rt.jar` and the Scala 2.11.12 library, compiler and
+ * reflection jars as well as ScalaTest 2.2.1 (39715 class files in total) requires
+ * 542MB of heap using the [[Java8Framework]] and 448MB using the
+ * [[Java8FrameworkWithCaching]]. 1842340 instances are shared; e.g., 646157
+ * `invokevirtual` instructions are represented by 105134 instances and 559464
+ * method descriptors by 59305 instances.
+ *
+ * @author Michael Eichberg
+ */
+object InstructionsDeduplicationEvaluation extends App {
+
+    import org.opalj.util.PerformanceEvaluation._
+
+    val files =
+        new File(System.getProperty("java.home")+"/lib/rt.jar") :: args.map(new File(_)).toList
+
+    var classFiles: Seq[(ClassFile, java.net.URL)] = null
+
+    memory {
+        classFiles = Java8Framework.AllClassFiles(files)
+    } { mu ⇒
+        println(s"Java8Framework: ${classFiles.size} class files; heap: ${mu / 1024 / 1024}MB")
+    }
+    classFiles = null
+
+    val cache = new BytecodeInstructionsCache
+    val reader = new Java8FrameworkWithCaching(cache)
+    memory {
+        classFiles = reader.AllClassFiles(files)
+    } { mu ⇒
+        println(s"Java8FrameworkWithCaching: ${classFiles.size} class files; "+
+            s"heap: ${mu / 1024 / 1024}MB")
+    }
+
+    println("Deduplication (requested instances ⇒ unique instances):")
+    var savedInstances = 0l
+    for ((kind, (requested, unique)) ← cache.deduplicationStatistics) {
+        savedInstances += requested - unique
+        val reuse = if (requested > 0) (requested - unique) * 100.0d / requested else 0.0d
+        println(f"\t$kind%-16s: $requested%10d ⇒ $unique%8d ($reuse%5.1f%% shared)")
+    }
+    println(s"Instances saved: $savedInstances")
+}
@@ -0,0 +1,111 @@
+/* BSD 2-Clause License:
+ * Copyright (c) 2009 - 2014
+ * Software Technology Group
+ * Department of Computer Science
+ * Technische Universität Darmstadt
+ * All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions are met:
+ *
+ *  - Redistributions of source code must retain the above copyright notice,
+ *    this list of conditions and the following disclaimer.
+ *  - Redistributions in binary form must reproduce the above copyright notice,
+ *    this list of conditions and the following disclaimer in the documentation
+ *    and/or other materials provided with the distribution.
+ * 
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT LIMITED TO, THE
+ * IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR A PARTICULAR PURPOSE
+ * ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE) 
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+package org.opalj
+package br
+package reader
+
+import java.io.File
+
+/**
+ * Compares the throughput of the hand-written [[SignatureParser]] with the throughput
+ * of the [[CombinatorSignatureParser]] and checks that both parsers create the same
+ * signatures.
+ *
+ * The (raw) signature strings are collected from the class files' constant pools
+ * using the disassembler's class file reader.
+ *
+ * Usage: `SignatureParserEvaluation [<JAR file>]`; if no jar file is specified the
+ * JRE's `rt.jar` is used.
+ *
+ * @author Michael Eichberg
+ */
+object SignatureParserEvaluation extends App {
+
+    import org.opalj.util.PerformanceEvaluation._
+
+    val jarFile =
+        if (args.length > 0)
+            new File(args(0))
+        else
+            new File(System.getProperty("java.home")+"/lib/rt.jar")
+
+    var classSignatures = List.empty[String]
+    var fieldTypeSignatures = List.empty[String]
+    var methodTypeSignatures = List.empty[String]
+    for ((classFile, _) ← da.ClassFileReader.ClassFiles(jarFile)) {
+        val cp = classFile.constant_pool
+        def signatures(attributes: Seq[da.Attribute]): Seq[String] =
+            attributes collect { case da.Signature_attribute(_, index) ⇒ cp(index).asString }
+        classSignatures :::= signatures(classFile.attributes).toList
+        classFile.fields foreach { f ⇒ fieldTypeSignatures :::= signatures(f.attributes).toList }
+        classFile.methods foreach { m ⇒ methodTypeSignatures :::= signatures(m.attributes).toList }
+    }
+    val signaturesCount =
+        classSignatures.size + fieldTypeSignatures.size + methodTypeSignatures.size
+    println(s"Collected $signaturesCount signatures "+
+        s"(class: ${classSignatures.size}; field: ${fieldTypeSignatures.size}; "+
+        s"method: ${methodTypeSignatures.size}).")
+
+    val differences =
+        classSignatures.count { s ⇒
+            SignatureParser.parseClassSignature(s) !=
+                CombinatorSignatureParser.parseClassSignature(s)
+        } +
+            fieldTypeSignatures.count { s ⇒
+                SignatureParser.parseFieldTypeSignature(s) !=
+                    CombinatorSignatureParser.parseFieldTypeSignature(s)
+            } +
+            methodTypeSignatures.count { s ⇒
+                SignatureParser.parseMethodTypeSignature(s) !=
+                    CombinatorSignatureParser.parseMethodTypeSignature(s)
+            }
+    println(s"Signatures parsed differently: $differences")
+
+    val Runs = 10
+
+    for (run ← 1 to Runs) {
+        time {
+            classSignatures foreach CombinatorSignatureParser.parseClassSignature
+            fieldTypeSignatures foreach CombinatorSignatureParser.parseFieldTypeSignature
+            methodTypeSignatures foreach CombinatorSignatureParser.parseMethodTypeSignature
+        } { t ⇒
+            println(f"$run: combinator parser:  ${ns2sec(t)}%1.4f secs.; "+
+                f"${signaturesCount / ns2sec(t)}%1.0f signatures/s")
+        }
+
+        time {
+            classSignatures foreach SignatureParser.parseClassSignature
+            fieldTypeSignatures foreach SignatureParser.parseFieldTypeSignature
+            methodTypeSignatures foreach SignatureParser.parseMethodTypeSignature
+        } { t ⇒
+            println(f"$run: hand-written parser: ${ns2sec(t)}%1.4f secs.; "+
+                f"${signaturesCount / ns2sec(t)}%1.0f signatures/s")
+        }
+    }
+}